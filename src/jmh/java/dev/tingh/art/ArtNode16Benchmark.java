@@ -0,0 +1,104 @@
+package dev.tingh.art;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Child lookup in a single Node16, ArtNode16Vector and ArtNode16Swar against ArtNode16Linear and
+ * ArtNode16BinarySearch.
+ *
+ * Each invocation looks up a batch of random node indexes in a node holding count children, about half of them
+ * present, reported per lookup. The gradle jmh task adds the jdk.incubator.vector module, which the forks inherit,
+ * and vectorScalarFallback forks without it to measure the fallback of ArtNode16Vector.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArtNode16Benchmark {
+
+    private static final int LOOKUPS = 1024;
+
+    @Param({"8", "16"})
+    public int count;
+
+    private final IArtNode<String> linear = new ArtNode16Linear<>(0);
+    private final IArtNode<String> binarySearch = new ArtNode16BinarySearch<>(0);
+    private final IArtNode<String> vector = new ArtNode16Vector<>(0);
+    private final IArtNode<String> swar = new ArtNode16Swar<>(0);
+
+    private final long[] keys = new long[LOOKUPS];
+
+    @Setup
+    public void setup() {
+        Random random = new Random(190880900);
+        // The children are every other index of a random run, so half the lookups in the run miss.
+        int start = random.nextInt(256 - 2 * count);
+        for (int i = 0; i < count; i++) {
+            long key = start + 2 * i;
+            linear.put(key, "value");
+            binarySearch.put(key, "value");
+            vector.put(key, "value");
+            swar.put(key, "value");
+        }
+        for (int i = 0; i < LOOKUPS; i++) {
+            keys[i] = start + random.nextInt(2 * count);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int linear() {
+        return lookup(linear);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int binarySearch() {
+        return lookup(binarySearch);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int vector() {
+        return lookup(vector);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int swar() {
+        return lookup(swar);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    @Fork(value = 1, jvmArgs = "-Xmx1g")
+    public int vectorScalarFallback() {
+        return lookup(vector);
+    }
+
+    private int lookup(IArtNode<String> node) {
+        int found = 0;
+        for (long key : keys) {
+            if (node.get(key) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,80 @@
+package dev.tingh.art;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Child lookup in Node4s, ArtNode4Swar with its sorted keys packed in a long and its children in an array, against
+ * ArtNode4 with its keys packed in an int and its children in fields.
+ *
+ * The lookups spread over many full nodes, so that as in a tree a node is often not in the cache and the children
+ * array of ArtNode4Swar is a second miss. Half the lookups find a child.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArtNode4Benchmark {
+
+    private static final int NODES = 1 << 20;
+    private static final int LOOKUPS = 1024;
+
+    private final IArtNode<String>[] arrayNodes = new IArtNode[NODES];
+    private final IArtNode<String>[] swarNodes = new IArtNode[NODES];
+
+    private final int[] nodeIndexes = new int[LOOKUPS];
+    private final long[] keys = new long[LOOKUPS];
+
+    @Setup
+    public void setup() {
+        Random random = new Random(190880900);
+        for (int i = 0; i < NODES; i++) {
+            arrayNodes[i] = new ArtNode4<>(0);
+            swarNodes[i] = new ArtNode4Swar<>(0);
+            for (int key = 0; key < 8; key += 2) {
+                arrayNodes[i].put(key, "value");
+                swarNodes[i].put(key, "value");
+            }
+        }
+        for (int i = 0; i < LOOKUPS; i++) {
+            nodeIndexes[i] = random.nextInt(NODES);
+            keys[i] = random.nextInt(8);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int array() {
+        return lookup(arrayNodes);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int swar() {
+        return lookup(swarNodes);
+    }
+
+    private int lookup(IArtNode<String>[] nodes) {
+        int found = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            if (nodes[nodeIndexes[i]].get(keys[i]) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,87 @@
+package dev.tingh.art;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ordered navigation within the wide nodes, ArtNode48 and ArtNode256, which find the ceiling and floor children from
+ * a 256 bit occupancy bitmap.
+ *
+ * ceiling and floor look up the ceiling or floor index of a random index, and iterate steps through every child in
+ * order with getCeilingIndex, reported per pass. The children are spread evenly over the node indexes, so with few
+ * children the index scans the bitmaps replaced went furthest.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArtNodeNavigationBenchmark {
+
+    private static final int LOOKUPS = 1024;
+
+    @Param({"ArtNode48", "ArtNode256"})
+    public ArtNodeType nodeType;
+
+    @Param({"4", "17", "48"})
+    public int children;
+
+    private IArtNode<String> node;
+
+    private final int[] nodeIndexes = new int[LOOKUPS];
+
+    @Setup
+    public void setup() {
+        node = nodeType == ArtNodeType.ArtNode48 ? new ArtNode48<>(0) : new ArtNode256<>(0);
+        for (int i = 0; i < children; i++) {
+            node.put(i * 256 / children, "value");
+        }
+        Random random = new Random(190880900);
+        for (int i = 0; i < LOOKUPS; i++) {
+            nodeIndexes[i] = random.nextInt(256);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int ceiling() {
+        int sum = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            sum += node.getCeilingIndex(nodeIndexes[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int floor() {
+        int sum = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            sum += node.getFloorIndex(nodeIndexes[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int iterate() {
+        int sum = 0;
+        for (int index = node.getCeilingIndex(0); index != -1; index = node.getCeilingIndex(index + 1)) {
+            sum += index;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,98 @@
+package dev.tingh.art;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Memory and lookup time of BucketLongARTree at bucket sizes from 32 to 128, against LongARTree as bucket size 0.
+ *
+ * footprint reports the bytes per key of the tree measured with JOL, as LongARTreeFootprintBenchmark does, and get
+ * the average time of a lookup of a random key present in the tree, over a batch of them. Both trees are built by
+ * puts of the keys in the order the distribution generates them.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class BucketLongARTreeBenchmark {
+
+    private static final int BATCH = 4096;
+    private static final String VALUE = "value";
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+        public double bytesPerKey;
+    }
+
+    @Param({"1000000", "10000000"})
+    public int size;
+
+    @Param({"RANDOM", "CLUSTERED", "SEQUENTIAL"})
+    public KeyDistribution distribution;
+
+    @Param({"0", "32", "64", "128"})
+    public int bucketSize;
+
+    private final Random random = new Random(190880900);
+
+    private ILongARTree<String> tree;
+    private long[] keys;
+
+    private long[] batchKeys;
+    private final String[] out = new String[BATCH];
+
+    @Setup
+    public void setup() {
+        keys = distribution.generate(size, 190880900);
+        tree = bucketSize == 0 ? new LongARTree<>() : new BucketLongARTree<>(bucketSize);
+        for (long key : keys) {
+            tree.put(key, VALUE);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setupBatch() {
+        batchKeys = new long[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            batchKeys[i] = keys[random.nextInt(keys.length)];
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @OperationsPerInvocation(BATCH)
+    public String[] get() {
+        for (int i = 0; i < BATCH; i++) {
+            out[i] = tree.get(batchKeys[i]);
+        }
+        return out;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public long footprint(Footprint footprint) {
+        long bytes = GraphLayout.parseInstance(tree).totalSize();
+        footprint.bytesPerKey = (double) bytes / size;
+        return bytes;
+    }
+}
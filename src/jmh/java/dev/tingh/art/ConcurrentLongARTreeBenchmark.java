@@ -0,0 +1,115 @@
+package dev.tingh.art;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Throughput of ConcurrentLongARTree and StripedLongARTree against a LongARTree guarded by a ReentrantReadWriteLock,
+ * under mixes of reads and writes.
+ *
+ * Each operation is a get with probability readPercent, and otherwise a put or a remove of a key drawn from a pool
+ * twice the size of the tree, so the size stays about the same. Vary the threads with -t, e.g.
+ * gradle jmh -PjmhArgs="ConcurrentLongARTreeBenchmark -t 8 -p readPercent=95".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class ConcurrentLongARTreeBenchmark {
+
+    private static final String VALUE = "value";
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"100", "95", "80", "50"})
+    public int readPercent;
+
+    @Param({"RANDOM", "SEQUENTIAL"})
+    public KeyDistribution distribution;
+
+    private long[] keys;
+
+    private ConcurrentLongARTree<String> concurrentTree;
+    private StripedLongARTree<String> stripedTree;
+
+    private LongARTree<String> lockedTree;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Setup
+    public void setup() {
+        keys = distribution.generate(2 * size, 190880900);
+        concurrentTree = new ConcurrentLongARTree<>();
+        stripedTree = new StripedLongARTree<>();
+        lockedTree = new LongARTree<>();
+        for (int i = 0; i < keys.length; i += 2) {
+            concurrentTree.put(keys[i], VALUE);
+            stripedTree.put(keys[i], VALUE);
+            lockedTree.put(keys[i], VALUE);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private final SplittableRandom random = new SplittableRandom(Thread.currentThread().getId());
+    }
+
+    @Benchmark
+    public String concurrentTree(ThreadState state) {
+        long key = keys[state.random.nextInt(keys.length)];
+        int operation = state.random.nextInt(200);
+        if (operation < 2 * readPercent) {
+            return concurrentTree.get(key);
+        } else if ((operation & 1) == 0) {
+            return concurrentTree.put(key, VALUE);
+        }
+        return concurrentTree.remove(key);
+    }
+
+    @Benchmark
+    public String stripedTree(ThreadState state) {
+        long key = keys[state.random.nextInt(keys.length)];
+        int operation = state.random.nextInt(200);
+        if (operation < 2 * readPercent) {
+            return stripedTree.get(key);
+        } else if ((operation & 1) == 0) {
+            return stripedTree.put(key, VALUE);
+        }
+        return stripedTree.remove(key);
+    }
+
+    @Benchmark
+    public String readWriteLockedTree(ThreadState state) {
+        long key = keys[state.random.nextInt(keys.length)];
+        int operation = state.random.nextInt(200);
+        if (operation < 2 * readPercent) {
+            lock.readLock().lock();
+            try {
+                return lockedTree.get(key);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            return (operation & 1) == 0 ? lockedTree.put(key, VALUE) : lockedTree.remove(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
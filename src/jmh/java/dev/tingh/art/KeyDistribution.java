@@ -0,0 +1,82 @@
+package dev.tingh.art;
+
+import java.util.Random;
+
+public enum KeyDistribution {
+
+    // 0, 1, 2, ... fills every leaf node to 256 entries.
+    SEQUENTIAL {
+        @Override
+        long key(int i, long previous, Random random) {
+            return i;
+        }
+    },
+
+    // Unique keys spread uniformly over the full 64-bit range.
+    RANDOM {
+        @Override
+        long key(int i, long previous, Random random) {
+            return mix(i);
+        }
+    },
+
+    // Runs of 1024 nearby keys (small random gaps) starting at random bases.
+    CLUSTERED {
+        @Override
+        long key(int i, long previous, Random random) {
+            long gap = 1 + random.nextInt(16);
+            if (i % 1024 == 0) {
+                return (mix(i >>> 10) & 0xFFFFFFFFFFF00000L) + gap;
+            }
+            return previous + gap;
+        }
+    },
+
+    // Ascending keys whose gaps follow a Zipf distribution, many small gaps and a heavy tail of large ones.
+    ZIPF {
+        @Override
+        long key(int i, long previous, Random random) {
+            return previous + zipfGap(random);
+        }
+    },
+
+    // Keys that only differ in their upper 32 bits, so the lower levels are all single entry chains.
+    SPARSE_HIGH_BIT {
+        @Override
+        long key(int i, long previous, Random random) {
+            return (long) (i * 0x9E3779B1) << 32;
+        }
+    };
+
+    private static final double ZIPF_EXPONENT = 1.2;
+    private static final int ZIPF_MAX_GAP = 1 << 20;
+
+    abstract long key(int i, long previous, Random random);
+
+    public long[] generate(int size, long seed) {
+        Random random = new Random(seed);
+        long[] keys = new long[size];
+        long previous = 0;
+        for (int i = 0; i < size; i++) {
+            keys[i] = key(i, previous, random);
+            previous = keys[i];
+        }
+        return keys;
+    }
+
+    // The SplitMix64 finaliser, a bijection so distinct inputs give distinct keys.
+    static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Inverse transform sampling of a bounded power law, P(gap = g) ~ g^-s for 1 <= g <= ZIPF_MAX_GAP.
+    private static long zipfGap(Random random) {
+        double u = random.nextDouble();
+        double a = 1 - ZIPF_EXPONENT;
+        double max = Math.pow(ZIPF_MAX_GAP, a);
+        return (long) Math.pow(1 + u * (max - 1), 1 / a);
+    }
+}
@@ -0,0 +1,70 @@
+package dev.tingh.art;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building a tree from sorted keys with bulkLoad against a loop of puts over the same sorted keys.
+ *
+ * The put loop grows every node through the smaller types and walks down from the root for each key, bulkLoad
+ * creates each node once at its final type in a single pass. The 100M size needs a large heap, e.g.
+ * -jvmArgsAppend -Xmx16g, or restrict the run with -p size=...
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class LongARTreeBulkLoadBenchmark {
+
+    private static final String VALUE = "value";
+
+    @Param({"10000000", "100000000"})
+    public int size;
+
+    @Param({"SEQUENTIAL", "RANDOM"})
+    public KeyDistribution distribution;
+
+    private long[] keys;
+    private String[] values;
+
+    @Setup
+    public void setup() {
+        keys = distribution.generate(size, 190880900);
+        Arrays.sort(keys);
+        values = new String[size];
+        Arrays.fill(values, VALUE);
+    }
+
+    @Benchmark
+    public LongARTree<String> put() {
+        LongARTree<String> tree = new LongARTree<>();
+        for (long key : keys) {
+            tree.put(key, VALUE);
+        }
+        return tree;
+    }
+
+    @Benchmark
+    public LongARTree<String> bulkLoad() {
+        return LongARTree.bulkLoad(keys, values);
+    }
+
+    @Benchmark
+    public LongARTree<String> bulkLoadIterator() {
+        return LongARTree.bulkLoad(Arrays.stream(keys).iterator(), Arrays.asList(values).iterator());
+    }
+}
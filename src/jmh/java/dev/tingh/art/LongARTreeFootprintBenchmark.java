@@ -0,0 +1,78 @@
+package dev.tingh.art;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bytes per key of the nodes of a LongARTree, measured with JOL by walking the object graph of the tree.
+ *
+ * Every key maps to the same value object, so the bytes counted are those of the nodes and their arrays. The
+ * bytes and bytesPerKey counters are reported, and run with -p printLayout=true to print the instance count and
+ * size of each class. The 100M size needs a large heap, e.g. -jvmArgsAppend -Xmx32g.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class LongARTreeFootprintBenchmark {
+
+    private static final String VALUE = "value";
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+        public long bytes;
+        public double bytesPerKey;
+    }
+
+    @Param({"SEQUENTIAL", "RANDOM"})
+    public KeyDistribution distribution;
+
+    @Param({"1000000", "10000000", "100000000"})
+    public int size;
+
+    @Param({"false"})
+    public boolean printLayout;
+
+    private LongARTree<String> tree;
+
+    @Setup
+    public void setup() {
+        long[] keys = distribution.generate(size, 190880900);
+        Arrays.sort(keys);
+        String[] values = new String[keys.length];
+        Arrays.fill(values, VALUE);
+        // Built by puts rather than bulkLoad, so the node types are those grown and shrunk in normal use.
+        tree = new LongARTree<>();
+        for (int i = 0; i < keys.length; i++) {
+            tree.put(keys[i], values[i]);
+        }
+    }
+
+    @Benchmark
+    public long footprint(Footprint footprint) {
+        GraphLayout layout = GraphLayout.parseInstance(tree);
+        footprint.bytes = layout.totalSize();
+        footprint.bytesPerKey = (double) footprint.bytes / size;
+        if (printLayout) {
+            System.out.println(layout.toFootprint());
+        }
+        return footprint.bytes;
+    }
+}
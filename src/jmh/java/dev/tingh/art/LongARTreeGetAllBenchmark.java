@@ -0,0 +1,99 @@
+package dev.tingh.art;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batched lookups with getAll against a loop of get, over a batch of keys present in a tree of size keys.
+ *
+ * getAllSorted passes the batch already in ascending order, getAll has it sort the positions first. The batch
+ * is drawn afresh for each iteration, CLUSTERED keys share their upper bytes so the batch shares more of its path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LongARTreeGetAllBenchmark {
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"RANDOM", "CLUSTERED"})
+    public KeyDistribution distribution;
+
+    @Param({"16", "256", "4096", "65536"})
+    public int batch;
+
+    private final Random random = new Random(190880900);
+
+    private LongARTree<Long> tree;
+    private long[] keys;
+
+    private long[] batchKeys;
+    private long[] sortedBatchKeys;
+    private Long[] out;
+
+    @Setup
+    public void setup() {
+        keys = distribution.generate(size, 190880900);
+        tree = new LongARTree<>();
+        for (long key : keys) {
+            tree.put(key, (Long) key);
+        }
+        out = new Long[batch];
+    }
+
+    @Setup(Level.Iteration)
+    public void setupBatch() {
+        batchKeys = new long[batch];
+        for (int i = 0; i < batch; i++) {
+            batchKeys[i] = keys[random.nextInt(keys.length)];
+        }
+        sortedBatchKeys = batchKeys.clone();
+        Arrays.sort(sortedBatchKeys);
+    }
+
+    @Benchmark
+    public Long[] get() {
+        for (int i = 0; i < batchKeys.length; i++) {
+            out[i] = tree.get(batchKeys[i]);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public Long[] getAll() {
+        tree.getAll(batchKeys, out);
+        return out;
+    }
+
+    @Benchmark
+    public Long[] getSorted() {
+        for (int i = 0; i < sortedBatchKeys.length; i++) {
+            out[i] = tree.get(sortedBatchKeys[i]);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public Long[] getAllSorted() {
+        tree.getAll(sortedBatchKeys, out);
+        return out;
+    }
+}
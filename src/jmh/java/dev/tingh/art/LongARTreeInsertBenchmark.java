@@ -0,0 +1,64 @@
+package dev.tingh.art;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert heavy workload, each invocation builds a tree from size 64-bit keys of the distribution.
+ *
+ * Random keys grow and branch nodes throughout the insert, so this tracks the cost of replacing nodes. Sequential
+ * keys fill their ranges densely, so they also track the cost of turning those ranges into dense leaves.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LongARTreeInsertBenchmark {
+
+    private static final String VALUE = "value";
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    @Param({"RANDOM", "SEQUENTIAL"})
+    public KeyDistribution distribution;
+
+    private long[] keys;
+
+    @Setup
+    public void setup() {
+        keys = distribution.generate(size, 190880900);
+    }
+
+    @Benchmark
+    public LongARTree<String> insert() {
+        LongARTree<String> tree = new LongARTree<>();
+        for (long key : keys) {
+            tree.put(key, VALUE);
+        }
+        return tree;
+    }
+
+    // Inserts then removes every key, growing and then shrinking the nodes back down.
+    @Benchmark
+    public LongARTree<String> insertRemove() {
+        LongARTree<String> tree = insert();
+        for (long key : keys) {
+            tree.remove(key);
+        }
+        return tree;
+    }
+}
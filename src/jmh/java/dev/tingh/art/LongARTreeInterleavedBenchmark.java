@@ -0,0 +1,85 @@
+package dev.tingh.art;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup throughput of getAllInterleaved against a loop of get, on trees much larger than the last level cache.
+ *
+ * Each invocation looks up a batch of random keys present in the tree, reported per key. With random keys the
+ * path of each lookup is cold, so the loop of get pays its misses one after another while getAllInterleaved
+ * overlaps those of a group. The 100M size needs a large heap, e.g. -jvmArgsAppend -Xmx24g.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx24g")
+public class LongARTreeInterleavedBenchmark {
+
+    private static final int BATCH = 4096;
+
+    @Param({"10000000", "100000000"})
+    public int size;
+
+    @Param({"8", "16", "32"})
+    public int groupSize;
+
+    private final Random random = new Random(190880900);
+
+    private LongARTree<String> tree;
+    private long[] keys;
+
+    private long[] batchKeys;
+    private final String[] out = new String[BATCH];
+
+    @Setup
+    public void setup() {
+        keys = KeyDistribution.RANDOM.generate(size, 190880900);
+        String[] values = new String[size];
+        Arrays.fill(values, "value");
+        long[] sortedKeys = keys.clone();
+        Arrays.sort(sortedKeys);
+        tree = LongARTree.bulkLoad(sortedKeys, values);
+    }
+
+    @Setup(Level.Iteration)
+    public void setupBatch() {
+        batchKeys = new long[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            batchKeys[i] = keys[random.nextInt(keys.length)];
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public String[] get() {
+        for (int i = 0; i < BATCH; i++) {
+            out[i] = tree.get(batchKeys[i]);
+        }
+        return out;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public String[] getAllInterleaved() {
+        tree.getAllInterleaved(batchKeys, out, groupSize);
+        return out;
+    }
+}
@@ -0,0 +1,75 @@
+package dev.tingh.art;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scaling of parallelLoad over unsorted keys with the number of threads in its ForkJoinPool.
+ *
+ * put is the single threaded baseline, a loop of puts over the same keys. Set threads to the core counts of the
+ * machine, e.g. -p threads=1,2,4,8,16,32, the speedup is bounded by the cores available.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class LongARTreeParallelLoadBenchmark {
+
+    private static final String VALUE = "value";
+
+    @Param({"10000000"})
+    public int size;
+
+    @Param({"RANDOM", "CLUSTERED"})
+    public KeyDistribution distribution;
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    public int threads;
+
+    private long[] keys;
+    private String[] values;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        keys = distribution.generate(size, 190880900);
+        values = new String[size];
+        Arrays.fill(values, VALUE);
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public LongARTree<String> put() {
+        LongARTree<String> tree = new LongARTree<>();
+        for (long key : keys) {
+            tree.put(key, VALUE);
+        }
+        return tree;
+    }
+
+    @Benchmark
+    public LongARTree<String> parallelLoad() {
+        return LongARTree.parallelLoad(keys, values, pool);
+    }
+}
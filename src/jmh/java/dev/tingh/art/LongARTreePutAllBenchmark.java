@@ -0,0 +1,91 @@
+package dev.tingh.art;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applying a sorted write batch with putAll against a loop of put, into a tree already holding size keys.
+ *
+ * Half of the batch replaces values of keys in the tree and half adds new keys. The tree is rebuilt before each
+ * invocation, so each one merges into the same tree.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class LongARTreePutAllBenchmark {
+
+    private static final String VALUE = "value";
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"RANDOM", "CLUSTERED"})
+    public KeyDistribution distribution;
+
+    @Param({"10000", "100000", "1000000"})
+    public int batch;
+
+    private long[] keys;
+    private String[] values;
+
+    private long[] batchKeys;
+    private String[] batchValues;
+
+    private LongARTree<String> tree;
+
+    @Setup
+    public void setup() {
+        // Every other key goes in the tree, the batch takes keys from both halves.
+        long[] generated = distribution.generate(2 * size, 190880900);
+        Arrays.sort(generated);
+        keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = generated[2 * i];
+        }
+        values = new String[size];
+        Arrays.fill(values, VALUE);
+
+        int step = generated.length / batch;
+        batchKeys = new long[batch];
+        for (int i = 0; i < batch; i++) {
+            batchKeys[i] = generated[i * step + (i & 1)];
+        }
+        batchValues = new String[batch];
+        Arrays.fill(batchValues, "batch");
+    }
+
+    @Setup(Level.Invocation)
+    public void setupTree() {
+        tree = LongARTree.bulkLoad(keys, values);
+    }
+
+    @Benchmark
+    public LongARTree<String> put() {
+        for (int i = 0; i < batchKeys.length; i++) {
+            tree.put(batchKeys[i], batchValues[i]);
+        }
+        return tree;
+    }
+
+    @Benchmark
+    public LongARTree<String> putAll() {
+        tree.putAll(batchKeys, batchValues);
+        return tree;
+    }
+}
@@ -0,0 +1,81 @@
+package dev.tingh.art;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full ordered scans, a LongARTreeCursor against iterating the entries of a TreeMap.
+ *
+ * Run with -prof gc to confirm the cursor allocates nothing per entry.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LongARTreeScanBenchmark {
+
+    private static final String VALUE = "value";
+
+    @Param({"SEQUENTIAL", "RANDOM"})
+    public KeyDistribution distribution;
+
+    @Param({"1000000"})
+    public int size;
+
+    private LongARTree<String> tree;
+    private LongARTreeCursor<String> cursor;
+    private TreeMap<Long, String> treeMap;
+
+    @Setup
+    public void setup() {
+        tree = new LongARTree<>();
+        treeMap = new TreeMap<>();
+        for (long key : distribution.generate(size, 190880900)) {
+            tree.put(key, VALUE);
+            treeMap.put(key, VALUE);
+        }
+        cursor = tree.cursor();
+    }
+
+    @Benchmark
+    public long cursorForward() {
+        long sum = 0;
+        for (boolean positioned = cursor.first(); positioned; positioned = cursor.next()) {
+            sum += cursor.key();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long cursorReverse() {
+        long sum = 0;
+        for (boolean positioned = cursor.last(); positioned; positioned = cursor.prev()) {
+            sum += cursor.key();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long treeMapForward() {
+        long sum = 0;
+        for (Map.Entry<Long, String> entry : treeMap.entrySet()) {
+            sum += entry.getKey();
+        }
+        return sum;
+    }
+}
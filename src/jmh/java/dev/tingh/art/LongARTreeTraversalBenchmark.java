@@ -0,0 +1,95 @@
+package dev.tingh.art;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static dev.tingh.art.ArtNodes.inNode;
+
+/**
+ * Per-lookup latency of the loop based LongARTree.get against the previous self-recursive descent.
+ *
+ * Every byte of the keys takes one of fanout values, so every lookup passes through a node at each
+ * of the 8 depths: fanout 2 gives 256 keys, 4 gives 65,536 and 6 gives 1,679,616.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LongARTreeTraversalBenchmark {
+
+    private static final int PROBES = 1 << 16;
+
+    @Param({"2", "4", "6"})
+    public int fanout;
+
+    private LongARTree<String> tree;
+
+    private final long[] probes = new long[PROBES];
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        tree = new LongARTree<>();
+
+        int size = (int) Math.pow(fanout, 8);
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            long key = 0;
+            int digits = i;
+            for (int depth = 0; depth < 8; depth++) {
+                key |= (long) (digits % fanout * (256 / fanout)) << (depth * 8);
+                digits /= fanout;
+            }
+            keys[i] = key;
+            tree.put(key, String.valueOf(key));
+        }
+
+        Random random = new Random(190880900);
+        for (int i = 0; i < PROBES; i++) {
+            probes[i] = keys[random.nextInt(size)];
+        }
+    }
+
+    private long next() {
+        index = (index + 1) & (PROBES - 1);
+        return probes[index];
+    }
+
+    @Benchmark
+    public String iterativeGet() {
+        return tree.get(next());
+    }
+
+    @Benchmark
+    public String recursiveGet() {
+        return recursiveGet(tree.getRoot(), next());
+    }
+
+    // The descent LongARTree.get used before it was rewritten as a loop.
+    private static String recursiveGet(IArtNode<String> node, long key) {
+        if (node == null) {
+            return null;
+        } else if (node.getDepth() == 0) {
+            return (String) node.get(key);
+        } else if (!inNode(node, key)) {
+            return null;
+        }
+        IArtNode<String> next = (IArtNode<String>) node.get(key);
+        return recursiveGet(next, key);
+    }
+}
@@ -0,0 +1,153 @@
+package dev.tingh.art;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectAVLTreeMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectRBTreeMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectSortedMap;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+// The common operations of the ordered long maps under benchmark.
+public interface LongMap<V> {
+
+    V get(long key);
+
+    void put(long key, V value);
+
+    V remove(long key);
+
+    V getCeiling(long key);
+
+    V getFloor(long key);
+
+    enum Type {
+        LongARTree {
+            @Override
+            <V> LongMap<V> create() {
+                return new ARTreeMap<>();
+            }
+        },
+        TreeMap {
+            @Override
+            <V> LongMap<V> create() {
+                return new BoxedTreeMap<>();
+            }
+        },
+        Long2ObjectRBTreeMap {
+            @Override
+            <V> LongMap<V> create() {
+                return new FastutilMap<>(new Long2ObjectRBTreeMap<>());
+            }
+        },
+        Long2ObjectAVLTreeMap {
+            @Override
+            <V> LongMap<V> create() {
+                return new FastutilMap<>(new Long2ObjectAVLTreeMap<>());
+            }
+        };
+
+        abstract <V> LongMap<V> create();
+    }
+
+    final class ARTreeMap<V> implements LongMap<V> {
+
+        private final LongARTree<V> tree = new LongARTree<>();
+
+        @Override
+        public V get(long key) {
+            return tree.get(key);
+        }
+
+        @Override
+        public void put(long key, V value) {
+            tree.put(key, value);
+        }
+
+        @Override
+        public V remove(long key) {
+            return tree.remove(key);
+        }
+
+        @Override
+        public V getCeiling(long key) {
+            return tree.getCeiling(key);
+        }
+
+        @Override
+        public V getFloor(long key) {
+            return tree.getFloor(key);
+        }
+    }
+
+    final class BoxedTreeMap<V> implements LongMap<V> {
+
+        private final TreeMap<Long, V> map = new TreeMap<>();
+
+        @Override
+        public V get(long key) {
+            return map.get(key);
+        }
+
+        @Override
+        public void put(long key, V value) {
+            map.put(key, value);
+        }
+
+        @Override
+        public V remove(long key) {
+            return map.remove(key);
+        }
+
+        @Override
+        public V getCeiling(long key) {
+            Map.Entry<Long, V> entry = map.ceilingEntry(key);
+            return entry != null ? entry.getValue() : null;
+        }
+
+        @Override
+        public V getFloor(long key) {
+            Map.Entry<Long, V> entry = map.floorEntry(key);
+            return entry != null ? entry.getValue() : null;
+        }
+    }
+
+    // The fastutil sorted maps have no ceiling/floor, the nearest equivalent is the first entry of a tail/head view.
+    final class FastutilMap<V> implements LongMap<V> {
+
+        private final Long2ObjectSortedMap<V> map;
+
+        FastutilMap(Long2ObjectSortedMap<V> map) {
+            this.map = map;
+        }
+
+        @Override
+        public V get(long key) {
+            return map.get(key);
+        }
+
+        @Override
+        public void put(long key, V value) {
+            map.put(key, value);
+        }
+
+        @Override
+        public V remove(long key) {
+            return map.remove(key);
+        }
+
+        @Override
+        public V getCeiling(long key) {
+            Long2ObjectSortedMap<V> tail = map.tailMap(key);
+            return tail.isEmpty() ? null : tail.get(tail.firstLongKey());
+        }
+
+        @Override
+        public V getFloor(long key) {
+            if (key != Long.MAX_VALUE) {
+                Long2ObjectSortedMap<V> head = map.headMap(key + 1);
+                return head.isEmpty() ? null : head.get(head.lastLongKey());
+            }
+            return map.isEmpty() ? null : map.get(map.lastLongKey());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package dev.tingh.art;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares LongARTree with TreeMap and the fastutil tree maps.
+ *
+ * Each map is populated with size keys from the given distribution, operations then cycle through
+ * a fixed array of probes: existing keys for get/put/remove, and keys drawn from the same range
+ * (mostly absent) for getCeiling/getFloor.
+ *
+ * The larger sizes need a large heap, e.g. -jvmArgsAppend -Xmx32g, or restrict the run with -p size=...
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LongMapBenchmark {
+
+    private static final int PROBES = 1 << 16;
+    private static final String VALUE = "value";
+
+    @Param({"LongARTree", "TreeMap", "Long2ObjectRBTreeMap", "Long2ObjectAVLTreeMap"})
+    public LongMap.Type type;
+
+    @Param({"SEQUENTIAL", "RANDOM", "CLUSTERED", "ZIPF", "SPARSE_HIGH_BIT"})
+    public KeyDistribution distribution;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000", "100000000"})
+    public int size;
+
+    private LongMap<String> map;
+
+    private final long[] hits = new long[PROBES];
+    private final long[] probes = new long[PROBES];
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        long[] keys = distribution.generate(size, 190880900);
+
+        map = type.create();
+        for (long key : keys) {
+            map.put(key, VALUE);
+        }
+
+        Random random = new Random(20201102);
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (long key : keys) {
+            min = Math.min(min, key);
+            max = Math.max(max, key);
+        }
+        for (int i = 0; i < PROBES; i++) {
+            hits[i] = keys[random.nextInt(size)];
+            probes[i] = min + (long) (random.nextDouble() * ((double) max - (double) min));
+        }
+    }
+
+    private int next() {
+        index = (index + 1) & (PROBES - 1);
+        return index;
+    }
+
+    @Benchmark
+    public String get() {
+        return map.get(hits[next()]);
+    }
+
+    // Overwrites the value of an existing key.
+    @Benchmark
+    public void put() {
+        map.put(hits[next()], VALUE);
+    }
+
+    // Removes an existing key and puts it back, keeping the map at the same size.
+    @Benchmark
+    public String remove() {
+        long key = hits[next()];
+        String value = map.remove(key);
+        map.put(key, VALUE);
+        return value;
+    }
+
+    @Benchmark
+    public String getCeiling() {
+        return map.getCeiling(probes[next()]);
+    }
+
+    @Benchmark
+    public String getFloor() {
+        return map.getFloor(probes[next()]);
+    }
+}
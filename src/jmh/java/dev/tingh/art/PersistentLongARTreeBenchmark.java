@@ -0,0 +1,83 @@
+package dev.tingh.art;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The write amplification of PersistentLongARTree, whose writes copy the path from the root, against the writes in
+ * place of LongARTree.
+ *
+ * Each write puts or removes a key drawn from a pool twice the size of the tree, so the size stays about the same,
+ * and the persistent tree keeps only the latest version. Run with -prof gc, gc.alloc.rate.norm is the bytes copied
+ * per write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class PersistentLongARTreeBenchmark {
+
+    private static final String VALUE = "value";
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"SEQUENTIAL", "RANDOM", "CLUSTERED"})
+    public KeyDistribution distribution;
+
+    private final SplittableRandom random = new SplittableRandom(190880900);
+
+    private long[] keys;
+
+    private LongARTree<String> tree;
+    private PersistentLongARTree<String> persistentTree;
+
+    @Setup
+    public void setup() {
+        keys = distribution.generate(2 * size, 190880900);
+        tree = new LongARTree<>();
+        persistentTree = PersistentLongARTree.empty();
+        for (int i = 0; i < keys.length; i += 2) {
+            tree.put(keys[i], VALUE);
+            persistentTree = persistentTree.put(keys[i], VALUE);
+        }
+    }
+
+    @Benchmark
+    public String mutableWrite() {
+        long key = keys[random.nextInt(keys.length)];
+        return random.nextBoolean() ? tree.put(key, VALUE) : tree.remove(key);
+    }
+
+    @Benchmark
+    public PersistentLongARTree<String> persistentWrite() {
+        long key = keys[random.nextInt(keys.length)];
+        // A new value object each time, so a put of a present key still copies its path.
+        persistentTree = random.nextBoolean() ? persistentTree.put(key, new String(VALUE)) : persistentTree.remove(key);
+        return persistentTree;
+    }
+
+    @Benchmark
+    public String mutableGet() {
+        return tree.get(keys[random.nextInt(keys.length)]);
+    }
+
+    @Benchmark
+    public String persistentGet() {
+        return persistentTree.get(keys[random.nextInt(keys.length)]);
+    }
+}
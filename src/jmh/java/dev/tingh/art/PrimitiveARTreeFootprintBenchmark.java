@@ -0,0 +1,109 @@
+package dev.tingh.art;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retained heap of LongARTree<Long> against the primitive specialised LongLongARTree and LongIntARTree.
+ *
+ * Each run builds one tree and reports the heap it retains, measured after a full GC, in the bytes and
+ * bytesPerKey counters. The time reported is that of the build. The largest size needs a large heap,
+ * e.g. -jvmArgsAppend -Xmx32g, or restrict the run with -p size=...
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(1)
+public class PrimitiveARTreeFootprintBenchmark {
+
+    public enum Type {
+        LongARTree {
+            @Override
+            Object build(long[] keys) {
+                LongARTree<Long> tree = new LongARTree<>();
+                for (long key : keys) {
+                    tree.put(key, (Long) key);
+                }
+                return tree;
+            }
+        },
+        LongLongARTree {
+            @Override
+            Object build(long[] keys) {
+                LongLongARTree tree = new LongLongARTree();
+                for (long key : keys) {
+                    tree.put(key, key);
+                }
+                return tree;
+            }
+        },
+        LongIntARTree {
+            @Override
+            Object build(long[] keys) {
+                LongIntARTree tree = new LongIntARTree();
+                for (int i = 0; i < keys.length; i++) {
+                    tree.put(keys[i], i);
+                }
+                return tree;
+            }
+        };
+
+        abstract Object build(long[] keys);
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+        public long bytes;
+        public double bytesPerKey;
+    }
+
+    @Param({"LongARTree", "LongLongARTree", "LongIntARTree"})
+    public Type type;
+
+    @Param({"SEQUENTIAL", "RANDOM"})
+    public KeyDistribution distribution;
+
+    @Param({"10000000", "100000000"})
+    public int size;
+
+    private long[] keys;
+
+    @Setup
+    public void setup() {
+        keys = distribution.generate(size, 190880900);
+    }
+
+    @Benchmark
+    public Object build(Footprint footprint) {
+        long before = usedHeap();
+        Object tree = type.build(keys);
+        footprint.bytes = usedHeap() - before;
+        footprint.bytesPerKey = (double) footprint.bytes / size;
+        return tree;
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,106 @@
+package dev.tingh.art;
+
+import java.util.Arrays;
+
+// A leaf of BucketLongARTree, whole keys held sorted in a packed long[] with their values at the same positions,
+// standing in for the subtree of nodes those keys would otherwise need below the slot of the inner node above. The
+// keys are found by binary search, comparing signed as the tree orders them. The arrays grow by half as much again
+// on a full insert, up to the tree's bucket size, and the tree splits the bucket into nodes beyond that.
+class ArtBucket {
+
+    private long[] keys;
+    private Object[] values;
+    private int count;
+
+    // A bucket of the keys and values in the range, which must be sorted, with no spare room.
+    ArtBucket(long[] keys, Object[] values, int from, int to) {
+        this.keys = Arrays.copyOfRange(keys, from, to);
+        this.values = Arrays.copyOfRange(values, from, to);
+        this.count = to - from;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    // Any key of the bucket, which shares the prefix of the slot holding it.
+    long getKey() {
+        return keys[0];
+    }
+
+    long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    Object valueAt(int slot) {
+        return values[slot];
+    }
+
+    void setValue(int slot, Object value) {
+        values[slot] = value;
+    }
+
+    // The slot of the key, or -(insertion slot + 1).
+    int find(long key) {
+        return Arrays.binarySearch(keys, 0, count, key);
+    }
+
+    // The slot of the least key greater than or equal to the given key, or the count if there is none.
+    int ceilingSlot(long key) {
+        int slot = find(key);
+        return slot >= 0 ? slot : -(slot + 1);
+    }
+
+    // The slot of the greatest key less than or equal to the given key, or -1 if there is none.
+    int floorSlot(long key) {
+        int slot = find(key);
+        return slot >= 0 ? slot : -(slot + 1) - 1;
+    }
+
+    // Inserts the key, which is not in the bucket, at its insertion slot, growing the arrays up to the capacity.
+    void insert(int slot, long key, Object value, int capacity) {
+        if (count == keys.length) {
+            int length = Math.min(count + (count >> 1) + 1, capacity);
+            keys = Arrays.copyOf(keys, length);
+            values = Arrays.copyOf(values, length);
+        }
+        System.arraycopy(keys, slot, keys, slot + 1, count - slot);
+        System.arraycopy(values, slot, values, slot + 1, count - slot);
+        keys[slot] = key;
+        values[slot] = value;
+        count++;
+    }
+
+    void delete(int slot) {
+        System.arraycopy(keys, slot + 1, keys, slot, count - slot - 1);
+        System.arraycopy(values, slot + 1, values, slot, count - slot - 1);
+        count--;
+        values[count] = null;
+    }
+
+    // The keys with the key inserted at its insertion slot, for splitting a full bucket, and likewise the values.
+    long[] keysWith(int slot, long key) {
+        long[] result = new long[count + 1];
+        System.arraycopy(keys, 0, result, 0, slot);
+        result[slot] = key;
+        System.arraycopy(keys, slot, result, slot + 1, count - slot);
+        return result;
+    }
+
+    Object[] valuesWith(int slot, Object value) {
+        Object[] result = new Object[count + 1];
+        System.arraycopy(values, 0, result, 0, slot);
+        result[slot] = value;
+        System.arraycopy(values, slot, result, slot + 1, count - slot);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ArtBucket{" +
+                "count=" + count +
+                ", firstKey=" + (count > 0 ? keys[0] : "none") +
+                ", lastKey=" + (count > 0 ? keys[count - 1] : "none") +
+                '}';
+    }
+}
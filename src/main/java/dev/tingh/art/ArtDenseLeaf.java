@@ -0,0 +1,326 @@
+package dev.tingh.art;
+
+import static dev.tingh.art.Art.toNodeLevelKeys;
+import static dev.tingh.art.ArtNodes.*;
+
+// A leaf indexed directly by the low 16 or 24 bits of the key, standing in for the one or two levels of nodes that
+// would otherwise cover a run of contiguous keys. It is one array with a slot for every key of the range, so a lookup
+// in it is a single load after the prefix check, and for a range that is nearly full it takes no more memory than the
+// ArtNode256 leaves it replaces. A bitmap of the occupied slots, as in ArtNode48 and ArtNode256, finds the ceiling and
+// floor a word of 64 slots at a time, as a leaf may be half empty before it turns back into nodes. LongARTree turns a
+// node into one when its range is 15/16 full, which it checks as each leaf of the range reaches 15/16 full or fills,
+// and turns it back into nodes once it falls below half full.
+public class ArtDenseLeaf<V> implements IArtNode<V> {
+
+    // A 24 bit leaf is an array of 16M references, ranges any wider are left as nodes.
+    static final int MAX_INDEX_BITS = 24;
+
+    private final long key;
+    private final byte indexBits;
+    private final Object[] values;
+    // A bit for each slot holding a value, lowest slot first.
+    private final long[] occupied;
+    private int count;
+
+    public ArtDenseLeaf(long key, int indexBits) {
+        if (indexBits != 16 && indexBits != MAX_INDEX_BITS) {
+            throw new IllegalArgumentException("indexBits must be 16 or 24, was " + indexBits);
+        }
+        this.key = key & -1L << indexBits;
+        this.indexBits = (byte) indexBits;
+        this.values = new Object[1 << indexBits];
+        this.occupied = new long[1 << indexBits - 6];
+    }
+
+    // The inner node's values, its children are leaves each covering the bits below the node's byte.
+    private ArtDenseLeaf(IArtNode<V> node) {
+        this(node.getKey(), node.getShift() + 8);
+
+        int childBits = node.getShift();
+        for (int i = node.getCeilingIndex(0); i != -1; i = node.getCeilingIndex(i + 1)) {
+            IArtNode<V> child = (IArtNode<V>) node.getChild(i);
+            for (int j = child.getCeilingIndex(0); j != -1; j = child.getCeilingIndex(j + 1)) {
+                values[i << childBits | j] = child.getChild(j);
+                occupy(i << childBits | j);
+            }
+            count += child.getCount();
+        }
+    }
+
+    // The values of the sub range of the leaf from the index, over the given number of index bits.
+    private ArtDenseLeaf(ArtDenseLeaf<V> node, int from, int indexBits) {
+        this(node.key | from, indexBits);
+
+        System.arraycopy(node.values, from, values, 0, values.length);
+        System.arraycopy(node.occupied, from >>> 6, occupied, 0, occupied.length);
+        count = node.count(from, values.length);
+    }
+
+    // The number of keys from which a range of the given number of index bits is held in a dense leaf.
+    static int denseThreshold(int indexBits) {
+        return (1 << indexBits) - (1 << indexBits - 4);
+    }
+
+    // Whether the put of a new key took the leaf node to the dense threshold or filled it, the points at which the node
+    // above it is checked for a dense range. Checking on every put past the threshold would scan the node above again
+    // for each key put into a range that is nearly but not quite dense.
+    static <V> boolean becameDense(IArtNode<V> node) {
+        int indexBits = node.getIndexBits();
+        return node.getDepth() == 0 && indexBits < MAX_INDEX_BITS &&
+                (node.getCount() == denseThreshold(indexBits) || node.getCount() == 1 << indexBits);
+    }
+
+    // A dense leaf holding the values under the inner node, or null if the range the node covers is not dense or not
+    // held entirely in leaves one level down, as after a path compression.
+    static <V> ArtDenseLeaf<V> of(IArtNode<V> node) {
+        int indexBits = node.getShift() + 8;
+        if (node.getDepth() == 0 || indexBits > MAX_INDEX_BITS || node.getCount() < denseThreshold(8)) {
+            return null;
+        }
+        int count = 0;
+        for (int i = node.getCeilingIndex(0); i != -1; i = node.getCeilingIndex(i + 1)) {
+            IArtNode<V> child = (IArtNode<V>) node.getChild(i);
+            if (child.getDepth() != 0 || child.getIndexBits() != node.getShift()) {
+                return null;
+            }
+            count += child.getCount();
+        }
+        return count >= denseThreshold(indexBits) ? new ArtDenseLeaf<>(node) : null;
+    }
+
+    // The leaf as nodes, an inner node over leaf nodes, or for a 24 bit leaf over dense 16 bit ranges kept as dense
+    // leaves and the rest as nodes. A range with a single non empty sub range is path compressed to it.
+    IArtNode<V> toNodes() {
+        return toNodes(0, indexBits);
+    }
+
+    private IArtNode<V> toNodes(int from, int bits) {
+        int count = count(from, 1 << bits);
+        if (count == 0) {
+            return null;
+        } else if (bits == 8) {
+            IArtNode<V> leafNode = newNode(key | from, 0, count);
+            for (int i = getCeilingIndex(from); i != -1 && i < from + 256; i = getCeilingIndex(i + 1)) {
+                leafNode.put(key | i, (V) values[i]);
+            }
+            return leafNode;
+        } else if (bits < indexBits && count >= denseThreshold(bits)) {
+            return new ArtDenseLeaf<>(this, from, bits);
+        }
+
+        int childBits = bits - 8;
+        IArtNode<V>[] children = new IArtNode[256];
+        int childCount = 0;
+        for (int i = 0; i < 256; i++) {
+            children[i] = toNodes(from | i << childBits, childBits);
+            if (children[i] != null) {
+                childCount++;
+            }
+        }
+        IArtNode<V> node = childCount > 1 ? newNode(key | from, childBits >> 3, childCount) : null;
+        for (IArtNode<V> child : children) {
+            if (child != null) {
+                if (node == null) {
+                    return child;
+                }
+                node.put(child.getKey(), child);
+            }
+        }
+        return node;
+    }
+
+    // The number of values in the slots from the index, which like the length is a multiple of 64.
+    private int count(int from, int length) {
+        int count = 0;
+        for (int i = from >>> 6; i < from + length >>> 6; i++) {
+            count += Long.bitCount(occupied[i]);
+        }
+        return count;
+    }
+
+    private void occupy(int nodeIndex) {
+        occupied[nodeIndex >>> 6] |= 1L << nodeIndex;
+    }
+
+    private void vacate(int nodeIndex) {
+        occupied[nodeIndex >>> 6] &= ~(1L << nodeIndex);
+    }
+
+    @Override
+    public long getKey() {
+        return key;
+    }
+
+    @Override
+    public int getDepth() {
+        return 0;
+    }
+
+    @Override
+    public int getShift() {
+        return 0;
+    }
+
+    @Override
+    public int getIndexBits() {
+        return indexBits;
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public boolean isFull() {
+        return false;
+    }
+
+    @Override
+    public ArtNodeType getNodeType() {
+        return indexBits == MAX_INDEX_BITS ? ArtNodeType.ArtDenseLeaf24 : ArtNodeType.ArtDenseLeaf16;
+    }
+
+    @Override
+    public boolean canShrink() {
+        return count > 0 && count < values.length >> 1;
+    }
+
+    @Override
+    public Object get(long key) {
+        if (!inNode(this, key)) {
+            return null;
+        }
+        return values[nodeIndex(this, key)];
+    }
+
+    @Override
+    public Object getCeiling(long key) {
+        if (!isNodeGreaterThanOrEqualTo(this, key)) {
+            return null;
+        }
+        int index = getCeilingIndex(isNodeGreaterThan(this, key) ? 0 : nodeIndex(this, key));
+        return index != -1 ? values[index] : null;
+    }
+
+    @Override
+    public Object getFirst() {
+        int index = getCeilingIndex(0);
+        return index != -1 ? values[index] : null;
+    }
+
+    @Override
+    public Object getFloor(long key) {
+        if (!isNodeLessThanOrEqualTo(this, key)) {
+            return null;
+        }
+        int index = getFloorIndex(isNodeLessThan(this, key) ? values.length - 1 : nodeIndex(this, key));
+        return index != -1 ? values[index] : null;
+    }
+
+    @Override
+    public Object getLast() {
+        int index = getFloorIndex(values.length - 1);
+        return index != -1 ? values[index] : null;
+    }
+
+    @Override
+    public Object getChild(int nodeIndex) {
+        return nodeIndex < values.length ? values[nodeIndex] : null;
+    }
+
+    @Override
+    public int getCeilingIndex(int nodeIndex) {
+        if (nodeIndex >= values.length) {
+            return -1;
+        }
+        int word = nodeIndex >>> 6;
+        long bits = occupied[word] & -1L << nodeIndex;
+        while (bits == 0) {
+            if (++word == occupied.length) {
+                return -1;
+            }
+            bits = occupied[word];
+        }
+        return word << 6 | Long.numberOfTrailingZeros(bits);
+    }
+
+    @Override
+    public int getFloorIndex(int nodeIndex) {
+        if (nodeIndex < 0) {
+            return -1;
+        }
+        nodeIndex = Math.min(nodeIndex, values.length - 1);
+        int word = nodeIndex >>> 6;
+        long bits = occupied[word] & -1L >>> ~nodeIndex;
+        while (bits == 0) {
+            if (--word < 0) {
+                return -1;
+            }
+            bits = occupied[word];
+        }
+        return word << 6 | 63 - Long.numberOfLeadingZeros(bits);
+    }
+
+    @Override
+    public boolean put(long key, V value) {
+        int nodeIndex = nodeIndex(this, key);
+        if (values[nodeIndex] == null) {
+            occupy(nodeIndex);
+            count++;
+        }
+        values[nodeIndex] = value;
+        return true;
+    }
+
+    @Override
+    public boolean put(long key, IArtNode<V> node) {
+        throw new IllegalStateException("A dense leaf holds no nodes, key=" + key);
+    }
+
+    @Override
+    public V remove(long key) {
+        int nodeIndex = nodeIndex(this, key);
+        V result = (V) values[nodeIndex];
+        if (result != null) {
+            values[nodeIndex] = null;
+            vacate(nodeIndex);
+            count--;
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ArtDenseLeaf{" +
+                "key=" + key +
+                ", nodeLevelKey=" + toNodeLevelKeys(key) +
+                ", indexBits=" + indexBits +
+                ", count=" + count +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        ArtDenseLeaf<?> that = (ArtDenseLeaf<?>) o;
+
+        if (indexBits != that.indexBits) {
+            return false;
+        }
+        return key == that.key;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = indexBits;
+        result = 31 * result + (int) (key ^ (key >>> 32));
+        return result;
+    }
+}
@@ -0,0 +1,267 @@
+package dev.tingh.art;
+
+import java.util.Arrays;
+
+import static dev.tingh.art.Art.toNodeLevelKeys;
+
+/**
+ * The leaf node of the primitive specialised trees, the values live in a primitive array of the subclass.
+ *
+ * Like ArtNode4..ArtNode256 the node adapts to the number of keys it holds, growing when 4, 16 or 48 keys are full
+ * and shrinking back at the same counts. Instead of being replaced by a node of another class it swaps its arrays
+ * in place, so its parent never changes. Up to 48 keys are held as sorted key bytes with the values in the same
+ * slots, above that the values are indexed directly by the key byte and a bitmap marks the occupied indexes.
+ */
+public abstract class ArtLeafNode {
+
+    private final long key;
+
+    // The sorted key bytes of the slots, null in the 256 layout.
+    private byte[] keys = new byte[ArtNodeType.ArtNode4.getSize()];
+    // The occupied key bytes in the 256 layout, null otherwise.
+    private long[] bitmap;
+
+    private ArtNodeType nodeType = ArtNodeType.ArtNode4;
+    private int count;
+
+    protected ArtLeafNode(long key) {
+        this.key = key;
+    }
+
+    // The primitive array holding the values, indexed by slot.
+    protected abstract Object getValues();
+
+    protected abstract void setValues(Object values);
+
+    protected abstract Object newValues(int size);
+
+    public long getKey() {
+        return key;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public ArtNodeType getNodeType() {
+        return nodeType;
+    }
+
+    // Negative if every key in the node is less than the key, positive if every key is greater, otherwise zero.
+    public int comparePrefix(long key) {
+        return Long.compare(this.key >> 8, key >> 8);
+    }
+
+    public boolean inNode(long key) {
+        return (this.key ^ key) >>> 8 == 0;
+    }
+
+    public static int nodeIndex(long key) {
+        return (int) (key & 255L);
+    }
+
+    public long keyOf(int nodeIndex) {
+        return key & ~255L | nodeIndex;
+    }
+
+    // The slot of the key byte, or -1 if it is absent.
+    public int slot(int nodeIndex) {
+        if (keys == null) {
+            return isOccupied(nodeIndex) ? nodeIndex : -1;
+        }
+        int slot = binarySearch(nodeIndex);
+        return slot >= 0 ? slot : -1;
+    }
+
+    // Adds an absent key byte, growing the node if it is full, and returns the slot for its value.
+    public int insert(int nodeIndex) {
+        if (keys != null && count == nodeType.getSize()) {
+            grow();
+        }
+        if (keys == null) {
+            bitmap[nodeIndex >>> 6] |= 1L << nodeIndex;
+            count++;
+            return nodeIndex;
+        }
+        int slot = -(binarySearch(nodeIndex) + 1);
+        int length = count - slot;
+        Object values = getValues();
+        System.arraycopy(keys, slot, keys, slot + 1, length);
+        System.arraycopy(values, slot, values, slot + 1, length);
+        keys[slot] = (byte) nodeIndex;
+        count++;
+        return slot;
+    }
+
+    // Removes the key byte in the slot, shrinking the node once the keys fit the smaller node type.
+    public void delete(int slot) {
+        count--;
+        if (keys == null) {
+            bitmap[slot >>> 6] &= ~(1L << slot);
+        } else {
+            int length = count - slot;
+            Object values = getValues();
+            System.arraycopy(keys, slot + 1, keys, slot, length);
+            System.arraycopy(values, slot + 1, values, slot, length);
+        }
+        if (canShrink()) {
+            shrink();
+        }
+    }
+
+    // Lowest occupied key byte greater than or equal to the given one, or -1.
+    public int getCeilingIndex(int nodeIndex) {
+        if (nodeIndex > 255) {
+            return -1;
+        } else if (keys == null) {
+            int word = nodeIndex >>> 6;
+            long bits = bitmap[word] & (-1L << nodeIndex);
+            while (bits == 0) {
+                if (++word == bitmap.length) {
+                    return -1;
+                }
+                bits = bitmap[word];
+            }
+            return word << 6 | Long.numberOfTrailingZeros(bits);
+        }
+        int slot = binarySearch(nodeIndex);
+        if (slot >= 0) {
+            return nodeIndex;
+        }
+        slot = -(slot + 1);
+        return slot < count ? keys[slot] & 255 : -1;
+    }
+
+    // Highest occupied key byte less than or equal to the given one, or -1.
+    public int getFloorIndex(int nodeIndex) {
+        if (nodeIndex < 0) {
+            return -1;
+        } else if (keys == null) {
+            int word = nodeIndex >>> 6;
+            long bits = bitmap[word] & (-1L >>> (63 - (nodeIndex & 63)));
+            while (bits == 0) {
+                if (--word < 0) {
+                    return -1;
+                }
+                bits = bitmap[word];
+            }
+            return word << 6 | (63 - Long.numberOfLeadingZeros(bits));
+        }
+        int slot = binarySearch(nodeIndex);
+        if (slot >= 0) {
+            return nodeIndex;
+        }
+        slot = -(slot + 1) - 1;
+        return slot >= 0 ? keys[slot] & 255 : -1;
+    }
+
+    public int getFirstIndex() {
+        return getCeilingIndex(0);
+    }
+
+    public int getLastIndex() {
+        return getFloorIndex(255);
+    }
+
+    private boolean isOccupied(int nodeIndex) {
+        return (bitmap[nodeIndex >>> 6] & 1L << nodeIndex) != 0;
+    }
+
+    private int binarySearch(int nodeIndex) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midIndex = keys[mid] & 255;
+            if (midIndex < nodeIndex) {
+                low = mid + 1;
+            } else if (midIndex > nodeIndex) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private boolean canShrink() {
+        switch (nodeType) {
+            case ArtNode16:
+                return count <= ArtNodeType.ArtNode4.getSize();
+            case ArtNode48:
+                return count <= ArtNodeType.ArtNode16.getSize();
+            case ArtNode256:
+                return count <= ArtNodeType.ArtNode48.getSize();
+        }
+        return false;
+    }
+
+    private void grow() {
+        switch (nodeType) {
+            case ArtNode4:
+                resize(ArtNodeType.ArtNode16);
+                return;
+            case ArtNode16:
+                resize(ArtNodeType.ArtNode48);
+                return;
+            case ArtNode48:
+                resize(ArtNodeType.ArtNode256);
+                return;
+        }
+        throw new IllegalStateException("Unhandled nodeType=" + nodeType);
+    }
+
+    private void shrink() {
+        switch (nodeType) {
+            case ArtNode16:
+                resize(ArtNodeType.ArtNode4);
+                return;
+            case ArtNode48:
+                resize(ArtNodeType.ArtNode16);
+                return;
+            case ArtNode256:
+                resize(ArtNodeType.ArtNode48);
+                return;
+        }
+        throw new IllegalStateException("Unhandled nodeType=" + nodeType);
+    }
+
+    private void resize(ArtNodeType newType) {
+        Object values = getValues();
+        Object newValues = newValues(newType.getSize());
+        if (newType == ArtNodeType.ArtNode256) {
+            bitmap = new long[4];
+            for (int i = 0; i < count; i++) {
+                int nodeIndex = keys[i] & 255;
+                bitmap[nodeIndex >>> 6] |= 1L << nodeIndex;
+                System.arraycopy(values, i, newValues, nodeIndex, 1);
+            }
+            keys = null;
+        } else if (keys == null) {
+            byte[] newKeys = new byte[newType.getSize()];
+            int slot = 0;
+            for (int nodeIndex = getFirstIndex(); nodeIndex != -1; nodeIndex = getCeilingIndex(nodeIndex + 1)) {
+                newKeys[slot] = (byte) nodeIndex;
+                System.arraycopy(values, nodeIndex, newValues, slot, 1);
+                slot++;
+            }
+            keys = newKeys;
+            bitmap = null;
+        } else {
+            keys = Arrays.copyOf(keys, newType.getSize());
+            System.arraycopy(values, 0, newValues, 0, count);
+        }
+        setValues(newValues);
+        nodeType = newType;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{" +
+                "key=" + key +
+                ", nodeLevelKey=" + toNodeLevelKeys(key) +
+                ", nodeType=" + nodeType +
+                ", count=" + count +
+                '}';
+    }
+}
@@ -0,0 +1,164 @@
+package dev.tingh.art;
+
+import static dev.tingh.art.Art.toNodeLevelKeys;
+
+// A leaf record, a single key and its value held directly in the slot of the inner node above, in place of a leaf
+// ArtNode4. It is one object of 24 bytes with compressed oops, and for sparse keys most leaf nodes hold one key.
+// The whole key is held rather than a prefix, taken from the first put, and a put of another key finds it full so
+// that it grows into an ArtNode4. An ArtNode4 leaf node shrinks back into one when it is left with a single key.
+public class ArtNode1<V> implements IArtNode<V> {
+
+    private long key;
+    private Object value;
+
+    public ArtNode1(long key) {
+        this.key = key;
+    }
+
+    public ArtNode1(long key, V value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    // A copy of the node, sharing its value.
+    public ArtNode1(ArtNode1<V> node) {
+        this.key = node.key;
+        this.value = node.value;
+    }
+
+    public ArtNode1(ArtNode4<V> node) {
+        this.key = node.getKey() & ~255L | node.keyAt(0);
+        this.value = node.childAt(0);
+    }
+
+    @Override
+    public long getKey() {
+        return key;
+    }
+
+    @Override
+    public int getDepth() {
+        return 0;
+    }
+
+    @Override
+    public int getShift() {
+        return 0;
+    }
+
+    @Override
+    public int getCount() {
+        return value != null ? 1 : 0;
+    }
+
+    @Override
+    public boolean isFull() {
+        return value != null;
+    }
+
+    @Override
+    public ArtNodeType getNodeType() {
+        return ArtNodeType.ArtNode1;
+    }
+
+    @Override
+    public boolean canShrink() {
+        return false;
+    }
+
+    @Override
+    public Object get(long key) {
+        return key == this.key ? value : null;
+    }
+
+    // The leaf nodes compare their prefixes and then their key bytes unsigned, so the whole key compares unsigned.
+    @Override
+    public Object getCeiling(long key) {
+        return Long.compareUnsigned(this.key, key) >= 0 ? value : null;
+    }
+
+    @Override
+    public Object getFirst() {
+        return value;
+    }
+
+    @Override
+    public Object getFloor(long key) {
+        return Long.compareUnsigned(this.key, key) <= 0 ? value : null;
+    }
+
+    @Override
+    public Object getLast() {
+        return value;
+    }
+
+    @Override
+    public Object getChild(int nodeIndex) {
+        return nodeIndex == nodeIndex() ? value : null;
+    }
+
+    @Override
+    public int getCeilingIndex(int nodeIndex) {
+        return value != null && nodeIndex <= nodeIndex() ? nodeIndex() : -1;
+    }
+
+    @Override
+    public int getFloorIndex(int nodeIndex) {
+        return value != null && nodeIndex >= nodeIndex() ? nodeIndex() : -1;
+    }
+
+    @Override
+    public boolean put(long key, V value) {
+        if (this.value == null) {
+            this.key = key;
+        } else if (key != this.key) {
+            return false;
+        }
+        this.value = value;
+        return true;
+    }
+
+    @Override
+    public boolean put(long key, IArtNode<V> node) {
+        throw new IllegalStateException("A leaf record holds no nodes, key=" + key);
+    }
+
+    @Override
+    public V remove(long key) {
+        if (key != this.key) {
+            return null;
+        }
+        V result = (V) value;
+        value = null;
+        return result;
+    }
+
+    private int nodeIndex() {
+        return (int) (key & 255L);
+    }
+
+    @Override
+    public String toString() {
+        return "ArtNode1{" +
+                "key=" + key +
+                ", nodeLevelKey=" + toNodeLevelKeys(key) +
+                ", count=" + getCount() +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return key == ((ArtNode1<?>) o).key;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (key ^ (key >>> 32));
+    }
+}
@@ -12,8 +12,7 @@ public class ArtNode16BinarySearch<V> implements IArtNode<V> {
     protected final short[] keys = new short[16];
     protected final Object[] nodes = new Object[16];
 
-    private final int depth;
-    private final int shift;
+    private final byte depth;
     private final long key;
 
     protected short count = 0;
@@ -24,17 +23,16 @@ public class ArtNode16BinarySearch<V> implements IArtNode<V> {
 
     public ArtNode16BinarySearch(long key, int depth) {
         this.key = key;
-        this.depth = depth;
-        this.shift = depth * 8;
+        this.depth = (byte) depth;
     }
 
     public ArtNode16BinarySearch(ArtNode4<V> node) {
         this(node.getKey(), node.getDepth());
 
         for (int i = 0; i < node.getCount(); i++) {
-            insert(node.keys[i], node.nodes[i]);
+            insert((short) node.keyAt(i), node.childAt(i));
         }
-        this.count = node.getCount();
+        this.count = (short) node.getCount();
     }
 
     public ArtNode16BinarySearch(ArtNode48<V> node) {
@@ -49,7 +47,7 @@ public class ArtNode16BinarySearch<V> implements IArtNode<V> {
                 index++;
             }
         }
-        this.count = node.getCount();
+        this.count = (short) node.getCount();
     }
 
     @Override
@@ -64,11 +62,11 @@ public class ArtNode16BinarySearch<V> implements IArtNode<V> {
 
     @Override
     public int getShift() {
-        return shift;
+        return depth << 3;
     }
 
     @Override
-    public short getCount() {
+    public int getCount() {
         return count;
     }
 
@@ -92,7 +90,7 @@ public class ArtNode16BinarySearch<V> implements IArtNode<V> {
         if (!inNode(this, key)) {
             return null;
         }
-        int index = binarySearch(keys, 0, count, (short)(key >>> shift & 255L));
+        int index = binarySearch(keys, 0, count, (short)(key >>> getShift() & 255L));
         if (index < 0) {
             return null;
         }
@@ -105,7 +103,7 @@ public class ArtNode16BinarySearch<V> implements IArtNode<V> {
             return null;
         }
 
-        short nodeIndex = ArtNodes.isNodeGreaterThan(this, key) ? 0 : (short)(key >>> shift & 255L);
+        short nodeIndex = ArtNodes.isNodeGreaterThan(this, key) ? 0 : (short)(key >>> getShift() & 255L);
 
         int index = binarySearch(keys, 0, count, nodeIndex);
         if (index >= 0) {
@@ -129,13 +127,13 @@ public class ArtNode16BinarySearch<V> implements IArtNode<V> {
             return null;
         }
 
-        short nodeIndex = isNodeLessThan(this, key) ? 255 : (short)(key >>> shift & 255L);
+        short nodeIndex = isNodeLessThan(this, key) ? 255 : (short)(key >>> getShift() & 255L);
         int index = binarySearch(keys, 0, count, nodeIndex);
         if (index >= 0 ) {
             return nodes[index];
         }
         index = -index - 2;
-        if (index < count && index >= 0 && keys[index] <= (key >>> shift & 255L)
+        if (index < count && index >= 0 && keys[index] <= (key >>> getShift() & 255L)
                 && ArtNodes.isLessThan(nodes[index],key)) {
             return nodes[index];
         }
@@ -150,6 +148,30 @@ public class ArtNode16BinarySearch<V> implements IArtNode<V> {
         return nodes[count-1];
     }
 
+    @Override
+    public Object getChild(int nodeIndex) {
+        int index = binarySearch(keys, 0, count, (short) nodeIndex);
+        return index >= 0 ? nodes[index] : null;
+    }
+
+    @Override
+    public int getCeilingIndex(int nodeIndex) {
+        int index = binarySearch(keys, 0, count, (short) nodeIndex);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return index < count ? keys[index] : -1;
+    }
+
+    @Override
+    public int getFloorIndex(int nodeIndex) {
+        int index = binarySearch(keys, 0, count, (short) nodeIndex);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        return index >= 0 ? keys[index] : -1;
+    }
+
     @Override
     public boolean put(long key, V value) {
         return putObject(key, value);
@@ -161,7 +183,7 @@ public class ArtNode16BinarySearch<V> implements IArtNode<V> {
     }
 
     private boolean putObject(long key, Object value) {
-        short nodeIndex = (short)(key >>> shift & 255L);
+        short nodeIndex = (short)(key >>> getShift() & 255L);
         int containsIndex = binarySearch(keys, 0, count, nodeIndex);
         if (containsIndex >= 0) {
             this.nodes[containsIndex] = value;
@@ -186,7 +208,7 @@ public class ArtNode16BinarySearch<V> implements IArtNode<V> {
 
     @Override
     public V remove(long key) {
-        int index = binarySearch(keys,0,count, (short)(key >>> shift & 255L));
+        int index = binarySearch(keys,0,count, (short)(key >>> getShift() & 255L));
         if (index < 0) {
             return null;
         }
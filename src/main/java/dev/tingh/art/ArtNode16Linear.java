@@ -7,14 +7,13 @@ import static dev.tingh.art.ArtNodes.*;
 
 public class ArtNode16Linear<V> implements IArtNode<V> {
 
-    protected final short[] keys = new short[16];
+    // The key bytes, read unsigned. The shift is derived from the depth rather than stored.
+    protected final byte[] keys = new byte[16];
     protected final Object[] nodes = new Object[16];
 
-    private final int depth;
-    private final int shift;
     private final long key;
-
     protected short count = 0;
+    private final byte depth;
 
     public ArtNode16Linear(long key) {
         this(key, 0);
@@ -22,18 +21,26 @@ public class ArtNode16Linear<V> implements IArtNode<V> {
 
     public ArtNode16Linear(long key, int depth) {
         this.key = key;
-        this.depth = depth;
-        this.shift = depth * 8;
+        this.depth = (byte) depth;
+    }
+
+    // A copy of the node, sharing its children.
+    public ArtNode16Linear(ArtNode16Linear<V> node) {
+        this(node.getKey(), node.getDepth());
+
+        System.arraycopy(node.keys, 0, keys, 0, node.count);
+        System.arraycopy(node.nodes, 0, nodes, 0, node.count);
+        count = node.count;
     }
 
     public ArtNode16Linear(ArtNode4<V> node) {
         this(node.getKey(), node.getDepth());
 
-        this.count = node.getCount();
+        this.count = (short) node.getCount();
 
         for (int i=0; i<node.getCount(); i++) {
-            this.keys[i] = node.keys[i];
-            this.nodes[i] = node.nodes[i];
+            this.keys[i] = (byte) node.keyAt(i);
+            this.nodes[i] = node.childAt(i);
         }
     }
 
@@ -43,12 +50,12 @@ public class ArtNode16Linear<V> implements IArtNode<V> {
 
         for (short i=0; index < node.getCount(); i++) {
             if (node.index[i] != -1) {
-                this.keys[index] = i;
+                this.keys[index] = (byte) i;
                 this.nodes[index] = node.nodes[node.index[i]];
                 index++;
             }
         }
-        this.count = node.getCount();
+        this.count = (short) node.getCount();
     }
 
     @Override
@@ -63,11 +70,15 @@ public class ArtNode16Linear<V> implements IArtNode<V> {
 
     @Override
     public int getShift() {
-        return shift;
+        return depth << 3;
+    }
+
+    private int keyAt(int i) {
+        return keys[i] & 255;
     }
 
     @Override
-    public short getCount() {
+    public int getCount() {
         return count;
     }
 
@@ -97,7 +108,7 @@ public class ArtNode16Linear<V> implements IArtNode<V> {
     }
 
     private boolean putObject(long key, Object value) {
-        short nodeIndex = (short) (key >>> shift & 255L);
+        short nodeIndex = (short) (key >>> getShift() & 255L);
 
         int index = contains(nodeIndex);
         if (index != -1) {
@@ -111,14 +122,14 @@ public class ArtNode16Linear<V> implements IArtNode<V> {
     }
 
     private void putObject(short nodeIndex, Object value) {
-        this.keys[count] = nodeIndex;
+        this.keys[count] = (byte) nodeIndex;
         this.nodes[count] = value;
         count++;
     }
 
     private int contains(short key) {
         for (int i = 0; i < count; i++) {
-            if (keys[i] == key) {
+            if (keyAt(i) == key) {
                 return i;
             }
         }
@@ -131,9 +142,9 @@ public class ArtNode16Linear<V> implements IArtNode<V> {
             return null;
         }
 
-        short index = (short)(key >>> shift & 255L);
+        short index = (short)(key >>> getShift() & 255L);
         for (int i = 0; i < count; i++) {
-            if (keys[i] == index) {
+            if (keyAt(i) == index) {
                 return nodes[i];
             }
         }
@@ -147,14 +158,14 @@ public class ArtNode16Linear<V> implements IArtNode<V> {
         }
 
         int index = -1;
-        short best = 255;
-        short nodeIndex = isNodeGreaterThan(this, key) ? 0 : (short) (key >>> shift & 255L);
+        int best = 255;
+        short nodeIndex = isNodeGreaterThan(this, key) ? 0 : (short) (key >>> getShift() & 255L);
         for (int i = 0; i < count; i++) {
-            if (nodeIndex == keys[i]) {
+            if (nodeIndex == keyAt(i)) {
                 return nodes[i];
-            } else if (nodeIndex < keys[i] && keys[i] <= best && isGreaterThan(nodes[i], key)) {
+            } else if (nodeIndex < keyAt(i) && keyAt(i) <= best && isGreaterThan(nodes[i], key)) {
                 index = i;
-                best = keys[i];
+                best = keyAt(i);
             }
         }
         return index != -1 ? nodes[index] : null;
@@ -163,11 +174,11 @@ public class ArtNode16Linear<V> implements IArtNode<V> {
     @Override
     public Object getFirst() {
         int index = -1;
-        short best = 255;
+        int best = 255;
         for (int i=0; i < count; i++) {
-            if (keys[i] <= best) {
+            if (keyAt(i) <= best) {
                 index = i;
-                best = keys[i];
+                best = keyAt(i);
             }
         }
         if (index == -1) {
@@ -182,14 +193,14 @@ public class ArtNode16Linear<V> implements IArtNode<V> {
             return null;
         }
         int index = -1;
-        short best = 0;
-        short nodeIndex = isNodeLessThan(this, key) ? 255 : (short) (key >>> shift & 255L);
+        int best = 0;
+        short nodeIndex = isNodeLessThan(this, key) ? 255 : (short) (key >>> getShift() & 255L);
         for (int i=0; i < count; i++) {
-            if (nodeIndex == keys[i]) {
+            if (nodeIndex == keyAt(i)) {
                 return nodes[i];
-            } else if (keys[i] < nodeIndex && keys[i] >= best && isLessThan(nodes[i], key )) {
+            } else if (keyAt(i) < nodeIndex && keyAt(i) >= best && isLessThan(nodes[i], key )) {
                 index = i;
-                best = keys[i];
+                best = keyAt(i);
             }
         }
         return index != -1 ? nodes[index] : null;
@@ -198,12 +209,12 @@ public class ArtNode16Linear<V> implements IArtNode<V> {
     @Override
     public Object getLast() {
         int index = -1;
-        short best = 0;
+        int best = 0;
 
         for (int i=0; i<count; i++) {
-            if (keys[i] >= best) {
+            if (keyAt(i) >= best) {
                 index = i;
-                best = keys[i];
+                best = keyAt(i);
             }
         }
         if (index == -1) {
@@ -212,14 +223,46 @@ public class ArtNode16Linear<V> implements IArtNode<V> {
         return nodes[index];
     }
 
+    @Override
+    public Object getChild(int nodeIndex) {
+        for (int i = 0; i < count; i++) {
+            if (keyAt(i) == nodeIndex) {
+                return nodes[i];
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int getCeilingIndex(int nodeIndex) {
+        int best = 256;
+        for (int i = 0; i < count; i++) {
+            if (keyAt(i) >= nodeIndex && keyAt(i) < best) {
+                best = keyAt(i);
+            }
+        }
+        return best != 256 ? best : -1;
+    }
+
+    @Override
+    public int getFloorIndex(int nodeIndex) {
+        int best = -1;
+        for (int i = 0; i < count; i++) {
+            if (keyAt(i) <= nodeIndex && keyAt(i) > best) {
+                best = keyAt(i);
+            }
+        }
+        return best;
+    }
+
     @Override
     public V remove(long key) {
-        short index = (short) (key >>> shift & 255L);
+        short index = (short) (key >>> getShift() & 255L);
 
         V result = null;
 
         for (int i=0; i < count; i++) {
-            if (keys[i] == index) {
+            if (keyAt(i) == index) {
                 result = doRemove(i);
                 break;
             }
@@ -0,0 +1,277 @@
+package dev.tingh.art;
+
+import static dev.tingh.art.Art.toNodeLevelKeys;
+import static dev.tingh.art.ArtNodes.*;
+
+// A Node16 with its key bytes packed, sorted, into two long fields rather than a short[16], saving the array object
+// and the pointer chase to it. The keys are searched eight at a time with SWAR bit tricks, see Swar: a match is the
+// lowest zero lane of the keys xor the search byte, and the rank of a byte, for the ceiling and floor, is a count of
+// the lanes less than it.
+public class ArtNode16Swar<V> implements IArtNode<V> {
+
+    // Slots 0 to 7 in lowKeys and 8 to 15 in highKeys, lane by lane.
+    protected long lowKeys;
+    protected long highKeys;
+    protected final Object[] nodes = new Object[16];
+
+    private final byte depth;
+    private final long key;
+
+    protected short count = 0;
+
+    public ArtNode16Swar(long key) {
+        this(key, 0);
+    }
+
+    public ArtNode16Swar(long key, int depth) {
+        this.key = key;
+        this.depth = (byte) depth;
+    }
+
+    public ArtNode16Swar(ArtNode4Swar<V> node) {
+        this(node.getKey(), node.getDepth());
+
+        this.lowKeys = node.keys;
+        System.arraycopy(node.nodes, 0, nodes, 0, node.getCount());
+        this.count = (short) node.getCount();
+    }
+
+    public ArtNode16Swar(ArtNode48<V> node) {
+        this(node.getKey(), node.getDepth());
+
+        for (int i = 0; count < node.getCount(); i++) {
+            if (node.index[i] != -1) {
+                insert(count, i, node.nodes[node.index[i]]);
+            }
+        }
+    }
+
+    @Override
+    public long getKey() {
+        return key;
+    }
+
+    @Override
+    public int getDepth() {
+        return depth;
+    }
+
+    @Override
+    public int getShift() {
+        return depth << 3;
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public boolean isFull() {
+        return count == 16;
+    }
+
+    @Override
+    public ArtNodeType getNodeType() {
+        return ArtNodeType.ArtNode16;
+    }
+
+    @Override
+    public boolean canShrink() {
+        return count <= 4;
+    }
+
+    @Override
+    public Object get(long key) {
+        if (!inNode(this, key)) {
+            return null;
+        }
+        int index = find((int) (key >>> getShift() & 255L));
+        return index >= 0 ? nodes[index] : null;
+    }
+
+    @Override
+    public Object getCeiling(long key) {
+        if (!isNodeGreaterThanOrEqualTo(this, key)) {
+            return null;
+        }
+
+        int nodeIndex = isNodeGreaterThan(this, key) ? 0 : (int) (key >>> getShift() & 255L);
+        int index = find(nodeIndex);
+        if (index >= 0) {
+            return nodes[index];
+        }
+        index = rank(nodeIndex);
+        if (index < count && isGreaterThan(nodes[index], key)) {
+            return nodes[index];
+        }
+        return null;
+    }
+
+    @Override
+    public Object getFirst() {
+        return nodes[0];
+    }
+
+    @Override
+    public Object getFloor(long key) {
+        if (!isNodeLessThanOrEqualTo(this, key)) {
+            return null;
+        }
+
+        int nodeIndex = isNodeLessThan(this, key) ? 255 : (int) (key >>> getShift() & 255L);
+        int index = find(nodeIndex);
+        if (index >= 0) {
+            return nodes[index];
+        }
+        index = rank(nodeIndex) - 1;
+        if (index >= 0 && isLessThan(nodes[index], key)) {
+            return nodes[index];
+        }
+        return null;
+    }
+
+    @Override
+    public Object getLast() {
+        if (count == 0) {
+            return null;
+        }
+        return nodes[count - 1];
+    }
+
+    @Override
+    public Object getChild(int nodeIndex) {
+        int index = find(nodeIndex);
+        return index >= 0 ? nodes[index] : null;
+    }
+
+    @Override
+    public int getCeilingIndex(int nodeIndex) {
+        if (nodeIndex > 255) {
+            return -1;
+        }
+        int index = rank(nodeIndex);
+        return index < count ? keyAt(index) : -1;
+    }
+
+    @Override
+    public int getFloorIndex(int nodeIndex) {
+        // -1 broadcasts to the lane value 255.
+        if (nodeIndex < 0) {
+            return -1;
+        }
+        int index = find(nodeIndex);
+        if (index < 0) {
+            index = rank(nodeIndex) - 1;
+        }
+        return index >= 0 ? keyAt(index) : -1;
+    }
+
+    @Override
+    public boolean put(long key, V value) {
+        return putObject(key, value);
+    }
+
+    @Override
+    public boolean put(long key, IArtNode<V> node) {
+        return putObject(key, node);
+    }
+
+    private boolean putObject(long key, Object value) {
+        int nodeIndex = (int) (key >>> getShift() & 255L);
+        int index = find(nodeIndex);
+        if (index >= 0) {
+            this.nodes[index] = value;
+            return true;
+        } else if (!isFull()) {
+            insert(rank(nodeIndex), nodeIndex, value);
+            return true;
+        }
+        return false;
+    }
+
+    private void insert(int index, int nodeIndex, Object value) {
+        if (index < 8) {
+            highKeys = Swar.insert(highKeys, 0, Swar.lane(lowKeys, 7));
+            lowKeys = Swar.insert(lowKeys, index, nodeIndex);
+        } else {
+            highKeys = Swar.insert(highKeys, index - 8, nodeIndex);
+        }
+        System.arraycopy(nodes, index, nodes, index + 1, count - index);
+        nodes[index] = value;
+        count++;
+    }
+
+    @Override
+    public V remove(long key) {
+        int index = find((int) (key >>> getShift() & 255L));
+        if (index < 0) {
+            return null;
+        }
+        V result = (V) nodes[index];
+        if (index < 8) {
+            lowKeys = Swar.remove(lowKeys, index) | (long) Swar.lane(highKeys, 0) << 56;
+            highKeys = Swar.remove(highKeys, 0);
+        } else {
+            highKeys = Swar.remove(highKeys, index - 8);
+        }
+        int source = index + 1;
+        System.arraycopy(nodes, source, nodes, index, count - source);
+        count--;
+        nodes[count] = null;
+        return result;
+    }
+
+    int keyAt(int index) {
+        return index < 8 ? Swar.lane(lowKeys, index) : Swar.lane(highKeys, index - 8);
+    }
+
+    private int find(int nodeIndex) {
+        int index = Swar.find(lowKeys, count, nodeIndex);
+        if (index < 0 && count > 8) {
+            index = Swar.find(highKeys, count - 8, nodeIndex);
+            return index >= 0 ? index + 8 : -1;
+        }
+        return index;
+    }
+
+    private int rank(int nodeIndex) {
+        int rank = Swar.rank(lowKeys, count, nodeIndex);
+        return rank == 8 && count > 8 ? rank + Swar.rank(highKeys, count - 8, nodeIndex) : rank;
+    }
+
+    @Override
+    public String toString() {
+        return "ArtNode16Swar{" +
+                "key=" + key +
+                ", nodeLevelKey=" + toNodeLevelKeys(key) +
+                ", depth=" + depth +
+                ", count=" + count +
+                ", keys=" + Long.toHexString(highKeys) + String.format("%016x", lowKeys) +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        ArtNode16Swar<?> that = (ArtNode16Swar<?>) o;
+
+        if (depth != that.depth) {
+            return false;
+        }
+        return key == that.key;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = depth;
+        result = 31 * result + (int) (key ^ (key >>> 32));
+        return result;
+    }
+}
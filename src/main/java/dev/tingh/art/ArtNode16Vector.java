@@ -0,0 +1,300 @@
+package dev.tingh.art;
+
+import java.util.Arrays;
+
+import static dev.tingh.art.Art.toNodeLevelKeys;
+import static dev.tingh.art.ArtNodes.*;
+
+// A Node16 whose key bytes are compared against the search byte all at once with the incubating Vector API, the
+// match found from the mask rather than by a loop of compares or a binary search.
+//
+// The keys are held as sorted bytes, biased by 128 so that their signed order is the order of the node indexes, as
+// the Vector API of JDK 17 has no unsigned compare. The mask of keys below the search byte gives the ceiling and
+// floor slots. The Vector API is only used when the jdk.incubator.vector module is present, run with
+// --add-modules jdk.incubator.vector, otherwise the same searches run as scalar loops.
+public class ArtNode16Vector<V> implements IArtNode<V> {
+
+    static final boolean VECTOR_SEARCH = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    protected final byte[] keys = new byte[16];
+    protected final Object[] nodes = new Object[16];
+
+    private final byte depth;
+    private final long key;
+
+    protected short count = 0;
+
+    public ArtNode16Vector(long key) {
+        this(key, 0);
+    }
+
+    public ArtNode16Vector(long key, int depth) {
+        this.key = key;
+        this.depth = (byte) depth;
+    }
+
+    public ArtNode16Vector(ArtNode4<V> node) {
+        this(node.getKey(), node.getDepth());
+
+        for (int i = 0; i < node.getCount(); i++) {
+            insert(node.keyAt(i), node.childAt(i));
+        }
+    }
+
+    public ArtNode16Vector(ArtNode48<V> node) {
+        this(node.getKey(), node.getDepth());
+
+        int index = 0;
+        for (short i = 0; index < node.getCount(); i++) {
+            if (node.index[i] != -1) {
+                this.keys[index] = toKeyByte(i);
+                this.nodes[index] = node.nodes[node.index[i]];
+                index++;
+            }
+        }
+        this.count = (short) node.getCount();
+    }
+
+    @Override
+    public long getKey() {
+        return key;
+    }
+
+    @Override
+    public int getDepth() {
+        return depth;
+    }
+
+    @Override
+    public int getShift() {
+        return depth << 3;
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public boolean isFull() {
+        return count == 16;
+    }
+
+    @Override
+    public ArtNodeType getNodeType() {
+        return ArtNodeType.ArtNode16;
+    }
+
+    @Override
+    public boolean canShrink() {
+        return count <= 4;
+    }
+
+    @Override
+    public Object get(long key) {
+        if (!inNode(this, key)) {
+            return null;
+        }
+        int index = find((int) (key >>> getShift() & 255L));
+        return index >= 0 ? nodes[index] : null;
+    }
+
+    @Override
+    public Object getCeiling(long key) {
+        if (!isNodeGreaterThanOrEqualTo(this, key)) {
+            return null;
+        }
+
+        int nodeIndex = isNodeGreaterThan(this, key) ? 0 : (int) (key >>> getShift() & 255L);
+        int index = find(nodeIndex);
+        if (index >= 0) {
+            return nodes[index];
+        }
+        index = rank(nodeIndex);
+        if (index < count && isGreaterThan(nodes[index], key)) {
+            return nodes[index];
+        }
+        return null;
+    }
+
+    @Override
+    public Object getFirst() {
+        return nodes[0];
+    }
+
+    @Override
+    public Object getFloor(long key) {
+        if (!isNodeLessThanOrEqualTo(this, key)) {
+            return null;
+        }
+
+        int nodeIndex = isNodeLessThan(this, key) ? 255 : (int) (key >>> getShift() & 255L);
+        int index = find(nodeIndex);
+        if (index >= 0) {
+            return nodes[index];
+        }
+        index = rank(nodeIndex) - 1;
+        if (index >= 0 && isLessThan(nodes[index], key)) {
+            return nodes[index];
+        }
+        return null;
+    }
+
+    @Override
+    public Object getLast() {
+        if (count == 0) {
+            return null;
+        }
+        return nodes[count - 1];
+    }
+
+    @Override
+    public Object getChild(int nodeIndex) {
+        int index = find(nodeIndex);
+        return index >= 0 ? nodes[index] : null;
+    }
+
+    @Override
+    public int getCeilingIndex(int nodeIndex) {
+        // Iterating callers step past 255, which would wrap around as a byte.
+        if (nodeIndex > 255) {
+            return -1;
+        }
+        int index = rank(nodeIndex);
+        return index < count ? toNodeIndex(keys[index]) : -1;
+    }
+
+    @Override
+    public int getFloorIndex(int nodeIndex) {
+        // Likewise stepping below 0, which would wrap around to 255.
+        if (nodeIndex < 0) {
+            return -1;
+        }
+        int index = find(nodeIndex);
+        if (index < 0) {
+            index = rank(nodeIndex) - 1;
+        }
+        return index >= 0 ? toNodeIndex(keys[index]) : -1;
+    }
+
+    @Override
+    public boolean put(long key, V value) {
+        return putObject(key, value);
+    }
+
+    @Override
+    public boolean put(long key, IArtNode<V> node) {
+        return putObject(key, node);
+    }
+
+    private boolean putObject(long key, Object value) {
+        int nodeIndex = (int) (key >>> getShift() & 255L);
+        int index = find(nodeIndex);
+        if (index >= 0) {
+            this.nodes[index] = value;
+            return true;
+        } else if (!isFull()) {
+            insert(nodeIndex, value);
+            return true;
+        }
+        return false;
+    }
+
+    private void insert(int nodeIndex, Object value) {
+        int index = rank(nodeIndex);
+        int length = count - index;
+        System.arraycopy(keys, index, keys, index + 1, length);
+        System.arraycopy(nodes, index, nodes, index + 1, length);
+        keys[index] = toKeyByte(nodeIndex);
+        nodes[index] = value;
+        count++;
+    }
+
+    @Override
+    public V remove(long key) {
+        int index = find((int) (key >>> getShift() & 255L));
+        if (index < 0) {
+            return null;
+        }
+        V result = (V) nodes[index];
+        int source = index + 1;
+        int length = count - source;
+        System.arraycopy(keys, source, keys, index, length);
+        System.arraycopy(nodes, source, nodes, index, length);
+        count--;
+        nodes[count] = null;
+        return result;
+    }
+
+    private int find(int nodeIndex) {
+        byte key = toKeyByte(nodeIndex);
+        return VECTOR_SEARCH ? ByteVectorSearch.find(keys, count, key) : scalarFind(keys, count, key);
+    }
+
+    private int rank(int nodeIndex) {
+        byte key = toKeyByte(nodeIndex);
+        return VECTOR_SEARCH ? ByteVectorSearch.rank(keys, count, key) : scalarRank(keys, count, key);
+    }
+
+    private static byte toKeyByte(int nodeIndex) {
+        return (byte) (nodeIndex ^ 128);
+    }
+
+    static int toNodeIndex(byte key) {
+        return (key ^ 128) & 255;
+    }
+
+    // The scalar fallbacks of ByteVectorSearch.find and rank.
+
+    static int scalarFind(byte[] keys, int count, byte key) {
+        for (int i = 0; i < count; i++) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static int scalarRank(byte[] keys, int count, byte key) {
+        int rank = 0;
+        while (rank < count && keys[rank] < key) {
+            rank++;
+        }
+        return rank;
+    }
+
+    @Override
+    public String toString() {
+        return "ArtNode16Vector{" +
+                "key=" + key +
+                ", nodeLevelKey=" + toNodeLevelKeys(key) +
+                ", depth=" + depth +
+                ", count=" + count +
+                ", keys=" + Arrays.toString(keys) +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        ArtNode16Vector<?> that = (ArtNode16Vector<?>) o;
+
+        if (depth != that.depth) {
+            return false;
+        }
+        return key == that.key;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = depth;
+        result = 31 * result + (int) (key ^ (key >>> 32));
+        return result;
+    }
+}
@@ -7,11 +7,16 @@ public class ArtNode256<V> implements IArtNode<V> {
 
     protected final Object[] nodes = new Object[256];
 
-    private final int depth;
-    private final int shift;
-    private final long key;
+    // A bit for each node index with a child, lowest index first, so the first, last, ceiling and floor children are
+    // found a word at a time rather than by scanning the nodes.
+    private long occupied0;
+    private long occupied1;
+    private long occupied2;
+    private long occupied3;
 
+    private final long key;
     private short count = 0;
+    private final byte depth;
 
     public ArtNode256(long key) {
         this(key, 0);
@@ -19,18 +24,30 @@ public class ArtNode256<V> implements IArtNode<V> {
 
     public ArtNode256(long key, int depth) {
         this.key = key;
-        this.depth = depth;
-        this.shift = depth * 8;
+        this.depth = (byte) depth;
+    }
+
+    // A copy of the node, sharing its children.
+    public ArtNode256(ArtNode256<V> node) {
+        this(node.getKey(), node.getDepth());
+
+        System.arraycopy(node.nodes, 0, nodes, 0, 256);
+        count = node.count;
+        occupied0 = node.occupied0;
+        occupied1 = node.occupied1;
+        occupied2 = node.occupied2;
+        occupied3 = node.occupied3;
     }
 
     public ArtNode256(ArtNode48<V> node) {
         this(node.getKey(), node.getDepth());
 
-        this.count = node.getCount();
+        this.count = (short) node.getCount();
 
         for (int i=0; i<256; i++) {
             if (node.index[i] != -1) {
                 nodes[i] = node.nodes[node.index[i]];
+                flipOccupied(i);
             }
         }
     }
@@ -47,11 +64,11 @@ public class ArtNode256<V> implements IArtNode<V> {
 
     @Override
     public int getShift() {
-        return shift;
+        return depth << 3;
     }
 
     @Override
-    public short getCount() {
+    public int getCount() {
         return count;
     }
 
@@ -75,7 +92,7 @@ public class ArtNode256<V> implements IArtNode<V> {
         if (!inNode(this, key)) {
             return null;
         }
-        return nodes[(short)(key >>> shift & 255L)];
+        return nodes[(short)(key >>> getShift() & 255L)];
     }
 
     @Override
@@ -83,7 +100,7 @@ public class ArtNode256<V> implements IArtNode<V> {
         if (!isNodeGreaterThanOrEqualTo(this, key)) {
             return null;
         }
-        short nodeIndex = isNodeGreaterThan(this, key) ? 0 : (short)(key >>> shift & 255L);
+        short nodeIndex = isNodeGreaterThan(this, key) ? 0 : (short)(key >>> getShift() & 255L);
         if (nodes[nodeIndex] != null) {
             return nodes[nodeIndex];
         } else {
@@ -92,10 +109,9 @@ public class ArtNode256<V> implements IArtNode<V> {
     }
 
     private Object scanForCeiling(long key, short nodeIndex) {
-        while (nodeIndex < 255) {
-            nodeIndex++;
-            if (nodes[nodeIndex] != null && isGreaterThan(nodes[nodeIndex], key)) {
-                return nodes[nodeIndex];
+        for (int i = getCeilingIndex(nodeIndex + 1); i != -1; i = getCeilingIndex(i + 1)) {
+            if (isGreaterThan(nodes[i], key)) {
+                return nodes[i];
             }
         }
         return null;
@@ -103,12 +119,8 @@ public class ArtNode256<V> implements IArtNode<V> {
 
     @Override
     public Object getFirst() {
-        for (int i=0; i < 256; i++) {
-            if (nodes[i] != null) {
-                return nodes[i];
-            }
-        }
-        return null;
+        int index = getCeilingIndex(0);
+        return index != -1 ? nodes[index] : null;
     }
 
     @Override
@@ -116,7 +128,7 @@ public class ArtNode256<V> implements IArtNode<V> {
         if (!ArtNodes.isNodeLessThanOrEqualTo(this, key)) {
             return null;
         }
-        short nodeIndex = (short)(key >>> shift & 255L);
+        short nodeIndex = (short)(key >>> getShift() & 255L);
         if (nodes[nodeIndex] != null) {
             return nodes[nodeIndex];
         } else {
@@ -125,10 +137,9 @@ public class ArtNode256<V> implements IArtNode<V> {
     }
 
     private Object scanForFloor(long key, short nodeIndex) {
-        while (nodeIndex > 0) {
-            nodeIndex--;
-            if (nodes[nodeIndex] != null && ArtNodes.isLessThan(nodes[nodeIndex], key)) {
-                return nodes[nodeIndex];
+        for (int i = getFloorIndex(nodeIndex - 1); i != -1; i = getFloorIndex(i - 1)) {
+            if (ArtNodes.isLessThan(nodes[i], key)) {
+                return nodes[i];
             }
         }
         return null;
@@ -136,12 +147,40 @@ public class ArtNode256<V> implements IArtNode<V> {
 
     @Override
     public Object getLast() {
-        for (int i=255; i >= 0; i--) {
-            if (nodes[i] != null) {
-                return nodes[i];
-            }
+        int index = getFloorIndex(255);
+        return index != -1 ? nodes[index] : null;
+    }
+
+    @Override
+    public Object getChild(int nodeIndex) {
+        return nodes[nodeIndex];
+    }
+
+    @Override
+    public int getCeilingIndex(int nodeIndex) {
+        return ceilingBit(occupied0, occupied1, occupied2, occupied3, nodeIndex);
+    }
+
+    @Override
+    public int getFloorIndex(int nodeIndex) {
+        return floorBit(occupied0, occupied1, occupied2, occupied3, nodeIndex);
+    }
+
+    // Flips the bit of the node index, which is only called as a child is added or removed there.
+    private void flipOccupied(int nodeIndex) {
+        switch (nodeIndex >>> 6) {
+            case 0:
+                occupied0 ^= 1L << nodeIndex;
+                break;
+            case 1:
+                occupied1 ^= 1L << nodeIndex;
+                break;
+            case 2:
+                occupied2 ^= 1L << nodeIndex;
+                break;
+            default:
+                occupied3 ^= 1L << nodeIndex;
         }
-        return null;
     }
 
     @Override
@@ -155,9 +194,10 @@ public class ArtNode256<V> implements IArtNode<V> {
     }
 
     private boolean putObject(long key, Object value) {
-        short nodeIndex = (short)(key >>> shift & 255L);
+        short nodeIndex = (short)(key >>> getShift() & 255L);
 
         if (!contains(nodeIndex)) {
+            flipOccupied(nodeIndex);
             count++;
         }
         nodes[nodeIndex] = value;
@@ -170,12 +210,13 @@ public class ArtNode256<V> implements IArtNode<V> {
 
     @Override
     public V remove(long key) {
-        short nodeIndex = (short)(key >>> shift & 255L);
+        short nodeIndex = (short)(key >>> getShift() & 255L);
 
         V result = null;
         if (contains(nodeIndex)) {
             result = (V)nodes[nodeIndex];
             nodes[nodeIndex] = null;
+            flipOccupied(nodeIndex);
             count--;
         }
         return result;
@@ -1,22 +1,24 @@
 package dev.tingh.art;
 
 
-import java.util.Arrays;
-
 import static dev.tingh.art.Art.toNodeLevelKeys;
 import static dev.tingh.art.ArtNodes.*;
 
+// The four children are held in fields c0 to c3 and their key bytes packed into an int, byte i for slot i, so the
+// node is a single object of 48 bytes with compressed oops rather than the node and its two arrays. The shift is
+// derived from the depth rather than stored. The slots are in insertion order.
 public class ArtNode4<V> implements IArtNode<V> {
 
-    protected final short[] keys = new short[4];
-    protected final Object[] nodes = new Object[4];
-
-    private final int depth;
-    private final int shift;
-
     private final long key;
 
+    private int keys;
     private short count = 0;
+    private final byte depth;
+
+    private Object c0;
+    private Object c1;
+    private Object c2;
+    private Object c3;
 
     public ArtNode4(long key) {
         this(key, 0);
@@ -24,28 +26,52 @@ public class ArtNode4<V> implements IArtNode<V> {
 
     public ArtNode4(long key, int depth) {
         this.key = key;
-        this.depth = depth;
-        this.shift = depth * 8;
+        this.depth = (byte) depth;
+    }
+
+    // A copy of the node, sharing its children.
+    public ArtNode4(ArtNode4<V> node) {
+        this(node.getKey(), node.getDepth());
+
+        keys = node.keys;
+        c0 = node.c0;
+        c1 = node.c1;
+        c2 = node.c2;
+        c3 = node.c3;
+        count = node.count;
+    }
+
+    public ArtNode4(ArtNode1<V> node) {
+        this(node.getKey());
+
+        put(node.getKey(), (V) node.getFirst());
     }
 
     public ArtNode4(ArtNode16Linear<V> node) {
         this(node.getKey(), node.getDepth());
 
         for (int i=0; i < node.getCount(); i++) {
-            this.keys[i] = node.keys[i];
-            this.nodes[i] = node.nodes[i];
+            putObject(i, node.keys[i] & 255, node.nodes[i]);
         }
-        count = node.getCount();
+        count = (short) node.getCount();
     }
 
     public ArtNode4(ArtNode16BinarySearch<V> node) {
         this(node.getKey(), node.getDepth());
 
         for (int i=0; i < node.getCount(); i++) {
-            this.keys[i] = node.keys[i];
-            this.nodes[i] = node.nodes[i];
+            putObject(i, node.keys[i], node.nodes[i]);
         }
-        count = node.getCount();
+        count = (short) node.getCount();
+    }
+
+    public ArtNode4(ArtNode16Vector<V> node) {
+        this(node.getKey(), node.getDepth());
+
+        for (int i=0; i < node.getCount(); i++) {
+            putObject(i, ArtNode16Vector.toNodeIndex(node.keys[i]), node.nodes[i]);
+        }
+        count = (short) node.getCount();
     }
 
     @Override
@@ -60,11 +86,11 @@ public class ArtNode4<V> implements IArtNode<V> {
 
     @Override
     public int getShift() {
-        return shift;
+        return depth << 3;
     }
 
     @Override
-    public short getCount() {
+    public int getCount() {
         return count;
     }
 
@@ -75,7 +101,41 @@ public class ArtNode4<V> implements IArtNode<V> {
 
     @Override
     public boolean canShrink() {
-        return false;
+        return depth == 0 && count == 1;
+    }
+
+    // The key byte in the slot.
+    int keyAt(int slot) {
+        return keys >>> (slot << 3) & 255;
+    }
+
+    Object childAt(int slot) {
+        switch (slot) {
+            case 0:
+                return c0;
+            case 1:
+                return c1;
+            case 2:
+                return c2;
+            default:
+                return c3;
+        }
+    }
+
+    private void setChild(int slot, Object child) {
+        switch (slot) {
+            case 0:
+                c0 = child;
+                break;
+            case 1:
+                c1 = child;
+                break;
+            case 2:
+                c2 = child;
+                break;
+            default:
+                c3 = child;
+        }
     }
 
     @Override
@@ -84,32 +144,29 @@ public class ArtNode4<V> implements IArtNode<V> {
     }
 
     private boolean putObject(long key, Object value) {
-        short nodeIndex = (short) (key >>> shift & 255L);
+        int nodeIndex = (int) (key >>> getShift() & 255L);
         int index = contains(nodeIndex);
 
         if (index != -1) {
-            this.nodes[index] = value;
+            setChild(index, value);
             return true;
         } else if (!isFull()) {
-            putObject(nodeIndex, value);
+            putObject(count, nodeIndex, value);
+            count++;
             return true;
         }
         return false;
     }
 
-    private void putObject(short nodeIndex, Object value) {
-        this.keys[count] = nodeIndex;
-        this.nodes[count] = value;
-        count++;
+    private void putObject(int slot, int nodeIndex, Object value) {
+        int shift = slot << 3;
+        keys = keys & ~(255 << shift) | nodeIndex << shift;
+        setChild(slot, value);
     }
 
-    private int contains(short key) {
-        for (int i = 0; i < count; i++) {
-            if (keys[i] == key) {
-                return i;
-            }
-        }
-        return -1;
+    // The slot of the key byte, or -1, found among the packed keys with SWAR, see Swar.
+    private int contains(int nodeIndex) {
+        return Swar.find(keys & 0xFFFFFFFFL, count, nodeIndex);
     }
 
     @Override
@@ -127,13 +184,8 @@ public class ArtNode4<V> implements IArtNode<V> {
         if (!inNode(this, key)) {
             return null;
         }
-
-        for (int i = 0; i < count; i++) {
-            if (keys[i] == (key >>> shift & 255L)) {
-                return nodes[i];
-            }
-        }
-        return null;
+        int index = contains((int) (key >>> getShift() & 255L));
+        return index != -1 ? childAt(index) : null;
     }
 
     @Override
@@ -143,34 +195,35 @@ public class ArtNode4<V> implements IArtNode<V> {
         }
 
         int index = -1;
-        short best = 255;
-        short nodeIndex = isNodeGreaterThan(this, key) ? 0 : (short) (key >>> shift & 255L);
+        int best = 255;
+        int nodeIndex = isNodeGreaterThan(this, key) ? 0 : (int) (key >>> getShift() & 255L);
 
         for (int i = 0; i < count; i++) {
-            if (nodeIndex == keys[i]) {
-                return nodes[i];
-            } else if (nodeIndex < keys[i] && keys[i] <= best && isGreaterThan(nodes[i], key)) {
+            int keyAt = keyAt(i);
+            if (nodeIndex == keyAt) {
+                return childAt(i);
+            } else if (nodeIndex < keyAt && keyAt <= best && isGreaterThan(childAt(i), key)) {
                 index = i;
-                best = keys[i];
+                best = keyAt;
             }
         }
-        return index != -1 ? nodes[index] : null;
+        return index != -1 ? childAt(index) : null;
     }
 
     @Override
     public Object getFirst() {
         int index = -1;
-        short best = 255;
+        int best = 255;
         for (int i=0; i < count; i++) {
-            if (keys[i] <= best) {
+            if (keyAt(i) <= best) {
                 index = i;
-                best = keys[i];
+                best = keyAt(i);
             }
         }
         if (index == -1) {
             return null;
         }
-        return nodes[index];
+        return childAt(index);
     }
 
     @Override
@@ -179,71 +232,98 @@ public class ArtNode4<V> implements IArtNode<V> {
             return null;
         }
         int index = -1;
-        short best = 0;
-        short nodeIndex = isNodeLessThan(this, key) ? 255 : (short) (key >>> shift & 255L);
+        int best = 0;
+        int nodeIndex = isNodeLessThan(this, key) ? 255 : (int) (key >>> getShift() & 255L);
 
         for (int i=0; i < count; i++) {
-            if (nodeIndex == keys[i]) {
-                return nodes[i];
-            } else if (keys[i] < nodeIndex && keys[i] >= best && isLessThan(nodes[i], key )) {
+            int keyAt = keyAt(i);
+            if (nodeIndex == keyAt) {
+                return childAt(i);
+            } else if (keyAt < nodeIndex && keyAt >= best && isLessThan(childAt(i), key)) {
                 index = i;
-                best = keys[i];
+                best = keyAt;
             }
         }
-        return index != -1 ? nodes[index] : null;
+        return index != -1 ? childAt(index) : null;
     }
 
     @Override
     public Object getLast() {
         int index = -1;
-        short best = 0;
+        int best = 0;
 
         for (int i=0; i<count; i++) {
-            if (keys[i] >= best) {
+            if (keyAt(i) >= best) {
                 index = i;
-                best = keys[i];
+                best = keyAt(i);
             }
-         }
+        }
         if (index == -1) {
             return null;
         }
-        return nodes[index];
+        return childAt(index);
     }
 
     @Override
-    public V remove(long key) {
-        short index = (short) (key >>> shift & 255L);
+    public Object getChild(int nodeIndex) {
+        if (nodeIndex > 255) {
+            return null;
+        }
+        int index = contains(nodeIndex);
+        return index != -1 ? childAt(index) : null;
+    }
 
-        V result = null;
+    @Override
+    public int getCeilingIndex(int nodeIndex) {
+        int best = 256;
+        for (int i = 0; i < count; i++) {
+            if (keyAt(i) >= nodeIndex && keyAt(i) < best) {
+                best = keyAt(i);
+            }
+        }
+        return best != 256 ? best : -1;
+    }
 
-        for (int i=0; i < count; i++) {
-            if (keys[i] == index) {
-                result = doRemove(i);
-                break;
+    @Override
+    public int getFloorIndex(int nodeIndex) {
+        int best = -1;
+        for (int i = 0; i < count; i++) {
+            if (keyAt(i) <= nodeIndex && keyAt(i) > best) {
+                best = keyAt(i);
             }
         }
-        return result;
+        return best;
+    }
+
+    @Override
+    public V remove(long key) {
+        int index = contains((int) (key >>> getShift() & 255L));
+        return index != -1 ? doRemove(index) : null;
     }
 
     private V doRemove(int i) {
-        V result = (V)nodes[i];
+        V result = (V) childAt(i);
         int limit = count - 1;
         for (int j = i; j < limit; j++) {
-            keys[j] = keys[j+1];
-            nodes[j] = nodes[j+1];
+            putObject(j, keyAt(j + 1), childAt(j + 1));
         }
+        setChild(limit, null);
         count--;
         return result;
     }
 
     @Override
     public String toString() {
+        StringBuilder keyBytes = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            keyBytes.append(i > 0 ? ", " : "").append(keyAt(i));
+        }
         return "ArtNode4{" +
                 "key=" + key +
                 ", nodeLevelKey=" + toNodeLevelKeys(key) +
                 ", depth=" + depth +
                 ", count=" + count +
-                ", keys=" + Arrays.toString(keys) +
+                ", keys=" + keyBytes.append(']') +
                 '}';
     }
 
@@ -5,14 +5,20 @@ import static dev.tingh.art.ArtNodes.*;
 
 public class ArtNode48<V> implements IArtNode<V> {
 
-    protected final short[] index = new short[256];
+    // The slot in nodes of each node index, or -1. The slots fit in a byte, and the shift is derived from the depth.
+    protected final byte[] index = new byte[256];
     protected final Object[] nodes = new Object[48];
 
-    private final int depth;
-    private final int shift;
-    private final long key;
+    // A bit for each node index with a child, lowest index first, so the first, last, ceiling and floor children are
+    // found a word at a time rather than by scanning the index.
+    private long occupied0;
+    private long occupied1;
+    private long occupied2;
+    private long occupied3;
 
+    private final long key;
     private short count = 0;
+    private final byte depth;
 
     public ArtNode48(long key) {
         this(key, 0);
@@ -20,33 +26,71 @@ public class ArtNode48<V> implements IArtNode<V> {
 
     public ArtNode48(long key, int depth) {
         this.key = key;
-        this.depth = depth;
-        this.shift = depth * 8;
+        this.depth = (byte) depth;
 
         for (int i = 0; i < 256; i++) {
             index[i] = -1;
         }
     }
 
+    // A copy of the node, sharing its children.
+    public ArtNode48(ArtNode48<V> node) {
+        this(node.getKey(), node.getDepth());
+
+        System.arraycopy(node.index, 0, index, 0, 256);
+        System.arraycopy(node.nodes, 0, nodes, 0, 48);
+        count = node.count;
+        occupied0 = node.occupied0;
+        occupied1 = node.occupied1;
+        occupied2 = node.occupied2;
+        occupied3 = node.occupied3;
+    }
+
     public ArtNode48(ArtNode16Linear<V> node) {
         this(node.getKey(), node.getDepth());
 
-        this.count = node.getCount();
+        this.count = (short) node.getCount();
 
         for (short i=0; i<node.getCount(); i++) {
-            this.index[node.keys[i]] = i;
+            this.index[node.keys[i] & 255] = (byte) i;
             this.nodes[i] = node.nodes[i];
+            flipOccupied(node.keys[i] & 255);
         }
     }
 
     public ArtNode48(ArtNode16BinarySearch<V> node) {
         this(node.getKey(), node.getDepth());
 
-        this.count = node.getCount();
+        this.count = (short) node.getCount();
+
+        for (short i=0; i<node.getCount(); i++) {
+            this.index[node.keys[i]] = (byte) i;
+            this.nodes[i] = node.nodes[i];
+            flipOccupied(node.keys[i]);
+        }
+    }
+
+    public ArtNode48(ArtNode16Vector<V> node) {
+        this(node.getKey(), node.getDepth());
+
+        this.count = (short) node.getCount();
+
+        for (short i=0; i<node.getCount(); i++) {
+            this.index[ArtNode16Vector.toNodeIndex(node.keys[i])] = (byte) i;
+            this.nodes[i] = node.nodes[i];
+            flipOccupied(ArtNode16Vector.toNodeIndex(node.keys[i]));
+        }
+    }
+
+    public ArtNode48(ArtNode16Swar<V> node) {
+        this(node.getKey(), node.getDepth());
+
+        this.count = (short) node.getCount();
 
         for (short i=0; i<node.getCount(); i++) {
-            this.index[node.keys[i]] = i;
+            this.index[node.keyAt(i)] = (byte) i;
             this.nodes[i] = node.nodes[i];
+            flipOccupied(node.keyAt(i));
         }
     }
 
@@ -55,8 +99,9 @@ public class ArtNode48<V> implements IArtNode<V> {
 
         for (short i=0; count < node.getCount(); i++) {
             if (node.nodes[i] != null) {
-                this.index[i] = count;
+                this.index[i] = (byte) count;
                 this.nodes[count] = node.nodes[i];
+                flipOccupied(i);
                 count++;
             }
         }
@@ -74,11 +119,11 @@ public class ArtNode48<V> implements IArtNode<V> {
 
     @Override
     public int getShift() {
-        return shift;
+        return depth << 3;
     }
 
     @Override
-    public short getCount() {
+    public int getCount() {
         return count;
     }
 
@@ -102,7 +147,7 @@ public class ArtNode48<V> implements IArtNode<V> {
         if (!inNode(this, key)) {
             return null;
         }
-        short nodeIndex = (short) (key >>> shift & 255L);
+        short nodeIndex = (short) (key >>> getShift() & 255L);
         if (index[nodeIndex] == -1) {
             return null;
         }
@@ -114,7 +159,7 @@ public class ArtNode48<V> implements IArtNode<V> {
         if (!isNodeGreaterThanOrEqualTo(this, key)) {
             return null;
         }
-        int nodeIndex = isNodeGreaterThan(this, key) ? 0 : (short) (key >>> shift & 255L);
+        int nodeIndex = isNodeGreaterThan(this, key) ? 0 : (short) (key >>> getShift() & 255L);
         if (index[nodeIndex] != -1) {
             return nodes[index[nodeIndex]];
         } else {
@@ -123,23 +168,12 @@ public class ArtNode48<V> implements IArtNode<V> {
     }
 
     private Object scanForCeiling(int nodeIndex) {
-        while (nodeIndex < 255) {
-            nodeIndex++;
-            if (index[nodeIndex] != -1) {
-                return nodes[index[nodeIndex]];
-            }
-        }
-        return null;
+        return getChild(getCeilingIndex(nodeIndex + 1));
     }
 
     @Override
     public Object getFirst() {
-        for (int i = 0; i < 256; i++) {
-            if (index[i] != -1) {
-                return nodes[index[i]];
-            }
-        }
-        return null;
+        return getChild(getCeilingIndex(0));
     }
 
     @Override
@@ -147,7 +181,7 @@ public class ArtNode48<V> implements IArtNode<V> {
         if (!isNodeLessThanOrEqualTo(this, key)) {
             return null;
         }
-        short nodeIndex =  (short) (key >>> shift & 255L);
+        short nodeIndex =  (short) (key >>> getShift() & 255L);
         if (index[nodeIndex] != -1) {
             return nodes[index[nodeIndex]];
         } else {
@@ -156,10 +190,9 @@ public class ArtNode48<V> implements IArtNode<V> {
     }
 
     private Object scanForFloor(short nodeIndex, long key) {
-        while (nodeIndex > 0) {
-            nodeIndex--;
-            if (index[nodeIndex] != -1 && isLessThan(nodes[index[nodeIndex]], key)) {
-                return  nodes[index[nodeIndex]];
+        for (int i = getFloorIndex(nodeIndex - 1); i != -1; i = getFloorIndex(i - 1)) {
+            if (isLessThan(nodes[index[i]], key)) {
+                return nodes[index[i]];
             }
         }
         return null;
@@ -167,12 +200,43 @@ public class ArtNode48<V> implements IArtNode<V> {
 
     @Override
     public Object getLast() {
-        for (int i = 255; i >= 0; i--) {
-            if (index[i] != -1) {
-                return nodes[index[i]];
-            }
+        return getChild(getFloorIndex(255));
+    }
+
+    // Null for the -1 of no such index, as well as for an index without a child.
+    @Override
+    public Object getChild(int nodeIndex) {
+        if (nodeIndex < 0 || nodeIndex > 255 || index[nodeIndex] == -1) {
+            return null;
+        }
+        return nodes[index[nodeIndex]];
+    }
+
+    @Override
+    public int getCeilingIndex(int nodeIndex) {
+        return ceilingBit(occupied0, occupied1, occupied2, occupied3, nodeIndex);
+    }
+
+    @Override
+    public int getFloorIndex(int nodeIndex) {
+        return floorBit(occupied0, occupied1, occupied2, occupied3, nodeIndex);
+    }
+
+    // Flips the bit of the node index, which is only called as a child is added or removed there.
+    private void flipOccupied(int nodeIndex) {
+        switch (nodeIndex >>> 6) {
+            case 0:
+                occupied0 ^= 1L << nodeIndex;
+                break;
+            case 1:
+                occupied1 ^= 1L << nodeIndex;
+                break;
+            case 2:
+                occupied2 ^= 1L << nodeIndex;
+                break;
+            default:
+                occupied3 ^= 1L << nodeIndex;
         }
-        return null;
     }
 
     @Override
@@ -186,7 +250,7 @@ public class ArtNode48<V> implements IArtNode<V> {
     }
 
     private boolean putObject(long key, Object value) {
-        short keyIndex = (short) (key >>> shift & 255L);
+        short keyIndex = (short) (key >>> getShift() & 255L);
         if (contains(keyIndex)) {
             nodes[index[keyIndex]] = value;
             return true;
@@ -199,8 +263,9 @@ public class ArtNode48<V> implements IArtNode<V> {
 
     private void putObject(short keyIndex, Object value) {
         short nodeIndex = getFreeIndex();
-        index[keyIndex] = nodeIndex;
+        index[keyIndex] = (byte) nodeIndex;
         nodes[nodeIndex] = value;
+        flipOccupied(keyIndex);
         count++;
     }
 
@@ -224,13 +289,14 @@ public class ArtNode48<V> implements IArtNode<V> {
     @Override
     public V remove(long key) {
         V result = null;
-        short nodeIndex = (short) (key >>> shift & 255L);
+        short nodeIndex = (short) (key >>> getShift() & 255L);
 
         if (contains(nodeIndex)) {
             int pos = index[nodeIndex];
             result = (V) nodes[pos];
             nodes[pos] = null;
             index[nodeIndex] = -1;
+            flipOccupied(nodeIndex);
             count--;
         }
         return result;
@@ -0,0 +1,233 @@
+package dev.tingh.art;
+
+import static dev.tingh.art.Art.toNodeLevelKeys;
+import static dev.tingh.art.ArtNodes.*;
+
+// A Node4 with its key bytes packed, sorted, into the low four lanes of a long field, with the children still in an
+// Object[4]. The keys are searched all at once with SWAR bit tricks, see Swar. Being sorted, inserts and removes
+// shift the lanes, where ArtNode4 keeps its slots in insertion order.
+public class ArtNode4Swar<V> implements IArtNode<V> {
+
+    protected long keys;
+    protected final Object[] nodes = new Object[4];
+
+    private final byte depth;
+    private final long key;
+
+    private short count = 0;
+
+    public ArtNode4Swar(long key) {
+        this(key, 0);
+    }
+
+    public ArtNode4Swar(long key, int depth) {
+        this.key = key;
+        this.depth = (byte) depth;
+    }
+
+    public ArtNode4Swar(ArtNode16Swar<V> node) {
+        this(node.getKey(), node.getDepth());
+
+        this.keys = node.lowKeys & 0xFFFFFFFFL;
+        System.arraycopy(node.nodes, 0, nodes, 0, node.getCount());
+        this.count = (short) node.getCount();
+    }
+
+    @Override
+    public long getKey() {
+        return key;
+    }
+
+    @Override
+    public int getDepth() {
+        return depth;
+    }
+
+    @Override
+    public int getShift() {
+        return depth << 3;
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public boolean isFull() {
+        return count == ArtNodeType.ArtNode4.getSize();
+    }
+
+    @Override
+    public ArtNodeType getNodeType() {
+        return ArtNodeType.ArtNode4;
+    }
+
+    @Override
+    public boolean canShrink() {
+        return false;
+    }
+
+    @Override
+    public Object get(long key) {
+        if (!inNode(this, key)) {
+            return null;
+        }
+        int index = Swar.find(keys, count, (int) (key >>> getShift() & 255L));
+        return index >= 0 ? nodes[index] : null;
+    }
+
+    @Override
+    public Object getCeiling(long key) {
+        if (!isNodeGreaterThanOrEqualTo(this, key)) {
+            return null;
+        }
+
+        int nodeIndex = isNodeGreaterThan(this, key) ? 0 : (int) (key >>> getShift() & 255L);
+        int index = Swar.find(keys, count, nodeIndex);
+        if (index >= 0) {
+            return nodes[index];
+        }
+        index = Swar.rank(keys, count, nodeIndex);
+        if (index < count && isGreaterThan(nodes[index], key)) {
+            return nodes[index];
+        }
+        return null;
+    }
+
+    @Override
+    public Object getFirst() {
+        return nodes[0];
+    }
+
+    @Override
+    public Object getFloor(long key) {
+        if (!isNodeLessThanOrEqualTo(this, key)) {
+            return null;
+        }
+
+        int nodeIndex = isNodeLessThan(this, key) ? 255 : (int) (key >>> getShift() & 255L);
+        int index = Swar.find(keys, count, nodeIndex);
+        if (index >= 0) {
+            return nodes[index];
+        }
+        index = Swar.rank(keys, count, nodeIndex) - 1;
+        if (index >= 0 && isLessThan(nodes[index], key)) {
+            return nodes[index];
+        }
+        return null;
+    }
+
+    @Override
+    public Object getLast() {
+        if (count == 0) {
+            return null;
+        }
+        return nodes[count - 1];
+    }
+
+    @Override
+    public Object getChild(int nodeIndex) {
+        int index = Swar.find(keys, count, nodeIndex);
+        return index >= 0 ? nodes[index] : null;
+    }
+
+    @Override
+    public int getCeilingIndex(int nodeIndex) {
+        if (nodeIndex > 255) {
+            return -1;
+        }
+        int index = Swar.rank(keys, count, nodeIndex);
+        return index < count ? Swar.lane(keys, index) : -1;
+    }
+
+    @Override
+    public int getFloorIndex(int nodeIndex) {
+        // -1 broadcasts to the lane value 255.
+        if (nodeIndex < 0) {
+            return -1;
+        }
+        int index = Swar.find(keys, count, nodeIndex);
+        if (index < 0) {
+            index = Swar.rank(keys, count, nodeIndex) - 1;
+        }
+        return index >= 0 ? Swar.lane(keys, index) : -1;
+    }
+
+    @Override
+    public boolean put(long key, V value) {
+        return putObject(key, value);
+    }
+
+    @Override
+    public boolean put(long key, IArtNode<V> node) {
+        return putObject(key, node);
+    }
+
+    private boolean putObject(long key, Object value) {
+        int nodeIndex = (int) (key >>> getShift() & 255L);
+        int index = Swar.find(keys, count, nodeIndex);
+        if (index >= 0) {
+            this.nodes[index] = value;
+            return true;
+        } else if (!isFull()) {
+            index = Swar.rank(keys, count, nodeIndex);
+            keys = Swar.insert(keys, index, nodeIndex);
+            System.arraycopy(nodes, index, nodes, index + 1, count - index);
+            nodes[index] = value;
+            count++;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public V remove(long key) {
+        int index = Swar.find(keys, count, (int) (key >>> getShift() & 255L));
+        if (index < 0) {
+            return null;
+        }
+        V result = (V) nodes[index];
+        keys = Swar.remove(keys, index);
+        int source = index + 1;
+        System.arraycopy(nodes, source, nodes, index, count - source);
+        count--;
+        nodes[count] = null;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ArtNode4Swar{" +
+                "key=" + key +
+                ", nodeLevelKey=" + toNodeLevelKeys(key) +
+                ", depth=" + depth +
+                ", count=" + count +
+                ", keys=" + Long.toHexString(keys) +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        ArtNode4Swar<?> that = (ArtNode4Swar<?>) o;
+
+        if (depth != that.depth) {
+            return false;
+        }
+        return key == that.key;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = depth;
+        result = 31 * result + (int) (key ^ (key >>> 32));
+        return result;
+    }
+}
@@ -2,7 +2,8 @@ package dev.tingh.art;
 
 public enum ArtNodeType {
 
-    ArtNode4(4), ArtNode16(16), ArtNode48(48), ArtNode256(256);
+    ArtNode1(1), ArtNode4(4), ArtNode16(16), ArtNode48(48), ArtNode256(256),
+    ArtDenseLeaf16(1 << 16), ArtDenseLeaf24(1 << 24);
 
     private final int size;
 
@@ -3,7 +3,7 @@ package dev.tingh.art;
 public class ArtNodes {
 
     static <V> boolean inNode(IArtNode<V> node, long key) {
-        int depth = node.getShift() + 8;
+        int depth = node.getShift() + node.getIndexBits();
         if (depth >= 64) {
             return true;
         }
@@ -11,7 +11,7 @@ public class ArtNodes {
     }
 
     static <V> boolean isNodeGreaterThanOrEqualTo(IArtNode<V> node, long key) {
-        int depth = node.getShift() + 8;
+        int depth = node.getShift() + node.getIndexBits();
         if (depth >= 64) {
             return true;
         }
@@ -19,7 +19,7 @@ public class ArtNodes {
     }
 
     static <V> boolean isNodeGreaterThan(IArtNode<V> node, long key) {
-        int depth = node.getShift() + 8;
+        int depth = node.getShift() + node.getIndexBits();
         if (depth >= 64) {
             return false;
         }
@@ -34,7 +34,7 @@ public class ArtNodes {
     }
 
     static <V> boolean isNodeLessThanOrEqualTo(IArtNode<V> node, long key) {
-        int depth = node.getShift() + 8;
+        int depth = node.getShift() + node.getIndexBits();
         if (depth >= 64) {
             return true;
         }
@@ -42,7 +42,7 @@ public class ArtNodes {
     }
 
     static <V> boolean isNodeLessThan(IArtNode<V> node, long key) {
-        int depth = node.getShift() + 8;
+        int depth = node.getShift() + node.getIndexBits();
         if (depth >= 64) {
             return false;
         }
@@ -55,4 +55,204 @@ public class ArtNodes {
         }
         return ((IArtNode<V>)value).getKey() < key;
     }
+
+    // Negative if every key under the node is less than the key, positive if every key is greater,
+    // otherwise zero as the key shares the node's prefix. Prefixes compare as signed values, like the keys.
+    static <V> int comparePrefix(IArtNode<V> node, long key) {
+        int depth = node.getShift() + node.getIndexBits();
+        if (depth >= 64) {
+            return 0;
+        }
+        return Long.compare(node.getKey() >> depth, key >> depth);
+    }
+
+    static <V> int nodeIndex(IArtNode<V> node, long key) {
+        return (int) (key >>> node.getShift() & maxIndex(node));
+    }
+
+    // The highest index of the node, 255 but for the dense leaves.
+    static <V> int maxIndex(IArtNode<V> node) {
+        return (1 << node.getIndexBits()) - 1;
+    }
+
+    // The key of the value at the index of a leaf node, the leaf node key holds the bytes above its index.
+    static <V> long leafKey(IArtNode<V> node, int index) {
+        return node.getKey() & ~(long) maxIndex(node) | index;
+    }
+
+    // The helpers below walk node indexes in key order. Keys are signed, so under a node at depth 7
+    // the indexes 128..255 (negative keys) come before 0..127.
+
+    static <V> int firstIndex(IArtNode<V> node) {
+        return ceilingIndex(node, node.getDepth() == 7 ? 128 : 0);
+    }
+
+    static <V> int lastIndex(IArtNode<V> node) {
+        return floorIndex(node, node.getDepth() == 7 ? 127 : maxIndex(node));
+    }
+
+    static <V> int ceilingIndex(IArtNode<V> node, int nodeIndex) {
+        if (node.getDepth() != 7) {
+            return node.getCeilingIndex(nodeIndex);
+        }
+        int index = node.getCeilingIndex(nodeIndex);
+        if (nodeIndex < 128) {
+            return index < 128 ? index : -1;
+        } else if (index != -1) {
+            return index;
+        }
+        index = node.getCeilingIndex(0);
+        return index < 128 ? index : -1;
+    }
+
+    static <V> int floorIndex(IArtNode<V> node, int nodeIndex) {
+        if (node.getDepth() != 7) {
+            return node.getFloorIndex(nodeIndex);
+        }
+        int index = node.getFloorIndex(nodeIndex);
+        if (nodeIndex >= 128) {
+            return index >= 128 ? index : -1;
+        } else if (index != -1) {
+            return index;
+        }
+        index = node.getFloorIndex(255);
+        return index >= 128 ? index : -1;
+    }
+
+    static <V> int higherIndex(IArtNode<V> node, int nodeIndex) {
+        if (nodeIndex == (node.getDepth() == 7 ? 127 : maxIndex(node))) {
+            return -1;
+        }
+        return ceilingIndex(node, (nodeIndex + 1) & maxIndex(node));
+    }
+
+    static <V> int lowerIndex(IArtNode<V> node, int nodeIndex) {
+        if (nodeIndex == (node.getDepth() == 7 ? 128 : 0)) {
+            return -1;
+        }
+        return floorIndex(node, (nodeIndex - 1) & maxIndex(node));
+    }
+
+    // The lowest set bit at or above the index in the 256 bit occupancy bitmap of the four words, lowest first, or -1.
+    // A shift of a long only takes the low 6 bits of its distance, so -1L << index masks within the index's word.
+    static int ceilingBit(long word0, long word1, long word2, long word3, int index) {
+        if (index < 64 && (word0 & -1L << index) != 0) {
+            return Long.numberOfTrailingZeros(word0 & -1L << index);
+        }
+        index = Math.max(index, 64);
+        if (index < 128 && (word1 & -1L << index) != 0) {
+            return 64 + Long.numberOfTrailingZeros(word1 & -1L << index);
+        }
+        index = Math.max(index, 128);
+        if (index < 192 && (word2 & -1L << index) != 0) {
+            return 128 + Long.numberOfTrailingZeros(word2 & -1L << index);
+        }
+        index = Math.max(index, 192);
+        if (index < 256 && (word3 & -1L << index) != 0) {
+            return 192 + Long.numberOfTrailingZeros(word3 & -1L << index);
+        }
+        return -1;
+    }
+
+    // The highest set bit at or below the index in the occupancy bitmap, or -1.
+    static int floorBit(long word0, long word1, long word2, long word3, int index) {
+        if (index >= 192 && (word3 & -1L >>> ~index) != 0) {
+            return 255 - Long.numberOfLeadingZeros(word3 & -1L >>> ~index);
+        }
+        index = Math.min(index, 191);
+        if (index >= 128 && (word2 & -1L >>> ~index) != 0) {
+            return 191 - Long.numberOfLeadingZeros(word2 & -1L >>> ~index);
+        }
+        index = Math.min(index, 127);
+        if (index >= 64 && (word1 & -1L >>> ~index) != 0) {
+            return 127 - Long.numberOfLeadingZeros(word1 & -1L >>> ~index);
+        }
+        index = Math.min(index, 63);
+        if (index >= 0 && (word0 & -1L >>> ~index) != 0) {
+            return 63 - Long.numberOfLeadingZeros(word0 & -1L >>> ~index);
+        }
+        return -1;
+    }
+
+    // An empty node of the smallest type that holds the given number of children.
+    static <V> IArtNode<V> newNode(long key, int depth, int count) {
+        if (depth == 0 && count <= ArtNodeType.ArtNode1.getSize()) {
+            return new ArtNode1<>(key);
+        } else if (count <= ArtNodeType.ArtNode4.getSize()) {
+            return new ArtNode4<>(key, depth);
+        } else if (count <= ArtNodeType.ArtNode16.getSize()) {
+            return new ArtNode16Linear<>(key, depth);
+        } else if (count <= ArtNodeType.ArtNode48.getSize()) {
+            return new ArtNode48<>(key, depth);
+        }
+        return new ArtNode256<>(key, depth);
+    }
+
+    // The node, or if it is too small for the given number of children a node of the smallest type that holds them,
+    // with the same children. The new node takes the place of the old one, grown in one step rather than by each type.
+    static <V> IArtNode<V> resize(IArtNode<V> node, int count) {
+        if (count <= node.getNodeType().getSize()) {
+            return node;
+        }
+        IArtNode<V> newNode = newNode(node.getKey(), node.getDepth(), count);
+        for (int index = node.getCeilingIndex(0); index != -1; index = node.getCeilingIndex(index + 1)) {
+            long key = node.getKey() & ~(255L << node.getShift()) | (long) index << node.getShift();
+            if (node.getDepth() == 0) {
+                newNode.put(key, (V) node.getChild(index));
+            } else {
+                newNode.put(key, (IArtNode<V>) node.getChild(index));
+            }
+        }
+        return newNode;
+    }
+
+    // A copy of the node of the same type, sharing its children.
+    static <V> IArtNode<V> copy(IArtNode<V> node) {
+        switch (node.getNodeType()) {
+            case ArtNode1:
+                return new ArtNode1<>((ArtNode1<V>) node);
+            case ArtNode4:
+                return new ArtNode4<>((ArtNode4<V>) node);
+            case ArtNode16:
+                return new ArtNode16Linear<>((ArtNode16Linear<V>) node);
+            case ArtNode48:
+                return new ArtNode48<>((ArtNode48<V>) node);
+            case ArtNode256:
+                return new ArtNode256<>((ArtNode256<V>) node);
+        }
+        throw new IllegalStateException("Unhandled nodeType=" + node.getNodeType());
+    }
+
+    // The next larger node type, holding the same children.
+    static <V> IArtNode<V> grow(IArtNode<V> node) {
+        switch (node.getNodeType()) {
+            case ArtNode1:
+                return new ArtNode4<>((ArtNode1<V>) node);
+            case ArtNode4:
+                return new ArtNode16Linear<>((ArtNode4<V>) node);
+            case ArtNode16:
+                return new ArtNode48<>((ArtNode16Linear<V>) node);
+            case ArtNode48:
+                return new ArtNode256<>((ArtNode48<V>) node);
+        }
+        throw new IllegalStateException("Unhandled nodeType=" + node.getNodeType());
+    }
+
+    // The next smaller node type, holding the same children.
+    static <V> IArtNode<V> shrink(IArtNode<V> node) {
+        switch (node.getNodeType()) {
+            case ArtNode4:
+                return new ArtNode1<>((ArtNode4<V>) node);
+            case ArtNode16:
+                return new ArtNode4<>((ArtNode16Linear<V>) node);
+            case ArtNode48:
+                return new ArtNode16Linear<>((ArtNode48<V>) node);
+            case ArtNode256:
+                return new ArtNode48<>((ArtNode256<V>) node);
+            case ArtDenseLeaf16:
+            case ArtDenseLeaf24:
+                return ((ArtDenseLeaf<V>) node).toNodes();
+        }
+        throw new IllegalStateException("Unhandled nodeType=" + node.getNodeType());
+    }
 }
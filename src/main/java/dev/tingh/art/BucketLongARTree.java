@@ -0,0 +1,519 @@
+package dev.tingh.art;
+
+import static dev.tingh.art.ArtNodes.*;
+
+/**
+ * A map of long keys to values, an adaptive radix tree whose sparse subtrees are held as sorted arrays, a hybrid of
+ * the ART and the leaves of a B+-tree.
+ *
+ * The inner nodes are the usual ArtNode4..ArtNode256. Below them a subtree of up to the bucket size of keys is held
+ * as an ArtBucket, the keys sorted in a packed long[] with the values alongside and found by binary search, rather
+ * than as chains of nearly empty nodes. A lone key is held as an ArtNode1 record, and a second key in the same slot
+ * turns it into a bucket. A bucket that overflows splits into nodes at the highest byte where its keys differ, each
+ * partition becoming a bucket or record of its own, or into a leaf node holding the values directly where the keys
+ * differ only in their last byte, as dense keys do. Buckets are not merged back when removes leave subtrees small.
+ *
+ * Ordered navigation follows LongARTree, with binary search for the ceiling or floor inside a bucket.
+ */
+public class BucketLongARTree<V> implements ILongARTree<V> {
+
+    public static final int DEFAULT_BUCKET_SIZE = 64;
+
+    private final int bucketSize;
+
+    // An inner node, a leaf node or a bucket.
+    private Object root;
+
+    private int size;
+
+    public BucketLongARTree() {
+        this(DEFAULT_BUCKET_SIZE);
+    }
+
+    // Buckets of up to bucketSize keys, from 2 to 4096.
+    public BucketLongARTree(int bucketSize) {
+        if (bucketSize < 2 || bucketSize > 4096) {
+            throw new IllegalArgumentException("bucketSize must be from 2 to 4096, was " + bucketSize);
+        }
+        this.bucketSize = bucketSize;
+    }
+
+    public int getBucketSize() {
+        return bucketSize;
+    }
+
+    @Override
+    public V get(long key) {
+        Object node = root;
+        while (node != null) {
+            if (node instanceof ArtBucket) {
+                ArtBucket bucket = (ArtBucket) node;
+                int slot = bucket.find(key);
+                return slot >= 0 ? (V) bucket.valueAt(slot) : null;
+            }
+            IArtNode<Object> artNode = (IArtNode<Object>) node;
+            if (artNode.getDepth() == 0) {
+                return (V) artNode.get(key);
+            }
+            // An inner node returns null for a key outside its prefix, so no separate prefix check is needed.
+            node = artNode.get(key);
+        }
+        return null;
+    }
+
+    @Override
+    public boolean contains(long key) {
+        return get(key) != null;
+    }
+
+    // Returns the previous value of the key, or null if the key was added.
+    @Override
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new NullPointerException("Null value, key=" + key);
+        } else if (root == null) {
+            root = new ArtNode1<>(key, value);
+            size++;
+            return null;
+        }
+
+        IArtNode<Object> parent = null;
+        Object node = root;
+        while (true) {
+            if (node instanceof ArtBucket) {
+                return putInBucket(parent, (ArtBucket) node, key, value);
+            }
+            IArtNode<Object> artNode = (IArtNode<Object>) node;
+            if (artNode.getNodeType() == ArtNodeType.ArtNode1) {
+                return putInRecord(parent, artNode, key, value);
+            } else if (!inNode(artNode, key)) {
+                branch(key, value, parent, artNode);
+                size++;
+                return null;
+            } else if (artNode.getDepth() == 0) {
+                Object previous = artNode.get(key);
+                if (previous == null && artNode.isFull()) {
+                    artNode = (IArtNode<Object>) replace(parent, artNode, grow(artNode));
+                }
+                artNode.put(key, (Object) value);
+                if (previous == null) {
+                    size++;
+                }
+                return (V) previous;
+            }
+
+            Object next = artNode.get(key);
+            if (next == null) {
+                if (artNode.isFull()) {
+                    artNode = (IArtNode<Object>) replace(parent, artNode, grow(artNode));
+                }
+                artNode.put(key, new ArtNode1<>(key, value));
+                size++;
+                return null;
+            }
+            parent = artNode;
+            node = next;
+        }
+    }
+
+    // A second key in the slot of a record turns it into a bucket of the two, whatever bytes they differ in, as
+    // a bucket covers every key under its slot.
+    private V putInRecord(IArtNode<Object> parent, IArtNode<Object> record, long key, V value) {
+        Object previous = record.get(key);
+        if (previous != null) {
+            record.put(key, (Object) value);
+            return (V) previous;
+        }
+        long recordKey = record.getKey();
+        boolean first = key < recordKey;
+        long[] keys = {first ? key : recordKey, first ? recordKey : key};
+        Object[] values = {first ? value : record.getFirst(), first ? record.getFirst() : value};
+        replace(parent, record, new ArtBucket(keys, values, 0, 2));
+        size++;
+        return null;
+    }
+
+    private V putInBucket(IArtNode<Object> parent, ArtBucket bucket, long key, V value) {
+        int slot = bucket.find(key);
+        if (slot >= 0) {
+            V previous = (V) bucket.valueAt(slot);
+            bucket.setValue(slot, value);
+            return previous;
+        }
+        slot = -(slot + 1);
+        if (bucket.getCount() < bucketSize) {
+            bucket.insert(slot, key, value, bucketSize);
+        } else {
+            long[] keys = bucket.keysWith(slot, key);
+            replace(parent, bucket, build(keys, bucket.valuesWith(slot, value), 0, keys.length));
+        }
+        size++;
+        return null;
+    }
+
+    // The subtree holding the keys in the range, which must be sorted: a record or bucket if they fit one, otherwise
+    // a node at the highest byte where they differ over the subtrees of each partition of that byte.
+    private Object build(long[] keys, Object[] values, int from, int to) {
+        int count = to - from;
+        if (count == 1) {
+            return new ArtNode1<>(keys[from], values[from]);
+        } else if (count <= bucketSize) {
+            return new ArtBucket(keys, values, from, to);
+        }
+
+        // Sorted, the first and last keys differ at least as high as any between them.
+        int depth = (63 - Long.numberOfLeadingZeros(keys[from] ^ keys[to - 1])) >>> 3;
+        if (depth == 0) {
+            IArtNode<Object> leafNode = newNode(keys[from], 0, count);
+            for (int i = from; i < to; i++) {
+                leafNode.put(keys[i], values[i]);
+            }
+            return leafNode;
+        }
+
+        int shift = depth * 8;
+        int partitions = 0;
+        for (int i = from; i < to; i = partitionEnd(keys, shift, i, to)) {
+            partitions++;
+        }
+        IArtNode<Object> node = newNode(keys[from], depth, partitions);
+        for (int i = from; i < to; ) {
+            int end = partitionEnd(keys, shift, i, to);
+            node.put(keys[i], build(keys, values, i, end));
+            i = end;
+        }
+        return node;
+    }
+
+    // The end of the run of keys from the given one that share its byte at the shift, and every byte above it.
+    private static int partitionEnd(long[] keys, int shift, int from, int to) {
+        long prefix = keys[from] >>> shift;
+        int end = from + 1;
+        while (end < to && keys[end] >>> shift == prefix) {
+            end++;
+        }
+        return end;
+    }
+
+    // The key is outside the node's prefix, so insert a new node at the first differing byte, above the node.
+    private void branch(long key, V value, IArtNode<Object> parent, IArtNode<Object> node) {
+        int depth = (63 - Long.numberOfLeadingZeros(node.getKey() ^ key)) >>> 3;
+        IArtNode<Object> newNode = new ArtNode4<>(key, depth);
+        newNode.put(key, new ArtNode1<>(key, value));
+        newNode.put(node.getKey(), node);
+        replace(parent, node, newNode);
+    }
+
+    // Swaps the child pointer in the parent, the new node sits in the same slot as the node it replaces.
+    private Object replace(IArtNode<Object> parent, Object node, Object newNode) {
+        if (parent == null) {
+            root = newNode;
+        } else {
+            parent.put(getKey(node), newNode);
+        }
+        return newNode;
+    }
+
+    @Override
+    public V remove(long key) {
+        // The inner nodes above the current node, the depth strictly decreases so there are at most 8.
+        IArtNode<Object>[] path = new IArtNode[8];
+        int depth = 0;
+
+        Object node = root;
+        while (node != null) {
+            IArtNode<Object> parent = depth > 0 ? path[depth - 1] : null;
+            if (node instanceof ArtBucket) {
+                return removeFromBucket(parent, (ArtBucket) node, key);
+            }
+            IArtNode<Object> artNode = (IArtNode<Object>) node;
+            if (artNode.getDepth() == 0) {
+                if (!inNode(artNode, key)) {
+                    return null;
+                }
+                V result = (V) artNode.remove(key);
+                if (result != null) {
+                    compress(path, depth, artNode, key);
+                    size--;
+                }
+                return result;
+            }
+            path[depth++] = artNode;
+            node = artNode.get(key);
+        }
+        return null;
+    }
+
+    // A bucket left with one key turns back into a record.
+    private V removeFromBucket(IArtNode<Object> parent, ArtBucket bucket, long key) {
+        int slot = bucket.find(key);
+        if (slot < 0) {
+            return null;
+        }
+        V result = (V) bucket.valueAt(slot);
+        if (bucket.getCount() == 2) {
+            int other = 1 - slot;
+            replace(parent, bucket, new ArtNode1<>(bucket.keyAt(other), bucket.valueAt(other)));
+        } else {
+            bucket.delete(slot);
+        }
+        size--;
+        return result;
+    }
+
+    // Shrinks the leaf node, or once it is empty removes it from its parent, replacing the parent by its only
+    // remaining child or shrinking it. Inner nodes always have two or more children, so nothing further up changes.
+    private void compress(IArtNode<Object>[] path, int depth, IArtNode<Object> leafNode, long key) {
+        IArtNode<Object> parent = depth > 0 ? path[depth - 1] : null;
+        if (leafNode.getCount() > 0) {
+            if (leafNode.canShrink()) {
+                replace(parent, leafNode, shrink(leafNode));
+            }
+            return;
+        } else if (parent == null) {
+            root = null;
+            return;
+        }
+
+        IArtNode<Object> grandParent = depth > 1 ? path[depth - 2] : null;
+        parent.remove(key);
+        if (parent.getCount() == 1) {
+            replace(grandParent, parent, parent.getChild(firstIndex(parent)));
+        } else if (parent.canShrink()) {
+            replace(grandParent, parent, shrink(parent));
+        }
+    }
+
+    @Override
+    public IArtNode<V> getParent(long key, int parentDepth) {
+        Object node = root;
+        while (node instanceof IArtNode) {
+            IArtNode<Object> artNode = (IArtNode<Object>) node;
+            if (artNode.getDepth() == parentDepth) {
+                return (IArtNode<V>) artNode;
+            } else if (artNode.getDepth() < parentDepth) {
+                return null;
+            }
+            Object next = artNode.get(key);
+            if (next == null) {
+                return null;
+            } else if (next instanceof ArtBucket || ((IArtNode<?>) next).getDepth() < parentDepth) {
+                return (IArtNode<V>) artNode;
+            }
+            node = next;
+        }
+        return null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    // Least key greater than or equal to the given key.
+    @Override
+    public V getCeiling(long key) {
+        Object leaf = ceilingLeaf(key);
+        return leaf != null ? valueAt(leaf, leafCeiling(leaf, key)) : null;
+    }
+
+    // Greatest key less than or equal to the given key.
+    @Override
+    public V getFloor(long key) {
+        Object leaf = floorLeaf(key);
+        return leaf != null ? valueAt(leaf, leafFloor(leaf, key)) : null;
+    }
+
+    @Override
+    public long ceilingKey(long key) {
+        Object leaf = ceilingLeaf(key);
+        return leaf != null ? keyAt(leaf, leafCeiling(leaf, key)) : NO_KEY;
+    }
+
+    @Override
+    public long floorKey(long key) {
+        Object leaf = floorLeaf(key);
+        return leaf != null ? keyAt(leaf, leafFloor(leaf, key)) : NO_KEY;
+    }
+
+    @Override
+    public long higherKey(long key) {
+        return key != Long.MAX_VALUE ? ceilingKey(key + 1) : NO_KEY;
+    }
+
+    @Override
+    public long lowerKey(long key) {
+        return key != Long.MIN_VALUE ? floorKey(key - 1) : NO_KEY;
+    }
+
+    @Override
+    public long firstKey() {
+        return ceilingKey(Long.MIN_VALUE);
+    }
+
+    @Override
+    public long lastKey() {
+        return floorKey(Long.MAX_VALUE);
+    }
+
+    // The bucket or leaf node holding the least key greater than or equal to the given key, or null if there is none.
+    private Object ceilingLeaf(long key) {
+        // The inner nodes above the current node, for backtracking to the next branch.
+        IArtNode<Object>[] path = new IArtNode[8];
+        int depth = 0;
+
+        Object node = root;
+        while (node != null) {
+            if (node instanceof ArtBucket) {
+                ArtBucket bucket = (ArtBucket) node;
+                if (bucket.ceilingSlot(key) < bucket.getCount()) {
+                    return bucket;
+                }
+                break;
+            }
+            IArtNode<Object> artNode = (IArtNode<Object>) node;
+            int compare = comparePrefix(artNode, key);
+            if (compare > 0) {
+                return getFirstLeaf(artNode);
+            } else if (compare < 0) {
+                break;
+            }
+            int nodeIndex = nodeIndex(artNode, key);
+            if (artNode.getDepth() == 0) {
+                if (ceilingIndex(artNode, nodeIndex) != -1) {
+                    return artNode;
+                }
+                break;
+            }
+            Object next = artNode.getChild(nodeIndex);
+            if (next == null) {
+                int index = ceilingIndex(artNode, nodeIndex);
+                if (index != -1) {
+                    return getFirstLeaf(artNode.getChild(index));
+                }
+                break;
+            }
+            path[depth++] = artNode;
+            node = next;
+        }
+
+        // Nothing at or above the key under the current node, so the ceiling is the first key of the nearest
+        // branch to the right, found by backtracking up the path.
+        while (depth > 0) {
+            IArtNode<Object> parent = path[--depth];
+            int index = higherIndex(parent, nodeIndex(parent, key));
+            if (index != -1) {
+                return getFirstLeaf(parent.getChild(index));
+            }
+        }
+        return null;
+    }
+
+    // The position of the ceiling within the leaf found by ceilingLeaf, which either holds keys on both sides of
+    // the key or only greater ones, making the ceiling its first. Binary search finds either in a bucket.
+    private int leafCeiling(Object leaf, long key) {
+        if (leaf instanceof ArtBucket) {
+            return ((ArtBucket) leaf).ceilingSlot(key);
+        }
+        IArtNode<Object> leafNode = (IArtNode<Object>) leaf;
+        return comparePrefix(leafNode, key) == 0 ? ceilingIndex(leafNode, nodeIndex(leafNode, key)) : firstIndex(leafNode);
+    }
+
+    private Object getFirstLeaf(Object node) {
+        while (!isLeaf(node)) {
+            IArtNode<Object> innerNode = (IArtNode<Object>) node;
+            node = innerNode.getChild(firstIndex(innerNode));
+        }
+        return node;
+    }
+
+    // The bucket or leaf node holding the greatest key less than or equal to the given key, or null if there is none.
+    private Object floorLeaf(long key) {
+        // The inner nodes above the current node, for backtracking to the previous branch.
+        IArtNode<Object>[] path = new IArtNode[8];
+        int depth = 0;
+
+        Object node = root;
+        while (node != null) {
+            if (node instanceof ArtBucket) {
+                if (((ArtBucket) node).floorSlot(key) != -1) {
+                    return node;
+                }
+                break;
+            }
+            IArtNode<Object> artNode = (IArtNode<Object>) node;
+            int compare = comparePrefix(artNode, key);
+            if (compare < 0) {
+                return getLastLeaf(artNode);
+            } else if (compare > 0) {
+                break;
+            }
+            int nodeIndex = nodeIndex(artNode, key);
+            if (artNode.getDepth() == 0) {
+                if (floorIndex(artNode, nodeIndex) != -1) {
+                    return artNode;
+                }
+                break;
+            }
+            Object next = artNode.getChild(nodeIndex);
+            if (next == null) {
+                int index = floorIndex(artNode, nodeIndex);
+                if (index != -1) {
+                    return getLastLeaf(artNode.getChild(index));
+                }
+                break;
+            }
+            path[depth++] = artNode;
+            node = next;
+        }
+
+        // Nothing at or below the key under the current node, so the floor is the last key of the nearest
+        // branch to the left, found by backtracking up the path.
+        while (depth > 0) {
+            IArtNode<Object> parent = path[--depth];
+            int index = lowerIndex(parent, nodeIndex(parent, key));
+            if (index != -1) {
+                return getLastLeaf(parent.getChild(index));
+            }
+        }
+        return null;
+    }
+
+    private int leafFloor(Object leaf, long key) {
+        if (leaf instanceof ArtBucket) {
+            return ((ArtBucket) leaf).floorSlot(key);
+        }
+        IArtNode<Object> leafNode = (IArtNode<Object>) leaf;
+        return comparePrefix(leafNode, key) == 0 ? floorIndex(leafNode, nodeIndex(leafNode, key)) : lastIndex(leafNode);
+    }
+
+    private Object getLastLeaf(Object node) {
+        while (!isLeaf(node)) {
+            IArtNode<Object> innerNode = (IArtNode<Object>) node;
+            node = innerNode.getChild(lastIndex(innerNode));
+        }
+        return node;
+    }
+
+    // The key at the position of a leaf, a slot of a bucket or a node index of a leaf node.
+    private static long keyAt(Object leaf, int position) {
+        return leaf instanceof ArtBucket ? ((ArtBucket) leaf).keyAt(position) : leafKey((IArtNode<?>) leaf, position);
+    }
+
+    private V valueAt(Object leaf, int position) {
+        return (V) (leaf instanceof ArtBucket ? ((ArtBucket) leaf).valueAt(position) : ((IArtNode<?>) leaf).getChild(position));
+    }
+
+    private static boolean isLeaf(Object node) {
+        return node instanceof ArtBucket || ((IArtNode<?>) node).getDepth() == 0;
+    }
+
+    private static long getKey(Object node) {
+        return node instanceof ArtBucket ? ((ArtBucket) node).getKey() : ((IArtNode<?>) node).getKey();
+    }
+}
@@ -0,0 +1,30 @@
+package dev.tingh.art;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+// Searches the 16 key bytes of an ArtNode16Vector with one 128 bit compare, as the Node16 of the ART paper does
+// with SSE. Only loaded when the jdk.incubator.vector module is present, see ArtNode16Vector.
+//
+// The masks are reduced with firstTrue and trueCount, which JDK 17 compiles to a few instructions, rather than
+// with toLong, which it does not and which made the search slower than the scalar loop.
+final class ByteVectorSearch {
+
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_128;
+
+    private ByteVectorSearch() {
+    }
+
+    // The slot holding the key byte among the first count, or -1.
+    static int find(byte[] keys, int count, byte key) {
+        VectorMask<Byte> matches = ByteVector.fromArray(SPECIES, keys, 0).eq(key).and(SPECIES.indexInRange(0, count));
+        int slot = matches.firstTrue();
+        return slot < 16 ? slot : -1;
+    }
+
+    // The number of key bytes among the first count that are less than the key byte.
+    static int rank(byte[] keys, int count, byte key) {
+        return ByteVector.fromArray(SPECIES, keys, 0).lt(key).and(SPECIES.indexInRange(0, count)).trueCount();
+    }
+}
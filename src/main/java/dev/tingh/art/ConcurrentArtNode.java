@@ -0,0 +1,254 @@
+package dev.tingh.art;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import static dev.tingh.art.Art.toNodeLevelKeys;
+
+// A node of ConcurrentLongARTree, with a version word for optimistic lock coupling.
+//
+// The version is a counter in the upper bits, a locked bit and an obsolete bit. Readers note the version, read the
+// node without locking and then validate that the version is unchanged. A writer upgrades the version it read to
+// a lock, which fails if anyone changed the node since, and unlocking bumps the counter so that every reader that
+// overlapped the write fails validation. A node replaced or unlinked from the tree is unlocked as obsolete.
+//
+// Readers may see the node mid update, so the arrays are sized for the node type up front and never swapped, and
+// every index a reader computes stays in bounds whatever it reads. The keys are held sorted up to the ArtNode48
+// size, as in ArtLeafNode, and the 256 type indexes the children directly.
+class ConcurrentArtNode {
+
+    static final long RESTART = -1;
+
+    private static final long OBSOLETE = 1;
+    private static final long LOCKED = 2;
+
+    private static final VarHandle VERSION;
+
+    static {
+        try {
+            VERSION = MethodHandles.lookup().findVarHandle(ConcurrentArtNode.class, "version", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final long key;
+    private final byte depth;
+    private final ArtNodeType nodeType;
+
+    // The sorted key bytes of the children, null in the 256 type.
+    private final byte[] keys;
+    private final Object[] children;
+    private int count;
+
+    private volatile long version;
+
+    ConcurrentArtNode(long key, int depth, ArtNodeType nodeType) {
+        this.key = key;
+        this.depth = (byte) depth;
+        this.nodeType = nodeType;
+        this.keys = nodeType != ArtNodeType.ArtNode256 ? new byte[nodeType.getSize()] : null;
+        this.children = new Object[nodeType.getSize()];
+    }
+
+    // A copy of the node, which must be locked, as the given type.
+    ConcurrentArtNode(ConcurrentArtNode node, ArtNodeType nodeType) {
+        this(node.key, node.depth, nodeType);
+        if (node.keys != null) {
+            for (int slot = 0; slot < node.count; slot++) {
+                put(node.keys[slot] & 255, node.children[slot]);
+            }
+        } else {
+            for (int index = 0; index < 256; index++) {
+                if (node.children[index] != null) {
+                    put(index, node.children[index]);
+                }
+            }
+        }
+    }
+
+    long getKey() {
+        return key;
+    }
+
+    int getDepth() {
+        return depth;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    ArtNodeType getNodeType() {
+        return nodeType;
+    }
+
+    boolean inNode(long key) {
+        int shift = depth << 3;
+        return shift + 8 >= 64 || (this.key ^ key) >>> (shift + 8) == 0;
+    }
+
+    int nodeIndex(long key) {
+        return (int) (key >>> (depth << 3) & 255L);
+    }
+
+    // The version to validate reads against, waiting out a writer, or RESTART if the node is obsolete.
+    long readLock() {
+        long version = this.version;
+        while ((version & LOCKED) != 0) {
+            Thread.onSpinWait();
+            version = this.version;
+        }
+        return (version & OBSOLETE) != 0 ? RESTART : version;
+    }
+
+    // True if nothing changed the node since its version was read, so what was read in between is consistent.
+    boolean validate(long version) {
+        VarHandle.acquireFence();
+        return this.version == version;
+    }
+
+    // Locks the node if its version is still the given one.
+    boolean upgradeToWriteLock(long version) {
+        return VERSION.compareAndSet(this, version, version + LOCKED);
+    }
+
+    void writeUnlock() {
+        version = version + LOCKED;
+    }
+
+    void writeUnlockObsolete() {
+        version = version + LOCKED + OBSOLETE;
+    }
+
+    Object getChild(int index) {
+        if (keys == null) {
+            return children[index];
+        }
+        int slot = find(index);
+        return slot >= 0 ? children[slot] : null;
+    }
+
+    // The child of a node with a single child.
+    Object getOnlyChild() {
+        if (keys != null) {
+            return children[0];
+        }
+        for (Object child : children) {
+            if (child != null) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    boolean isFull() {
+        return keys != null && count == keys.length;
+    }
+
+    // True if the node holds few enough children for the next smaller type, as with ArtNodes.shrink.
+    boolean canShrink(int count) {
+        switch (nodeType) {
+            case ArtNode16:
+                return count <= ArtNodeType.ArtNode4.getSize();
+            case ArtNode48:
+                return count <= ArtNodeType.ArtNode16.getSize();
+            case ArtNode256:
+                return count <= ArtNodeType.ArtNode48.getSize();
+        }
+        return false;
+    }
+
+    ArtNodeType grownType() {
+        switch (nodeType) {
+            case ArtNode4:
+                return ArtNodeType.ArtNode16;
+            case ArtNode16:
+                return ArtNodeType.ArtNode48;
+            case ArtNode48:
+                return ArtNodeType.ArtNode256;
+        }
+        throw new IllegalStateException("Unhandled nodeType=" + nodeType);
+    }
+
+    ArtNodeType shrunkType() {
+        switch (nodeType) {
+            case ArtNode16:
+                return ArtNodeType.ArtNode4;
+            case ArtNode48:
+                return ArtNodeType.ArtNode16;
+            case ArtNode256:
+                return ArtNodeType.ArtNode48;
+        }
+        throw new IllegalStateException("Unhandled nodeType=" + nodeType);
+    }
+
+    // Adds or replaces the child at the index, the node must be locked and, to add, not full.
+    void put(int index, Object child) {
+        if (keys == null) {
+            if (children[index] == null) {
+                count++;
+            }
+            children[index] = child;
+            return;
+        }
+        int slot = find(index);
+        if (slot >= 0) {
+            children[slot] = child;
+            return;
+        }
+        slot = -(slot + 1);
+        System.arraycopy(keys, slot, keys, slot + 1, count - slot);
+        System.arraycopy(children, slot, children, slot + 1, count - slot);
+        keys[slot] = (byte) index;
+        children[slot] = child;
+        count++;
+    }
+
+    // Removes the child at the index, the node must be locked.
+    void remove(int index) {
+        if (keys == null) {
+            if (children[index] != null) {
+                children[index] = null;
+                count--;
+            }
+            return;
+        }
+        int slot = find(index);
+        if (slot >= 0) {
+            System.arraycopy(keys, slot + 1, keys, slot, count - slot - 1);
+            System.arraycopy(children, slot + 1, children, slot, count - slot - 1);
+            count--;
+            children[count] = null;
+        }
+    }
+
+    // The slot of the key byte, or -(insertion slot + 1), by binary search over the sorted keys.
+    private int find(int index) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midIndex = keys[mid] & 255;
+            if (midIndex < index) {
+                low = mid + 1;
+            } else if (midIndex > index) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrentArtNode{" +
+                "key=" + key +
+                ", nodeLevelKey=" + toNodeLevelKeys(key) +
+                ", depth=" + depth +
+                ", nodeType=" + nodeType +
+                ", count=" + count +
+                '}';
+    }
+}
@@ -0,0 +1,298 @@
+package dev.tingh.art;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import static dev.tingh.art.ConcurrentArtNode.RESTART;
+
+/**
+ * A thread safe map of long keys to values, an adaptive radix tree synchronised by optimistic lock coupling.
+ *
+ * Every node has a version. Readers never lock or write anything shared: they note the version of each node on
+ * the way down, read it, and validate the version before moving on, restarting from the root if a writer changed
+ * the node meanwhile. Writers descend the same way and then upgrade the versions they read to locks on just the
+ * nodes they change: the node itself for a change in place, and its parent as well when the node is replaced by a
+ * grown or shrunk copy or a new node branching above it. Removing the last key of a leaf node also locks the nodes
+ * it unlinks, and the grandparent when the parent is replaced. A failed upgrade restarts the operation, so locks
+ * are never waited for while held.
+ *
+ * The structure follows LongARTree, the keys are split into bytes with leaf nodes at depth 0 and paths compressed,
+ * but the root is a fixed 256 node at depth 7 that is never replaced, and the nodes are ConcurrentArtNodes.
+ * Ordered navigation is not supported.
+ */
+public class ConcurrentLongARTree<V> {
+
+    // Returned internally by an attempt that has to restart, distinct from any value.
+    private static final Object RESTART_RESULT = new Object();
+
+    private final ConcurrentArtNode root = new ConcurrentArtNode(0, 7, ArtNodeType.ArtNode256);
+
+    private final LongAdder size = new LongAdder();
+
+    public V get(long key) {
+        while (true) {
+            Object result = tryGet(key);
+            if (result != RESTART_RESULT) {
+                return (V) result;
+            }
+        }
+    }
+
+    public boolean contains(long key) {
+        return get(key) != null;
+    }
+
+    // Returns the previous value of the key, or null if the key was added.
+    public V put(long key, V value) {
+        Objects.requireNonNull(value);
+        while (true) {
+            Object result = tryPut(key, value);
+            if (result != RESTART_RESULT) {
+                return (V) result;
+            }
+        }
+    }
+
+    public V remove(long key) {
+        while (true) {
+            Object result = tryRemove(key);
+            if (result != RESTART_RESULT) {
+                return (V) result;
+            }
+        }
+    }
+
+    // The number of keys, exact only when no writes are in progress.
+    public int size() {
+        return size.intValue();
+    }
+
+    private Object tryGet(long key) {
+        ConcurrentArtNode node = root;
+        long version = node.readLock();
+        while (version != RESTART) {
+            if (!node.inNode(key)) {
+                return node.validate(version) ? null : RESTART_RESULT;
+            }
+            Object child = node.getChild(node.nodeIndex(key));
+            if (!node.validate(version)) {
+                break;
+            } else if (node.getDepth() == 0 || child == null) {
+                return child;
+            }
+            ConcurrentArtNode next = (ConcurrentArtNode) child;
+            long nextVersion = next.readLock();
+            if (!node.validate(version)) {
+                break;
+            }
+            node = next;
+            version = nextVersion;
+        }
+        return RESTART_RESULT;
+    }
+
+    private Object tryPut(long key, V value) {
+        ConcurrentArtNode parent = null;
+        long parentVersion = 0;
+        ConcurrentArtNode node = root;
+        long version = node.readLock();
+        while (version != RESTART) {
+            if (!node.inNode(key)) {
+                // The root covers every key, so there is a parent. Its version vouches for the node being its child.
+                if (!parent.upgradeToWriteLock(parentVersion)) {
+                    break;
+                }
+                parent.put(parent.nodeIndex(key), branch(key, value, node));
+                parent.writeUnlock();
+                size.increment();
+                return null;
+            }
+
+            int index = node.nodeIndex(key);
+            Object child = node.getChild(index);
+            boolean full = node.isFull();
+            if (!node.validate(version)) {
+                break;
+            }
+
+            if (node.getDepth() > 0 && child != null) {
+                ConcurrentArtNode next = (ConcurrentArtNode) child;
+                long nextVersion = next.readLock();
+                if (!node.validate(version)) {
+                    break;
+                }
+                parent = node;
+                parentVersion = version;
+                node = next;
+                version = nextVersion;
+                continue;
+            }
+
+            Object newChild = node.getDepth() == 0 ? value : newLeafNode(key, value);
+            if (child != null || !full) {
+                if (!node.upgradeToWriteLock(version)) {
+                    break;
+                } else if (parent != null && !parent.validate(parentVersion)) {
+                    node.writeUnlock();
+                    break;
+                }
+                node.put(index, newChild);
+                node.writeUnlock();
+            } else {
+                // Full, so the node is replaced in its parent by a grown copy. The root is never full.
+                if (!parent.upgradeToWriteLock(parentVersion)) {
+                    break;
+                } else if (!node.upgradeToWriteLock(version)) {
+                    parent.writeUnlock();
+                    break;
+                }
+                ConcurrentArtNode grown = new ConcurrentArtNode(node, node.grownType());
+                grown.put(index, newChild);
+                parent.put(parent.nodeIndex(key), grown);
+                node.writeUnlockObsolete();
+                parent.writeUnlock();
+            }
+            if (child == null) {
+                size.increment();
+            }
+            return child;
+        }
+        return RESTART_RESULT;
+    }
+
+    private ConcurrentArtNode newLeafNode(long key, V value) {
+        ConcurrentArtNode leafNode = new ConcurrentArtNode(key, 0, ArtNodeType.ArtNode4);
+        leafNode.put(leafNode.nodeIndex(key), value);
+        return leafNode;
+    }
+
+    // A new node at the first byte where the key differs from the node's prefix, holding the node and the key.
+    private ConcurrentArtNode branch(long key, V value, ConcurrentArtNode node) {
+        int depth = (63 - Long.numberOfLeadingZeros(node.getKey() ^ key)) >>> 3;
+        ConcurrentArtNode newNode = new ConcurrentArtNode(key, depth, ArtNodeType.ArtNode4);
+        newNode.put(newNode.nodeIndex(key), newLeafNode(key, value));
+        newNode.put(newNode.nodeIndex(node.getKey()), node);
+        return newNode;
+    }
+
+    private Object tryRemove(long key) {
+        ConcurrentArtNode grandParent = null;
+        long grandParentVersion = 0;
+        ConcurrentArtNode parent = null;
+        long parentVersion = 0;
+        int parentCount = 0;
+        ConcurrentArtNode node = root;
+        long version = node.readLock();
+        while (version != RESTART) {
+            if (!node.inNode(key)) {
+                return node.validate(version) ? null : RESTART_RESULT;
+            }
+            int index = node.nodeIndex(key);
+            Object child = node.getChild(index);
+            int count = node.getCount();
+            if (!node.validate(version)) {
+                break;
+            } else if (child == null) {
+                return null;
+            }
+
+            if (node.getDepth() > 0) {
+                ConcurrentArtNode next = (ConcurrentArtNode) child;
+                long nextVersion = next.readLock();
+                if (!node.validate(version)) {
+                    break;
+                }
+                grandParent = parent;
+                grandParentVersion = parentVersion;
+                parent = node;
+                parentVersion = version;
+                parentCount = count;
+                node = next;
+                version = nextVersion;
+                continue;
+            }
+
+            boolean removed;
+            if (count > 1) {
+                removed = removeFromLeaf(parent, parentVersion, node, version, index, count);
+            } else if (parent == root || parentCount > 2 && !parent.canShrink(parentCount - 1)) {
+                removed = unlinkLeaf(parent, parentVersion, node, version);
+            } else {
+                removed = unlinkLeafAndReplaceParent(grandParent, grandParentVersion, parent, parentVersion,
+                        parentCount, node, version);
+            }
+            if (!removed) {
+                break;
+            }
+            size.decrement();
+            return child;
+        }
+        return RESTART_RESULT;
+    }
+
+    // The leaf node keeps other keys, so only it changes unless it shrinks and is replaced in its parent.
+    private boolean removeFromLeaf(ConcurrentArtNode parent, long parentVersion, ConcurrentArtNode node, long version,
+                                   int index, int count) {
+        if (!node.canShrink(count - 1)) {
+            if (!node.upgradeToWriteLock(version)) {
+                return false;
+            } else if (!parent.validate(parentVersion)) {
+                node.writeUnlock();
+                return false;
+            }
+            node.remove(index);
+            node.writeUnlock();
+            return true;
+        }
+
+        if (!parent.upgradeToWriteLock(parentVersion)) {
+            return false;
+        } else if (!node.upgradeToWriteLock(version)) {
+            parent.writeUnlock();
+            return false;
+        }
+        node.remove(index);
+        parent.put(parent.nodeIndex(node.getKey()), new ConcurrentArtNode(node, node.shrunkType()));
+        node.writeUnlockObsolete();
+        parent.writeUnlock();
+        return true;
+    }
+
+    // The leaf node is left empty, so it is removed from its parent, which keeps enough children to stay as it is.
+    private boolean unlinkLeaf(ConcurrentArtNode parent, long parentVersion, ConcurrentArtNode node, long version) {
+        if (!parent.upgradeToWriteLock(parentVersion)) {
+            return false;
+        } else if (!node.upgradeToWriteLock(version)) {
+            parent.writeUnlock();
+            return false;
+        }
+        parent.remove(parent.nodeIndex(node.getKey()));
+        node.writeUnlockObsolete();
+        parent.writeUnlock();
+        return true;
+    }
+
+    // The leaf node is left empty and its parent, below the root, is left with one child or few enough to shrink,
+    // so the parent is replaced in the grandparent by its only remaining child or by a shrunk copy.
+    private boolean unlinkLeafAndReplaceParent(ConcurrentArtNode grandParent, long grandParentVersion,
+                                               ConcurrentArtNode parent, long parentVersion, int parentCount,
+                                               ConcurrentArtNode node, long version) {
+        if (!grandParent.upgradeToWriteLock(grandParentVersion)) {
+            return false;
+        } else if (!parent.upgradeToWriteLock(parentVersion)) {
+            grandParent.writeUnlock();
+            return false;
+        } else if (!node.upgradeToWriteLock(version)) {
+            parent.writeUnlock();
+            grandParent.writeUnlock();
+            return false;
+        }
+        parent.remove(parent.nodeIndex(node.getKey()));
+        Object replacement = parentCount == 2 ? parent.getOnlyChild() : new ConcurrentArtNode(parent, parent.shrunkType());
+        grandParent.put(grandParent.nodeIndex(parent.getKey()), replacement);
+        node.writeUnlockObsolete();
+        parent.writeUnlockObsolete();
+        grandParent.writeUnlock();
+        return true;
+    }
+}
@@ -8,7 +8,13 @@ public interface IArtNode<V> {
 
     int getShift();
 
-    short getCount();
+    // The number of low bits of the key below the shift that index the node's children, a byte except in the
+    // dense leaves, which index a range of 16 or 24 bits directly.
+    default int getIndexBits() {
+        return 8;
+    }
+
+    int getCount();
 
     boolean isFull();
 
@@ -26,6 +32,14 @@ public interface IArtNode<V> {
 
     Object getLast();
 
+    Object getChild(int nodeIndex);
+
+    // Lowest occupied node index greater than or equal to the given index, or -1.
+    int getCeilingIndex(int nodeIndex);
+
+    // Highest occupied node index less than or equal to the given index, or -1.
+    int getFloorIndex(int nodeIndex);
+
     boolean put(long key, V value);
 
     boolean put(long key, IArtNode<V> node);
@@ -1,6 +1,11 @@
 package dev.tingh.art;
 
 public interface ILongARTree<V> {
+
+    // Returned by the key navigation methods when there is no such key. Long.MIN_VALUE is itself a valid key,
+    // so where it may be stored use contains, or the entry variants of LongARTree, to tell the two apart.
+    long NO_KEY = Long.MIN_VALUE;
+
     V get(long key);
 
     boolean contains(long key);
@@ -9,9 +14,23 @@ public interface ILongARTree<V> {
 
     V getFloor(long key);
 
-    void put(long key, V leaf);
+    long ceilingKey(long key);
+
+    long floorKey(long key);
+
+    long higherKey(long key);
+
+    long lowerKey(long key);
+
+    long firstKey();
+
+    long lastKey();
+
+    V put(long key, V leaf);
 
     IArtNode<V> getParent(long key, int parentDepth);
 
     V remove(long key);
+
+    int size();
 }
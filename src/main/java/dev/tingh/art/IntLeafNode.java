@@ -0,0 +1,34 @@
+package dev.tingh.art;
+
+// A leaf node holding int values.
+public class IntLeafNode extends ArtLeafNode {
+
+    private int[] values = new int[ArtNodeType.ArtNode4.getSize()];
+
+    public IntLeafNode(long key) {
+        super(key);
+    }
+
+    public int getValue(int slot) {
+        return values[slot];
+    }
+
+    public void setValue(int slot, int value) {
+        values[slot] = value;
+    }
+
+    @Override
+    protected Object getValues() {
+        return values;
+    }
+
+    @Override
+    protected void setValues(Object values) {
+        this.values = (int[]) values;
+    }
+
+    @Override
+    protected Object newValues(int size) {
+        return new int[size];
+    }
+}
@@ -1,333 +1,496 @@
 package dev.tingh.art;
 
-import static dev.tingh.art.ArtNodes.inNode;
+import java.util.Iterator;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ForkJoinPool;
+
+import static dev.tingh.art.ArtNodes.*;
 
 public class LongARTree<V> implements ILongARTree<V> {
 
+    // The number of keys getAllInterleaved advances together, enough to keep the outstanding misses of a core busy.
+    private static final int INTERLEAVE_GROUP_SIZE = 16;
+
     private IArtNode<V> root;
 
-    @Override
-    public V get(long key) {
-        return get(root, key);
+    private int size;
+
+    // Counts the keys added and removed, so a cursor can detect that the tree changed underneath it.
+    private int modCount;
+
+    public LongARTree() {
     }
 
-    private V get(IArtNode<V> node, long key) {
-        if (node == null) {
-            return null;
-        } else if (isLeaf(node)) {
-            return (V) node.get(key);
-        } else if (!inNode(node, key)) {
-            return null;
-        }
-        IArtNode<V> next = (IArtNode<V>) node.get(key);
-        return get(next, key);
+    LongARTree(IArtNode<V> root, int size) {
+        this.root = root;
+        this.size = size;
     }
 
-    @Override
-    public boolean contains(long key) {
-        return contains(root, key);
+    // Builds a tree from keys in ascending order without duplicates, with the values at the same positions. Each node
+    // is created once at the type that fits its children, rather than grown from an ArtNode4 as by repeated puts.
+    public static <V> LongARTree<V> bulkLoad(long[] sortedKeys, V[] values) {
+        if (sortedKeys.length != values.length) {
+            throw new IllegalArgumentException("Keys and values differ in length, keys=" + sortedKeys.length +
+                    ", values=" + values.length);
+        }
+        LongARTreeBuilder<V> builder = new LongARTreeBuilder<>();
+        for (int i = 0; i < sortedKeys.length; i++) {
+            builder.add(sortedKeys[i], values[i]);
+        }
+        return builder.build();
     }
 
-    private boolean contains(IArtNode<V> node, long key) {
-        if (node == null) {
-            return false;
-        } else if (isLeaf(node) && node.get(key) != null) {
-            return true;
-        } else if (targetDepth(node, key) > node.getDepth()) {
-            return false;
+    // As above, streaming the keys and values in one pass, the iterators must hold the same number of elements.
+    public static <V> LongARTree<V> bulkLoad(PrimitiveIterator.OfLong sortedKeys, Iterator<? extends V> values) {
+        LongARTreeBuilder<V> builder = new LongARTreeBuilder<>();
+        while (sortedKeys.hasNext() && values.hasNext()) {
+            builder.add(sortedKeys.nextLong(), values.next());
         }
-        IArtNode<V> next = (IArtNode<V>) node.get(key);
-        return contains(next, key);
+        if (sortedKeys.hasNext() || values.hasNext()) {
+            throw new IllegalArgumentException("Keys and values differ in length");
+        }
+        return builder.build();
     }
 
-    // Least key greater than or equal to the given key.
-    @Override
-    public V getCeiling(long key) {
-        return getCeiling(root, key);
+    // Builds a tree from keys in any order without duplicates, with the values at the same positions, partitioning
+    // the keys by their highest differing byte and building the partitions concurrently on the common pool.
+    public static <V> LongARTree<V> parallelLoad(long[] keys, V[] values) {
+        return parallelLoad(keys, values, ForkJoinPool.commonPool());
     }
 
-    private V getCeiling(IArtNode<V> node, long key) {
-        if (node == null) {
-            return null;
-        } else if (isLeaf(node)) {
-            return (V) node.getCeiling(key);
-        }
-        IArtNode<V> next = (IArtNode<V>) node.getCeiling(key);
-        if (next == null) {
-            return null;
-        }
-        return doGetCeiling(next, node, key);
+    public static <V> LongARTree<V> parallelLoad(long[] keys, V[] values, ForkJoinPool pool) {
+        return new LongARTreeParallelBuilder<>(keys, values).build(pool);
     }
 
-    private V doGetCeiling(IArtNode<V> node, IArtNode<V> parent, long key) {
-        if (isLeaf(node)) {
-            return getCeilingOrFirst(node, parent, key);
+    @Override
+    public V get(long key) {
+        IArtNode<V> node = root;
+        // An inner node returns null for a key outside its prefix, so no separate prefix check is needed.
+        while (node != null && !isLeaf(node)) {
+            node = (IArtNode<V>) node.get(key);
+        }
+        return node != null ? (V) node.get(key) : null;
+    }
+
+    // Looks up each key, writing its value, or null if it is absent, to the same position in out. The keys are looked
+    // up in ascending order, sorting their positions first unless they are already in order, and each lookup starts
+    // from the deepest node of the previous one whose prefix the key shares, rather than from the root.
+    public void getAll(long[] keys, V[] out) {
+        if (out.length < keys.length) {
+            throw new IllegalArgumentException("Output shorter than keys, keys=" + keys.length + ", out=" + out.length);
+        }
+        int[] order = isSorted(keys) ? null : sortedOrder(keys);
+
+        // The nodes descended for the previous key, from the root down.
+        IArtNode<V>[] path = new IArtNode[8];
+        int depth = 0;
+        for (int i = 0; i < keys.length; i++) {
+            int position = order != null ? order[i] : i;
+            long key = keys[position];
+            while (depth > 0 && !inNode(path[depth - 1], key)) {
+                depth--;
+            }
+            IArtNode<V> node = depth > 0 ? path[depth - 1] : root;
+            if (depth == 0 && node != null) {
+                path[depth++] = node;
+            }
+            while (node != null && !isLeaf(node)) {
+                node = (IArtNode<V>) node.get(key);
+                if (node != null) {
+                    path[depth++] = node;
+                }
+            }
+            out[position] = node != null ? (V) node.get(key) : null;
         }
+    }
 
-        IArtNode<V> next = getCeilingNext(node, key);
-        if (next == null) {
-            return searchAnotherBranchForCeiling(node, parent);
-        }
-        return doGetCeiling(next, node, key);
+    // Looks up each key as getAll does, advancing groups of keys one node at a time in turn rather than each key all
+    // the way down before the next. The loads for the keys in a group do not depend on each other, so on a tree much
+    // larger than the caches their misses overlap instead of following one after another.
+    public void getAllInterleaved(long[] keys, V[] out) {
+        getAllInterleaved(keys, out, INTERLEAVE_GROUP_SIZE);
     }
 
-    private V searchAnotherBranchForCeiling(IArtNode<V> node, IArtNode<V> parent) {
-        long newKey = plusOne(node, parent);
-        if (newKey == Long.MIN_VALUE) {
-            return null;
+    public void getAllInterleaved(long[] keys, V[] out, int groupSize) {
+        if (out.length < keys.length) {
+            throw new IllegalArgumentException("Output shorter than keys, keys=" + keys.length + ", out=" + out.length);
+        } else if (groupSize < 1) {
+            throw new IllegalArgumentException("Invalid groupSize=" + groupSize);
         }
-        if (searchCeilingBeyondOneParent(newKey, parent)) {
-            return getCeiling(root, newKey);
+        IArtNode<V>[] nodes = new IArtNode[groupSize];
+        // The positions of the keys still descending, compacted after each round.
+        int[] active = new int[groupSize];
+        for (int from = 0; from < keys.length; from += groupSize) {
+            int count = Math.min(groupSize, keys.length - from);
+            for (int i = 0; i < count; i++) {
+                nodes[i] = root;
+                active[i] = i;
+            }
+            int activeCount = root != null && !isLeaf(root) ? count : 0;
+            while (activeCount > 0) {
+                int stillActive = 0;
+                for (int j = 0; j < activeCount; j++) {
+                    int i = active[j];
+                    IArtNode<V> next = (IArtNode<V>) nodes[i].get(keys[from + i]);
+                    nodes[i] = next;
+                    if (next != null && !isLeaf(next)) {
+                        active[stillActive++] = i;
+                    }
+                }
+                activeCount = stillActive;
+            }
+            for (int i = 0; i < count; i++) {
+                out[from + i] = nodes[i] != null ? (V) nodes[i].get(keys[from + i]) : null;
+                nodes[i] = null;
+            }
         }
-        return getCeilingValue(parent, newKey);
     }
 
-    private V getCeilingValue(IArtNode<V> node, long key) {
-        IArtNode<V> next = (IArtNode<V>) node.getCeiling(key);
-        if (next == null) {
-            return null;
+    private static boolean isSorted(long[] keys) {
+        for (int i = 1; i < keys.length; i++) {
+            if (keys[i] < keys[i - 1]) {
+                return false;
+            }
         }
-        return getFirstValue(next);
+        return true;
+    }
+
+    // The positions of the keys in ascending key order, by a bottom up merge sort.
+    private static int[] sortedOrder(long[] keys) {
+        int[] order = new int[keys.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        int[] merged = new int[keys.length];
+        for (int width = 1; width < order.length; width *= 2) {
+            for (int from = 0; from < order.length; from += 2 * width) {
+                int middle = Math.min(from + width, order.length);
+                int to = Math.min(from + 2 * width, order.length);
+                for (int i = from, left = from, right = middle; i < to; i++) {
+                    if (right == to || left < middle && keys[order[left]] <= keys[order[right]]) {
+                        merged[i] = order[left++];
+                    } else {
+                        merged[i] = order[right++];
+                    }
+                }
+            }
+            int[] swap = order;
+            order = merged;
+            merged = swap;
+        }
+        return order;
     }
 
-    private V getFirstValue(IArtNode<V> node) {
-        if (isLeaf(node)) {
-            return (V) node.getFirst();
+    @Override
+    public boolean contains(long key) {
+        IArtNode<V> node = root;
+        while (node != null) {
+            if (isLeaf(node)) {
+                return node.get(key) != null;
+            } else if (!inNode(node, key)) {
+                return false;
+            }
+            node = (IArtNode<V>) node.get(key);
         }
-        IArtNode<V> next = (IArtNode<V>) node.getFirst();
-        return getFirstValue(next);
+        return false;
     }
 
-    private IArtNode<V> getLastNode(IArtNode<V> node) {
-        if (isLeaf(node)) {
-            return node;
-        }
-        return getLastNode((IArtNode<V>)node.getLast());
+    // Least key greater than or equal to the given key.
+    @Override
+    public V getCeiling(long key) {
+        IArtNode<V> leafNode = ceilingLeaf(key);
+        return leafNode != null ? (V) leafNode.getChild(leafCeilingIndex(leafNode, key)) : null;
     }
 
-    private boolean searchCeilingBeyondOneParent(long newKey, IArtNode<V> parent) {
-        return newKey > getLastNode(parent).getKey();
+    // Greatest key less than or equal to the given key.
+    @Override
+    public V getFloor(long key) {
+        IArtNode<V> leafNode = floorLeaf(key);
+        return leafNode != null ? (V) leafNode.getChild(leafFloorIndex(leafNode, key)) : null;
     }
 
-    private IArtNode<V> getCeilingNext(IArtNode<V> node, long key) {
-        if (ArtNodes.inNode(node, key)) {
-            return (IArtNode<V>) node.getCeiling(key);
-        } else if (node.getKey() >= key) {
-            return (IArtNode<V>) node.getFirst();
-        }
-        return (IArtNode<V>) node.getCeiling(key);
+    @Override
+    public long ceilingKey(long key) {
+        IArtNode<V> leafNode = ceilingLeaf(key);
+        return leafNode != null ? leafKey(leafNode, leafCeilingIndex(leafNode, key)) : NO_KEY;
     }
 
-    private V getCeilingOrFirst(IArtNode<V> node, IArtNode<V> parent, long key) {
-        if (inNode(node, key)) {
-            return (V) node.getCeiling(key);
-        } else if (node.getKey() >= key) {
-            return (V) node.getFirst();
-        }
-        long newKey = plusOne(node, parent);
-        if (searchCeilingBeyondOneParent(newKey, parent)) {
-            return getCeiling(root, newKey);
-        }
-        return getCeilingValue(parent, newKey);
+    @Override
+    public long floorKey(long key) {
+        IArtNode<V> leafNode = floorLeaf(key);
+        return leafNode != null ? leafKey(leafNode, leafFloorIndex(leafNode, key)) : NO_KEY;
     }
 
-    private long plusOne(IArtNode<V> node, IArtNode<V> parent) {
-        if (node.equals(parent.getLast())) {
-            long index = (node.getKey() >>> parent.getShift());
-            index++;
+    @Override
+    public long higherKey(long key) {
+        return key != Long.MAX_VALUE ? ceilingKey(key + 1) : NO_KEY;
+    }
 
-            return index << parent.getShift();
-        }
+    @Override
+    public long lowerKey(long key) {
+        return key != Long.MIN_VALUE ? floorKey(key - 1) : NO_KEY;
+    }
 
-        boolean flipped = false;
-        long newKey = node.getKey() >>> parent.getShift();
-        for (int i = parent.getDepth(); i > 0; i--) {
-            if (!flipped && node.getKey() >>> (i*8) != 255) {
-                newKey++;
-                flipped = true;
-            }
-            newKey = newKey << 8;
-        }
-        return newKey;
+    @Override
+    public long firstKey() {
+        return ceilingKey(Long.MIN_VALUE);
     }
 
     @Override
-    public V getFloor(long key) {
-        return getFloor(root, key);
+    public long lastKey() {
+        return floorKey(Long.MAX_VALUE);
     }
 
-    private V getFloor(IArtNode<V> node, long key) {
-        if (node == null) {
-            return null;
-        } else if (isLeaf(node)) {
-            return (V)node.getFloor(key);
-        }
-        IArtNode<V> next = (IArtNode<V>) node.getFloor(key);
-        if (next == null) {
-            return null;
-        }
-        return doGetFloor(next, node, key);
+    // The entry variants below write the key and value into the given entry, returning false and leaving
+    // the entry untouched if there is no such key. Unlike the key methods there is no ambiguous sentinel.
+
+    public boolean ceilingEntry(long key, LongARTreeEntry<V> entry) {
+        IArtNode<V> leafNode = ceilingLeaf(key);
+        return leafNode != null && set(entry, leafNode, leafCeilingIndex(leafNode, key));
     }
 
-    // At leaf, return floor or sibling last.
-    // Otherwise, iterate to the leaf node.
-    private V doGetFloor(IArtNode<V> node, IArtNode<V> parent, long key) {
-        if (isLeaf(node)) {
-            return getFloorOrLast(node, parent, key);
-        }
-        IArtNode<V> next = getFloorNext(node, key);
-        // Look to sibling
-        if (next == null) {
-            return searchAnotherBranchForFloor(node, parent);
-        }
-        return doGetFloor(next, node, key);
+    public boolean floorEntry(long key, LongARTreeEntry<V> entry) {
+        IArtNode<V> leafNode = floorLeaf(key);
+        return leafNode != null && set(entry, leafNode, leafFloorIndex(leafNode, key));
     }
 
-    private V searchAnotherBranchForFloor(IArtNode<V> node, IArtNode<V> parent) {
-        long newKey = minusOne(node, parent);
-        if (newKey == Long.MAX_VALUE) {
-            return null;
-        }
-        if (searchFloorBeyondOneParent( newKey, parent)) {
-            return getFloor(root, newKey);
-        }
-        return getFloorValue(parent,newKey);
+    public boolean higherEntry(long key, LongARTreeEntry<V> entry) {
+        return key != Long.MAX_VALUE && ceilingEntry(key + 1, entry);
     }
 
-    private boolean searchFloorBeyondOneParent(long key, IArtNode<V> parent) {
-        return key < getFirstNode(parent).getKey();
+    public boolean lowerEntry(long key, LongARTreeEntry<V> entry) {
+        return key != Long.MIN_VALUE && floorEntry(key - 1, entry);
     }
 
-    private IArtNode<V> getFirstNode(IArtNode<V> node) {
-        if (isLeaf(node)) {
-            return node;
-        }
-        return getFirstNode((IArtNode<V>)node.getFirst());
+    public boolean firstEntry(LongARTreeEntry<V> entry) {
+        return ceilingEntry(Long.MIN_VALUE, entry);
     }
 
-    private IArtNode<V> getFloorNext(IArtNode<V> node, long key) {
-        if (inNode(node, key)) {
-            return (IArtNode<V>) node.getFloor(key);
-        } else if (node.getKey() <= key) {
-            return (IArtNode<V>) node.getLast();
-        }
-        return (IArtNode<V>) node.getFloor(key);
+    public boolean lastEntry(LongARTreeEntry<V> entry) {
+        return floorEntry(Long.MAX_VALUE, entry);
     }
 
-    // Gets value or looks at sibling.
-    private V getFloorOrLast(IArtNode<V> node, IArtNode<V> parent, long key) {
-        if (inNode(node, key)) {
-            return (V)node.getFloor(key);
-        } else if (node.getKey() <= key) {
-            return (V)node.getLast();
+    private boolean set(LongARTreeEntry<V> entry, IArtNode<V> leafNode, int index) {
+        entry.set(leafKey(leafNode, index), (V) leafNode.getChild(index));
+        return true;
+    }
+
+    // The leaf node holding the least key greater than or equal to the given key, or null if there is none.
+    private IArtNode<V> ceilingLeaf(long key) {
+        // The inner nodes above the current node, for backtracking to the next branch.
+        IArtNode<V>[] path = new IArtNode[8];
+        int depth = 0;
+
+        IArtNode<V> node = root;
+        while (node != null) {
+            int compare = comparePrefix(node, key);
+            if (compare > 0) {
+                return getFirstLeaf(node);
+            } else if (compare < 0) {
+                break;
+            }
+            int nodeIndex = nodeIndex(node, key);
+            Object next = node.getChild(nodeIndex);
+            if (isLeaf(node) || next == null) {
+                int index = ceilingIndex(node, nodeIndex);
+                if (index == -1) {
+                    break;
+                } else if (isLeaf(node)) {
+                    return node;
+                }
+                return getFirstLeaf((IArtNode<V>) node.getChild(index));
+            }
+            path[depth++] = node;
+            node = (IArtNode<V>) next;
         }
 
-        long newKey = minusOne(node, parent);
-        if (searchFloorBeyondOneParent(newKey, parent)) {
-            return getFloor(root, newKey);
+        // Nothing at or above the key under the current node, so the ceiling is the first value of the nearest
+        // branch to the right, found by backtracking up the path.
+        while (depth > 0) {
+            IArtNode<V> parent = path[--depth];
+            int index = higherIndex(parent, nodeIndex(parent, key));
+            if (index != -1) {
+                return getFirstLeaf((IArtNode<V>) parent.getChild(index));
+            }
         }
-        return getFloorValue(parent, newKey);
+        return null;
     }
 
-    private V getFloorValue(IArtNode<V> node, long key) {
-        IArtNode<V> next = (IArtNode<V>) node.getFloor(key);
-        if (next == null) {
-            return null;
-        }
-        return getLastValue(next);
+    // The index of the ceiling within the leaf node found by ceilingLeaf. The leaf node either shares the key's
+    // prefix, or every key in it is greater and the ceiling is its first.
+    private int leafCeilingIndex(IArtNode<V> leafNode, long key) {
+        return comparePrefix(leafNode, key) == 0 ? ceilingIndex(leafNode, nodeIndex(leafNode, key)) : firstIndex(leafNode);
     }
 
-    private V getLastValue(IArtNode<V> node) {
-        if (isLeaf(node)) {
-            return (V) node.getLast();
+    private IArtNode<V> getFirstLeaf(IArtNode<V> node) {
+        while (!isLeaf(node)) {
+            node = (IArtNode<V>) node.getChild(firstIndex(node));
         }
-        IArtNode<V> next = (IArtNode<V>) node.getLast();
-        return getLastValue(next);
+        return node;
     }
 
-    private long minusOne(IArtNode<V> node, IArtNode<V> parent) {
-        long minusOne = node.getKey() >>> ((parent.getShift()));
-        minusOne = minusOne << parent.getShift();
-        minusOne--;
+    // The leaf node holding the greatest key less than or equal to the given key, or null if there is none.
+    private IArtNode<V> floorLeaf(long key) {
+        // The inner nodes above the current node, for backtracking to the previous branch.
+        IArtNode<V>[] path = new IArtNode[8];
+        int depth = 0;
 
-        return minusOne;
+        IArtNode<V> node = root;
+        while (node != null) {
+            int compare = comparePrefix(node, key);
+            if (compare < 0) {
+                return getLastLeaf(node);
+            } else if (compare > 0) {
+                break;
+            }
+            int nodeIndex = nodeIndex(node, key);
+            Object next = node.getChild(nodeIndex);
+            if (isLeaf(node) || next == null) {
+                int index = floorIndex(node, nodeIndex);
+                if (index == -1) {
+                    break;
+                } else if (isLeaf(node)) {
+                    return node;
+                }
+                return getLastLeaf((IArtNode<V>) node.getChild(index));
+            }
+            path[depth++] = node;
+            node = (IArtNode<V>) next;
+        }
+
+        // Nothing at or below the key under the current node, so the floor is the last value of the nearest
+        // branch to the left, found by backtracking up the path.
+        while (depth > 0) {
+            IArtNode<V> parent = path[--depth];
+            int index = lowerIndex(parent, nodeIndex(parent, key));
+            if (index != -1) {
+                return getLastLeaf((IArtNode<V>) parent.getChild(index));
+            }
+        }
+        return null;
     }
 
-    @Override
-    public void put(long key, V leaf) {
-        put(root, key, leaf);
+    private int leafFloorIndex(IArtNode<V> leafNode, long key) {
+        return comparePrefix(leafNode, key) == 0 ? floorIndex(leafNode, nodeIndex(leafNode, key)) : lastIndex(leafNode);
     }
 
-    private void put(IArtNode<V> node, long key, V leaf) {
-        if (node == null) {
-            setRoot(key, leaf);
-        } else if (isLeaf(node)) {
-            doPut(node, key, leaf);
-        } else {
-            doPut(node, key, leaf, node.get(key));
+    private IArtNode<V> getLastLeaf(IArtNode<V> node) {
+        while (!isLeaf(node)) {
+            node = (IArtNode<V>) node.getChild(lastIndex(node));
         }
+        return node;
     }
 
-    private void doPut(IArtNode<V> node, long key, V leaf) {
-        if (inNode(node, key)) {
-            if (node.isFull()) {
-                IArtNode<V> newNode = grow(node);
-                node = replace(node, newNode);
-            }
-            node.put(key, leaf);
-        } else {
-            doPutLeafNode(key, node, leaf);
+    // Returns the previous value of the key, or null if the key was added.
+    @Override
+    public V put(long key, V leaf) {
+        if (root == null) {
+            setRoot(key, leaf);
+            added();
+            return null;
         }
-    }
 
-    private void doPutLeafNode(long key, IArtNode<V> node, V leaf) {
-        int targetDepth = targetDepth(node, key);
-        IArtNode<V> leafNode = new ArtNode4<>(key);
-        leafNode.put(key, leaf);
+        // The inner nodes above the current node, kept for densify, the depth strictly decreases so there are at most 8.
+        IArtNode<V>[] path = new IArtNode[8];
+        int depth = 0;
+
+        IArtNode<V> node = root;
+        while (true) {
+            IArtNode<V> parent = depth > 0 ? path[depth - 1] : null;
+            if (!inNode(node, key)) {
+                branch(key, parent, node, newLeafNode(key, leaf));
+                break;
+            } else if (isLeaf(node)) {
+                V previous = (V) node.get(key);
+                if (previous != null) {
+                    node.put(key, leaf);
+                    return previous;
+                } else if (node.isFull()) {
+                    node = replace(parent, node, grow(node));
+                }
+                node.put(key, leaf);
+                if (ArtDenseLeaf.becameDense(node)) {
+                    densify(path, depth);
+                }
+                break;
+            }
+            Object next = node.get(key);
+            if (next == null) {
+                doPut(parent, node, key, newLeafNode(key, leaf));
+                break;
+            }
+            path[depth++] = node;
+            node = (IArtNode<V>) next;
+        }
+        added();
+        return null;
+    }
+
+    // Merges keys in ascending order without duplicates, with the values at the same positions, into the tree in one
+    // pass, replacing the values of keys already present. Returns the number of keys added. The batch is checked
+    // before the tree is touched, so an invalid batch leaves the tree as it was.
+    public int putAll(long[] sortedKeys, V[] values) {
+        if (sortedKeys.length != values.length) {
+            throw new IllegalArgumentException("Keys and values differ in length, keys=" + sortedKeys.length +
+                    ", values=" + values.length);
+        }
+        for (int i = 0; i < sortedKeys.length; i++) {
+            if (values[i] == null) {
+                throw new NullPointerException("Null value, key=" + sortedKeys[i]);
+            } else if (i > 0 && sortedKeys[i] <= sortedKeys[i - 1]) {
+                throw new IllegalArgumentException("Keys not in ascending order, key=" + sortedKeys[i] +
+                        ", previous=" + sortedKeys[i - 1]);
+            }
+        }
 
-        if (targetDepth != 7) {
-            doPut(key, targetDepth, node, leafNode);
-        } else {
-            doPutRoot(key, targetDepth, node, leafNode);
+        LongARTreeMerger<V> merger = new LongARTreeMerger<>(sortedKeys, values);
+        root = merger.merge(root);
+        int added = merger.getAdded();
+        if (added > 0) {
+            size += added;
+            modCount++;
         }
+        return added;
     }
 
-    private void doPut(long key, int targetDepth, IArtNode<V> node, IArtNode<V> leafNode) {
-        if (node.getDepth() == targetDepth) {
-            node.put(key, leafNode);
-        } else {
-            branch(key, targetDepth, node, leafNode);
+    private void added() {
+        size++;
+        modCount++;
+    }
+
+    private void doPut(IArtNode<V> parent, IArtNode<V> node, long key, IArtNode<V> leafNode) {
+        if (node.isFull()) {
+            IArtNode<V> newNode = grow(node);
+            node = replace(parent, node, newNode);
         }
+        node.put(key, leafNode);
     }
 
-    private void doPut(IArtNode<V> node, long key, V leaf, Object next) {
-        if (next instanceof IArtNode) {
-            put((IArtNode<V>) next, key, leaf);
-        } else {
-            if (node.isFull()) {
-                IArtNode<V> newNode = grow(node);
-                node = replace(node, newNode);
+    // The leaf node holding the key has become dense, so the nodes above it that now cover a dense range are replaced
+    // by dense leaves, from the bottom up for as long as each is dense in turn. The path holds the inner nodes put
+    // descended through, from the root down to the leaf node's parent.
+    private void densify(IArtNode<V>[] path, int depth) {
+        while (depth > 0) {
+            IArtNode<V> parent = path[--depth];
+            IArtNode<V> denseLeaf = ArtDenseLeaf.of(parent);
+            if (denseLeaf == null) {
+                return;
             }
-            doPutLeafNode(key, node, leaf);
+            replace(depth > 0 ? path[depth - 1] : null, parent, denseLeaf);
         }
     }
 
-    private void doPutRoot(long key, int targetDepth, IArtNode<V> node, IArtNode<V> leafNode) {
-        if (root.getDepth() == 7) {
-            root.put(key, leafNode);
-        } else if (!node.isFull()) {
-            IArtNode<V> parent = new ArtNode4<>(key, targetDepth);
-            parent.put(key, leafNode);
-            parent.put(node.getKey(), node);
-            root = parent;
-        }
+    // A leaf record of the single key, grown into an ArtNode4 when a second key lands under its prefix.
+    private IArtNode<V> newLeafNode(long key, V leaf) {
+        return new ArtNode1<>(key, leaf);
     }
 
-    private void branch(long key, int targetDepth, IArtNode<V> node, IArtNode<V> leafNode) {
-        IArtNode<V> newNode = new ArtNode4<>(key, targetDepth);
+    // The key is outside the node's prefix, so insert a new node at the first differing byte, above the node.
+    private void branch(long key, IArtNode<V> parent, IArtNode<V> node, IArtNode<V> leafNode) {
+        IArtNode<V> newNode = new ArtNode4<>(key, targetDepth(node, key));
         newNode.put(key, leafNode);
         newNode.put(node.getKey(), node);
-        replace(node, newNode);
+        replace(parent, node, newNode);
     }
 
     // Return the depth of the match
@@ -346,47 +509,59 @@ public class LongARTree<V> implements ILongARTree<V> {
         return 0;
     }
 
-    private IArtNode<V> replace(IArtNode<V> node, IArtNode<V> newNode) {
-        if (node == root) {
+    // Swaps the child pointer in the parent, the new node sits in the same slot as the node it replaces.
+    private IArtNode<V> replace(IArtNode<V> parent, IArtNode<V> node, IArtNode<V> newNode) {
+        if (parent == null) {
             root = newNode;
         } else {
-            IArtNode<V> parent = getParent(node.getKey(), node.getDepth() + 1);
-            parent.remove(node.getKey());
-            parent.put(newNode.getKey(), newNode);
+            parent.put(node.getKey(), newNode);
         }
         return newNode;
     }
 
     @Override
     public IArtNode<V> getParent(long key, int parentDepth) {
-        return getParent(root, key, parentDepth);
+        IArtNode<V> node = root;
+        while (node != null) {
+            if (node.getDepth() == parentDepth) {
+                return node;
+            } else if (node.getDepth() < parentDepth) {
+                return null;
+            }
+            IArtNode<V> next = (IArtNode<V>) node.get(key);
+            if (next == null) {
+                return null;
+            } else if (next.getDepth() < parentDepth) {
+                return node;
+            }
+            node = next;
+        }
+        return null;
     }
 
-    private IArtNode<V> getParent(IArtNode<V> node, long key, int parentDepth) {
-        if (node == null) {
-            return null;
-        } else if (node.getDepth() == parentDepth) {
-            return node;
-        } else if (node.getDepth() < parentDepth) {
-            return null;
-        }
-        IArtNode<V> next = (IArtNode<V>) node.get(key);
-        if (next.getDepth() < parentDepth) {
-            return node;
-        }
-        return getParent(next, key, parentDepth);
+
+    @Override
+    public int size() {
+        return size;
     }
 
-    private IArtNode<V> grow(IArtNode<V> node) {
-        switch (node.getNodeType()) {
-            case ArtNode4:
-                return new ArtNode16Linear<>((ArtNode4<V>) node);
-            case ArtNode16:
-                return new ArtNode48<>((ArtNode16Linear<V>) node);
-            case ArtNode48:
-                return new ArtNode256<>((ArtNode48<V>) node);
-        }
-        throw new IllegalStateException("Unhandled nodeType=" + node.getNodeType());
+    public void clear() {
+        root = null;
+        size = 0;
+        modCount++;
+    }
+
+    // A cursor over the entries in key order, initially unpositioned.
+    public LongARTreeCursor<V> cursor() {
+        return new LongARTreeCursor<>(this);
+    }
+
+    IArtNode<V> getRoot() {
+        return root;
+    }
+
+    int getModCount() {
+        return modCount;
     }
 
     private boolean isLeaf(IArtNode<V> node) {
@@ -394,68 +569,57 @@ public class LongARTree<V> implements ILongARTree<V> {
     }
 
     private void setRoot(long key, V value) {
-        IArtNode<V> node = new ArtNode4<>(key);
-        node.put(key, value);
-
-        root = node;
+        root = newLeafNode(key, value);
     }
 
     @Override
     public V remove(long key) {
-        return remove(root, key);
-    }
-
-    private V remove(IArtNode<V> node, long key) {
-        V result = null;
-
-        if (node != null) {
-            if (isLeaf(node) && inNode(node, key)) {
-                result = node.remove(key);
-                shrinkAndCompress(node);
-            } else {
-                Object next = node.get(key);
-                if (next instanceof IArtNode) {
-                    result = remove((IArtNode<V>) next, key);
+        // The inner nodes above the current node, the depth strictly decreases so there are at most 8.
+        IArtNode<V>[] path = new IArtNode[8];
+        int depth = 0;
+
+        IArtNode<V> node = root;
+        while (node != null) {
+            if (isLeaf(node)) {
+                if (!inNode(node, key)) {
+                    return null;
+                }
+                V result = node.remove(key);
+                if (result != null) {
+                    shrinkAndCompress(path, depth, node);
+                    size--;
+                    modCount++;
                 }
+                return result;
             }
+            path[depth++] = node;
+            node = (IArtNode<V>) node.get(key);
         }
-        return result;
-    }
-
-    private void shrinkAndCompress(IArtNode<V> node) {
-        if (node.canShrink()) {
-            IArtNode<V> newNode = shrink(node);
-            replace(node, newNode);
-        }
-        compress(node);
+        return null;
     }
 
-    private void compress(IArtNode<V> node) {
-        if (node.getCount() == 0) {
-            if (node == root) {
+    // Shrinks the node, and while the node is left empty removes it from its parent and moves up to the parent.
+    private void shrinkAndCompress(IArtNode<V>[] path, int depth, IArtNode<V> node) {
+        while (true) {
+            IArtNode<V> parent = depth > 0 ? path[depth - 1] : null;
+            if (node.canShrink()) {
+                node = replace(parent, node, shrink(node));
+            }
+            if (node.getCount() != 0) {
+                return;
+            } else if (parent == null) {
                 root = null;
-            } else {
-                IArtNode<V> parent = getParent(node.getKey(), node.getDepth() + 1);
-                parent.remove(node.getKey());
-
-                if (parent.getCount() == 1) {
-                    ArtNode4<V> node4 = (ArtNode4<V>) parent;
-                    replace(parent, (IArtNode<V>) node4.nodes[0]);
-                }
-                shrinkAndCompress(parent);
+                return;
             }
-        }
-    }
+            parent.remove(node.getKey());
+            depth--;
 
-    private IArtNode<V> shrink(IArtNode<V> node) {
-        switch (node.getNodeType()) {
-            case ArtNode16:
-                return new ArtNode4<>((ArtNode16Linear<V>) node);
-            case ArtNode48:
-                return new ArtNode16Linear<>((ArtNode48<V>) node);
-            case ArtNode256:
-                return new ArtNode48<>((ArtNode256<V>) node);
+            if (parent.getCount() == 1) {
+                ArtNode4<V> node4 = (ArtNode4<V>) parent;
+                replace(depth > 0 ? path[depth - 1] : null, parent, (IArtNode<V>) node4.childAt(0));
+                return;
+            }
+            node = parent;
         }
-        throw new IllegalStateException("Unhandled nodeType=" + node.getNodeType());
     }
 }
@@ -0,0 +1,104 @@
+package dev.tingh.art;
+
+import java.util.Arrays;
+
+import static dev.tingh.art.ArtNodes.*;
+
+// Builds a LongARTree bottom up from keys added in ascending order, creating each node once at its final type.
+//
+// The nodes on the path to the last key added are still open, each buffering its children. A key that differs from
+// the last above its lowest byte closes the open nodes below the differing byte, each created at the type that fits
+// its children, then opens a leaf node for the key and, if there is none at that depth, an inner node for the two.
+class LongARTreeBuilder<V> {
+
+    // The open nodes from the root down, with strictly decreasing depths, the last is always a leaf node.
+    private final OpenNode[] openNodes = new OpenNode[8];
+    private int openCount;
+
+    private long lastKey;
+    private int size;
+
+    void add(long key, V value) {
+        if (value == null) {
+            throw new NullPointerException("Null value, key=" + key);
+        } else if (size == 0) {
+            open(0, key);
+        } else if (key <= lastKey) {
+            throw new IllegalArgumentException("Keys not in ascending order, key=" + key + ", lastKey=" + lastKey);
+        } else {
+            int depth = (63 - Long.numberOfLeadingZeros(key ^ lastKey)) >>> 3;
+            if (depth > 0) {
+                IArtNode<V> node = close();
+                while (openCount > 0 && openNodes[openCount - 1].depth < depth) {
+                    openNodes[openCount - 1].add(node.getKey(), node);
+                    node = close();
+                }
+                if (openCount == 0 || openNodes[openCount - 1].depth > depth) {
+                    open(depth, lastKey);
+                }
+                openNodes[openCount - 1].add(node.getKey(), node);
+                open(0, key);
+            }
+        }
+        openNodes[openCount - 1].add(key, value);
+        lastKey = key;
+        size++;
+    }
+
+    LongARTree<V> build() {
+        int size = this.size;
+        return size > 0 ? new LongARTree<>(buildNode(), size) : new LongARTree<>();
+    }
+
+    // The root of the keys added, which must be at least one. The builder is then empty again, ready for other keys.
+    IArtNode<V> buildNode() {
+        IArtNode<V> node = close();
+        while (openCount > 0) {
+            openNodes[openCount - 1].add(node.getKey(), node);
+            node = close();
+        }
+        size = 0;
+        return node;
+    }
+
+    private void open(int depth, long key) {
+        OpenNode openNode = openNodes[openCount];
+        if (openNode == null) {
+            openNode = openNodes[openCount] = new OpenNode();
+        }
+        openNode.depth = depth;
+        openNode.key = key;
+        openCount++;
+    }
+
+    private IArtNode<V> close() {
+        OpenNode openNode = openNodes[--openCount];
+        IArtNode<V> node = newNode(openNode.key, openNode.depth, openNode.count);
+        for (int i = 0; i < openNode.count; i++) {
+            if (openNode.depth == 0) {
+                node.put(openNode.keys[i], (V) openNode.children[i]);
+            } else {
+                node.put(openNode.keys[i], (IArtNode<V>) openNode.children[i]);
+            }
+        }
+        Arrays.fill(openNode.children, 0, openNode.count, null);
+        openNode.count = 0;
+        return node;
+    }
+
+    private static class OpenNode {
+
+        private final long[] keys = new long[256];
+        private final Object[] children = new Object[256];
+        private int count;
+
+        private int depth;
+        private long key;
+
+        private void add(long key, Object child) {
+            keys[count] = key;
+            children[count] = child;
+            count++;
+        }
+    }
+}
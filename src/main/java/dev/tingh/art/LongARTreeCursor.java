@@ -0,0 +1,204 @@
+package dev.tingh.art;
+
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+
+import static dev.tingh.art.ArtNodes.*;
+
+/**
+ * Iterates the entries of a LongARTree in key order, forwards or backwards.
+ *
+ * The position is kept as the path of nodes from the root down to a leaf node, with the child index taken
+ * at each node, so stepping to the neighbouring entry usually stays within the current leaf node and never
+ * restarts from the root. Stepping allocates nothing.
+ *
+ * Adding or removing keys invalidates the cursor, its next use then throws ConcurrentModificationException
+ * until it is repositioned with first, last, seek or seekFloor. Replacing the value of an existing key is allowed.
+ */
+public class LongARTreeCursor<V> {
+
+    private final LongARTree<V> tree;
+
+    // nodes[0] is the root and nodes[size - 1] the leaf node holding the current entry,
+    // indexes[i] is the child index taken in nodes[i]. The depth strictly decreases, so there are at most 8.
+    private final IArtNode<V>[] nodes = new IArtNode[8];
+    private final int[] indexes = new int[8];
+    private int size;
+
+    private int expectedModCount;
+
+    LongARTreeCursor(LongARTree<V> tree) {
+        this.tree = tree;
+    }
+
+    // Positions the cursor at the first entry, returns false if the tree is empty.
+    public boolean first() {
+        reset();
+        IArtNode<V> root = tree.getRoot();
+        return root != null && descendFirst(root);
+    }
+
+    // Positions the cursor at the last entry, returns false if the tree is empty.
+    public boolean last() {
+        reset();
+        IArtNode<V> root = tree.getRoot();
+        return root != null && descendLast(root);
+    }
+
+    // Positions the cursor at the least key greater than or equal to the given key, returns false if there is none.
+    public boolean seek(long key) {
+        reset();
+        IArtNode<V> node = tree.getRoot();
+        while (node != null) {
+            int compare = comparePrefix(node, key);
+            if (compare > 0) {
+                return descendFirst(node);
+            } else if (compare < 0) {
+                return ascendNext();
+            }
+            int nodeIndex = nodeIndex(node, key);
+            Object next = node.getChild(nodeIndex);
+            if (isLeaf(node) || next == null) {
+                int index = ceilingIndex(node, nodeIndex);
+                if (index == -1) {
+                    return ascendNext();
+                }
+                push(node, index);
+                return isLeaf(node) || descendFirst((IArtNode<V>) node.getChild(index));
+            }
+            push(node, nodeIndex);
+            node = (IArtNode<V>) next;
+        }
+        return false;
+    }
+
+    // Positions the cursor at the greatest key less than or equal to the given key, returns false if there is none.
+    public boolean seekFloor(long key) {
+        reset();
+        IArtNode<V> node = tree.getRoot();
+        while (node != null) {
+            int compare = comparePrefix(node, key);
+            if (compare < 0) {
+                return descendLast(node);
+            } else if (compare > 0) {
+                return ascendPrevious();
+            }
+            int nodeIndex = nodeIndex(node, key);
+            Object next = node.getChild(nodeIndex);
+            if (isLeaf(node) || next == null) {
+                int index = floorIndex(node, nodeIndex);
+                if (index == -1) {
+                    return ascendPrevious();
+                }
+                push(node, index);
+                return isLeaf(node) || descendLast((IArtNode<V>) node.getChild(index));
+            }
+            push(node, nodeIndex);
+            node = (IArtNode<V>) next;
+        }
+        return false;
+    }
+
+    // Moves to the next entry, returns false and leaves the cursor unpositioned if there is none.
+    public boolean next() {
+        checkForComodification();
+        return ascendNext();
+    }
+
+    // Moves to the previous entry, returns false and leaves the cursor unpositioned if there is none.
+    public boolean prev() {
+        checkForComodification();
+        return ascendPrevious();
+    }
+
+    public boolean isPositioned() {
+        return size > 0;
+    }
+
+    public long key() {
+        checkPositioned();
+        return leafKey(nodes[size - 1], indexes[size - 1]);
+    }
+
+    public V value() {
+        checkPositioned();
+        return (V) nodes[size - 1].getChild(indexes[size - 1]);
+    }
+
+    private void reset() {
+        size = 0;
+        expectedModCount = tree.getModCount();
+    }
+
+    private void push(IArtNode<V> node, int index) {
+        nodes[size] = node;
+        indexes[size] = index;
+        size++;
+    }
+
+    private boolean descendFirst(IArtNode<V> node) {
+        while (true) {
+            int index = firstIndex(node);
+            push(node, index);
+            if (isLeaf(node)) {
+                return true;
+            }
+            node = (IArtNode<V>) node.getChild(index);
+        }
+    }
+
+    private boolean descendLast(IArtNode<V> node) {
+        while (true) {
+            int index = lastIndex(node);
+            push(node, index);
+            if (isLeaf(node)) {
+                return true;
+            }
+            node = (IArtNode<V>) node.getChild(index);
+        }
+    }
+
+    // Steps to the next child of the deepest node on the path that has one, then down to its first entry.
+    private boolean ascendNext() {
+        while (size > 0) {
+            IArtNode<V> node = nodes[size - 1];
+            int index = higherIndex(node, indexes[size - 1]);
+            if (index != -1) {
+                indexes[size - 1] = index;
+                return isLeaf(node) || descendFirst((IArtNode<V>) node.getChild(index));
+            }
+            size--;
+        }
+        return false;
+    }
+
+    private boolean ascendPrevious() {
+        while (size > 0) {
+            IArtNode<V> node = nodes[size - 1];
+            int index = lowerIndex(node, indexes[size - 1]);
+            if (index != -1) {
+                indexes[size - 1] = index;
+                return isLeaf(node) || descendLast((IArtNode<V>) node.getChild(index));
+            }
+            size--;
+        }
+        return false;
+    }
+
+    private boolean isLeaf(IArtNode<V> node) {
+        return node.getDepth() == 0;
+    }
+
+    private void checkPositioned() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        checkForComodification();
+    }
+
+    private void checkForComodification() {
+        if (tree.getModCount() != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+}
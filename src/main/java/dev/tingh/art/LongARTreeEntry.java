@@ -0,0 +1,30 @@
+package dev.tingh.art;
+
+/**
+ * A mutable key and value, filled in by the entry navigation methods of LongARTree.
+ *
+ * Reusing one entry across calls keeps navigation free of allocation and the key unboxed.
+ */
+public class LongARTreeEntry<V> {
+
+    private long key;
+    private V value;
+
+    public long getKey() {
+        return key;
+    }
+
+    public V getValue() {
+        return value;
+    }
+
+    void set(long key, V value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    @Override
+    public String toString() {
+        return key + "=" + value;
+    }
+}
@@ -0,0 +1,691 @@
+package dev.tingh.art;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedSet;
+
+/**
+ * A NavigableMap backed by a LongARTree, for use in place of a TreeMap with long keys.
+ *
+ * The range views returned by subMap, headMap, tailMap and descendingMap are themselves LongARTreeMaps over
+ * the same tree, restricted to their bounds. They are live, every navigation seeks the tree directly with a
+ * LongARTreeCursor so a view never filters entries outside its range.
+ *
+ * The primitive long overloads of get, containsKey, put, remove and the navigation methods skip boxing the key.
+ * Null keys and null values are not supported, the tree uses null to signal an absent key.
+ */
+public class LongARTreeMap<V> extends AbstractMap<Long, V> implements NavigableMap<Long, V> {
+
+    private final LongARTree<V> tree;
+
+    // The bounds of the view, fromStart and toEnd mean unbounded below and above. Always in ascending key order,
+    // a descending view swaps the direction of navigation instead.
+    private final boolean fromStart;
+    private final long lo;
+    private final boolean loInclusive;
+    private final boolean toEnd;
+    private final long hi;
+    private final boolean hiInclusive;
+    private final boolean descending;
+
+    public LongARTreeMap() {
+        this(new LongARTree<>());
+    }
+
+    public LongARTreeMap(LongARTree<V> tree) {
+        this(tree, true, 0, false, true, 0, false, false);
+    }
+
+    public LongARTreeMap(Map<? extends Long, ? extends V> map) {
+        this();
+        putAll(map);
+    }
+
+    private LongARTreeMap(LongARTree<V> tree, boolean fromStart, long lo, boolean loInclusive,
+                          boolean toEnd, long hi, boolean hiInclusive, boolean descending) {
+        if (!fromStart && !toEnd && lo > hi) {
+            throw new IllegalArgumentException("fromKey > toKey");
+        }
+        this.tree = tree;
+        this.fromStart = fromStart;
+        this.lo = lo;
+        this.loInclusive = loInclusive;
+        this.toEnd = toEnd;
+        this.hi = hi;
+        this.hiInclusive = hiInclusive;
+        this.descending = descending;
+    }
+
+    public V get(long key) {
+        return inRange(key) ? tree.get(key) : null;
+    }
+
+    public boolean containsKey(long key) {
+        return inRange(key) && tree.contains(key);
+    }
+
+    public V put(long key, V value) {
+        Objects.requireNonNull(value);
+        if (!inRange(key)) {
+            throw new IllegalArgumentException("key out of range");
+        }
+        return tree.put(key, value);
+    }
+
+    public V remove(long key) {
+        return inRange(key) ? tree.remove(key) : null;
+    }
+
+    @Override
+    public V get(Object key) {
+        return get(toLong(key));
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return containsKey(toLong(key));
+    }
+
+    @Override
+    public V put(Long key, V value) {
+        return put(key.longValue(), value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return remove(toLong(key));
+    }
+
+    @Override
+    public int size() {
+        if (isUnbounded()) {
+            return tree.size();
+        }
+        int size = 0;
+        LongARTreeCursor<V> cursor = tree.cursor();
+        for (boolean positioned = lowest(cursor); positioned && !tooHigh(cursor.key()); positioned = cursor.next()) {
+            size++;
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return isUnbounded() ? tree.size() == 0 : !lowest(tree.cursor());
+    }
+
+    @Override
+    public void clear() {
+        if (isUnbounded()) {
+            tree.clear();
+        } else {
+            for (Iterator<Long> iterator = navigableKeySet().iterator(); iterator.hasNext(); ) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+    }
+
+    public long firstLongKey() {
+        LongARTreeCursor<V> cursor = tree.cursor();
+        return key(cursor, first(cursor));
+    }
+
+    public long lastLongKey() {
+        LongARTreeCursor<V> cursor = tree.cursor();
+        return key(cursor, last(cursor));
+    }
+
+    @Override
+    public Long firstKey() {
+        return firstLongKey();
+    }
+
+    @Override
+    public Long lastKey() {
+        return lastLongKey();
+    }
+
+    @Override
+    public Entry<Long, V> firstEntry() {
+        LongARTreeCursor<V> cursor = tree.cursor();
+        return entry(cursor, first(cursor));
+    }
+
+    @Override
+    public Entry<Long, V> lastEntry() {
+        LongARTreeCursor<V> cursor = tree.cursor();
+        return entry(cursor, last(cursor));
+    }
+
+    @Override
+    public Entry<Long, V> pollFirstEntry() {
+        LongARTreeCursor<V> cursor = tree.cursor();
+        return poll(cursor, first(cursor));
+    }
+
+    @Override
+    public Entry<Long, V> pollLastEntry() {
+        LongARTreeCursor<V> cursor = tree.cursor();
+        return poll(cursor, last(cursor));
+    }
+
+    public Entry<Long, V> ceilingEntry(long key) {
+        LongARTreeCursor<V> cursor = tree.cursor();
+        return entry(cursor, descending ? floor(cursor, key) : ceiling(cursor, key));
+    }
+
+    public Entry<Long, V> floorEntry(long key) {
+        LongARTreeCursor<V> cursor = tree.cursor();
+        return entry(cursor, descending ? ceiling(cursor, key) : floor(cursor, key));
+    }
+
+    public Entry<Long, V> higherEntry(long key) {
+        LongARTreeCursor<V> cursor = tree.cursor();
+        return entry(cursor, descending ? lower(cursor, key) : higher(cursor, key));
+    }
+
+    public Entry<Long, V> lowerEntry(long key) {
+        LongARTreeCursor<V> cursor = tree.cursor();
+        return entry(cursor, descending ? higher(cursor, key) : lower(cursor, key));
+    }
+
+    @Override
+    public Entry<Long, V> ceilingEntry(Long key) {
+        return ceilingEntry(key.longValue());
+    }
+
+    @Override
+    public Entry<Long, V> floorEntry(Long key) {
+        return floorEntry(key.longValue());
+    }
+
+    @Override
+    public Entry<Long, V> higherEntry(Long key) {
+        return higherEntry(key.longValue());
+    }
+
+    @Override
+    public Entry<Long, V> lowerEntry(Long key) {
+        return lowerEntry(key.longValue());
+    }
+
+    @Override
+    public Long ceilingKey(Long key) {
+        return keyOrNull(ceilingEntry(key.longValue()));
+    }
+
+    @Override
+    public Long floorKey(Long key) {
+        return keyOrNull(floorEntry(key.longValue()));
+    }
+
+    @Override
+    public Long higherKey(Long key) {
+        return keyOrNull(higherEntry(key.longValue()));
+    }
+
+    @Override
+    public Long lowerKey(Long key) {
+        return keyOrNull(lowerEntry(key.longValue()));
+    }
+
+    @Override
+    public Comparator<? super Long> comparator() {
+        return descending ? Collections.reverseOrder() : null;
+    }
+
+    @Override
+    public LongARTreeMap<V> descendingMap() {
+        return new LongARTreeMap<>(tree, fromStart, lo, loInclusive, toEnd, hi, hiInclusive, !descending);
+    }
+
+    public LongARTreeMap<V> subMap(long fromKey, boolean fromInclusive, long toKey, boolean toInclusive) {
+        if (!inRange(fromKey, fromInclusive)) {
+            throw new IllegalArgumentException("fromKey out of range");
+        } else if (!inRange(toKey, toInclusive)) {
+            throw new IllegalArgumentException("toKey out of range");
+        }
+        if (descending) {
+            return new LongARTreeMap<>(tree, false, toKey, toInclusive, false, fromKey, fromInclusive, true);
+        }
+        return new LongARTreeMap<>(tree, false, fromKey, fromInclusive, false, toKey, toInclusive, false);
+    }
+
+    public LongARTreeMap<V> headMap(long toKey, boolean inclusive) {
+        if (!inRange(toKey, inclusive)) {
+            throw new IllegalArgumentException("toKey out of range");
+        }
+        if (descending) {
+            return new LongARTreeMap<>(tree, false, toKey, inclusive, toEnd, hi, hiInclusive, true);
+        }
+        return new LongARTreeMap<>(tree, fromStart, lo, loInclusive, false, toKey, inclusive, false);
+    }
+
+    public LongARTreeMap<V> tailMap(long fromKey, boolean inclusive) {
+        if (!inRange(fromKey, inclusive)) {
+            throw new IllegalArgumentException("fromKey out of range");
+        }
+        if (descending) {
+            return new LongARTreeMap<>(tree, fromStart, lo, loInclusive, false, fromKey, inclusive, true);
+        }
+        return new LongARTreeMap<>(tree, false, fromKey, inclusive, toEnd, hi, hiInclusive, false);
+    }
+
+    @Override
+    public LongARTreeMap<V> subMap(Long fromKey, boolean fromInclusive, Long toKey, boolean toInclusive) {
+        return subMap(fromKey.longValue(), fromInclusive, toKey.longValue(), toInclusive);
+    }
+
+    @Override
+    public LongARTreeMap<V> headMap(Long toKey, boolean inclusive) {
+        return headMap(toKey.longValue(), inclusive);
+    }
+
+    @Override
+    public LongARTreeMap<V> tailMap(Long fromKey, boolean inclusive) {
+        return tailMap(fromKey.longValue(), inclusive);
+    }
+
+    @Override
+    public LongARTreeMap<V> subMap(Long fromKey, Long toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public LongARTreeMap<V> headMap(Long toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public LongARTreeMap<V> tailMap(Long fromKey) {
+        return tailMap(fromKey, true);
+    }
+
+    @Override
+    public Set<Entry<Long, V>> entrySet() {
+        return new EntrySet();
+    }
+
+    @Override
+    public Set<Long> keySet() {
+        return navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<Long> navigableKeySet() {
+        return new KeySet<>(this);
+    }
+
+    @Override
+    public NavigableSet<Long> descendingKeySet() {
+        return descendingMap().navigableKeySet();
+    }
+
+    private boolean isUnbounded() {
+        return fromStart && toEnd;
+    }
+
+    private boolean tooLow(long key) {
+        return !fromStart && (key < lo || (key == lo && !loInclusive));
+    }
+
+    private boolean tooHigh(long key) {
+        return !toEnd && (key > hi || (key == hi && !hiInclusive));
+    }
+
+    private boolean inRange(long key) {
+        return !tooLow(key) && !tooHigh(key);
+    }
+
+    // A bound of a new view may sit on an exclusive bound of this view, as long as the new bound is exclusive too.
+    private boolean inRange(long key, boolean inclusive) {
+        return inclusive ? inRange(key) : (fromStart || key >= lo) && (toEnd || key <= hi);
+    }
+
+    // The navigation below positions the cursor in ascending key order and returns false when there is no entry
+    // in range, the descending direction is applied by the public methods.
+
+    private boolean first(LongARTreeCursor<V> cursor) {
+        return descending ? highest(cursor) : lowest(cursor);
+    }
+
+    private boolean last(LongARTreeCursor<V> cursor) {
+        return descending ? lowest(cursor) : highest(cursor);
+    }
+
+    private boolean lowest(LongARTreeCursor<V> cursor) {
+        boolean positioned;
+        if (fromStart) {
+            positioned = cursor.first();
+        } else {
+            positioned = loInclusive ? cursor.seek(lo) : seekHigher(cursor, lo);
+        }
+        return positioned && !tooHigh(cursor.key());
+    }
+
+    private boolean highest(LongARTreeCursor<V> cursor) {
+        boolean positioned;
+        if (toEnd) {
+            positioned = cursor.last();
+        } else {
+            positioned = hiInclusive ? cursor.seekFloor(hi) : seekLower(cursor, hi);
+        }
+        return positioned && !tooLow(cursor.key());
+    }
+
+    private boolean ceiling(LongARTreeCursor<V> cursor, long key) {
+        if (tooLow(key)) {
+            return lowest(cursor);
+        }
+        return cursor.seek(key) && !tooHigh(cursor.key());
+    }
+
+    private boolean higher(LongARTreeCursor<V> cursor, long key) {
+        if (tooLow(key)) {
+            return lowest(cursor);
+        }
+        return seekHigher(cursor, key) && !tooHigh(cursor.key());
+    }
+
+    private boolean floor(LongARTreeCursor<V> cursor, long key) {
+        if (tooHigh(key)) {
+            return highest(cursor);
+        }
+        return cursor.seekFloor(key) && !tooLow(cursor.key());
+    }
+
+    private boolean lower(LongARTreeCursor<V> cursor, long key) {
+        if (tooHigh(key)) {
+            return highest(cursor);
+        }
+        return seekLower(cursor, key) && !tooLow(cursor.key());
+    }
+
+    private static <V> boolean seekHigher(LongARTreeCursor<V> cursor, long key) {
+        return key != Long.MAX_VALUE && cursor.seek(key + 1);
+    }
+
+    private static <V> boolean seekLower(LongARTreeCursor<V> cursor, long key) {
+        return key != Long.MIN_VALUE && cursor.seekFloor(key - 1);
+    }
+
+    private static <V> long key(LongARTreeCursor<V> cursor, boolean positioned) {
+        if (!positioned) {
+            throw new NoSuchElementException();
+        }
+        return cursor.key();
+    }
+
+    private static <V> Entry<Long, V> entry(LongARTreeCursor<V> cursor, boolean positioned) {
+        return positioned ? new SimpleImmutableEntry<>(cursor.key(), cursor.value()) : null;
+    }
+
+    private Entry<Long, V> poll(LongARTreeCursor<V> cursor, boolean positioned) {
+        Entry<Long, V> entry = entry(cursor, positioned);
+        if (entry != null) {
+            tree.remove(entry.getKey());
+        }
+        return entry;
+    }
+
+    private static Long keyOrNull(Entry<Long, ?> entry) {
+        return entry != null ? entry.getKey() : null;
+    }
+
+    // Unboxes the key as TreeMap would compare it, throwing NullPointerException or ClassCastException.
+    private static long toLong(Object key) {
+        return (Long) key;
+    }
+
+    // Walks the entries of the view in its own order. The cursor is stepped ahead of the returned entry,
+    // so removing the returned entry re-seeks the cursor to the entry after it.
+    private abstract class RangeIterator<T> implements Iterator<T> {
+
+        private final LongARTreeCursor<V> cursor = tree.cursor();
+        private boolean hasNext;
+        private boolean hasLast;
+        private long lastKey;
+
+        RangeIterator() {
+            hasNext = first(cursor);
+        }
+
+        abstract T element(long key, V value);
+
+        @Override
+        public boolean hasNext() {
+            return hasNext;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext) {
+                throw new NoSuchElementException();
+            }
+            lastKey = cursor.key();
+            V value = cursor.value();
+            hasLast = true;
+            if (descending) {
+                hasNext = cursor.prev() && !tooLow(cursor.key());
+            } else {
+                hasNext = cursor.next() && !tooHigh(cursor.key());
+            }
+            return element(lastKey, value);
+        }
+
+        @Override
+        public void remove() {
+            if (!hasLast) {
+                throw new IllegalStateException();
+            }
+            hasLast = false;
+            if (hasNext) {
+                long nextKey = cursor.key();
+                tree.remove(lastKey);
+                cursor.seek(nextKey);
+            } else {
+                tree.remove(lastKey);
+            }
+        }
+    }
+
+    // An iterated entry, setting its value writes through to the tree.
+    private final class MapEntry extends SimpleEntry<Long, V> {
+
+        MapEntry(long key, V value) {
+            super(key, value);
+        }
+
+        @Override
+        public V setValue(V value) {
+            tree.put(getKey(), Objects.requireNonNull(value));
+            return super.setValue(value);
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<Long, V>> {
+
+        @Override
+        public Iterator<Entry<Long, V>> iterator() {
+            return new RangeIterator<Entry<Long, V>>() {
+                @Override
+                Entry<Long, V> element(long key, V value) {
+                    return new MapEntry(key, value);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return LongARTreeMap.this.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return LongARTreeMap.this.isEmpty();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Entry) || !(((Entry<?, ?>) o).getKey() instanceof Long)) {
+                return false;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            V value = get((long) (Long) entry.getKey());
+            return value != null && value.equals(entry.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!contains(o)) {
+                return false;
+            }
+            LongARTreeMap.this.remove((long) (Long) ((Entry<?, ?>) o).getKey());
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            LongARTreeMap.this.clear();
+        }
+    }
+
+    private static final class KeySet<V> extends AbstractSet<Long> implements NavigableSet<Long> {
+
+        private final LongARTreeMap<V> map;
+
+        KeySet(LongARTreeMap<V> map) {
+            this.map = map;
+        }
+
+        @Override
+        public Iterator<Long> iterator() {
+            return map.new RangeIterator<Long>() {
+                @Override
+                Long element(long key, V value) {
+                    return key;
+                }
+            };
+        }
+
+        @Override
+        public Iterator<Long> descendingIterator() {
+            return descendingSet().iterator();
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return map.isEmpty();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return map.containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return map.remove(o) != null;
+        }
+
+        @Override
+        public void clear() {
+            map.clear();
+        }
+
+        @Override
+        public Comparator<? super Long> comparator() {
+            return map.comparator();
+        }
+
+        @Override
+        public Long first() {
+            return map.firstKey();
+        }
+
+        @Override
+        public Long last() {
+            return map.lastKey();
+        }
+
+        @Override
+        public Long lower(Long key) {
+            return map.lowerKey(key);
+        }
+
+        @Override
+        public Long floor(Long key) {
+            return map.floorKey(key);
+        }
+
+        @Override
+        public Long ceiling(Long key) {
+            return map.ceilingKey(key);
+        }
+
+        @Override
+        public Long higher(Long key) {
+            return map.higherKey(key);
+        }
+
+        @Override
+        public Long pollFirst() {
+            return keyOrNull(map.pollFirstEntry());
+        }
+
+        @Override
+        public Long pollLast() {
+            return keyOrNull(map.pollLastEntry());
+        }
+
+        @Override
+        public NavigableSet<Long> descendingSet() {
+            return new KeySet<>(map.descendingMap());
+        }
+
+        @Override
+        public NavigableSet<Long> subSet(Long fromElement, boolean fromInclusive, Long toElement, boolean toInclusive) {
+            return new KeySet<>(map.subMap(fromElement, fromInclusive, toElement, toInclusive));
+        }
+
+        @Override
+        public NavigableSet<Long> headSet(Long toElement, boolean inclusive) {
+            return new KeySet<>(map.headMap(toElement, inclusive));
+        }
+
+        @Override
+        public NavigableSet<Long> tailSet(Long fromElement, boolean inclusive) {
+            return new KeySet<>(map.tailMap(fromElement, inclusive));
+        }
+
+        @Override
+        public SortedSet<Long> subSet(Long fromElement, Long toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public SortedSet<Long> headSet(Long toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public SortedSet<Long> tailSet(Long fromElement) {
+            return tailSet(fromElement, true);
+        }
+    }
+}
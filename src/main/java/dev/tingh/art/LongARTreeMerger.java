@@ -0,0 +1,137 @@
+package dev.tingh.art;
+
+import static dev.tingh.art.ArtNodes.*;
+
+// Merges a batch of keys in ascending order into the nodes of a LongARTree in one pass, top down.
+//
+// The keys under a node are partitioned by the node's byte, each partition merged into the child at that byte,
+// so each affected node is visited once. A node is resized once, straight to the type that fits its merged count
+// of children, before any are added. Keys outside a node's prefix branch off above it, with the branching node
+// created at the type that fits all of its children, and partitions with no node yet are built bottom up.
+class LongARTreeMerger<V> {
+
+    private final long[] keys;
+    private final V[] values;
+
+    private final LongARTreeBuilder<V> builder = new LongARTreeBuilder<>();
+
+    private int added;
+
+    LongARTreeMerger(long[] keys, V[] values) {
+        this.keys = keys;
+        this.values = values;
+    }
+
+    // The node taking the place of the given node, which may be null, once the keys are merged into it.
+    IArtNode<V> merge(IArtNode<V> node) {
+        return keys.length > 0 ? merge(node, 0, keys.length) : node;
+    }
+
+    // The number of keys merged that were not in the tree before.
+    int getAdded() {
+        return added;
+    }
+
+    private IArtNode<V> merge(IArtNode<V> node, int from, int to) {
+        if (node == null) {
+            return build(from, to);
+        }
+
+        int depth = node.getDepth();
+        int prefixShift = node.getShift() + node.getIndexBits();
+        if (prefixShift < 64) {
+            // The keys are in order, so the first and last differ from the node at least as high as any between.
+            long differing = (keys[from] ^ node.getKey() | keys[to - 1] ^ node.getKey()) & -1L << prefixShift;
+            if (differing != 0) {
+                return branch(node, (63 - Long.numberOfLeadingZeros(differing)) >>> 3, from, to);
+            }
+        }
+        return depth == 0 ? mergeLeaf(node, from, to) : mergeInner(node, from, to);
+    }
+
+    private IArtNode<V> mergeLeaf(IArtNode<V> leafNode, int from, int to) {
+        int count = leafNode.getCount();
+        for (int i = from; i < to; i++) {
+            if (leafNode.get(keys[i]) == null) {
+                count++;
+            }
+        }
+        added += count - leafNode.getCount();
+        leafNode = resize(leafNode, count);
+        for (int i = from; i < to; i++) {
+            leafNode.put(keys[i], values[i]);
+        }
+        return leafNode;
+    }
+
+    private IArtNode<V> mergeInner(IArtNode<V> node, int from, int to) {
+        // Counts the children only if the keys might not fit, each key adding at most one.
+        if (node.getCount() + (to - from) > node.getNodeType().getSize()) {
+            int count = node.getCount();
+            for (int i = from; i < to; i = partitionEnd(node.getShift(), i, to)) {
+                if (node.getChild(nodeIndex(node, keys[i])) == null) {
+                    count++;
+                }
+            }
+            node = resize(node, count);
+        }
+        for (int i = from; i < to; ) {
+            int end = partitionEnd(node.getShift(), i, to);
+            IArtNode<V> child = (IArtNode<V>) node.getChild(nodeIndex(node, keys[i]));
+            IArtNode<V> newChild = merge(child, i, end);
+            if (newChild != child) {
+                node.put(keys[i], newChild);
+            }
+            i = end;
+        }
+        return node;
+    }
+
+    // Some keys lie outside the node's prefix, differing from it first at the given depth, so a new node there
+    // holds the node and the keys, which the partition sharing the node's byte are merged into.
+    private IArtNode<V> branch(IArtNode<V> node, int depth, int from, int to) {
+        int shift = depth * 8;
+        int nodeIndex = (int) (node.getKey() >>> shift & 255L);
+        int count = 1;
+        for (int i = from; i < to; i = partitionEnd(shift, i, to)) {
+            if ((int) (keys[i] >>> shift & 255L) != nodeIndex) {
+                count++;
+            }
+        }
+
+        // The node goes in first, and is replaced by its merged self if a partition shares its byte.
+        IArtNode<V> newNode = newNode(node.getKey(), depth, count);
+        newNode.put(node.getKey(), node);
+        for (int i = from; i < to; ) {
+            int end = partitionEnd(shift, i, to);
+            if ((int) (keys[i] >>> shift & 255L) == nodeIndex) {
+                newNode.put(node.getKey(), merge(node, i, end));
+            } else {
+                newNode.put(keys[i], build(i, end));
+            }
+            i = end;
+        }
+        return newNode;
+    }
+
+    private IArtNode<V> build(int from, int to) {
+        added += to - from;
+        if (to - from == 1) {
+            return new ArtNode1<>(keys[from], values[from]);
+        }
+        for (int i = from; i < to; i++) {
+            builder.add(keys[i], values[i]);
+        }
+        return builder.buildNode();
+    }
+
+    // The end of the run of keys from the given one that share its byte at the shift, and every byte above it.
+    private int partitionEnd(int shift, int from, int to) {
+        long prefix = keys[from] >>> shift;
+        int end = from + 1;
+        while (end < to && keys[end] >>> shift == prefix) {
+            end++;
+        }
+        return end;
+    }
+}
@@ -0,0 +1,147 @@
+package dev.tingh.art;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import static dev.tingh.art.ArtNodes.*;
+
+// Builds a LongARTree from keys in any order on a ForkJoinPool, top down.
+//
+// A range of keys becomes a node at the depth of the highest byte in which any two of them differ. The range is
+// partitioned in place by that byte, as in an American flag sort, and each partition becomes a child of the node,
+// built as a task of its own if it is large enough to be worth forking. The node is created once at the type that
+// fits its number of partitions, and a range within one leaf node is put straight into it, so nothing is sorted.
+class LongARTreeParallelBuilder<V> {
+
+    // Ranges smaller than this are built by the task that partitioned them rather than forked.
+    private static final int FORK_THRESHOLD = 1 << 13;
+
+    private final long[] keys;
+    private final Object[] values;
+
+    LongARTreeParallelBuilder(long[] keys, V[] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Keys and values differ in length, keys=" + keys.length +
+                    ", values=" + values.length);
+        }
+        // Copies, as the partitioning reorders them.
+        this.keys = keys.clone();
+        this.values = values.clone();
+    }
+
+    LongARTree<V> build(ForkJoinPool pool) {
+        if (keys.length == 0) {
+            return new LongARTree<>();
+        }
+        return new LongARTree<>(pool.invoke(new BuildTask(0, keys.length)), keys.length);
+    }
+
+    private class BuildTask extends RecursiveTask<IArtNode<V>> {
+
+        private final int from;
+        private final int to;
+
+        private BuildTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected IArtNode<V> compute() {
+            return buildNode(from, to);
+        }
+    }
+
+    private IArtNode<V> buildNode(int from, int to) {
+        long differing = 0;
+        for (int i = from + 1; i < to; i++) {
+            differing |= keys[i] ^ keys[from];
+        }
+        // A single key, or keys differing only in their lowest byte, make a leaf node.
+        if (differing >>> 8 == 0) {
+            return buildLeafNode(from, to);
+        }
+
+        int depth = (63 - Long.numberOfLeadingZeros(differing)) >>> 3;
+        int shift = depth * 8;
+        int[] ends = partition(from, to, shift);
+        int count = 0;
+        for (int index = 0; index < 256; index++) {
+            if (ends[index] != (index == 0 ? from : ends[index - 1])) {
+                count++;
+            }
+        }
+
+        IArtNode<V> node = newNode(keys[from], depth, count);
+        List<BuildTask> tasks = new ArrayList<>();
+        int start = from;
+        for (int index = 0; index < 256; start = ends[index++]) {
+            int end = ends[index];
+            if (end - start >= FORK_THRESHOLD) {
+                BuildTask task = new BuildTask(start, end);
+                task.fork();
+                tasks.add(task);
+            } else if (end > start) {
+                node.put(keys[start], buildNode(start, end));
+            }
+        }
+        for (BuildTask task : tasks) {
+            node.put(keys[task.from], task.join());
+        }
+        return node;
+    }
+
+    private IArtNode<V> buildLeafNode(int from, int to) {
+        IArtNode<V> leafNode = newNode(keys[from], 0, to - from);
+        for (int i = from; i < to; i++) {
+            if (values[i] == null) {
+                throw new NullPointerException("Null value, key=" + keys[i]);
+            } else if (leafNode.get(keys[i]) != null) {
+                throw new IllegalArgumentException("Duplicate key=" + keys[i]);
+            }
+            leafNode.put(keys[i], (V) values[i]);
+        }
+        return leafNode;
+    }
+
+    // Reorders the range by the byte at the shift, returning the end of each byte's partition.
+    private int[] partition(int from, int to, int shift) {
+        int[] ends = new int[256];
+        for (int i = from; i < to; i++) {
+            ends[(int) (keys[i] >>> shift & 255L)]++;
+        }
+        int[] next = new int[256];
+        int start = from;
+        for (int index = 0; index < 256; index++) {
+            next[index] = start;
+            start += ends[index];
+            ends[index] = start;
+        }
+
+        // Swaps each key into the next free position of its partition until every partition is filled.
+        for (int index = 0; index < 256; index++) {
+            while (next[index] < ends[index]) {
+                int i = next[index];
+                long key = keys[i];
+                Object value = values[i];
+                int target = (int) (key >>> shift & 255L);
+                while (target != index) {
+                    int j = next[target]++;
+                    long swapKey = keys[j];
+                    Object swapValue = values[j];
+                    keys[j] = key;
+                    values[j] = value;
+                    key = swapKey;
+                    value = swapValue;
+                    target = (int) (key >>> shift & 255L);
+                }
+                keys[i] = key;
+                values[i] = value;
+                next[index]++;
+            }
+        }
+        return ends;
+    }
+}
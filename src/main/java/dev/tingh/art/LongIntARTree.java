@@ -0,0 +1,82 @@
+package dev.tingh.art;
+
+/**
+ * An adaptive radix tree mapping long keys to int values, with the values held unboxed in the leaf nodes.
+ *
+ * There is no null, so get, remove and the navigation methods return the tree's no value sentinel when there is
+ * no such key, Integer.MIN_VALUE unless another is given. The sentinel can still be stored as a value, contains tells
+ * the two apart.
+ */
+public class LongIntARTree extends PrimitiveARTree<IntLeafNode> {
+
+    public static final int DEFAULT_NO_VALUE = Integer.MIN_VALUE;
+
+    private final int noValue;
+
+    public LongIntARTree() {
+        this(DEFAULT_NO_VALUE);
+    }
+
+    public LongIntARTree(int noValue) {
+        this.noValue = noValue;
+    }
+
+    public int getNoValue() {
+        return noValue;
+    }
+
+    public int get(long key) {
+        IntLeafNode leafNode = findLeaf(key);
+        if (leafNode == null) {
+            return noValue;
+        }
+        int slot = leafNode.slot(ArtLeafNode.nodeIndex(key));
+        return slot != -1 ? leafNode.getValue(slot) : noValue;
+    }
+
+    // Returns the previous value of the key, or the no value sentinel if the key was added.
+    public int put(long key, int value) {
+        IntLeafNode leafNode = findOrAddLeaf(key);
+        int nodeIndex = ArtLeafNode.nodeIndex(key);
+        int slot = leafNode.slot(nodeIndex);
+        if (slot != -1) {
+            int previous = leafNode.getValue(slot);
+            leafNode.setValue(slot, value);
+            return previous;
+        }
+        leafNode.setValue(leafNode.insert(nodeIndex), value);
+        added();
+        return noValue;
+    }
+
+    public int remove(long key) {
+        IntLeafNode leafNode = findLeaf(key);
+        if (leafNode == null) {
+            return noValue;
+        }
+        int slot = leafNode.slot(ArtLeafNode.nodeIndex(key));
+        if (slot == -1) {
+            return noValue;
+        }
+        int previous = leafNode.getValue(slot);
+        delete(key, leafNode, slot);
+        return previous;
+    }
+
+    // The value of the least key greater than or equal to the given key.
+    public int getCeiling(long key) {
+        IntLeafNode leafNode = ceilingLeaf(key);
+        return leafNode != null ? leafNode.getValue(leafNode.slot(leafCeilingIndex(leafNode, key))) : noValue;
+    }
+
+    // The value of the greatest key less than or equal to the given key.
+    public int getFloor(long key) {
+        IntLeafNode leafNode = floorLeaf(key);
+        return leafNode != null ? leafNode.getValue(leafNode.slot(leafFloorIndex(leafNode, key))) : noValue;
+    }
+
+    @Override
+    protected IntLeafNode newLeafNode(long key) {
+        return new IntLeafNode(key);
+    }
+}
@@ -0,0 +1,34 @@
+package dev.tingh.art;
+
+// A leaf node holding long values.
+public class LongLeafNode extends ArtLeafNode {
+
+    private long[] values = new long[ArtNodeType.ArtNode4.getSize()];
+
+    public LongLeafNode(long key) {
+        super(key);
+    }
+
+    public long getValue(int slot) {
+        return values[slot];
+    }
+
+    public void setValue(int slot, long value) {
+        values[slot] = value;
+    }
+
+    @Override
+    protected Object getValues() {
+        return values;
+    }
+
+    @Override
+    protected void setValues(Object values) {
+        this.values = (long[]) values;
+    }
+
+    @Override
+    protected Object newValues(int size) {
+        return new long[size];
+    }
+}
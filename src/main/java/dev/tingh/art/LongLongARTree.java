@@ -0,0 +1,82 @@
+package dev.tingh.art;
+
+/**
+ * An adaptive radix tree mapping long keys to long values, with the values held unboxed in the leaf nodes.
+ *
+ * There is no null, so get, remove and the navigation methods return the tree's no value sentinel when there is
+ * no such key, Long.MIN_VALUE unless another is given. The sentinel can still be stored as a value, contains tells
+ * the two apart.
+ */
+public class LongLongARTree extends PrimitiveARTree<LongLeafNode> {
+
+    public static final long DEFAULT_NO_VALUE = Long.MIN_VALUE;
+
+    private final long noValue;
+
+    public LongLongARTree() {
+        this(DEFAULT_NO_VALUE);
+    }
+
+    public LongLongARTree(long noValue) {
+        this.noValue = noValue;
+    }
+
+    public long getNoValue() {
+        return noValue;
+    }
+
+    public long get(long key) {
+        LongLeafNode leafNode = findLeaf(key);
+        if (leafNode == null) {
+            return noValue;
+        }
+        int slot = leafNode.slot(ArtLeafNode.nodeIndex(key));
+        return slot != -1 ? leafNode.getValue(slot) : noValue;
+    }
+
+    // Returns the previous value of the key, or the no value sentinel if the key was added.
+    public long put(long key, long value) {
+        LongLeafNode leafNode = findOrAddLeaf(key);
+        int nodeIndex = ArtLeafNode.nodeIndex(key);
+        int slot = leafNode.slot(nodeIndex);
+        if (slot != -1) {
+            long previous = leafNode.getValue(slot);
+            leafNode.setValue(slot, value);
+            return previous;
+        }
+        leafNode.setValue(leafNode.insert(nodeIndex), value);
+        added();
+        return noValue;
+    }
+
+    public long remove(long key) {
+        LongLeafNode leafNode = findLeaf(key);
+        if (leafNode == null) {
+            return noValue;
+        }
+        int slot = leafNode.slot(ArtLeafNode.nodeIndex(key));
+        if (slot == -1) {
+            return noValue;
+        }
+        long previous = leafNode.getValue(slot);
+        delete(key, leafNode, slot);
+        return previous;
+    }
+
+    // The value of the least key greater than or equal to the given key.
+    public long getCeiling(long key) {
+        LongLeafNode leafNode = ceilingLeaf(key);
+        return leafNode != null ? leafNode.getValue(leafNode.slot(leafCeilingIndex(leafNode, key))) : noValue;
+    }
+
+    // The value of the greatest key less than or equal to the given key.
+    public long getFloor(long key) {
+        LongLeafNode leafNode = floorLeaf(key);
+        return leafNode != null ? leafNode.getValue(leafNode.slot(leafFloorIndex(leafNode, key))) : noValue;
+    }
+
+    @Override
+    protected LongLeafNode newLeafNode(long key) {
+        return new LongLeafNode(key);
+    }
+}
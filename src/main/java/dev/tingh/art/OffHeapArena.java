@@ -0,0 +1,217 @@
+package dev.tingh.art;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Fixed-size records in direct memory, addressed by long offsets.
+ *
+ * The memory is a sequence of equally sized chunks, each a direct ByteBuffer, so the arena is not limited to the
+ * 2GB of a single buffer. An address is the chunk number in the upper bits and the offset within the chunk in the
+ * lower bits, and records never span two chunks. New records are taken from the end of the used memory, freed
+ * records are kept on a free list per size class, linked through their first 8 bytes, and handed out again first.
+ *
+ * Address 0 is never allocated and stands for no record, the first HEADER_SIZE bytes are reserved for the owner
+ * of the arena. The used memory can be written to a file and the file's chunks mapped back in by restore.
+ */
+public class OffHeapArena implements AutoCloseable {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 26;
+
+    public static final int HEADER_SIZE = 128;
+
+    private final int chunkShift;
+    private final long chunkMask;
+    private final int[] recordSizes;
+
+    private ByteBuffer[] chunks = new ByteBuffer[4];
+    private int chunkCount;
+
+    // The end of the used memory, where the next new record goes.
+    private long top = HEADER_SIZE;
+    private final long[] freeLists;
+
+    // The record sizes are those of the size classes, and must be multiples of 8 no larger than the chunk size.
+    public OffHeapArena(int chunkSize, int... recordSizes) {
+        if (!isChunkSize(chunkSize)) {
+            throw new IllegalArgumentException("chunkSize must be a power of two, chunkSize=" + chunkSize);
+        }
+        for (int recordSize : recordSizes) {
+            if (recordSize % 8 != 0 || recordSize > chunkSize) {
+                throw new IllegalArgumentException("Invalid recordSize=" + recordSize);
+            }
+        }
+        this.chunkShift = Integer.numberOfTrailingZeros(chunkSize);
+        this.chunkMask = chunkSize - 1;
+        this.recordSizes = recordSizes.clone();
+        this.freeLists = new long[recordSizes.length];
+    }
+
+    // Returns the address of a zeroed record of the size class.
+    public long allocate(int sizeClass) {
+        long address = freeLists[sizeClass];
+        if (address != 0) {
+            freeLists[sizeClass] = getLong(address);
+            putLong(address, 0);
+            return address;
+        }
+        int recordSize = recordSizes[sizeClass];
+        if ((top & chunkMask) + recordSize > chunkMask + 1) {
+            // Skips the rest of the chunk rather than split the record across two.
+            top = (top >>> chunkShift) + 1 << chunkShift;
+        }
+        address = top;
+        top += recordSize;
+        ensureChunk((int) (address >>> chunkShift));
+        return address;
+    }
+
+    // Clears the record and puts it on the free list of its size class.
+    public void free(long address, int sizeClass) {
+        fill(address, recordSizes[sizeClass], (byte) 0);
+        putLong(address, freeLists[sizeClass]);
+        freeLists[sizeClass] = address;
+    }
+
+    // Whether the arena takes the chunk size, a power of two with room for the header.
+    static boolean isChunkSize(int chunkSize) {
+        return Integer.bitCount(chunkSize) == 1 && chunkSize >= HEADER_SIZE;
+    }
+
+    public int getChunkSize() {
+        return (int) chunkMask + 1;
+    }
+
+    public long getFreeList(int sizeClass) {
+        return freeLists[sizeClass];
+    }
+
+    public int getRecordSize(int sizeClass) {
+        return recordSizes[sizeClass];
+    }
+
+    // The bytes taken from the chunks so far, including the records on the free lists.
+    public long getUsed() {
+        return top;
+    }
+
+    public long getCapacity() {
+        return (long) chunkCount << chunkShift;
+    }
+
+    public byte getByte(long address) {
+        return chunk(address).get(offset(address));
+    }
+
+    public void putByte(long address, byte value) {
+        chunk(address).put(offset(address), value);
+    }
+
+    public short getShort(long address) {
+        return chunk(address).getShort(offset(address));
+    }
+
+    public void putShort(long address, short value) {
+        chunk(address).putShort(offset(address), value);
+    }
+
+    public int getInt(long address) {
+        return chunk(address).getInt(offset(address));
+    }
+
+    public void putInt(long address, int value) {
+        chunk(address).putInt(offset(address), value);
+    }
+
+    public long getLong(long address) {
+        return chunk(address).getLong(offset(address));
+    }
+
+    public void putLong(long address, long value) {
+        chunk(address).putLong(offset(address), value);
+    }
+
+    // Copies within a record, the ranges may overlap.
+    public void copy(long from, long to, int length) {
+        chunk(to).put(offset(to), chunk(from), offset(from), length);
+    }
+
+    public void fill(long address, int length, byte value) {
+        ByteBuffer chunk = chunk(address);
+        int offset = offset(address);
+        int end = offset + length;
+        long word = (value & 255L) * 0x0101010101010101L;
+        for (; offset + 8 <= end; offset += 8) {
+            chunk.putLong(offset, word);
+        }
+        for (; offset < end; offset++) {
+            chunk.put(offset, value);
+        }
+    }
+
+    // Drops the chunks, their memory is released once the buffers are collected.
+    @Override
+    public void close() {
+        chunks = new ByteBuffer[0];
+        chunkCount = 0;
+        top = HEADER_SIZE;
+        Arrays.fill(freeLists, 0);
+    }
+
+    // Writes the used memory, from address 0, to the channel.
+    void writeTo(FileChannel channel) throws IOException {
+        ensureChunk(0);
+        for (int i = 0; i < chunkCount; i++) {
+            long start = (long) i << chunkShift;
+            int length = (int) Math.min(top - start, chunks[i].capacity());
+            if (length <= 0) {
+                break;
+            }
+            ByteBuffer chunk = chunks[i].duplicate();
+            chunk.position(0).limit(length);
+            while (chunk.hasRemaining()) {
+                channel.write(chunk, start + chunk.position());
+            }
+        }
+    }
+
+    // Takes over chunks read back from a file written by writeTo, with the top and free lists saved alongside.
+    // The last chunk may be shorter than the chunk size, new records then start in a chunk of their own.
+    void restore(ByteBuffer[] chunks, long top, long[] freeLists) {
+        this.chunks = Arrays.copyOf(chunks, Math.max(4, chunks.length));
+        this.chunkCount = chunks.length;
+        for (int i = 0; i < chunkCount; i++) {
+            this.chunks[i].order(ByteOrder.nativeOrder());
+        }
+        this.top = top;
+        if (chunkCount > 0 && this.chunks[chunkCount - 1].capacity() < getChunkSize()) {
+            this.top = (long) chunkCount << chunkShift;
+        }
+        System.arraycopy(freeLists, 0, this.freeLists, 0, this.freeLists.length);
+    }
+
+    protected ByteBuffer newChunk(int index, int chunkSize) {
+        return ByteBuffer.allocateDirect(chunkSize);
+    }
+
+    void ensureChunk(int index) {
+        while (chunkCount <= index) {
+            if (chunkCount == chunks.length) {
+                chunks = Arrays.copyOf(chunks, Math.max(4, chunks.length * 2));
+            }
+            chunks[chunkCount] = newChunk(chunkCount, (int) chunkMask + 1).order(ByteOrder.nativeOrder());
+            chunkCount++;
+        }
+    }
+
+    private ByteBuffer chunk(long address) {
+        return chunks[(int) (address >>> chunkShift)];
+    }
+
+    private int offset(long address) {
+        return (int) (address & chunkMask);
+    }
+}
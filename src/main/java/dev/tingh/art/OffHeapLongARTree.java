@@ -0,0 +1,749 @@
+package dev.tingh.art;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An adaptive radix tree mapping long keys to long values, with the nodes held off heap in an OffHeapArena.
+ *
+ * Every node is a fixed layout record addressed by a long, the garbage collector sees only the arena's chunks.
+ * The nodes adapt between the four ART node types as ArtNode4..ArtNode256 do, growing when full and shrinking at
+ * the same counts, and each node type is a size class of the arena, so a freed node is reused by the next node
+ * of its type. Leaf nodes are the nodes at depth 0, their child slots hold the values.
+ *
+ * There is no null, so get and remove return the tree's no value sentinel when there is no such key,
+ * Long.MIN_VALUE unless another is given. The tree is not thread safe.
+ *
+ * save writes the arena to a file as it is in memory, and open maps such a file back in. Nothing is read up front,
+ * nodes are paged in from the file as get, getCeiling and getFloor reach them, so opening takes the same time
+ * whatever the size of the tree. The mapping is copy-on-write, the opened tree can be changed without changing the
+ * file until it is saved again. save writes a new file and moves it over the old one, so an opened tree can be saved
+ * back to the file it was opened from while its mapping of that file stays intact.
+ */
+public class OffHeapLongARTree implements AutoCloseable {
+
+    public static final long DEFAULT_NO_VALUE = Long.MIN_VALUE;
+
+    // The node types, also the arena size classes.
+    static final int NODE4 = 0;
+    static final int NODE16 = 1;
+    static final int NODE48 = 2;
+    static final int NODE256 = 3;
+
+    // The record layout, a 16 byte header of type, depth, count and key, then the node type's key index and
+    // child slots. Node4 and Node16 hold sorted key bytes, Node48 maps each key byte to a child slot plus one,
+    // Node256 marks the occupied child slots in a bitmap.
+    private static final int TYPE = 0;
+    private static final int DEPTH = 1;
+    private static final int COUNT = 2;
+    private static final int KEY = 8;
+    private static final int INDEX = 16;
+
+    // The file header, in the reserved start of the arena. The file holds the arena's memory in native byte order.
+    private static final long MAGIC = 0x4152544C4F4E4731L;
+    private static final int VERSION = 1;
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 8;
+    private static final int HEADER_CHUNK_SIZE = 12;
+    private static final int HEADER_TOP = 16;
+    private static final int HEADER_ROOT = 24;
+    private static final int HEADER_KEY_COUNT = 32;
+    private static final int HEADER_NO_VALUE = 40;
+    private static final int HEADER_FREE_LISTS = 48;
+
+    private static final int[] CAPACITY = {4, 16, 48, 256};
+    private static final int[] CHILDREN = {24, 32, 272, 48};
+
+    static final int[] RECORD_SIZES = {
+            CHILDREN[NODE4] + 4 * 8,
+            CHILDREN[NODE16] + 16 * 8,
+            CHILDREN[NODE48] + 48 * 8,
+            CHILDREN[NODE256] + 256 * 8
+    };
+
+    private final OffHeapArena arena;
+    private final long noValue;
+
+    private long root;
+    private long size;
+
+    public OffHeapLongARTree() {
+        this(OffHeapArena.DEFAULT_CHUNK_SIZE, DEFAULT_NO_VALUE);
+    }
+
+    public OffHeapLongARTree(int chunkSize, long noValue) {
+        this(new OffHeapArena(chunkSize, RECORD_SIZES), noValue);
+    }
+
+    OffHeapLongARTree(OffHeapArena arena, long noValue) {
+        this.arena = arena;
+        this.noValue = noValue;
+    }
+
+    // Maps a file written by save, the tree reads its nodes straight from the mapping. The mapping is private, so
+    // changes to the tree are copied on write and never reach the file, which needs write access all the same.
+    public static OffHeapLongARTree open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(OffHeapArena.HEADER_SIZE).order(ByteOrder.nativeOrder());
+            while (header.hasRemaining() && channel.read(header) != -1) {
+            }
+            if (header.position() < OffHeapArena.HEADER_SIZE || header.getLong(HEADER_MAGIC) != MAGIC) {
+                throw new IOException("Not a tree file, path=" + path);
+            } else if (header.getInt(HEADER_VERSION) != VERSION) {
+                throw new IOException("Unsupported version=" + header.getInt(HEADER_VERSION) + ", path=" + path);
+            }
+
+            int chunkSize = header.getInt(HEADER_CHUNK_SIZE);
+            if (!OffHeapArena.isChunkSize(chunkSize) || chunkSize < RECORD_SIZES[NODE256]) {
+                throw new IOException("Not a tree file, chunkSize=" + chunkSize + ", path=" + path);
+            }
+            long fileSize = channel.size();
+            ByteBuffer[] chunks = new ByteBuffer[(int) ((fileSize + chunkSize - 1) / chunkSize)];
+            for (int i = 0; i < chunks.length; i++) {
+                long start = (long) i * chunkSize;
+                chunks[i] = channel.map(FileChannel.MapMode.PRIVATE, start, Math.min(chunkSize, fileSize - start));
+            }
+
+            long[] freeLists = new long[RECORD_SIZES.length];
+            for (int i = 0; i < freeLists.length; i++) {
+                freeLists[i] = header.getLong(HEADER_FREE_LISTS + i * 8);
+            }
+            OffHeapArena arena = new OffHeapArena(chunkSize, RECORD_SIZES);
+            arena.restore(chunks, header.getLong(HEADER_TOP), freeLists);
+
+            OffHeapLongARTree tree = new OffHeapLongARTree(arena, header.getLong(HEADER_NO_VALUE));
+            tree.root = header.getLong(HEADER_ROOT);
+            tree.size = header.getLong(HEADER_KEY_COUNT);
+            return tree;
+        }
+    }
+
+    // Writes the tree to the file, replacing it, so that open can map it back in. The tree is written to a temporary
+    // file in the same directory and moved over the file, rather than truncating a file the tree may have mapped.
+    public void save(Path path) throws IOException {
+        arena.ensureChunk(0);
+        arena.putLong(HEADER_MAGIC, MAGIC);
+        arena.putInt(HEADER_VERSION, VERSION);
+        arena.putInt(HEADER_CHUNK_SIZE, arena.getChunkSize());
+        arena.putLong(HEADER_TOP, arena.getUsed());
+        arena.putLong(HEADER_ROOT, root);
+        arena.putLong(HEADER_KEY_COUNT, size);
+        arena.putLong(HEADER_NO_VALUE, noValue);
+        for (int i = 0; i < RECORD_SIZES.length; i++) {
+            arena.putLong(HEADER_FREE_LISTS + i * 8, arena.getFreeList(i));
+        }
+
+        Path directory = path.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                arena.writeTo(channel);
+                channel.force(true);
+            }
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    public long getNoValue() {
+        return noValue;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    // The off heap bytes taken by the tree, including freed nodes waiting to be reused.
+    public long getOffHeapUsed() {
+        return arena.getUsed();
+    }
+
+    public long get(long key) {
+        long node = root;
+        while (node != 0) {
+            if (!inNode(node, key)) {
+                return noValue;
+            }
+            long slot = childSlot(node, nodeIndex(node, key));
+            if (slot == 0) {
+                return noValue;
+            } else if (isLeaf(node)) {
+                return arena.getLong(slot);
+            }
+            node = arena.getLong(slot);
+        }
+        return noValue;
+    }
+
+    public boolean contains(long key) {
+        long node = root;
+        while (node != 0) {
+            if (!inNode(node, key)) {
+                return false;
+            }
+            long slot = childSlot(node, nodeIndex(node, key));
+            if (slot == 0) {
+                return false;
+            } else if (isLeaf(node)) {
+                return true;
+            }
+            node = arena.getLong(slot);
+        }
+        return false;
+    }
+
+    // The value of the least key greater than or equal to the given key.
+    public long getCeiling(long key) {
+        long leafNode = ceilingLeaf(key);
+        return leafNode != 0 ? arena.getLong(childSlot(leafNode, leafCeilingIndex(leafNode, key))) : noValue;
+    }
+
+    // The value of the greatest key less than or equal to the given key.
+    public long getFloor(long key) {
+        long leafNode = floorLeaf(key);
+        return leafNode != 0 ? arena.getLong(childSlot(leafNode, leafFloorIndex(leafNode, key))) : noValue;
+    }
+
+    // The least key greater than or equal to the given key, or ILongARTree.NO_KEY.
+    public long ceilingKey(long key) {
+        long leafNode = ceilingLeaf(key);
+        return leafNode != 0 ? key(leafNode) & ~255L | leafCeilingIndex(leafNode, key) : ILongARTree.NO_KEY;
+    }
+
+    // The greatest key less than or equal to the given key, or ILongARTree.NO_KEY.
+    public long floorKey(long key) {
+        long leafNode = floorLeaf(key);
+        return leafNode != 0 ? key(leafNode) & ~255L | leafFloorIndex(leafNode, key) : ILongARTree.NO_KEY;
+    }
+
+    // Returns the previous value of the key, or the no value sentinel if the key was added.
+    public long put(long key, long value) {
+        if (root == 0) {
+            root = newLeafNode(key, value);
+            size++;
+            return noValue;
+        }
+
+        // The address of the child slot holding the node, 0 for the root.
+        long parentSlot = 0;
+        long node = root;
+        while (true) {
+            if (!inNode(node, key)) {
+                branch(key, value, parentSlot, node);
+                break;
+            }
+            int nodeIndex = nodeIndex(node, key);
+            long slot = childSlot(node, nodeIndex);
+            if (slot != 0) {
+                if (isLeaf(node)) {
+                    long previous = arena.getLong(slot);
+                    arena.putLong(slot, value);
+                    return previous;
+                }
+                parentSlot = slot;
+                node = arena.getLong(slot);
+                continue;
+            }
+
+            long child = isLeaf(node) ? value : newLeafNode(key, value);
+            if (count(node) == CAPACITY[type(node)]) {
+                node = grow(node);
+                setSlot(parentSlot, node);
+            }
+            addChild(node, nodeIndex, child);
+            break;
+        }
+        size++;
+        return noValue;
+    }
+
+    public long remove(long key) {
+        // The nodes from the root down to the leaf node, with the address of the child slot holding each.
+        long[] path = new long[8];
+        long[] parentSlots = new long[8];
+        int depth = 0;
+
+        long parentSlot = 0;
+        long node = root;
+        while (node != 0) {
+            if (!inNode(node, key)) {
+                return noValue;
+            }
+            int nodeIndex = nodeIndex(node, key);
+            long slot = childSlot(node, nodeIndex);
+            if (slot == 0) {
+                return noValue;
+            }
+            path[depth] = node;
+            parentSlots[depth] = parentSlot;
+            depth++;
+
+            if (isLeaf(node)) {
+                long previous = arena.getLong(slot);
+                removeChild(node, nodeIndex);
+                size--;
+                shrinkAndCompress(path, parentSlots, depth, key);
+                return previous;
+            }
+            parentSlot = slot;
+            node = arena.getLong(slot);
+        }
+        return noValue;
+    }
+
+    public void clear() {
+        arena.close();
+        root = 0;
+        size = 0;
+    }
+
+    // Releases the arena, the tree is empty afterwards.
+    @Override
+    public void close() {
+        clear();
+    }
+
+    // The leaf node holding the least key greater than or equal to the given key, or 0 if there is none.
+    private long ceilingLeaf(long key) {
+        // The inner nodes above the current node, for backtracking to the next branch.
+        long[] path = new long[8];
+        int depth = 0;
+
+        long node = root;
+        while (node != 0) {
+            int compare = comparePrefix(node, key);
+            if (compare > 0) {
+                return firstLeaf(node);
+            } else if (compare < 0) {
+                break;
+            }
+            int nodeIndex = nodeIndex(node, key);
+            long slot = childSlot(node, nodeIndex);
+            if (isLeaf(node) || slot == 0) {
+                int index = ceilingIndex(node, nodeIndex);
+                if (index == -1) {
+                    break;
+                }
+                return isLeaf(node) ? node : firstLeaf(child(node, index));
+            }
+            path[depth++] = node;
+            node = arena.getLong(slot);
+        }
+
+        while (depth > 0) {
+            long parent = path[--depth];
+            int index = higherIndex(parent, nodeIndex(parent, key));
+            if (index != -1) {
+                return firstLeaf(child(parent, index));
+            }
+        }
+        return 0;
+    }
+
+    // The index of the ceiling within the leaf node found by ceilingLeaf.
+    private int leafCeilingIndex(long leafNode, long key) {
+        return comparePrefix(leafNode, key) == 0 ? ceilingIndex(leafNode, nodeIndex(leafNode, key)) : firstIndex(leafNode);
+    }
+
+    private long firstLeaf(long node) {
+        while (!isLeaf(node)) {
+            node = child(node, firstIndex(node));
+        }
+        return node;
+    }
+
+    // The leaf node holding the greatest key less than or equal to the given key, or 0 if there is none.
+    private long floorLeaf(long key) {
+        // The inner nodes above the current node, for backtracking to the previous branch.
+        long[] path = new long[8];
+        int depth = 0;
+
+        long node = root;
+        while (node != 0) {
+            int compare = comparePrefix(node, key);
+            if (compare < 0) {
+                return lastLeaf(node);
+            } else if (compare > 0) {
+                break;
+            }
+            int nodeIndex = nodeIndex(node, key);
+            long slot = childSlot(node, nodeIndex);
+            if (isLeaf(node) || slot == 0) {
+                int index = floorIndex(node, nodeIndex);
+                if (index == -1) {
+                    break;
+                }
+                return isLeaf(node) ? node : lastLeaf(child(node, index));
+            }
+            path[depth++] = node;
+            node = arena.getLong(slot);
+        }
+
+        while (depth > 0) {
+            long parent = path[--depth];
+            int index = lowerIndex(parent, nodeIndex(parent, key));
+            if (index != -1) {
+                return lastLeaf(child(parent, index));
+            }
+        }
+        return 0;
+    }
+
+    private int leafFloorIndex(long leafNode, long key) {
+        return comparePrefix(leafNode, key) == 0 ? floorIndex(leafNode, nodeIndex(leafNode, key)) : lastIndex(leafNode);
+    }
+
+    private long lastLeaf(long node) {
+        while (!isLeaf(node)) {
+            node = child(node, lastIndex(node));
+        }
+        return node;
+    }
+
+    // Frees the node while it is left empty and removes it from its parent, moving up to the parent. Then replaces
+    // an inner node left with a single child by that child, or shrinks the node.
+    private void shrinkAndCompress(long[] path, long[] parentSlots, int depth, long key) {
+        int i = depth - 1;
+        long node = path[i];
+        while (count(node) == 0) {
+            arena.free(node, type(node));
+            if (i == 0) {
+                root = 0;
+                return;
+            }
+            node = path[--i];
+            removeChild(node, nodeIndex(node, key));
+        }
+
+        if (count(node) == 1 && !isLeaf(node)) {
+            long child = arena.getLong(childSlot(node, getCeilingIndex(node, 0)));
+            arena.free(node, type(node));
+            setSlot(parentSlots[i], child);
+        } else if (canShrink(node)) {
+            setSlot(parentSlots[i], shrink(node));
+        }
+    }
+
+    // The key is outside the node's prefix, so insert a new node at the first differing byte, above the node.
+    private void branch(long key, long value, long parentSlot, long node) {
+        long nodeKey = key(node);
+        int depth = (63 - Long.numberOfLeadingZeros(nodeKey ^ key)) >>> 3;
+        long newNode = newNode(NODE4, key, depth);
+        addChild(newNode, nodeIndex(newNode, key), newLeafNode(key, value));
+        addChild(newNode, nodeIndex(newNode, nodeKey), node);
+        setSlot(parentSlot, newNode);
+    }
+
+    private void setSlot(long slot, long node) {
+        if (slot == 0) {
+            root = node;
+        } else {
+            arena.putLong(slot, node);
+        }
+    }
+
+    private long newLeafNode(long key, long value) {
+        long node = newNode(NODE4, key, 0);
+        addChild(node, nodeIndex(node, key), value);
+        return node;
+    }
+
+    private long newNode(int type, long key, int depth) {
+        long node = arena.allocate(type);
+        arena.putByte(node + TYPE, (byte) type);
+        arena.putByte(node + DEPTH, (byte) depth);
+        arena.putShort(node + COUNT, (short) 0);
+        arena.putLong(node + KEY, key);
+        return node;
+    }
+
+    private long grow(long node) {
+        return copy(node, type(node) + 1);
+    }
+
+    private boolean canShrink(long node) {
+        int type = type(node);
+        return type != NODE4 && count(node) <= CAPACITY[type - 1];
+    }
+
+    private long shrink(long node) {
+        return copy(node, type(node) - 1);
+    }
+
+    // Moves the children of the node into a new node of the given type, and frees the node.
+    private long copy(long node, int type) {
+        long newNode = newNode(type, key(node), depth(node));
+        for (int i = getCeilingIndex(node, 0); i != -1; i = getCeilingIndex(node, i + 1)) {
+            addChild(newNode, i, arena.getLong(childSlot(node, i)));
+        }
+        arena.free(node, type(node));
+        return newNode;
+    }
+
+    private int type(long node) {
+        return arena.getByte(node + TYPE);
+    }
+
+    private int depth(long node) {
+        return arena.getByte(node + DEPTH);
+    }
+
+    private int count(long node) {
+        return arena.getShort(node + COUNT);
+    }
+
+    private void setCount(long node, int count) {
+        arena.putShort(node + COUNT, (short) count);
+    }
+
+    private long key(long node) {
+        return arena.getLong(node + KEY);
+    }
+
+    private boolean isLeaf(long node) {
+        return depth(node) == 0;
+    }
+
+    private boolean inNode(long node, long key) {
+        int shift = depth(node) * 8 + 8;
+        return shift >= 64 || (key(node) ^ key) >>> shift == 0;
+    }
+
+    // Negative if every key under the node is less than the key, positive if every key is greater,
+    // otherwise zero as the key shares the node's prefix.
+    private int comparePrefix(long node, long key) {
+        int shift = depth(node) * 8 + 8;
+        return shift >= 64 ? 0 : Long.compare(key(node) >> shift, key >> shift);
+    }
+
+    private long child(long node, int nodeIndex) {
+        return arena.getLong(childSlot(node, nodeIndex));
+    }
+
+    private int nodeIndex(long node, long key) {
+        return (int) (key >>> depth(node) * 8 & 255L);
+    }
+
+    // The address of the child slot of the key byte, or 0 if there is no such child.
+    private long childSlot(long node, int nodeIndex) {
+        int type = type(node);
+        switch (type) {
+            case NODE4:
+            case NODE16:
+                int count = count(node);
+                for (int i = 0; i < count; i++) {
+                    int key = arena.getByte(node + INDEX + i) & 255;
+                    if (key == nodeIndex) {
+                        return node + CHILDREN[type] + i * 8L;
+                    } else if (key > nodeIndex) {
+                        break;
+                    }
+                }
+                return 0;
+            case NODE48:
+                int slot = arena.getByte(node + INDEX + nodeIndex) & 255;
+                return slot != 0 ? node + CHILDREN[NODE48] + (slot - 1) * 8L : 0;
+            case NODE256:
+                return isOccupied(node, nodeIndex) ? node + CHILDREN[NODE256] + nodeIndex * 8L : 0;
+        }
+        throw new IllegalStateException("Unhandled nodeType=" + type);
+    }
+
+    // Adds a child for an absent key byte, the node must not be full.
+    private void addChild(long node, int nodeIndex, long child) {
+        int type = type(node);
+        int count = count(node);
+        switch (type) {
+            case NODE4:
+            case NODE16:
+                int i = 0;
+                while (i < count && (arena.getByte(node + INDEX + i) & 255) < nodeIndex) {
+                    i++;
+                }
+                long children = node + CHILDREN[type];
+                arena.copy(node + INDEX + i, node + INDEX + i + 1, count - i);
+                arena.copy(children + i * 8L, children + (i + 1) * 8L, (count - i) * 8);
+                arena.putByte(node + INDEX + i, (byte) nodeIndex);
+                arena.putLong(children + i * 8L, child);
+                break;
+            case NODE48:
+                // The child slots are kept dense, so the next free slot is at the count.
+                arena.putByte(node + INDEX + nodeIndex, (byte) (count + 1));
+                arena.putLong(node + CHILDREN[NODE48] + count * 8L, child);
+                break;
+            case NODE256:
+                long word = node + INDEX + (nodeIndex >>> 6) * 8L;
+                arena.putLong(word, arena.getLong(word) | 1L << nodeIndex);
+                arena.putLong(node + CHILDREN[NODE256] + nodeIndex * 8L, child);
+                break;
+            default:
+                throw new IllegalStateException("Unhandled nodeType=" + type);
+        }
+        setCount(node, count + 1);
+    }
+
+    // Removes the child of a present key byte.
+    private void removeChild(long node, int nodeIndex) {
+        int type = type(node);
+        int count = count(node);
+        switch (type) {
+            case NODE4:
+            case NODE16:
+                int i = 0;
+                while ((arena.getByte(node + INDEX + i) & 255) != nodeIndex) {
+                    i++;
+                }
+                long children = node + CHILDREN[type];
+                arena.copy(node + INDEX + i + 1, node + INDEX + i, count - i - 1);
+                arena.copy(children + (i + 1) * 8L, children + i * 8L, (count - i - 1) * 8);
+                break;
+            case NODE48:
+                // Moves the last child into the freed slot to keep the slots dense.
+                int slot = (arena.getByte(node + INDEX + nodeIndex) & 255) - 1;
+                arena.putByte(node + INDEX + nodeIndex, (byte) 0);
+                if (slot != count - 1) {
+                    long children48 = node + CHILDREN[NODE48];
+                    arena.putLong(children48 + slot * 8L, arena.getLong(children48 + (count - 1) * 8L));
+                    for (int j = 0; j < 256; j++) {
+                        if ((arena.getByte(node + INDEX + j) & 255) == count) {
+                            arena.putByte(node + INDEX + j, (byte) (slot + 1));
+                            break;
+                        }
+                    }
+                }
+                break;
+            case NODE256:
+                long word = node + INDEX + (nodeIndex >>> 6) * 8L;
+                arena.putLong(word, arena.getLong(word) & ~(1L << nodeIndex));
+                break;
+            default:
+                throw new IllegalStateException("Unhandled nodeType=" + type);
+        }
+        setCount(node, count - 1);
+    }
+
+    // Lowest occupied key byte greater than or equal to the given one, or -1.
+    private int getCeilingIndex(long node, int nodeIndex) {
+        int type = type(node);
+        switch (type) {
+            case NODE4:
+            case NODE16:
+                int count = count(node);
+                for (int i = 0; i < count; i++) {
+                    int key = arena.getByte(node + INDEX + i) & 255;
+                    if (key >= nodeIndex) {
+                        return key;
+                    }
+                }
+                return -1;
+            case NODE48:
+                for (int i = nodeIndex; i < 256; i++) {
+                    if (arena.getByte(node + INDEX + i) != 0) {
+                        return i;
+                    }
+                }
+                return -1;
+            case NODE256:
+                for (int i = nodeIndex; i < 256; i++) {
+                    if (isOccupied(node, i)) {
+                        return i;
+                    }
+                }
+                return -1;
+        }
+        throw new IllegalStateException("Unhandled nodeType=" + type);
+    }
+
+    // Highest occupied key byte less than or equal to the given one, or -1.
+    private int getFloorIndex(long node, int nodeIndex) {
+        int type = type(node);
+        switch (type) {
+            case NODE4:
+            case NODE16:
+                for (int i = count(node) - 1; i >= 0; i--) {
+                    int key = arena.getByte(node + INDEX + i) & 255;
+                    if (key <= nodeIndex) {
+                        return key;
+                    }
+                }
+                return -1;
+            case NODE48:
+                for (int i = nodeIndex; i >= 0; i--) {
+                    if (arena.getByte(node + INDEX + i) != 0) {
+                        return i;
+                    }
+                }
+                return -1;
+            case NODE256:
+                for (int i = nodeIndex; i >= 0; i--) {
+                    if (isOccupied(node, i)) {
+                        return i;
+                    }
+                }
+                return -1;
+        }
+        throw new IllegalStateException("Unhandled nodeType=" + type);
+    }
+
+    // The helpers below walk node indexes in key order, as in ArtNodes. Keys are signed, so under a node at
+    // depth 7 the indexes 128..255 (negative keys) come before 0..127.
+
+    private int firstIndex(long node) {
+        return ceilingIndex(node, depth(node) == 7 ? 128 : 0);
+    }
+
+    private int lastIndex(long node) {
+        return floorIndex(node, depth(node) == 7 ? 127 : 255);
+    }
+
+    private int ceilingIndex(long node, int nodeIndex) {
+        int index = getCeilingIndex(node, nodeIndex);
+        if (depth(node) != 7) {
+            return index;
+        } else if (nodeIndex < 128) {
+            return index < 128 ? index : -1;
+        } else if (index != -1) {
+            return index;
+        }
+        index = getCeilingIndex(node, 0);
+        return index < 128 ? index : -1;
+    }
+
+    private int floorIndex(long node, int nodeIndex) {
+        int index = getFloorIndex(node, nodeIndex);
+        if (depth(node) != 7) {
+            return index;
+        } else if (nodeIndex >= 128) {
+            return index >= 128 ? index : -1;
+        } else if (index != -1) {
+            return index;
+        }
+        index = getFloorIndex(node, 255);
+        return index >= 128 ? index : -1;
+    }
+
+    private int higherIndex(long node, int nodeIndex) {
+        if (nodeIndex == (depth(node) == 7 ? 127 : 255)) {
+            return -1;
+        }
+        return ceilingIndex(node, (nodeIndex + 1) & 255);
+    }
+
+    private int lowerIndex(long node, int nodeIndex) {
+        if (nodeIndex == (depth(node) == 7 ? 128 : 0)) {
+            return -1;
+        }
+        return floorIndex(node, (nodeIndex - 1) & 255);
+    }
+
+    private boolean isOccupied(long node, int nodeIndex) {
+        return (arena.getLong(node + INDEX + (nodeIndex >>> 6) * 8L) & 1L << nodeIndex) != 0;
+    }
+}
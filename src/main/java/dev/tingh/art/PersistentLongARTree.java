@@ -0,0 +1,235 @@
+package dev.tingh.art;
+
+import static dev.tingh.art.ArtNodes.*;
+
+/**
+ * An immutable map of long keys to values, an adaptive radix tree whose put and remove return a new version.
+ *
+ * A new version copies only the nodes on the path from the root to the changed leaf node, at most 8 of them, and
+ * shares every other node with the version it was derived from. A version is therefore a free snapshot: hold on to
+ * it and it stays as it is while newer versions are derived, and the nodes only it still references are reclaimed
+ * once it is dropped. Every field is final, so a version may be handed to other threads without synchronisation.
+ *
+ * Reads are those of LongARTree, over the version's nodes.
+ */
+public class PersistentLongARTree<V> {
+
+    private static final PersistentLongARTree<?> EMPTY = new PersistentLongARTree<>(null, 0);
+
+    private final IArtNode<V> root;
+    private final int size;
+
+    // Reads the nodes, which are never changed once the version is created.
+    private final LongARTree<V> reader;
+
+    private PersistentLongARTree(IArtNode<V> root, int size) {
+        this.root = root;
+        this.size = size;
+        this.reader = new LongARTree<>(root, size);
+    }
+
+    public static <V> PersistentLongARTree<V> empty() {
+        return (PersistentLongARTree<V>) EMPTY;
+    }
+
+    public V get(long key) {
+        return reader.get(key);
+    }
+
+    public boolean contains(long key) {
+        return reader.contains(key);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Least key greater than or equal to the given key.
+    public V getCeiling(long key) {
+        return reader.getCeiling(key);
+    }
+
+    // Greatest key less than or equal to the given key.
+    public V getFloor(long key) {
+        return reader.getFloor(key);
+    }
+
+    public long ceilingKey(long key) {
+        return reader.ceilingKey(key);
+    }
+
+    public long floorKey(long key) {
+        return reader.floorKey(key);
+    }
+
+    public long higherKey(long key) {
+        return reader.higherKey(key);
+    }
+
+    public long lowerKey(long key) {
+        return reader.lowerKey(key);
+    }
+
+    public long firstKey() {
+        return reader.firstKey();
+    }
+
+    public long lastKey() {
+        return reader.lastKey();
+    }
+
+    public boolean ceilingEntry(long key, LongARTreeEntry<V> entry) {
+        return reader.ceilingEntry(key, entry);
+    }
+
+    public boolean floorEntry(long key, LongARTreeEntry<V> entry) {
+        return reader.floorEntry(key, entry);
+    }
+
+    public boolean higherEntry(long key, LongARTreeEntry<V> entry) {
+        return reader.higherEntry(key, entry);
+    }
+
+    public boolean lowerEntry(long key, LongARTreeEntry<V> entry) {
+        return reader.lowerEntry(key, entry);
+    }
+
+    public boolean firstEntry(LongARTreeEntry<V> entry) {
+        return reader.firstEntry(entry);
+    }
+
+    public boolean lastEntry(LongARTreeEntry<V> entry) {
+        return reader.lastEntry(entry);
+    }
+
+    // A cursor over the entries of this version in key order, initially unpositioned. It is never invalidated,
+    // as the version never changes.
+    public LongARTreeCursor<V> cursor() {
+        return reader.cursor();
+    }
+
+    // The version with the key mapped to the value, or this version if the key already maps to that same value.
+    public PersistentLongARTree<V> put(long key, V value) {
+        if (value == null) {
+            throw new NullPointerException("Null value, key=" + key);
+        } else if (root == null) {
+            return new PersistentLongARTree<>(newLeafNode(key, value), 1);
+        }
+
+        // The inner nodes above the current node, the depth strictly decreases so there are at most 8.
+        IArtNode<V>[] path = new IArtNode[8];
+        int depth = 0;
+        IArtNode<V> node = root;
+        IArtNode<V> newNode;
+        boolean added = true;
+        while (true) {
+            if (!inNode(node, key)) {
+                newNode = branch(key, value, node);
+                break;
+            }
+            Object child = node.get(key);
+            if (isLeaf(node)) {
+                if (child == value) {
+                    return this;
+                }
+                added = child == null;
+                newNode = copyForPut(node, child);
+                newNode.put(key, value);
+                break;
+            } else if (child == null) {
+                newNode = copyForPut(node, null);
+                newNode.put(key, newLeafNode(key, value));
+                break;
+            }
+            path[depth++] = node;
+            node = (IArtNode<V>) child;
+        }
+        return new PersistentLongARTree<>(copyPath(path, depth, newNode), added ? size + 1 : size);
+    }
+
+    // The version without the key, or this version if the key is not present.
+    public PersistentLongARTree<V> remove(long key) {
+        IArtNode<V>[] path = new IArtNode[8];
+        int depth = 0;
+        IArtNode<V> node = root;
+        while (node != null && !isLeaf(node)) {
+            path[depth++] = node;
+            node = (IArtNode<V>) node.get(key);
+        }
+        if (node == null || node.get(key) == null) {
+            return this;
+        }
+
+        // The copies up the path replace the nodes below, null while a node is left empty and so removed.
+        IArtNode<V> newNode = node.getCount() > 1 ? copyForRemove(node, key) : null;
+        while (depth > 0) {
+            IArtNode<V> parent = path[--depth];
+            if (newNode != null) {
+                IArtNode<V> parentCopy = copy(parent);
+                parentCopy.put(newNode.getKey(), newNode);
+                newNode = parentCopy;
+            } else if (parent.getCount() == 2) {
+                // The parent is left with one child, which takes its place.
+                newNode = otherChild(parent, key);
+            } else {
+                newNode = copyForRemove(parent, key);
+            }
+        }
+        return new PersistentLongARTree<>(newNode, size - 1);
+    }
+
+    IArtNode<V> getRoot() {
+        return root;
+    }
+
+    // Copies the path of inner nodes above the new node, each copy pointing to the copy below it.
+    private IArtNode<V> copyPath(IArtNode<V>[] path, int depth, IArtNode<V> newNode) {
+        while (depth > 0) {
+            IArtNode<V> parentCopy = copy(path[--depth]);
+            parentCopy.put(newNode.getKey(), newNode);
+            newNode = parentCopy;
+        }
+        return newNode;
+    }
+
+    // A copy of the node with room for one more child if the key at hand is not there yet.
+    private IArtNode<V> copyForPut(IArtNode<V> node, Object child) {
+        return child == null && node.isFull() ? grow(node) : copy(node);
+    }
+
+    // A copy of the node without the key's child, shrunk if it then fits the next smaller type.
+    private IArtNode<V> copyForRemove(IArtNode<V> node, long key) {
+        IArtNode<V> nodeCopy = copy(node);
+        nodeCopy.remove(key);
+        return nodeCopy.canShrink() ? shrink(nodeCopy) : nodeCopy;
+    }
+
+    private IArtNode<V> otherChild(IArtNode<V> node, long key) {
+        int index = node.getCeilingIndex(0);
+        if (index == nodeIndex(node, key)) {
+            index = node.getCeilingIndex(index + 1);
+        }
+        return (IArtNode<V>) node.getChild(index);
+    }
+
+    // A new node at the first byte where the key differs from the node's prefix, holding the node and the key.
+    private IArtNode<V> branch(long key, V value, IArtNode<V> node) {
+        int depth = (63 - Long.numberOfLeadingZeros(node.getKey() ^ key)) >>> 3;
+        IArtNode<V> newNode = new ArtNode4<>(key, depth);
+        newNode.put(key, newLeafNode(key, value));
+        newNode.put(node.getKey(), node);
+        return newNode;
+    }
+
+    private IArtNode<V> newLeafNode(long key, V value) {
+        return new ArtNode1<>(key, value);
+    }
+
+    private boolean isLeaf(IArtNode<V> node) {
+        return node.getDepth() == 0;
+    }
+}
@@ -0,0 +1,294 @@
+package dev.tingh.art;
+
+import static dev.tingh.art.ArtNodes.*;
+
+/**
+ * The structure shared by the trees with primitive values, LongLongARTree and LongIntARTree.
+ *
+ * The inner nodes are the usual ArtNode4..ArtNode256, growing, shrinking, branching and compressing as in
+ * LongARTree, while the leaf nodes are ArtLeafNodes keeping their values in a primitive array. The subclasses
+ * read and write the values in the leaf nodes found here.
+ */
+public abstract class PrimitiveARTree<L extends ArtLeafNode> {
+
+    // Returned by the key navigation methods when there is no such key, as in ILongARTree.
+    public static final long NO_KEY = ILongARTree.NO_KEY;
+
+    // An inner node, or a leaf node when the keys share their upper 7 bytes.
+    private Object root;
+
+    private int size;
+
+    protected abstract L newLeafNode(long key);
+
+    public boolean contains(long key) {
+        L leafNode = findLeaf(key);
+        return leafNode != null && leafNode.slot(ArtLeafNode.nodeIndex(key)) != -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    // The leaf node that would hold the key, or null if there is none.
+    protected L findLeaf(long key) {
+        Object node = root;
+        // An inner node returns null for a key outside its prefix, so no separate prefix check is needed.
+        while (node != null && !isLeaf(node)) {
+            node = ((IArtNode<Object>) node).get(key);
+        }
+        L leafNode = (L) node;
+        return leafNode != null && leafNode.inNode(key) ? leafNode : null;
+    }
+
+    // The leaf node that holds or would hold the key, adding an empty one to the tree if there is none.
+    protected L findOrAddLeaf(long key) {
+        if (root == null) {
+            L leafNode = newLeafNode(key);
+            root = leafNode;
+            return leafNode;
+        }
+
+        IArtNode<Object> parent = null;
+        Object node = root;
+        while (true) {
+            if (!inNode(node, key)) {
+                L leafNode = newLeafNode(key);
+                branch(key, parent, node, leafNode);
+                return leafNode;
+            } else if (isLeaf(node)) {
+                return (L) node;
+            }
+            IArtNode<Object> innerNode = (IArtNode<Object>) node;
+            Object next = innerNode.get(key);
+            if (next == null) {
+                L leafNode = newLeafNode(key);
+                if (innerNode.isFull()) {
+                    innerNode = (IArtNode<Object>) replace(parent, innerNode, grow(innerNode));
+                }
+                innerNode.put(key, leafNode);
+                return leafNode;
+            }
+            parent = innerNode;
+            node = next;
+        }
+    }
+
+    // Called by the subclasses after adding a key to a leaf node.
+    protected void added() {
+        size++;
+    }
+
+    // Removes the key in the slot of the leaf node, and the leaf node itself once it is empty.
+    protected void delete(long key, L leafNode, int slot) {
+        leafNode.delete(slot);
+        size--;
+        if (leafNode.getCount() == 0) {
+            unlink(key);
+        }
+    }
+
+    // Removes the empty leaf node of the key from its parent, replacing the parent by its only remaining
+    // child or shrinking it. Inner nodes always have two or more children, so nothing further up changes.
+    private void unlink(long key) {
+        IArtNode<Object> grandParent = null;
+        IArtNode<Object> parent = null;
+        Object node = root;
+        while (!isLeaf(node)) {
+            grandParent = parent;
+            parent = (IArtNode<Object>) node;
+            node = parent.get(key);
+        }
+
+        if (parent == null) {
+            root = null;
+            return;
+        }
+        parent.remove(key);
+        if (parent.getCount() == 1) {
+            replace(grandParent, parent, parent.getChild(firstIndex(parent)));
+        } else if (parent.canShrink()) {
+            replace(grandParent, parent, shrink(parent));
+        }
+    }
+
+    // The key is outside the node's prefix, so insert a new node at the first differing byte, above the node.
+    private void branch(long key, IArtNode<Object> parent, Object node, L leafNode) {
+        long nodeKey = getKey(node);
+        int depth = (63 - Long.numberOfLeadingZeros(nodeKey ^ key)) >>> 3;
+        IArtNode<Object> newNode = new ArtNode4<>(key, depth);
+        newNode.put(key, (Object) leafNode);
+        newNode.put(nodeKey, node);
+        replace(parent, node, newNode);
+    }
+
+    // Swaps the child pointer in the parent, the new node sits in the same slot as the node it replaces.
+    private Object replace(IArtNode<Object> parent, Object node, Object newNode) {
+        if (parent == null) {
+            root = newNode;
+        } else {
+            parent.put(getKey(node), newNode);
+        }
+        return newNode;
+    }
+
+    public long ceilingKey(long key) {
+        L leafNode = ceilingLeaf(key);
+        return leafNode != null ? leafNode.keyOf(leafCeilingIndex(leafNode, key)) : NO_KEY;
+    }
+
+    public long floorKey(long key) {
+        L leafNode = floorLeaf(key);
+        return leafNode != null ? leafNode.keyOf(leafFloorIndex(leafNode, key)) : NO_KEY;
+    }
+
+    public long higherKey(long key) {
+        return key != Long.MAX_VALUE ? ceilingKey(key + 1) : NO_KEY;
+    }
+
+    public long lowerKey(long key) {
+        return key != Long.MIN_VALUE ? floorKey(key - 1) : NO_KEY;
+    }
+
+    public long firstKey() {
+        return ceilingKey(Long.MIN_VALUE);
+    }
+
+    public long lastKey() {
+        return floorKey(Long.MAX_VALUE);
+    }
+
+    // The leaf node holding the least key greater than or equal to the given key, or null if there is none.
+    protected L ceilingLeaf(long key) {
+        // The inner nodes above the current node, for backtracking to the next branch.
+        IArtNode<Object>[] path = new IArtNode[8];
+        int depth = 0;
+
+        Object node = root;
+        while (node != null) {
+            if (isLeaf(node)) {
+                L leafNode = (L) node;
+                int compare = leafNode.comparePrefix(key);
+                if (compare > 0 || compare == 0 && leafNode.getCeilingIndex(ArtLeafNode.nodeIndex(key)) != -1) {
+                    return leafNode;
+                }
+                break;
+            }
+            IArtNode<Object> innerNode = (IArtNode<Object>) node;
+            int compare = comparePrefix(innerNode, key);
+            if (compare > 0) {
+                return getFirstLeaf(innerNode);
+            } else if (compare < 0) {
+                break;
+            }
+            int nodeIndex = nodeIndex(innerNode, key);
+            Object next = innerNode.getChild(nodeIndex);
+            if (next == null) {
+                int index = ceilingIndex(innerNode, nodeIndex);
+                return index != -1 ? getFirstLeaf(innerNode.getChild(index)) : backtrackCeiling(path, depth, key);
+            }
+            path[depth++] = innerNode;
+            node = next;
+        }
+        return backtrackCeiling(path, depth, key);
+    }
+
+    private L backtrackCeiling(IArtNode<Object>[] path, int depth, long key) {
+        while (depth > 0) {
+            IArtNode<Object> parent = path[--depth];
+            int index = higherIndex(parent, nodeIndex(parent, key));
+            if (index != -1) {
+                return getFirstLeaf(parent.getChild(index));
+            }
+        }
+        return null;
+    }
+
+    // The index of the ceiling within the leaf node found by ceilingLeaf.
+    protected int leafCeilingIndex(L leafNode, long key) {
+        return leafNode.comparePrefix(key) == 0 ? leafNode.getCeilingIndex(ArtLeafNode.nodeIndex(key)) : leafNode.getFirstIndex();
+    }
+
+    private L getFirstLeaf(Object node) {
+        while (!isLeaf(node)) {
+            IArtNode<Object> innerNode = (IArtNode<Object>) node;
+            node = innerNode.getChild(firstIndex(innerNode));
+        }
+        return (L) node;
+    }
+
+    // The leaf node holding the greatest key less than or equal to the given key, or null if there is none.
+    protected L floorLeaf(long key) {
+        // The inner nodes above the current node, for backtracking to the previous branch.
+        IArtNode<Object>[] path = new IArtNode[8];
+        int depth = 0;
+
+        Object node = root;
+        while (node != null) {
+            if (isLeaf(node)) {
+                L leafNode = (L) node;
+                int compare = leafNode.comparePrefix(key);
+                if (compare < 0 || compare == 0 && leafNode.getFloorIndex(ArtLeafNode.nodeIndex(key)) != -1) {
+                    return leafNode;
+                }
+                break;
+            }
+            IArtNode<Object> innerNode = (IArtNode<Object>) node;
+            int compare = comparePrefix(innerNode, key);
+            if (compare < 0) {
+                return getLastLeaf(innerNode);
+            } else if (compare > 0) {
+                break;
+            }
+            int nodeIndex = nodeIndex(innerNode, key);
+            Object next = innerNode.getChild(nodeIndex);
+            if (next == null) {
+                int index = floorIndex(innerNode, nodeIndex);
+                return index != -1 ? getLastLeaf(innerNode.getChild(index)) : backtrackFloor(path, depth, key);
+            }
+            path[depth++] = innerNode;
+            node = next;
+        }
+        return backtrackFloor(path, depth, key);
+    }
+
+    private L backtrackFloor(IArtNode<Object>[] path, int depth, long key) {
+        while (depth > 0) {
+            IArtNode<Object> parent = path[--depth];
+            int index = lowerIndex(parent, nodeIndex(parent, key));
+            if (index != -1) {
+                return getLastLeaf(parent.getChild(index));
+            }
+        }
+        return null;
+    }
+
+    protected int leafFloorIndex(L leafNode, long key) {
+        return leafNode.comparePrefix(key) == 0 ? leafNode.getFloorIndex(ArtLeafNode.nodeIndex(key)) : leafNode.getLastIndex();
+    }
+
+    private L getLastLeaf(Object node) {
+        while (!isLeaf(node)) {
+            IArtNode<Object> innerNode = (IArtNode<Object>) node;
+            node = innerNode.getChild(lastIndex(innerNode));
+        }
+        return (L) node;
+    }
+
+    private static boolean isLeaf(Object node) {
+        return node instanceof ArtLeafNode;
+    }
+
+    private static long getKey(Object node) {
+        return isLeaf(node) ? ((ArtLeafNode) node).getKey() : ((IArtNode<?>) node).getKey();
+    }
+
+    private static boolean inNode(Object node, long key) {
+        return isLeaf(node) ? ((ArtLeafNode) node).inNode(key) : ArtNodes.inNode((IArtNode<?>) node, key);
+    }
+}
@@ -0,0 +1,320 @@
+package dev.tingh.art;
+
+import java.util.concurrent.locks.StampedLock;
+
+import static dev.tingh.art.ILongARTree.NO_KEY;
+
+/**
+ * A thread safe map of long keys to values, split by the top bits of the key into stripes that are each a
+ * LongARTree guarded by its own StampedLock.
+ *
+ * The stripes partition the keys in signed order, stripe 0 holding the most negative keys, so writes to different
+ * stripes never contend. get and contains are optimistic reads, retried under the read lock only if a write to the
+ * stripe overlapped them. Navigation continues into the following or preceding stripes when the key's own stripe
+ * has no answer, reading each stripe under its read lock, and skips empty stripes without descending into them.
+ *
+ * Keys clustered under the same top bits all land in one stripe and share its lock, so the stripes suit keys that
+ * spread over the high bits, such as hashed or random ids.
+ */
+public class StripedLongARTree<V> {
+
+    // Receives the entries of a range scan in ascending key order.
+    public interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    private static final int DEFAULT_STRIPE_BITS = 4;
+
+    private final int stripeShift;
+    private final LongARTree<V>[] trees;
+    private final StampedLock[] locks;
+
+    public StripedLongARTree() {
+        this(DEFAULT_STRIPE_BITS);
+    }
+
+    // 2^stripeBits stripes, from 2 to 65536.
+    public StripedLongARTree(int stripeBits) {
+        if (stripeBits < 1 || stripeBits > 16) {
+            throw new IllegalArgumentException("stripeBits must be from 1 to 16, was " + stripeBits);
+        }
+        this.stripeShift = 64 - stripeBits;
+        this.trees = new LongARTree[1 << stripeBits];
+        this.locks = new StampedLock[1 << stripeBits];
+        for (int stripe = 0; stripe < trees.length; stripe++) {
+            trees[stripe] = new LongARTree<>();
+            locks[stripe] = new StampedLock();
+        }
+    }
+
+    public int getStripeCount() {
+        return trees.length;
+    }
+
+    public V get(long key) {
+        int stripe = stripe(key);
+        LongARTree<V> tree = trees[stripe];
+        StampedLock lock = locks[stripe];
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                V value = tree.get(key);
+                if (lock.validate(stamp)) {
+                    return value;
+                }
+            } catch (RuntimeException e) {
+                // A write overlapped the read and left it inconsistent, retried below under the read lock.
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return tree.get(key);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean contains(long key) {
+        return get(key) != null;
+    }
+
+    public V put(long key, V value) {
+        int stripe = stripe(key);
+        StampedLock lock = locks[stripe];
+        long stamp = lock.writeLock();
+        try {
+            return trees[stripe].put(key, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public V remove(long key) {
+        int stripe = stripe(key);
+        StampedLock lock = locks[stripe];
+        long stamp = lock.writeLock();
+        try {
+            return trees[stripe].remove(key);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // The number of keys, summed stripe by stripe, so exact only when no writes are in progress.
+    public int size() {
+        int size = 0;
+        for (int stripe = 0; stripe < trees.length; stripe++) {
+            size += stripeSize(stripe);
+        }
+        return size;
+    }
+
+    // Least key greater than or equal to the given key.
+    public V getCeiling(long key) {
+        for (int stripe = stripe(key); stripe < trees.length; stripe++) {
+            long from = Math.max(key, lowestKey(stripe));
+            long stamp = locks[stripe].readLock();
+            try {
+                if (trees[stripe].size() > 0) {
+                    V value = trees[stripe].getCeiling(from);
+                    if (value != null) {
+                        return value;
+                    }
+                }
+            } finally {
+                locks[stripe].unlockRead(stamp);
+            }
+        }
+        return null;
+    }
+
+    // Greatest key less than or equal to the given key.
+    public V getFloor(long key) {
+        for (int stripe = stripe(key); stripe >= 0; stripe--) {
+            long to = Math.min(key, highestKey(stripe));
+            long stamp = locks[stripe].readLock();
+            try {
+                if (trees[stripe].size() > 0) {
+                    V value = trees[stripe].getFloor(to);
+                    if (value != null) {
+                        return value;
+                    }
+                }
+            } finally {
+                locks[stripe].unlockRead(stamp);
+            }
+        }
+        return null;
+    }
+
+    public long ceilingKey(long key) {
+        for (int stripe = stripe(key); stripe < trees.length; stripe++) {
+            long from = Math.max(key, lowestKey(stripe));
+            long stamp = locks[stripe].readLock();
+            try {
+                LongARTree<V> tree = trees[stripe];
+                if (tree.size() > 0) {
+                    long found = tree.ceilingKey(from);
+                    // NO_KEY is also a key, the ceiling of itself when present.
+                    if (found != NO_KEY || from == NO_KEY && tree.contains(NO_KEY)) {
+                        return found;
+                    }
+                }
+            } finally {
+                locks[stripe].unlockRead(stamp);
+            }
+        }
+        return NO_KEY;
+    }
+
+    public long floorKey(long key) {
+        // NO_KEY, as a key, can only be the floor found in stripe 0, after which there is no stripe left to try.
+        for (int stripe = stripe(key); stripe >= 0; stripe--) {
+            long to = Math.min(key, highestKey(stripe));
+            long stamp = locks[stripe].readLock();
+            try {
+                LongARTree<V> tree = trees[stripe];
+                if (tree.size() > 0) {
+                    long found = tree.floorKey(to);
+                    if (found != NO_KEY) {
+                        return found;
+                    }
+                }
+            } finally {
+                locks[stripe].unlockRead(stamp);
+            }
+        }
+        return NO_KEY;
+    }
+
+    public long higherKey(long key) {
+        return key != Long.MAX_VALUE ? ceilingKey(key + 1) : NO_KEY;
+    }
+
+    public long lowerKey(long key) {
+        return key != Long.MIN_VALUE ? floorKey(key - 1) : NO_KEY;
+    }
+
+    public long firstKey() {
+        return ceilingKey(Long.MIN_VALUE);
+    }
+
+    public long lastKey() {
+        return floorKey(Long.MAX_VALUE);
+    }
+
+    // The entry variants write the key and value into the given entry, as in LongARTree.
+
+    public boolean ceilingEntry(long key, LongARTreeEntry<V> entry) {
+        for (int stripe = stripe(key); stripe < trees.length; stripe++) {
+            long from = Math.max(key, lowestKey(stripe));
+            long stamp = locks[stripe].readLock();
+            try {
+                if (trees[stripe].size() > 0 && trees[stripe].ceilingEntry(from, entry)) {
+                    return true;
+                }
+            } finally {
+                locks[stripe].unlockRead(stamp);
+            }
+        }
+        return false;
+    }
+
+    public boolean floorEntry(long key, LongARTreeEntry<V> entry) {
+        for (int stripe = stripe(key); stripe >= 0; stripe--) {
+            long to = Math.min(key, highestKey(stripe));
+            long stamp = locks[stripe].readLock();
+            try {
+                if (trees[stripe].size() > 0 && trees[stripe].floorEntry(to, entry)) {
+                    return true;
+                }
+            } finally {
+                locks[stripe].unlockRead(stamp);
+            }
+        }
+        return false;
+    }
+
+    public boolean higherEntry(long key, LongARTreeEntry<V> entry) {
+        return key != Long.MAX_VALUE && ceilingEntry(key + 1, entry);
+    }
+
+    public boolean lowerEntry(long key, LongARTreeEntry<V> entry) {
+        return key != Long.MIN_VALUE && floorEntry(key - 1, entry);
+    }
+
+    public boolean firstEntry(LongARTreeEntry<V> entry) {
+        return ceilingEntry(Long.MIN_VALUE, entry);
+    }
+
+    public boolean lastEntry(LongARTreeEntry<V> entry) {
+        return floorEntry(Long.MAX_VALUE, entry);
+    }
+
+    // Passes the entries with keys from the given key inclusive to the given key exclusive to the consumer in
+    // ascending order, returning how many there were. Each stripe is scanned with a cursor under its read lock,
+    // so the scan is consistent within a stripe but not across stripes, and the consumer must not write to this
+    // tree. Only the stripes overlapping the range are visited.
+    public int forEach(long from, long to, EntryConsumer<? super V> consumer) {
+        if (from >= to) {
+            return 0;
+        }
+        int count = 0;
+        int lastStripe = stripe(to - 1);
+        for (int stripe = stripe(from); stripe <= lastStripe; stripe++) {
+            long stamp = locks[stripe].readLock();
+            try {
+                if (trees[stripe].size() == 0) {
+                    continue;
+                }
+                LongARTreeCursor<V> cursor = trees[stripe].cursor();
+                for (boolean positioned = cursor.seek(from); positioned && cursor.key() < to; positioned = cursor.next()) {
+                    consumer.accept(cursor.key(), cursor.value());
+                    count++;
+                }
+            } finally {
+                locks[stripe].unlockRead(stamp);
+            }
+        }
+        return count;
+    }
+
+    public void clear() {
+        for (int stripe = 0; stripe < trees.length; stripe++) {
+            long stamp = locks[stripe].writeLock();
+            try {
+                trees[stripe].clear();
+            } finally {
+                locks[stripe].unlockWrite(stamp);
+            }
+        }
+    }
+
+    // The stripe of the key, by its top bits in signed order.
+    int stripe(long key) {
+        return (int) ((key ^ Long.MIN_VALUE) >>> stripeShift);
+    }
+
+    private long lowestKey(int stripe) {
+        return (long) stripe << stripeShift ^ Long.MIN_VALUE;
+    }
+
+    private long highestKey(int stripe) {
+        return lowestKey(stripe) | -1L >>> (64 - stripeShift);
+    }
+
+    private int stripeSize(int stripe) {
+        StampedLock lock = locks[stripe];
+        long stamp = lock.tryOptimisticRead();
+        int size = trees[stripe].size();
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                size = trees[stripe].size();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+}
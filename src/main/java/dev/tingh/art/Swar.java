@@ -0,0 +1,68 @@
+package dev.tingh.art;
+
+// SIMD within a register over the 8 byte lanes of a long, lane i being bits 8i to 8i + 7, for the nodes that pack
+// their key bytes into long fields rather than an array.
+final class Swar {
+
+    static final long LOW_BITS = 0x0101010101010101L;
+    static final long HIGH_BITS = 0x8080808080808080L;
+
+    private Swar() {
+    }
+
+    // The byte in every lane.
+    static long broadcast(int b) {
+        return (b & 255L) * LOW_BITS;
+    }
+
+    // The high bit of each lane that is zero. Lanes above a zero lane may be flagged falsely by the borrow, so only
+    // the lowest flag is exact, which is all a search among distinct keys needs.
+    static long zeroLanes(long x) {
+        return (x - LOW_BITS) & ~x & HIGH_BITS;
+    }
+
+    // The high bit of each lane of x that is less than the same lane of y, unsigned, exactly. The lanes of x - y are
+    // subtracted without borrowing across lanes, and a lane is less where that subtraction borrows out of its top.
+    static long lessThan(long x, long y) {
+        long difference = ((x | HIGH_BITS) - (y & ~HIGH_BITS)) ^ ((x ^ ~y) & HIGH_BITS);
+        return ((~x & y) | (~(x ^ y) & difference)) & HIGH_BITS;
+    }
+
+    // The high bits of the lowest count lanes.
+    static long lanes(int count) {
+        return count >= 8 ? HIGH_BITS : HIGH_BITS & (1L << 8 * count) - 1;
+    }
+
+    // The lane holding the byte among the lowest count lanes, which hold distinct bytes, or -1.
+    static int find(long keys, int count, int b) {
+        long zeros = zeroLanes(keys ^ broadcast(b));
+        int lane = Long.numberOfTrailingZeros(zeros) >>> 3;
+        return zeros != 0 && lane < count ? lane : -1;
+    }
+
+    // The number of the lowest count lanes that are less than the byte.
+    static int rank(long keys, int count, int b) {
+        return Long.bitCount(lessThan(keys, broadcast(b)) & lanes(count));
+    }
+
+    static int lane(long keys, int lane) {
+        return (int) (keys >>> 8 * lane) & 255;
+    }
+
+    // The keys with the byte inserted at the lane, below 8, and the lanes from it moved up one, the top lane dropped.
+    static long insert(long keys, int lane, int b) {
+        long below = belowLane(lane);
+        return keys & below | (keys & ~below) << 8 | (b & 255L) << 8 * lane;
+    }
+
+    // The keys without the lane, the lanes above it moved down one and the top lane left zero.
+    static long remove(long keys, int lane) {
+        long below = belowLane(lane);
+        return keys & below | keys >>> 8 & ~below;
+    }
+
+    // The bits of the lanes below the lane.
+    private static long belowLane(int lane) {
+        return lane >= 8 ? -1L : (1L << 8 * lane) - 1;
+    }
+}
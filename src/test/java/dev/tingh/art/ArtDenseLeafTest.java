@@ -0,0 +1,189 @@
+package dev.tingh.art;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ArtDenseLeafTest {
+
+    private final long prefix = 0x1234_5678_0000_0000L;
+
+    private final ArtDenseLeaf<Long> node = new ArtDenseLeaf<>(prefix | 0x1_0000L, 16);
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidIndexBits() {
+        new ArtDenseLeaf<>(prefix, 8);
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        long key = prefix | 0x1_0203L;
+        assertTrue(node.put(key, 1L));
+        assertTrue(node.put(key, 2L));
+        assertEquals(1, node.getCount());
+        assertEquals(Long.valueOf(2), node.get(key));
+        assertEquals(Long.valueOf(2), node.getChild(0x0203));
+        assertNull(node.get(key + 1));
+        assertNull(node.get(key + 0x1_0000L));
+        assertEquals(prefix | 0x1_0000L, node.getKey());
+        assertFalse(node.isFull());
+
+        assertEquals(Long.valueOf(2), node.remove(key));
+        assertNull(node.remove(key));
+        assertEquals(0, node.getCount());
+    }
+
+    @Test
+    public void testIndexes() {
+        node.put(prefix | 0x1_0010L, 1L);
+        node.put(prefix | 0x1_FF00L, 2L);
+        assertEquals(0x10, node.getCeilingIndex(0));
+        assertEquals(0xFF00, node.getCeilingIndex(0x11));
+        assertEquals(-1, node.getCeilingIndex(0xFF01));
+        assertEquals(-1, node.getCeilingIndex(0x1_0000));
+        assertEquals(0xFF00, node.getFloorIndex(0xFFFF));
+        assertEquals(0x10, node.getFloorIndex(0xFEFF));
+        assertEquals(-1, node.getFloorIndex(0xF));
+        assertEquals(prefix | 0x1_FF00L, ArtNodes.leafKey(node, 0xFF00));
+
+        assertEquals(Long.valueOf(1), node.getFirst());
+        assertEquals(Long.valueOf(2), node.getLast());
+        assertEquals(Long.valueOf(2), node.getCeiling(prefix | 0x1_0011L));
+        assertEquals(Long.valueOf(1), node.getCeiling(prefix));
+        assertNull(node.getCeiling(prefix | 0x2_0000L));
+        assertEquals(Long.valueOf(1), node.getFloor(prefix | 0x1_FEFFL));
+        assertEquals(Long.valueOf(2), node.getFloor(prefix | 0x2_0000L));
+        assertNull(node.getFloor(prefix));
+    }
+
+    @Test
+    public void testOfDenseRange() {
+        IArtNode<Long> inner = innerNode(239);
+        assertNull(ArtDenseLeaf.of(inner));
+
+        inner = innerNode(240);
+        ArtDenseLeaf<Long> leaf = ArtDenseLeaf.of(inner);
+        assertEquals(ArtNodeType.ArtDenseLeaf16, leaf.getNodeType());
+        assertEquals(240 * 256, leaf.getCount());
+        assertFalse(leaf.canShrink());
+        for (long i = 0; i < 240 * 256; i++) {
+            assertEquals(Long.valueOf(i), leaf.get(prefix | i));
+        }
+        assertNull(leaf.get(prefix | 240 * 256));
+
+        // A child that is not a leaf node one level down leaves the node as it is.
+        inner.put(prefix | 0xFF00L, new ArtNode4<>(prefix | 0xFF00L, 1));
+        assertNull(ArtDenseLeaf.of(inner));
+        assertNull(ArtDenseLeaf.of(new ArtNode256<Long>(prefix)));
+    }
+
+    @Test
+    public void testBecameDense() {
+        IArtNode<Long> leafNode = new ArtNode256<>(prefix);
+        for (long i = 0; i < 256; i++) {
+            leafNode.put(prefix | i, i);
+            assertEquals(i == 239 || i == 255, ArtDenseLeaf.becameDense(leafNode));
+        }
+        assertFalse(ArtDenseLeaf.becameDense(innerNode(256)));
+
+        // A 16 bit leaf checks the node above it for a 24 bit range, a 24 bit leaf is the widest there is.
+        ArtDenseLeaf<Long> leaf = ArtDenseLeaf.of(innerNode(240));
+        assertTrue(ArtDenseLeaf.becameDense(leaf));
+        leaf.put(prefix | 0xF000L, 0L);
+        assertFalse(ArtDenseLeaf.becameDense(leaf));
+        assertFalse(ArtDenseLeaf.becameDense(new ArtDenseLeaf<Long>(prefix, 24)));
+    }
+
+    @Test
+    public void testToNodes() {
+        ArtDenseLeaf<Long> leaf = ArtDenseLeaf.of(innerNode(256));
+        for (long i = 0; i < 0xFF00; i++) {
+            if (i % 0x100 != 7) {
+                leaf.remove(prefix | i);
+            }
+        }
+        assertTrue(leaf.canShrink());
+
+        IArtNode<Long> nodes = ArtNodes.shrink(leaf);
+        assertEquals(1, nodes.getDepth());
+        assertEquals(256, nodes.getCount());
+        assertEquals(ArtNodeType.ArtNode1, ((IArtNode<Long>) nodes.getChild(0)).getNodeType());
+        assertEquals(ArtNodeType.ArtNode256, ((IArtNode<Long>) nodes.getChild(255)).getNodeType());
+        assertEquals(Long.valueOf(7), ((IArtNode<Long>) nodes.get(prefix | 7)).get(prefix | 7));
+        assertEquals(Long.valueOf(0xFFFF), ((IArtNode<Long>) nodes.get(prefix | 0xFFFF)).get(prefix | 0xFFFF));
+
+        // A single non empty range is path compressed to its leaf node.
+        for (long i = 0; i < 0xFF00; i += 0x100) {
+            leaf.remove(prefix | i + 7);
+        }
+        nodes = leaf.toNodes();
+        assertEquals(0, nodes.getDepth());
+        assertEquals(256, nodes.getCount());
+        assertEquals(prefix | 0xFF00L, nodes.getKey() & ~255L);
+    }
+
+    @Test
+    public void testDense24ToNodes() {
+        ArtDenseLeaf<Long> leaf = new ArtDenseLeaf<>(prefix, 24);
+        assertEquals(ArtNodeType.ArtDenseLeaf24, leaf.getNodeType());
+        // One full 16 bit range and a few keys in another.
+        for (long i = 0; i < 0x1_0000; i++) {
+            leaf.put(prefix | 0x30_0000L | i, i);
+        }
+        leaf.put(prefix | 0x40_0001L, 1L);
+        leaf.put(prefix | 0x40_0102L, 2L);
+        assertTrue(leaf.canShrink());
+
+        IArtNode<Long> nodes = leaf.toNodes();
+        assertEquals(2, nodes.getDepth());
+        assertEquals(2, nodes.getCount());
+        IArtNode<Long> dense = (IArtNode<Long>) nodes.getChild(0x30);
+        assertEquals(ArtNodeType.ArtDenseLeaf16, dense.getNodeType());
+        assertEquals(0x1_0000, dense.getCount());
+        assertEquals(Long.valueOf(0x1234), dense.get(prefix | 0x30_1234L));
+        IArtNode<Long> sparse = (IArtNode<Long>) nodes.getChild(0x40);
+        assertEquals(1, sparse.getDepth());
+        assertEquals(2, sparse.getCount());
+    }
+
+    @Test
+    public void testNavigationAcrossGap() {
+        ArtDenseLeaf<Long> leaf = new ArtDenseLeaf<>(prefix, 24);
+        leaf.put(prefix | 5, 5L);
+        leaf.put(prefix | 0x7F_FFFFL, 1L);
+        leaf.put(prefix | 0xFF_FFF0L, 2L);
+        // Many lookups across gaps of millions of empty slots, each a scan of the occupancy bitmap.
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0x7F_FFFF, leaf.getCeilingIndex(6 + i));
+            assertEquals(0xFF_FFF0, leaf.getCeilingIndex(0x80_0000 + i));
+            assertEquals(0x7F_FFFF, leaf.getFloorIndex(0xFF_FFEF - i));
+            assertEquals(5, leaf.getFloorIndex(0x7F_FFFE - i));
+        }
+        assertEquals(5, leaf.getCeilingIndex(0));
+        assertEquals(-1, leaf.getCeilingIndex(0xFF_FFF1));
+        assertEquals(-1, leaf.getFloorIndex(4));
+        assertEquals(0xFF_FFF0, leaf.getFloorIndex(0xFF_FFFF));
+        assertEquals(Long.valueOf(5), leaf.getFirst());
+        assertEquals(Long.valueOf(2), leaf.getLast());
+        assertEquals(Long.valueOf(1), leaf.getCeiling(prefix | 6));
+        assertEquals(Long.valueOf(1), leaf.getFloor(prefix | 0xFF_FFEFL));
+
+        leaf.remove(prefix | 0x7F_FFFFL);
+        assertEquals(0xFF_FFF0, leaf.getCeilingIndex(6));
+        assertEquals(5, leaf.getFloorIndex(0xFF_FFEF));
+        assertEquals(2, leaf.getCount());
+    }
+
+    // A depth 1 node over the given number of full leaf nodes from the start of the prefix.
+    private IArtNode<Long> innerNode(int leafNodes) {
+        IArtNode<Long> inner = new ArtNode256<>(prefix, 1);
+        for (long i = 0; i < leafNodes; i++) {
+            IArtNode<Long> leafNode = new ArtNode256<>(prefix | i << 8);
+            for (long j = 0; j < 256; j++) {
+                leafNode.put(prefix | i << 8 | j, i << 8 | j);
+            }
+            inner.put(prefix | i << 8, leafNode);
+        }
+        return inner;
+    }
+}
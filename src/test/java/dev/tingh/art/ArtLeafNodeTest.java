@@ -0,0 +1,95 @@
+package dev.tingh.art;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ArtLeafNodeTest {
+
+    private static final long key = 779682134;            // [0, 0, 0, 0, 46, 121, 1, 86]
+
+    private LongLeafNode node;
+
+    @Before
+    public void setup() {
+        node = new LongLeafNode(key);
+    }
+
+    private void put(int nodeIndex) {
+        node.setValue(node.insert(nodeIndex), nodeIndex);
+    }
+
+    @Test
+    public void testGrow() {
+        int[] sizes = {4, 16, 48, 256};
+        ArtNodeType[] types = {ArtNodeType.ArtNode4, ArtNodeType.ArtNode16, ArtNodeType.ArtNode48, ArtNodeType.ArtNode256};
+        // Inserts in descending order, so every insert shifts the sorted slots.
+        int nodeIndex = 255;
+        for (int i = 0; i < sizes.length; i++) {
+            while (node.getCount() < sizes[i]) {
+                put(nodeIndex--);
+            }
+            assertEquals(types[i], node.getNodeType());
+        }
+        for (int i = 0; i < 256; i++) {
+            assertEquals(i, node.getValue(node.slot(i)));
+        }
+    }
+
+    @Test
+    public void testShrink() {
+        for (int i = 0; i < 256; i++) {
+            put(i);
+        }
+        for (int i = 255; i >= 48; i--) {
+            node.delete(node.slot(i));
+        }
+        assertEquals(ArtNodeType.ArtNode48, node.getNodeType());
+        for (int i = 47; i >= 4; i--) {
+            node.delete(node.slot(i));
+        }
+        assertEquals(ArtNodeType.ArtNode4, node.getNodeType());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, node.getValue(node.slot(i)));
+        }
+        assertEquals(-1, node.slot(4));
+    }
+
+    @Test
+    public void testCeilingFloorIndex() {
+        put(10);
+        put(200);
+        assertIndexes();
+
+        for (int i = 0; i < 60; i++) {
+            put(64 + i);
+        }
+        assertEquals(ArtNodeType.ArtNode256, node.getNodeType());
+        assertEquals(64, node.getCeilingIndex(11));
+        assertEquals(123, node.getFloorIndex(199));
+        assertIndexes();
+    }
+
+    private void assertIndexes() {
+        assertEquals(10, node.getFirstIndex());
+        assertEquals(200, node.getLastIndex());
+        assertEquals(10, node.getCeilingIndex(0));
+        assertEquals(10, node.getCeilingIndex(10));
+        assertEquals(200, node.getCeilingIndex(124));
+        assertEquals(-1, node.getCeilingIndex(201));
+        assertEquals(-1, node.getFloorIndex(9));
+        assertEquals(200, node.getFloorIndex(255));
+        assertEquals(10, node.getFloorIndex(11));
+    }
+
+    @Test
+    public void testKeys() {
+        assertTrue(node.inNode(key + 1));
+        assertFalse(node.inNode(key + 256));
+        assertEquals(key & ~255L | 7, node.keyOf(7));
+        assertEquals(0, node.comparePrefix(key ^ 255));
+        assertEquals(1, node.comparePrefix(key - 256));
+        assertEquals(-1, node.comparePrefix(key + 256));
+    }
+}
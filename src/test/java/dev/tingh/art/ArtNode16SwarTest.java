@@ -0,0 +1,85 @@
+package dev.tingh.art;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+
+public class ArtNode16SwarTest extends ArtNodeTest {
+
+    @Override
+    public IArtNode<String> getNode(long key) {
+        return new ArtNode16Swar<>(key);
+    }
+
+    @Override
+    public IArtNode<String> getNode(long key, int depth) {
+        return new ArtNode16Swar<>(key, depth);
+    }
+
+    @Override
+    public ArtNodeType getExpectedNodeType() {
+        return ArtNodeType.ArtNode16;
+    }
+
+    @Test
+    public void testArtNode16FromArtNode48() {
+        ArtNode48<String> node48 = new ArtNode48<>(779682134L);
+        IntStream.range(0, 16).forEach(i -> node48.put(779682134L + i, String.valueOf(i)));
+
+        IArtNode<String> node16 = new ArtNode16Swar<>(node48);
+        assertEquals("0", node16.get(779682134L));
+        assertEquals("15", node16.get(779682149L));
+        assertEquals(16, node16.getCount());
+
+        ArtNode48<String> back = new ArtNode48<>((ArtNode16Swar<String>) node16);
+        assertEquals("7", back.get(779682141L));
+        assertEquals(16, back.getCount());
+    }
+
+    @Test
+    public void testAgainstTreeMap() {
+        // Puts and removes move keys across the two words, checked against a TreeMap of node index to value.
+        Random random = new Random(190880900);
+        ArtNode16Swar<String> node = new ArtNode16Swar<>(0, 1);
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        for (int i = 0; i < 20000; i++) {
+            int index = random.nextInt(8) == 0 ? 255 * random.nextInt(2) : random.nextInt(256);
+            long key = (long) index << 8;
+            if (random.nextBoolean() && (expected.size() < 16 || expected.containsKey(index))) {
+                node.put(key, String.valueOf(i));
+                expected.put(index, String.valueOf(i));
+            } else {
+                assertEquals(expected.remove(index), node.remove(key));
+            }
+
+            assertEquals(expected.size(), node.getCount());
+            int probe = random.nextInt(256);
+            assertEquals(expected.get(probe), node.getChild(probe));
+            Integer ceiling = expected.ceilingKey(probe);
+            Integer floor = expected.floorKey(probe);
+            assertEquals(ceiling != null ? (int) ceiling : -1, node.getCeilingIndex(probe));
+            assertEquals(floor != null ? (int) floor : -1, node.getFloorIndex(probe));
+            if (!expected.isEmpty()) {
+                assertEquals(expected.firstEntry().getValue(), node.getFirst());
+                assertEquals(expected.lastEntry().getValue(), node.getLast());
+            }
+        }
+    }
+
+    @Test
+    public void testIndexesOutOfRange() {
+        // -1 and 256 would wrap around in the packed key bytes to the indexes 255 and 0.
+        ArtNode16Swar<String> node = new ArtNode16Swar<>(0);
+        node.put(0, "0");
+        node.put(3, "3");
+        node.put(255, "255");
+        assertEquals(-1, node.getFloorIndex(-1));
+        assertEquals(-1, node.getCeilingIndex(256));
+        assertEquals(0, node.getFloorIndex(0));
+        assertEquals(255, node.getCeilingIndex(4));
+    }
+}
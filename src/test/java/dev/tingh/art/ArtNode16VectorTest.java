@@ -0,0 +1,130 @@
+package dev.tingh.art;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ArtNode16VectorTest extends ArtNodeTest {
+
+    @Override
+    public IArtNode<String> getNode(long key) {
+        return new ArtNode16Vector<>(key);
+    }
+
+    @Override
+    public IArtNode<String> getNode(long key, int depth) {
+        return new ArtNode16Vector<>(key, depth);
+    }
+
+    @Override
+    public ArtNodeType getExpectedNodeType() {
+        return ArtNodeType.ArtNode16;
+    }
+
+    @Test
+    public void testArtNode16FromArtNode4() {
+        ArtNode4<String> node4 = new ArtNode4<>(779682134L);
+        IntStream.range(0, 4).forEach(i -> node4.put(779682134L + i, String.valueOf(i)));
+
+        IArtNode<String> node16 = new ArtNode16Vector<>(node4);
+        assertEquals("0", node16.get(779682134L));
+        assertEquals("3", node16.get(779682137L));
+        assertEquals(4, node16.getCount());
+    }
+
+    @Test
+    public void testArtNode16FromArtNode48() {
+        ArtNode48<String> node48 = new ArtNode48<>(779682134L);
+        IntStream.range(0, 16).forEach(i -> node48.put(779682134L + i, String.valueOf(i)));
+
+        IArtNode<String> node16 = new ArtNode16Vector<>(node48);
+        assertEquals("0", node16.get(779682134L));
+        assertEquals("15", node16.get(779682149L));
+        assertEquals(16, node16.getCount());
+    }
+
+    @Test
+    public void testArtNode4AndArtNode48FromArtNode16() {
+        ArtNode16Vector<String> node16 = new ArtNode16Vector<>(0);
+        node16.put(200, "200");
+        node16.put(3, "3");
+        node16.put(128, "128");
+
+        ArtNode4<String> node4 = new ArtNode4<>(node16);
+        ArtNode48<String> node48 = new ArtNode48<>(node16);
+        for (IArtNode<String> node : new IArtNode[] {node4, node48}) {
+            assertEquals(3, node.getCount());
+            assertEquals("200", node.get(200));
+            assertEquals("3", node.get(3));
+            assertEquals("128", node.get(128));
+        }
+    }
+
+    @Test
+    public void testHighIndexesOrdered() {
+        // Node indexes from 128 up are negative as bytes, they must still sort after those below.
+        ArtNode16Vector<String> node16 = new ArtNode16Vector<>(0);
+        int[] indexes = {255, 0, 127, 128, 129, 1, 254};
+        for (int index : indexes) {
+            node16.put(index, String.valueOf(index));
+        }
+        assertEquals("0", node16.getFirst());
+        assertEquals("255", node16.getLast());
+        assertEquals(128, node16.getCeilingIndex(128));
+        assertEquals(127, node16.getCeilingIndex(2));
+        assertEquals(127, node16.getFloorIndex(127));
+        assertEquals(129, node16.getFloorIndex(253));
+        assertEquals(-1, node16.getCeilingIndex(256));
+        assertEquals("129", node16.getCeiling(129));
+        assertEquals("254", node16.getCeiling(130));
+        assertEquals("127", node16.getFloor(126 + 1));
+        assertEquals("1", node16.getFloor(126));
+    }
+
+    @Test
+    public void testIndexesOutOfRange() {
+        // -1 and 256 would wrap around as bytes to the indexes 255 and 0.
+        ArtNode16Vector<String> node16 = new ArtNode16Vector<>(0);
+        node16.put(0, "0");
+        node16.put(3, "3");
+        node16.put(255, "255");
+        assertEquals(-1, node16.getFloorIndex(-1));
+        assertEquals(-1, node16.getCeilingIndex(256));
+        assertEquals(0, node16.getFloorIndex(0));
+        assertEquals(255, node16.getCeilingIndex(4));
+    }
+
+    @Test
+    public void testScalarAndVectorSearchAgree() {
+        Random random = new Random(190880900);
+        for (int i = 0; i < 10000; i++) {
+            int count = random.nextInt(17);
+            byte[] keys = new byte[16];
+            random.nextBytes(keys);
+            // Sorted and distinct within the count, the rest left as garbage.
+            int[] sorted = random.ints(-128, 128).distinct().limit(count).sorted().toArray();
+            for (int slot = 0; slot < count; slot++) {
+                keys[slot] = (byte) sorted[slot];
+            }
+
+            byte key = (byte) random.nextInt(256);
+            int expectedSlot = ArtNode16Vector.scalarFind(keys, count, key);
+            int expectedRank = ArtNode16Vector.scalarRank(keys, count, key);
+            assertTrue(expectedRank <= count);
+            if (ArtNode16Vector.VECTOR_SEARCH) {
+                assertEquals(expectedSlot, ByteVectorSearch.find(keys, count, key));
+                assertEquals(expectedRank, ByteVectorSearch.rank(keys, count, key));
+            }
+        }
+    }
+
+    @Test
+    public void testVectorSearchAvailable() {
+        // The build adds the module to the test runs, so the vector search is what the tests exercise.
+        assertTrue(ArtNode16Vector.VECTOR_SEARCH);
+    }
+}
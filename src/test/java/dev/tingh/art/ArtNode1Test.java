@@ -0,0 +1,99 @@
+package dev.tingh.art;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ArtNode1Test {
+
+    private final long key1 = 779682034L;
+    private final long key2 = 779682035L;
+
+    private final ArtNode1<String> node = new ArtNode1<>(key1);
+
+    @Test
+    public void testPutAndGet() {
+        assertFalse(node.isFull());
+        assertEquals(0, node.getCount());
+
+        assertTrue(node.put(key2, "hello"));
+        assertTrue(node.isFull());
+        assertEquals(1, node.getCount());
+        assertEquals(key2, node.getKey());
+        assertEquals("hello", node.get(key2));
+        assertNull(node.get(key1));
+        assertEquals("hello", node.getChild((int) (key2 & 255)));
+        assertNull(node.getChild((int) (key1 & 255)));
+    }
+
+    @Test
+    public void testPutOverrideValue() {
+        node.put(key1, "hello");
+        assertTrue(node.put(key1, "world"));
+        assertEquals("world", node.get(key1));
+    }
+
+    @Test
+    public void testPutFull() {
+        node.put(key1, "hello");
+        assertFalse(node.put(key2, "world"));
+        assertEquals("hello", node.get(key1));
+        assertNull(node.get(key2));
+    }
+
+    @Test
+    public void testIndexes() {
+        node.put(key1, "hello");
+        int index = (int) (key1 & 255);
+        assertEquals(index, node.getCeilingIndex(0));
+        assertEquals(index, node.getCeilingIndex(index));
+        assertEquals(-1, node.getCeilingIndex(index + 1));
+        assertEquals(index, node.getFloorIndex(255));
+        assertEquals(index, node.getFloorIndex(index));
+        assertEquals(-1, node.getFloorIndex(index - 1));
+        assertEquals(-1, new ArtNode1<>(key1).getCeilingIndex(0));
+    }
+
+    @Test
+    public void testCeilingAndFloor() {
+        node.put(key2, "hello");
+        assertEquals("hello", node.getCeiling(key1));
+        assertEquals("hello", node.getCeiling(key2));
+        assertNull(node.getCeiling(key2 + 1));
+        assertEquals("hello", node.getFloor(key2 + 1));
+        assertNull(node.getFloor(key1));
+        assertEquals("hello", node.getFirst());
+        assertEquals("hello", node.getLast());
+    }
+
+    @Test
+    public void testRemove() {
+        node.put(key1, "hello");
+        assertNull(node.remove(key2));
+        assertEquals("hello", node.remove(key1));
+        assertEquals(0, node.getCount());
+        assertNull(node.get(key1));
+
+        // Empty again, it takes the key of the next put.
+        assertTrue(node.put(key2, "world"));
+        assertEquals(key2, node.getKey());
+    }
+
+    @Test
+    public void testGrowAndShrink() {
+        node.put(key1, "hello");
+        IArtNode<String> node4 = ArtNodes.grow(node);
+        assertEquals(ArtNodeType.ArtNode4, node4.getNodeType());
+        assertTrue(node4.put(key2, "world"));
+        assertEquals("hello", node4.get(key1));
+        assertEquals("world", node4.get(key2));
+        assertFalse(node4.canShrink());
+
+        node4.remove(key1);
+        assertTrue(node4.canShrink());
+        IArtNode<String> node1 = ArtNodes.shrink(node4);
+        assertEquals(ArtNodeType.ArtNode1, node1.getNodeType());
+        assertEquals(key2, node1.getKey());
+        assertEquals("world", node1.get(key2));
+    }
+}
@@ -0,0 +1,73 @@
+package dev.tingh.art;
+
+import org.junit.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class ArtNode4SwarTest extends ArtNodeTest {
+
+    @Override
+    public IArtNode<String> getNode(long key) {
+        return new ArtNode4Swar<>(key);
+    }
+
+    @Override
+    public IArtNode<String> getNode(long key, int depth) {
+        return new ArtNode4Swar<>(key, depth);
+    }
+
+    @Override
+    public ArtNodeType getExpectedNodeType() {
+        return ArtNodeType.ArtNode4;
+    }
+
+    @Test
+    public void testArtNode4FromArtNode16() {
+        ArtNode16Swar<String> node16 = new ArtNode16Swar<>(779682134L);
+        IntStream.range(0, 4).forEach(i -> node16.put(779682134L + i, String.valueOf(i)));
+
+        ArtNode4Swar<String> node4 = new ArtNode4Swar<>(node16);
+        assertEquals("0", node4.get(779682134L));
+        assertEquals("3", node4.get(779682137L));
+        assertEquals(4, node4.getCount());
+    }
+
+    @Test
+    public void testGrowToArtNode16() {
+        ArtNode4Swar<String> node4 = new ArtNode4Swar<>(0);
+        node4.put(250, "250");
+        node4.put(0, "0");
+        node4.put(128, "128");
+        node4.put(7, "7");
+
+        ArtNode16Swar<String> node16 = new ArtNode16Swar<>(node4);
+        node16.put(100, "100");
+        assertEquals(5, node16.getCount());
+        assertEquals("0", node16.getFirst());
+        assertEquals("250", node16.getLast());
+        assertEquals(128, node16.getCeilingIndex(101));
+        assertEquals("100", node16.get(100));
+    }
+
+    @Override
+    @Test
+    public void testCanShrink() {
+        assertFalse(node.canShrink());
+    }
+
+    @Test
+    public void testIndexesOutOfRange() {
+        // -1 and 256 would wrap around in the packed key bytes to the indexes 255 and 0.
+        ArtNode4Swar<String> node = new ArtNode4Swar<>(0);
+        node.put(0, "0");
+        node.put(3, "3");
+        node.put(255, "255");
+        assertEquals(-1, node.getFloorIndex(-1));
+        assertEquals(-1, node.getCeilingIndex(256));
+        assertEquals(0, node.getFloorIndex(0));
+        assertEquals(255, node.getCeilingIndex(4));
+    }
+}
@@ -355,6 +355,44 @@ public abstract class ArtNodeTest {
         assertEquals("hello", node.getLast());
     }
 
+    @Test
+    public void testGetChild() {
+        node.put(key1, "hello");
+        node.put(key3, "world");
+
+        assertEquals("hello", node.getChild(242));
+        assertEquals("world", node.getChild(244));
+        assertNull(node.getChild(243));
+    }
+
+    @Test
+    public void testGetCeilingIndex() {
+        node.put(key1, "hello");
+        node.put(key3, "world");
+
+        assertEquals(242, node.getCeilingIndex(0));
+        assertEquals(242, node.getCeilingIndex(242));
+        assertEquals(244, node.getCeilingIndex(243));
+        assertEquals(-1, node.getCeilingIndex(245));
+    }
+
+    @Test
+    public void testGetFloorIndex() {
+        node.put(key1, "hello");
+        node.put(key3, "world");
+
+        assertEquals(244, node.getFloorIndex(255));
+        assertEquals(244, node.getFloorIndex(244));
+        assertEquals(242, node.getFloorIndex(243));
+        assertEquals(-1, node.getFloorIndex(241));
+    }
+
+    @Test
+    public void testGetCeilingAndFloorIndexEmpty() {
+        assertEquals(-1, node.getCeilingIndex(0));
+        assertEquals(-1, node.getFloorIndex(255));
+    }
+
     @Test
     public void testRemove() {
         node.put(key1, "hello");
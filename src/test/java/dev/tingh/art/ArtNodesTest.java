@@ -2,6 +2,9 @@ package dev.tingh.art;
 
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Random;
+
 import static dev.tingh.art.ArtNodes.*;
 import static org.junit.Assert.*;
 
@@ -129,5 +132,148 @@ public class ArtNodesTest {
     public void testIsLessThan_GreaterThan() {
         assertFalse(ArtNodes.isLessThan(node2, key1));
     }
-}
 
+    @Test
+    public void testComparePrefix() {
+        assertEquals(0, comparePrefix(node1, key1 + 255));
+        assertEquals(1, comparePrefix(node2, key1));
+        assertEquals(-1, comparePrefix(node1, key2));
+        assertEquals(0, comparePrefix(rootNode, -1L));
+    }
+
+    @Test
+    public void testComparePrefix_Signed() {
+        ArtNode4<String> negative = new ArtNode4<>(-256L);
+
+        assertEquals(-1, comparePrefix(negative, 0));
+        assertEquals(1, comparePrefix(node1, -1L));
+    }
+
+    @Test
+    public void testIndexOrder() {
+        ArtNode4<String> node = new ArtNode4<>(0, 3);
+        node.put(1L << 24, "1");
+        node.put(200L << 24, "200");
+
+        assertEquals(1, firstIndex(node));
+        assertEquals(200, lastIndex(node));
+        assertEquals(200, higherIndex(node, 1));
+        assertEquals(-1, higherIndex(node, 200));
+        assertEquals(1, lowerIndex(node, 200));
+        assertEquals(-1, lowerIndex(node, 1));
+    }
+
+    @Test
+    public void testIndexOrder_Signed() {
+        ArtNode4<String> root = new ArtNode4<>(0, 7);
+        root.put(1L << 56, "positive");
+        root.put(200L << 56, "negative");
+
+        assertEquals(200, firstIndex(root));
+        assertEquals(1, lastIndex(root));
+        assertEquals(1, higherIndex(root, 200));
+        assertEquals(-1, higherIndex(root, 1));
+        assertEquals(200, lowerIndex(root, 1));
+        assertEquals(-1, lowerIndex(root, 200));
+        assertEquals(1, ceilingIndex(root, 255));
+        assertEquals(-1, ceilingIndex(root, 2));
+        assertEquals(200, floorIndex(root, 0));
+        assertEquals(-1, floorIndex(root, 199));
+    }
+
+    @Test
+    public void testCopy() {
+        IArtNode<String> node = new ArtNode1<>(key1);
+        for (int count = 1; count <= 256; count++) {
+            if (node.isFull()) {
+                node = grow(node);
+            }
+            node.put(key1 | 256 - count, "value" + count);
+
+            IArtNode<String> nodeCopy = copy(node);
+            assertNotSame(node, nodeCopy);
+            assertEquals(node.getNodeType(), nodeCopy.getNodeType());
+            assertEquals(node.getCount(), nodeCopy.getCount());
+            assertEquals(node.getKey(), nodeCopy.getKey());
+            for (int index = 0; index < 256; index++) {
+                assertSame(node.getChild(index), nodeCopy.getChild(index));
+            }
+
+            // Changing the copy leaves the node as it was.
+            nodeCopy.remove(key1 | 256 - count);
+            assertEquals("value" + count, node.get(key1 | 256 - count));
+        }
+    }
+
+    @Test
+    public void testCeilingAndFloorBit() {
+        Random random = new Random(190880900);
+        for (int round = 0; round < 200; round++) {
+            boolean[] set = new boolean[256];
+            long[] words = new long[4];
+            // From empty to full, with runs across the word boundaries.
+            int bits = round % 20 == 0 ? 256 * (round / 20 % 2) : random.nextInt(12);
+            for (int i = 0; i < bits; i++) {
+                int index = bits == 256 ? i : random.nextInt(256);
+                set[index] = true;
+                words[index >>> 6] |= 1L << index;
+            }
+            for (int index = -1; index <= 256; index++) {
+                int ceiling = -1;
+                for (int i = Math.max(index, 0); i < 256; i++) {
+                    if (set[i]) {
+                        ceiling = i;
+                        break;
+                    }
+                }
+                int floor = -1;
+                for (int i = Math.min(index, 255); i >= 0; i--) {
+                    if (set[i]) {
+                        floor = i;
+                        break;
+                    }
+                }
+                if (index >= 0) {
+                    assertEquals(ceiling, ceilingBit(words[0], words[1], words[2], words[3], index));
+                }
+                if (index <= 255) {
+                    assertEquals(floor, floorBit(words[0], words[1], words[2], words[3], index));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testWideNodeIndexes() {
+        for (int indexes : new int[] {1, 30, 48}) {
+            IArtNode<String> node48 = new ArtNode48<>(0, 1);
+            IArtNode<String> node256 = new ArtNode256<>(0, 1);
+            for (int i = 0; i < indexes; i++) {
+                int index = (i * 97 + 63) & 255;
+                node48.put((long) index << 8, node1);
+                node256.put((long) index << 8, node1);
+            }
+            node48.remove(63 << 8);
+            node256.remove(63 << 8);
+            // And the nodes grown and shrunk from them, which build their bitmaps from the other's children.
+            for (IArtNode<String> node : Arrays.asList(node48, node256, new ArtNode256<>((ArtNode48<String>) node48),
+                    new ArtNode48<>((ArtNode256<String>) node256))) {
+                for (int index = 0; index <= 255; index++) {
+                    int ceiling = index;
+                    while (ceiling < 256 && node.getChild(ceiling) == null) {
+                        ceiling++;
+                    }
+                    int floor = index;
+                    while (floor >= 0 && node.getChild(floor) == null) {
+                        floor--;
+                    }
+                    assertEquals(ceiling < 256 ? ceiling : -1, node.getCeilingIndex(index));
+                    assertEquals(floor, node.getFloorIndex(index));
+                }
+                assertEquals(-1, node.getCeilingIndex(256));
+                int first = node.getCeilingIndex(0);
+                assertEquals(first != -1 ? node.getChild(first) : null, node.getFirst());
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package dev.tingh.art;
+
+import static dev.tingh.art.ArtNodes.comparePrefix;
+import static org.junit.Assert.assertEquals;
+
+class ArtTestTrees {
+
+    // Both trees have the same nodes, of the same types, at the same depths.
+    static void assertSameShape(IArtNode<Long> expected, IArtNode<Long> actual) {
+        assertEquals(expected.getNodeType(), actual.getNodeType());
+        assertEquals(expected.getDepth(), actual.getDepth());
+        assertEquals(expected.getCount(), actual.getCount());
+        assertEquals(0, comparePrefix(actual, expected.getKey()));
+        for (int index = 0; index < 256; index++) {
+            Object expectedChild = expected.getChild(index);
+            Object actualChild = actual.getChild(index);
+            assertEquals(expectedChild == null, actualChild == null);
+            if (expectedChild != null && expected.getDepth() > 0) {
+                assertSameShape((IArtNode<Long>) expectedChild, (IArtNode<Long>) actualChild);
+            } else {
+                assertEquals(expectedChild, actualChild);
+            }
+        }
+    }
+}
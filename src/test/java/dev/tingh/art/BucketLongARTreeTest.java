@@ -0,0 +1,144 @@
+package dev.tingh.art;
+
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static dev.tingh.art.ILongARTree.NO_KEY;
+import static org.junit.Assert.*;
+
+public class BucketLongARTreeTest {
+
+    private final Random random = new Random(190880900);
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBucketSizeTooSmall() {
+        new BucketLongARTree<>(1);
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        BucketLongARTree<String> tree = new BucketLongARTree<>(4);
+        assertNull(tree.put(1, "1"));
+        assertNull(tree.put(-1, "-1"));
+        assertNull(tree.put(Long.MAX_VALUE, "max"));
+        assertEquals("1", tree.put(1, "one"));
+
+        assertEquals(3, tree.size());
+        assertEquals("one", tree.get(1));
+        assertEquals("-1", tree.get(-1));
+        assertTrue(tree.contains(Long.MAX_VALUE));
+        assertFalse(tree.contains(2));
+
+        assertEquals("-1", tree.remove(-1));
+        assertNull(tree.remove(-1));
+        assertEquals(2, tree.size());
+        assertNull(tree.get(-1));
+        assertEquals(1, tree.firstKey());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testPutNull() {
+        new BucketLongARTree<String>().put(1, null);
+    }
+
+    @Test
+    public void testRecordBucketAndSplit() {
+        BucketLongARTree<Long> tree = new BucketLongARTree<>(4);
+        tree.put(0x0100_0000L, 0L);
+        assertEquals(0x0100_0000L, tree.getParent(0x0100_0000L, 0).getKey());
+
+        // Sparse keys fill a bucket, which splits at the highest differing byte when it overflows.
+        for (long i = 1; i < 4; i++) {
+            tree.put(0x0100_0000L * (i + 1), i);
+            assertNull(tree.getParent(0, 3));
+        }
+        tree.put(0x0500_0000L, 4L);
+        IArtNode<Long> node = tree.getParent(0x0100_0000L, 3);
+        assertEquals(3, node.getDepth());
+        assertEquals(5, node.getCount());
+
+        // Dense keys differing only in their last byte split into a leaf node.
+        tree.clear();
+        for (long i = 0; i < 5; i++) {
+            tree.put(i, i);
+        }
+        node = tree.getParent(0, 0);
+        assertEquals(ArtNodeType.ArtNode16, node.getNodeType());
+        for (long i = 0; i < 5; i++) {
+            assertEquals(Long.valueOf(i), tree.get(i));
+        }
+    }
+
+    @Test
+    public void testNavigation() {
+        BucketLongARTree<String> tree = new BucketLongARTree<>(4);
+        assertEquals(NO_KEY, tree.firstKey());
+        assertNull(tree.getCeiling(0));
+
+        long[] keys = {-300, -5, 0, 7, 256, 70000, Long.MAX_VALUE};
+        for (long key : keys) {
+            tree.put(key, String.valueOf(key));
+        }
+        assertEquals(-300, tree.firstKey());
+        assertEquals(Long.MAX_VALUE, tree.lastKey());
+        assertEquals(-5, tree.ceilingKey(-6));
+        assertEquals(-5, tree.floorKey(-1));
+        assertEquals(7, tree.higherKey(0));
+        assertEquals(0, tree.lowerKey(7));
+        assertEquals("256", tree.getCeiling(8));
+        assertEquals("70000", tree.getFloor(Long.MAX_VALUE - 1));
+        assertEquals(NO_KEY, tree.lowerKey(-300));
+        assertEquals(NO_KEY, tree.higherKey(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testAgainstTreeMap() {
+        for (int bucketSize : new int[] {2, 3, 16, 64}) {
+            BucketLongARTree<Long> tree = new BucketLongARTree<>(bucketSize);
+            TreeMap<Long, Long> expected = new TreeMap<>();
+            for (int i = 0; i < 50000; i++) {
+                long key = randomKey();
+                if (random.nextInt(4) == 0) {
+                    assertEquals(expected.remove(key), tree.remove(key));
+                } else {
+                    assertEquals(expected.put(key, (long) i), tree.put(key, (long) i));
+                }
+            }
+            assertEquals(expected.size(), tree.size());
+
+            for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+                assertEquals(entry.getValue(), tree.get(entry.getKey()));
+            }
+            for (int i = 0; i < 10000; i++) {
+                long key = randomKey();
+                Long ceiling = expected.ceilingKey(key);
+                Long floor = expected.floorKey(key);
+                assertEquals(ceiling != null ? ceiling : NO_KEY, tree.ceilingKey(key));
+                assertEquals(floor != null ? floor : NO_KEY, tree.floorKey(key));
+                assertEquals(ceiling != null ? expected.get(ceiling) : null, tree.getCeiling(key));
+                assertEquals(floor != null ? expected.get(floor) : null, tree.getFloor(key));
+            }
+
+            for (long key : expected.keySet().toArray(new Long[0])) {
+                assertEquals(expected.remove(key), tree.remove(key));
+            }
+            assertEquals(0, tree.size());
+            assertEquals(NO_KEY, tree.firstKey());
+        }
+    }
+
+    // A mix of sparse keys, of both signs, and dense runs sharing their upper bytes.
+    private long randomKey() {
+        switch (random.nextInt(3)) {
+            case 0:
+                return random.nextLong();
+            case 1:
+                return random.nextInt(1 << 16) - (1 << 15);
+            default:
+                return random.nextInt(1 << 24) & ~0xFF00L;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package dev.tingh.art;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentArtNodeTest {
+
+    @Test
+    public void testPutGetRemove() {
+        ConcurrentArtNode node = new ConcurrentArtNode(0, 0, ArtNodeType.ArtNode4);
+        node.put(200, "200");
+        node.put(3, "3");
+        node.put(77, "77");
+        node.put(3, "three");
+
+        assertEquals(3, node.getCount());
+        assertEquals("three", node.getChild(3));
+        assertEquals("200", node.getChild(200));
+        assertNull(node.getChild(4));
+        assertFalse(node.isFull());
+
+        node.put(4, "4");
+        assertTrue(node.isFull());
+        node.remove(3);
+        node.remove(5);
+        assertEquals(3, node.getCount());
+        assertNull(node.getChild(3));
+        assertEquals("4", node.getChild(4));
+        assertEquals("77", node.getChild(77));
+    }
+
+    @Test
+    public void testGrowAndShrinkCopies() {
+        ConcurrentArtNode node = new ConcurrentArtNode(0, 1, ArtNodeType.ArtNode4);
+        for (ArtNodeType nodeType : new ArtNodeType[] {ArtNodeType.ArtNode16, ArtNodeType.ArtNode48, ArtNodeType.ArtNode256}) {
+            while (!node.isFull()) {
+                int index = 255 - node.getCount() * 5;
+                node.put(index, index);
+            }
+            node = new ConcurrentArtNode(node, node.grownType());
+            assertEquals(nodeType, node.getNodeType());
+        }
+        assertFalse(node.isFull());
+        assertEquals(48, node.getCount());
+        assertEquals(1, node.getDepth());
+
+        for (int i = 0; i < 48; i++) {
+            int index = 255 - i * 5;
+            assertEquals(index, node.getChild(index));
+        }
+        assertTrue(node.canShrink(48));
+        node = new ConcurrentArtNode(node, node.shrunkType());
+        assertEquals(ArtNodeType.ArtNode48, node.getNodeType());
+        assertEquals(255, node.getChild(255));
+        assertEquals(20, node.getChild(20));
+        assertNull(node.getChild(21));
+    }
+
+    @Test
+    public void testGetOnlyChild() {
+        ConcurrentArtNode node = new ConcurrentArtNode(0, 2, ArtNodeType.ArtNode256);
+        node.put(90, "90");
+        assertEquals("90", node.getOnlyChild());
+
+        node = new ConcurrentArtNode(0, 2, ArtNodeType.ArtNode4);
+        node.put(90, "90");
+        node.put(91, "91");
+        node.remove(90);
+        assertEquals("91", node.getOnlyChild());
+    }
+
+    @Test
+    public void testVersions() {
+        ConcurrentArtNode node = new ConcurrentArtNode(0, 0, ArtNodeType.ArtNode4);
+        long version = node.readLock();
+        assertTrue(node.validate(version));
+
+        assertTrue(node.upgradeToWriteLock(version));
+        assertFalse(node.validate(version));
+        assertFalse(node.upgradeToWriteLock(version));
+        node.put(1, "1");
+        node.writeUnlock();
+
+        // Any write since the version was read fails the validation and the upgrade.
+        assertFalse(node.validate(version));
+        assertFalse(node.upgradeToWriteLock(version));
+
+        long next = node.readLock();
+        assertTrue(node.validate(next));
+        assertTrue(node.upgradeToWriteLock(next));
+        node.writeUnlockObsolete();
+        assertEquals(ConcurrentArtNode.RESTART, node.readLock());
+    }
+
+    @Test
+    public void testInNode() {
+        ConcurrentArtNode node = new ConcurrentArtNode(0x0102030405060708L, 2, ArtNodeType.ArtNode4);
+        assertTrue(node.inNode(0x0102030405000000L));
+        assertFalse(node.inNode(0x0102030415060708L));
+        assertEquals(6, node.nodeIndex(0x0102030405060708L));
+        assertTrue(new ConcurrentArtNode(0, 7, ArtNodeType.ArtNode256).inNode(-1));
+    }
+}
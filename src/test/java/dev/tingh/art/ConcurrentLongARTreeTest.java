@@ -0,0 +1,179 @@
+package dev.tingh.art;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentLongARTreeTest {
+
+    private static final long key1 = 779682134;            // [0, 0, 0, 0, 46, 121, 1, 86]
+    private static final long key2 = 779682135;            // [0, 0, 0, 0, 46, 121, 1, 87]
+    private static final long key6 = 779682635;            // [0, 0, 0, 0, 46, 121, 3, 75]
+    private static final long key7 = 779748171;            // [0, 0, 0, 0, 46, 122, 3, 75]
+    private static final long key9 = 100000000779682635L;  // [1, 99, 69, 120, 140, 3, 3, 75]
+
+    private static final int THREADS = 4;
+
+    private final ConcurrentLongARTree<String> tree = new ConcurrentLongARTree<>();
+
+    @Test
+    public void testPutGetRemove() {
+        assertNull(tree.put(key1, "value1"));
+        assertNull(tree.put(key2, "value2"));
+        assertNull(tree.put(key6, "value6"));
+        assertNull(tree.put(key7, "value7"));
+        assertNull(tree.put(key9, "value9"));
+        assertNull(tree.put(-key9, "-value9"));
+        assertEquals("value2", tree.put(key2, "new2"));
+
+        assertEquals(6, tree.size());
+        assertEquals("new2", tree.get(key2));
+        assertEquals("-value9", tree.get(-key9));
+        assertNull(tree.get(key2 + 1));
+        assertTrue(tree.contains(key7));
+        assertFalse(tree.contains(key7 + 1));
+
+        assertEquals("value6", tree.remove(key6));
+        assertNull(tree.remove(key6));
+        assertEquals("value1", tree.remove(key1));
+        assertEquals(4, tree.size());
+        assertEquals("new2", tree.get(key2));
+        assertEquals("value7", tree.get(key7));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testPutNullValue() {
+        tree.put(key1, null);
+    }
+
+    @Test
+    public void testAgainstTreeMap() {
+        Random random = new Random(190880900);
+        ConcurrentLongARTree<Long> tree = new ConcurrentLongARTree<>();
+        TreeMap<Long, Long> treeMap = new TreeMap<>();
+        for (int i = 0; i < 200000; i++) {
+            long key;
+            switch (random.nextInt(3)) {
+                case 0:
+                    key = random.nextInt(1 << 12) * 0x9E3779B97F4A7C15L;
+                    break;
+                case 1:
+                    key = random.nextInt(1 << 12) - (1 << 11);
+                    break;
+                default:
+                    key = (long) random.nextInt(16) << 40 | random.nextInt(1 << 10);
+            }
+            if (random.nextInt(3) == 0) {
+                assertEquals(treeMap.remove(key), tree.remove(key));
+            } else {
+                assertEquals(treeMap.put(key, (long) i), tree.put(key, (long) i));
+            }
+        }
+        assertEquals(treeMap.size(), tree.size());
+        for (Map.Entry<Long, Long> entry : treeMap.entrySet()) {
+            assertEquals(entry.getValue(), tree.get(entry.getKey()));
+        }
+        for (Long key : new ArrayList<>(treeMap.keySet())) {
+            assertEquals(treeMap.remove(key), tree.remove(key));
+        }
+        assertEquals(0, tree.size());
+    }
+
+    @Test
+    public void testConcurrentWriters() throws Exception {
+        ConcurrentLongARTree<Long> tree = new ConcurrentLongARTree<>();
+        int perThread = 50000;
+        runConcurrently(thread -> {
+            // The threads' keys interleave, so they contend for the same nodes.
+            for (int i = 0; i < perThread; i++) {
+                long key = key(i * THREADS + thread);
+                assertNull(tree.put(key, key));
+            }
+            for (int i = 0; i < perThread; i += 2) {
+                long key = key(i * THREADS + thread);
+                assertEquals(Long.valueOf(key), tree.remove(key));
+            }
+        });
+
+        assertEquals(THREADS * perThread / 2, tree.size());
+        for (int i = 0; i < THREADS * perThread; i++) {
+            long key = key(i);
+            assertEquals((i / THREADS) % 2 == 0 ? null : Long.valueOf(key), tree.get(key));
+        }
+    }
+
+    @Test
+    public void testReadersDuringWrites() throws Exception {
+        ConcurrentLongARTree<Long> tree = new ConcurrentLongARTree<>();
+        // Even keys are always present, odd keys come and go under the readers.
+        int keys = 20000;
+        for (int i = 0; i < keys; i += 2) {
+            tree.put(key(i), key(i));
+        }
+        AtomicBoolean writing = new AtomicBoolean(true);
+        runConcurrently(thread -> {
+            Random random = new Random(thread);
+            if (thread == 0) {
+                for (int round = 0; round < 20; round++) {
+                    for (int i = 1; i < keys; i += 2) {
+                        tree.put(key(i), key(i));
+                    }
+                    for (int i = 1; i < keys; i += 2) {
+                        tree.remove(key(i));
+                    }
+                }
+                writing.set(false);
+            } else {
+                while (writing.get()) {
+                    int i = random.nextInt(keys);
+                    Long value = tree.get(key(i));
+                    if (i % 2 == 0) {
+                        assertEquals(Long.valueOf(key(i)), value);
+                    } else if (value != null) {
+                        assertEquals(key(i), (long) value);
+                    }
+                }
+            }
+        });
+        assertEquals(keys / 2, tree.size());
+    }
+
+    // Spreads the keys over several levels, a mix of dense runs and scattered upper bytes.
+    private static long key(int i) {
+        return (long) (i >>> 6) * 0x9E3779B97F4A7C15L & 0xFFFFFFFFFFFF0000L | (i & 63) * 3;
+    }
+
+    private interface ThreadTask {
+        void run(int thread) throws Exception;
+    }
+
+    private static void runConcurrently(ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int t = thread;
+                futures.add(executor.submit(() -> {
+                    task.run(t);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package dev.tingh.art;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+public class LongARTreeBuilderTest {
+
+    private static final long key1 = 779682134;            // [0, 0, 0, 0, 46, 121, 1, 86]
+    private static final long key2 = 779682135;            // [0, 0, 0, 0, 46, 121, 1, 87]
+    private static final long key6 = 779682635;            // [0, 0, 0, 0, 46, 121, 3, 75]
+    private static final long key7 = 779748171;            // [0, 0, 0, 0, 46, 122, 3, 75]
+    private static final long key9 = 100000000779682635L;  // [1, 99, 69, 120, 140, 3, 3, 75]
+
+    @Test
+    public void testBulkLoad() {
+        long[] keys = {-key6, key1, key2, key6, key7, key9};
+        String[] values = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            values[i] = String.valueOf(keys[i]);
+        }
+
+        LongARTree<String> tree = LongARTree.bulkLoad(keys, values);
+        assertEquals(keys.length, tree.size());
+        for (long key : keys) {
+            assertEquals(String.valueOf(key), tree.get(key));
+        }
+        assertNull(tree.get(key2 + 1));
+        assertEquals(-key6, tree.firstKey());
+        assertEquals(key9, tree.lastKey());
+        assertEquals(key6, tree.ceilingKey(key2 + 1));
+        assertEquals(key1, tree.floorKey(key2 - 1));
+        // The keys differ in the sign bit, so the root is at depth 7.
+        assertEquals(7, tree.getRoot().getDepth());
+    }
+
+    @Test
+    public void testBulkLoadEmptyAndSingle() {
+        LongARTree<String> empty = LongARTree.bulkLoad(new long[0], new String[0]);
+        assertEquals(0, empty.size());
+        assertNull(empty.get(key1));
+        empty.put(key1, "value1");
+        assertEquals("value1", empty.get(key1));
+
+        LongARTree<String> single = LongARTree.bulkLoad(new long[] {key1}, new String[] {"value1"});
+        assertEquals(1, single.size());
+        assertEquals("value1", single.get(key1));
+        assertEquals(0, single.getRoot().getDepth());
+    }
+
+    @Test
+    public void testNodesAtFinalType() {
+        long[] keys = new long[1000];
+        Long[] values = new Long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i;
+            values[i] = (long) i;
+        }
+
+        LongARTree<Long> tree = LongARTree.bulkLoad(keys, values);
+        IArtNode<Long> root = tree.getRoot();
+        assertEquals(ArtNodeType.ArtNode4, root.getNodeType());
+        assertEquals(1, root.getDepth());
+        assertEquals(4, root.getCount());
+        for (int index = 0; index < 4; index++) {
+            IArtNode<Long> leafNode = (IArtNode<Long>) root.getChild(index);
+            assertEquals(ArtNodeType.ArtNode256, leafNode.getNodeType());
+            assertEquals(index < 3 ? 256 : 232, leafNode.getCount());
+        }
+
+        long[] fewKeys = {0, 1, 2, 3, 4, 256, 257, 512};
+        tree = LongARTree.bulkLoad(fewKeys, new Long[] {0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L});
+        assertEquals(ArtNodeType.ArtNode16, ((IArtNode<Long>) tree.getRoot().getChild(0)).getNodeType());
+        assertEquals(ArtNodeType.ArtNode4, ((IArtNode<Long>) tree.getRoot().getChild(1)).getNodeType());
+    }
+
+    @Test
+    public void testBulkLoadIterators() {
+        List<String> values = List.of("a", "b", "c", "d");
+        LongARTree<String> tree = LongARTree.bulkLoad(Arrays.stream(new long[] {-key1, key1, key6, key9}).iterator(),
+                values.iterator());
+        assertEquals(4, tree.size());
+        assertEquals("a", tree.get(-key1));
+        assertEquals("d", tree.get(key9));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBulkLoadUnsorted() {
+        LongARTree.bulkLoad(new long[] {key1, key6, key2}, new String[] {"a", "b", "c"});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBulkLoadDuplicate() {
+        LongARTree.bulkLoad(new long[] {key1, key1}, new String[] {"a", "b"});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBulkLoadLengthMismatch() {
+        LongARTree.bulkLoad(Arrays.stream(new long[] {key1, key2}).iterator(), List.of("a").iterator());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testBulkLoadNullValue() {
+        LongARTree.bulkLoad(new long[] {key1, key2}, new String[] {"a", null});
+    }
+
+    @Test
+    public void testAgainstTreeMap() {
+        Random random = new Random(190880900);
+        TreeMap<Long, Long> treeMap = new TreeMap<>();
+        for (int i = 0; i < 50000; i++) {
+            long key;
+            switch (random.nextInt(3)) {
+                case 0:
+                    key = random.nextLong();
+                    break;
+                case 1:
+                    key = random.nextInt(1 << 16) - (1 << 15);
+                    break;
+                default:
+                    key = (long) random.nextInt() << 24 | random.nextInt(64);
+            }
+            treeMap.put(key, key);
+        }
+        long[] keys = treeMap.keySet().stream().mapToLong(Long::longValue).toArray();
+        LongARTree<Long> tree = LongARTree.bulkLoad(keys, treeMap.values().toArray(new Long[0]));
+
+        assertEquals(treeMap.size(), tree.size());
+        LongARTreeCursor<Long> cursor = tree.cursor();
+        boolean positioned = cursor.first();
+        for (Map.Entry<Long, Long> entry : treeMap.entrySet()) {
+            assertTrue(positioned);
+            assertEquals((long) entry.getKey(), cursor.key());
+            assertEquals(entry.getValue(), cursor.value());
+            positioned = cursor.next();
+        }
+        assertFalse(positioned);
+        for (int i = 0; i < 10000; i++) {
+            long key = random.nextLong();
+            Map.Entry<Long, Long> ceiling = treeMap.ceilingEntry(key);
+            Map.Entry<Long, Long> floor = treeMap.floorEntry(key);
+            assertEquals(ceiling != null ? ceiling.getValue() : null, tree.getCeiling(key));
+            assertEquals(floor != null ? floor.getValue() : null, tree.getFloor(key));
+        }
+
+        // The loaded tree is an ordinary tree, it grows and shrinks under put and remove as any other.
+        for (int i = 0; i < 20000; i++) {
+            long key = random.nextInt(1 << 16) - (1 << 15);
+            if (random.nextBoolean()) {
+                assertEquals(treeMap.put(key, key), tree.put(key, key));
+            } else {
+                assertEquals(treeMap.remove(key), tree.remove(key));
+            }
+        }
+        assertEquals(treeMap.size(), tree.size());
+        for (Map.Entry<Long, Long> entry : treeMap.entrySet()) {
+            assertEquals(entry.getValue(), tree.get(entry.getKey()));
+        }
+    }
+}
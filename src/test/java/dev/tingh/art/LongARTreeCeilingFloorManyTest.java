@@ -62,6 +62,50 @@ public class LongARTreeCeilingFloorManyTest {
         }
     }
 
+    @Test
+    public void testGetCeilingFloorDense() {
+        LongARTree<String> denseTree = new LongARTree<>();
+        TreeMap<Long, String> denseMap = new TreeMap<>();
+        Random random = new Random(190880900);
+        for (int i = 0; i < 20000; i++) {
+            long value = random.nextInt(1 << 18) - (1 << 17);
+            denseTree.put(value, String.valueOf(value));
+            denseMap.put(value, String.valueOf(value));
+        }
+
+        for (int i = 0; i < 20000; i++) {
+            long key = random.nextInt(1 << 19) - (1 << 18);
+            Map.Entry<Long, String> ceiling = denseMap.ceilingEntry(key);
+            Map.Entry<Long, String> floor = denseMap.floorEntry(key);
+            assertEquals(ceiling != null ? ceiling.getValue() : null, denseTree.getCeiling(key));
+            assertEquals(floor != null ? floor.getValue() : null, denseTree.getFloor(key));
+        }
+    }
+
+    @Test
+    public void testKeysMany() {
+        LongARTreeEntry<String> entry = new LongARTreeEntry<>();
+        for (long key : keys) {
+            assertKey(treeMap.ceilingKey(key), longARTree.ceilingKey(key));
+            assertKey(treeMap.floorKey(key), longARTree.floorKey(key));
+            assertKey(treeMap.higherKey(key), longARTree.higherKey(key));
+            assertKey(treeMap.lowerKey(key), longARTree.lowerKey(key));
+
+            Map.Entry<Long, String> expected = treeMap.ceilingEntry(key);
+            assertEquals(expected != null, longARTree.ceilingEntry(key, entry));
+            if (expected != null) {
+                assertEquals((long) expected.getKey(), entry.getKey());
+                assertEquals(expected.getValue(), entry.getValue());
+            }
+        }
+        assertKey(treeMap.firstKey(), longARTree.firstKey());
+        assertKey(treeMap.lastKey(), longARTree.lastKey());
+    }
+
+    private void assertKey(Long expected, long actual) {
+        assertEquals(expected != null ? expected : ILongARTree.NO_KEY, actual);
+    }
+
     @Test
     public void testGetCeilingOnDifferentBranch1() {
         logger.info("Test: testGetCeilingOnDifferentBranch1()");
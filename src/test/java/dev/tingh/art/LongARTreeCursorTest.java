@@ -0,0 +1,218 @@
+package dev.tingh.art;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+public class LongARTreeCursorTest {
+
+    private static final long key1 = 779682134;            // [0, 0, 0, 0, 46, 121, 1, 86]
+    private static final long key2 = 779682135;            // [0, 0, 0, 0, 46, 121, 1, 87]
+    private static final long key6 = 779682635;            // [0, 0, 0, 0, 46, 121, 3, 75]
+    private static final long key7 = 779748171;            // [0, 0, 0, 0, 46, 122, 3, 75]
+    private static final long key9 = 100000000779682635L;  // [1, 99, 69, 120, 140, 3, 3, 75]
+
+    private LongARTree<String> longARTree;
+    private LongARTreeCursor<String> cursor;
+
+    @Before
+    public void setup() {
+        longARTree = new LongARTree<>();
+        cursor = longARTree.cursor();
+    }
+
+    @Test
+    public void testEmpty() {
+        assertFalse(cursor.first());
+        assertFalse(cursor.last());
+        assertFalse(cursor.seek(key1));
+        assertFalse(cursor.seekFloor(key1));
+        assertFalse(cursor.isPositioned());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testKeyUnpositioned() {
+        cursor.key();
+    }
+
+    @Test
+    public void testForward() {
+        putAll(key9, key7, key6, key2, key1, -1L);
+
+        assertTrue(cursor.first());
+        assertEntry(-1L);
+        assertTrue(cursor.next());
+        assertEntry(key1);
+        assertTrue(cursor.next());
+        assertEntry(key2);
+        assertTrue(cursor.next());
+        assertEntry(key6);
+        assertTrue(cursor.next());
+        assertEntry(key7);
+        assertTrue(cursor.next());
+        assertEntry(key9);
+        assertFalse(cursor.next());
+        assertFalse(cursor.isPositioned());
+    }
+
+    @Test
+    public void testReverse() {
+        putAll(key9, key7, key6, key2, key1, -1L);
+
+        assertTrue(cursor.last());
+        assertEntry(key9);
+        assertTrue(cursor.prev());
+        assertEntry(key7);
+        assertTrue(cursor.prev());
+        assertEntry(key6);
+        assertTrue(cursor.prev());
+        assertEntry(key2);
+        assertTrue(cursor.prev());
+        assertEntry(key1);
+        assertTrue(cursor.prev());
+        assertEntry(-1L);
+        assertFalse(cursor.prev());
+    }
+
+    @Test
+    public void testSeek() {
+        putAll(key1, key6, key9);
+
+        assertTrue(cursor.seek(key1));
+        assertEntry(key1);
+        assertTrue(cursor.seek(key2));
+        assertEntry(key6);
+        assertTrue(cursor.seek(key7));
+        assertEntry(key9);
+        assertFalse(cursor.seek(key9 + 1));
+    }
+
+    @Test
+    public void testSeekFloor() {
+        putAll(key1, key6, key9);
+
+        assertTrue(cursor.seekFloor(key1));
+        assertEntry(key1);
+        assertTrue(cursor.seekFloor(key2));
+        assertEntry(key1);
+        assertTrue(cursor.seekFloor(key7));
+        assertEntry(key6);
+        assertFalse(cursor.seekFloor(key1 - 1));
+    }
+
+    @Test
+    public void testSeekThenChangeDirection() {
+        putAll(key1, key2, key6);
+
+        assertTrue(cursor.seek(key2));
+        assertTrue(cursor.prev());
+        assertEntry(key1);
+        assertTrue(cursor.next());
+        assertEntry(key2);
+        assertTrue(cursor.next());
+        assertEntry(key6);
+    }
+
+    @Test
+    public void testReplaceValueKeepsPosition() {
+        putAll(key1, key2);
+
+        assertTrue(cursor.first());
+        longARTree.put(key1, "replaced");
+        assertEquals("replaced", cursor.value());
+        assertTrue(cursor.next());
+        assertEntry(key2);
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void testPutInvalidates() {
+        putAll(key1, key2);
+
+        assertTrue(cursor.first());
+        longARTree.put(key6, String.valueOf(key6));
+        cursor.next();
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void testRemoveInvalidates() {
+        putAll(key1, key2);
+
+        assertTrue(cursor.first());
+        longARTree.remove(key2);
+        cursor.key();
+    }
+
+    @Test
+    public void testIterateMany() {
+        Random random = new Random(190880900);
+        TreeMap<Long, String> treeMap = new TreeMap<>();
+        for (int i = 0; i < 100000; i++) {
+            long key = i % 2 == 0 ? random.nextLong() : random.nextInt(1 << 20);
+            treeMap.put(key, String.valueOf(key));
+            longARTree.put(key, String.valueOf(key));
+        }
+
+        boolean positioned = cursor.first();
+        for (Map.Entry<Long, String> entry : treeMap.entrySet()) {
+            assertTrue(positioned);
+            assertEquals(entry.getKey().longValue(), cursor.key());
+            assertEquals(entry.getValue(), cursor.value());
+            positioned = cursor.next();
+        }
+        assertFalse(positioned);
+
+        positioned = cursor.last();
+        Iterator<Map.Entry<Long, String>> descending = treeMap.descendingMap().entrySet().iterator();
+        while (descending.hasNext()) {
+            assertTrue(positioned);
+            assertEquals(descending.next().getKey().longValue(), cursor.key());
+            positioned = cursor.prev();
+        }
+        assertFalse(positioned);
+    }
+
+    @Test
+    public void testSeekMany() {
+        Random random = new Random(190880900);
+        TreeMap<Long, String> treeMap = new TreeMap<>();
+        for (int i = 0; i < 20000; i++) {
+            long key = random.nextLong();
+            treeMap.put(key, String.valueOf(key));
+            longARTree.put(key, String.valueOf(key));
+        }
+
+        for (int i = 0; i < 20000; i++) {
+            long key = random.nextLong();
+            Long ceiling = treeMap.ceilingKey(key);
+            Long floor = treeMap.floorKey(key);
+
+            assertEquals(ceiling != null, cursor.seek(key));
+            if (ceiling != null) {
+                assertEquals(ceiling.longValue(), cursor.key());
+            }
+            assertEquals(floor != null, cursor.seekFloor(key));
+            if (floor != null) {
+                assertEquals(floor.longValue(), cursor.key());
+            }
+        }
+    }
+
+    private void putAll(long... keys) {
+        for (long key : keys) {
+            longARTree.put(key, String.valueOf(key));
+        }
+    }
+
+    private void assertEntry(long key) {
+        assertEquals(key, cursor.key());
+        assertEquals(String.valueOf(key), cursor.value());
+    }
+}
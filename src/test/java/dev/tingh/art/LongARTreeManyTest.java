@@ -64,4 +64,23 @@ public class LongARTreeManyTest {
             assertEquals(String.valueOf(key), longARTree.remove(key));
         }
     }
+
+    @Test
+    public void testRemovePutMany() {
+        long[] keys = new long[256000];
+        for (int i=0; i<keys.length; i++) {
+            keys[i] = random.nextLong();
+            longARTree.put(keys[i], String.valueOf(keys[i]));
+        }
+
+        for (int i=0; i<keys.length; i++) {
+            long key = keys[random.nextInt(keys.length)];
+            assertEquals(String.valueOf(key), longARTree.remove(key));
+            longARTree.put(key, String.valueOf(key));
+        }
+
+        for (long key : keys) {
+            assertEquals(String.valueOf(key), longARTree.get(key));
+        }
+    }
 }
@@ -0,0 +1,253 @@
+package dev.tingh.art;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class LongARTreeMapTest {
+
+    private static final long key1 = 779682134;            // [0, 0, 0, 0, 46, 121, 1, 86]
+    private static final long key2 = 779682135;            // [0, 0, 0, 0, 46, 121, 1, 87]
+    private static final long key6 = 779682635;            // [0, 0, 0, 0, 46, 121, 3, 75]
+    private static final long key7 = 779748171;            // [0, 0, 0, 0, 46, 122, 3, 75]
+    private static final long key9 = 100000000779682635L;  // [1, 99, 69, 120, 140, 3, 3, 75]
+
+    private LongARTreeMap<String> map;
+
+    @Before
+    public void setup() {
+        map = new LongARTreeMap<>();
+        for (long key : new long[] {key1, key2, key6, key7, key9, -key6}) {
+            map.put(key, String.valueOf(key));
+        }
+    }
+
+    @Test
+    public void testGetPutRemove() {
+        assertEquals(6, map.size());
+        assertEquals(String.valueOf(key2), map.get(key2));
+        assertEquals(String.valueOf(key2), map.get((Object) key2));
+        assertNull(map.get(key2 + 1));
+        assertTrue(map.containsKey(key9));
+        assertFalse(map.containsKey(key9 + 1));
+
+        assertEquals(String.valueOf(key2), map.put(key2, "value2"));
+        assertEquals(6, map.size());
+        assertEquals("value2", map.remove(key2));
+        assertNull(map.remove(key2));
+        assertEquals(5, map.size());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testPutNullValue() {
+        map.put(key1, null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testGetNullKey() {
+        map.get(null);
+    }
+
+    @Test
+    public void testNavigation() {
+        assertEquals(-key6, map.firstLongKey());
+        assertEquals(key9, map.lastLongKey());
+        assertEquals(Long.valueOf(key6), map.ceilingKey(key2 + 1));
+        assertEquals(Long.valueOf(key2), map.floorKey(key6 - 1));
+        assertEquals(Long.valueOf(key2), map.higherKey(key1));
+        assertEquals(Long.valueOf(key1), map.lowerKey(key2));
+        assertEquals(Long.valueOf(key1), map.higherKey(-key6));
+        assertNull(map.higherKey(key9));
+        assertNull(map.lowerKey(-key6));
+        assertNull(map.higherKey(Long.MAX_VALUE));
+        assertNull(map.lowerKey(Long.MIN_VALUE));
+        assertEquals(String.valueOf(key7), map.ceilingEntry(key7).getValue());
+    }
+
+    @Test
+    public void testRangeViews() {
+        NavigableMap<Long, String> subMap = map.subMap(key1, false, key7, true);
+        assertEquals(List.of(key2, key6, key7), new ArrayList<>(subMap.keySet()));
+        assertEquals(Long.valueOf(key2), subMap.firstKey());
+        assertEquals(Long.valueOf(key2), subMap.ceilingKey(-key6));
+        assertNull(subMap.higherKey(key7));
+        assertNull(subMap.get(key1));
+
+        map.put(key6 + 1, "added");
+        assertEquals(4, subMap.size());
+        subMap.remove(key6 + 1);
+        assertFalse(map.containsKey(key6 + 1));
+
+        assertEquals(List.of(-key6, key1, key2, key6), new ArrayList<>(map.headMap(key7).keySet()));
+        assertEquals(List.of(key7, key9), new ArrayList<>(map.tailMap(key7).keySet()));
+        assertTrue(map.subMap(key2 + 1, key6).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRangeViewPutOutOfRange() {
+        map.headMap(key7).put(key9, "value9");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRangeViewSubMapOutOfRange() {
+        map.headMap(key7, false).headMap(key9, false);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSubMapFromAfterTo() {
+        map.subMap(key7, key1);
+    }
+
+    @Test
+    public void testDescendingMap() {
+        NavigableMap<Long, String> descending = map.descendingMap();
+        assertEquals(List.of(key9, key7, key6, key2, key1, -key6), new ArrayList<>(descending.keySet()));
+        assertEquals(Long.valueOf(key9), descending.firstKey());
+        assertEquals(Long.valueOf(key2), descending.ceilingKey(key6 - 1));
+        assertEquals(Long.valueOf(key6), descending.higherKey(key7));
+        assertEquals(List.of(key7, key6, key2), new ArrayList<>(descending.subMap(key7, true, key1, false).keySet()));
+        assertEquals(List.of(key1, key2, key6), new ArrayList<>(descending.subMap(key7, false, key1, true).descendingKeySet()));
+    }
+
+    @Test
+    public void testPollEntries() {
+        Map.Entry<Long, String> first = map.pollFirstEntry();
+        assertEquals(Long.valueOf(-key6), first.getKey());
+        assertEquals(String.valueOf(-key6), first.getValue());
+        assertEquals(Long.valueOf(key9), map.pollLastEntry().getKey());
+        assertEquals(Long.valueOf(key2), map.subMap(key1, false, key7, false).pollFirstEntry().getKey());
+        assertEquals(List.of(key1, key6, key7), new ArrayList<>(map.keySet()));
+        assertNull(map.tailMap(key7, false).pollFirstEntry());
+    }
+
+    @Test
+    public void testIteratorRemoveAndSetValue() {
+        Iterator<Map.Entry<Long, String>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, String> entry = iterator.next();
+            if (entry.getKey() == key2 || entry.getKey() == key9) {
+                iterator.remove();
+            } else {
+                entry.setValue("set");
+            }
+        }
+        assertEquals(List.of(-key6, key1, key6, key7), new ArrayList<>(map.keySet()));
+        for (String value : map.values()) {
+            assertEquals("set", value);
+        }
+
+        Iterator<Long> keys = map.descendingKeySet().iterator();
+        keys.next();
+        keys.remove();
+        assertEquals(Long.valueOf(key6), keys.next());
+        assertFalse(map.containsKey(key7));
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void testIteratorConcurrentModification() {
+        Iterator<Long> keys = map.keySet().iterator();
+        keys.next();
+        map.put(key1 + 100, "added");
+        keys.next();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testFirstKeyEmpty() {
+        map.subMap(key2 + 1, key6).firstKey();
+    }
+
+    @Test
+    public void testRangeViewClear() {
+        map.subMap(key1, true, key6, true).clear();
+        assertEquals(List.of(-key6, key7, key9), new ArrayList<>(map.keySet()));
+        map.clear();
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testAgainstTreeMap() {
+        Random random = new Random(190880900);
+        LongARTreeMap<Long> map = new LongARTreeMap<>();
+        TreeMap<Long, Long> treeMap = new TreeMap<>();
+        for (int i = 0; i < 20000; i++) {
+            long key = random.nextInt(4096) - 2048;
+            if (random.nextInt(4) == 0) {
+                assertEquals(treeMap.remove(key), map.remove(key));
+            } else {
+                assertEquals(treeMap.put(key, key), map.put(key, (Long) key));
+            }
+        }
+        assertEquals(treeMap, map);
+
+        for (int i = 0; i < 1000; i++) {
+            long from = random.nextInt(4096) - 2048;
+            long to = from + random.nextInt(512);
+            boolean fromInclusive = random.nextBoolean();
+            boolean toInclusive = random.nextBoolean();
+            assertView(treeMap.subMap(from, fromInclusive, to, toInclusive), map.subMap(from, fromInclusive, to, toInclusive), random);
+            assertView(treeMap.headMap(to, toInclusive), map.headMap(to, toInclusive), random);
+            assertView(treeMap.tailMap(from, fromInclusive).descendingMap(), map.tailMap(from, fromInclusive).descendingMap(), random);
+        }
+    }
+
+    @Test
+    public void testConcurrentReaders() throws Exception {
+        LongARTreeMap<Long> map = new LongARTreeMap<>();
+        for (long key = 0; key < 100000; key += 3) {
+            map.put(key, (Long) key);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                int seed = thread;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 100000; i++) {
+                        long key = random.nextInt(99997);
+                        long ceiling = (key + 2) / 3 * 3;
+                        assertEquals(Long.valueOf(ceiling), map.ceilingEntry(key).getValue());
+                        assertEquals(Long.valueOf(key / 3 * 3), map.floorEntry(key).getKey());
+                        assertEquals(Long.valueOf(0), map.firstKey());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void assertView(NavigableMap<Long, Long> expected, NavigableMap<Long, Long> actual, Random random) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(actual.keySet()));
+        assertEquals(expected.firstEntry(), actual.firstEntry());
+        assertEquals(expected.lastEntry(), actual.lastEntry());
+        for (int i = 0; i < 8; i++) {
+            long key = random.nextInt(4096) - 2048;
+            assertEquals(expected.ceilingEntry(key), actual.ceilingEntry(key));
+            assertEquals(expected.floorEntry(key), actual.floorEntry(key));
+            assertEquals(expected.higherEntry(key), actual.higherEntry(key));
+            assertEquals(expected.lowerEntry(key), actual.lowerEntry(key));
+            assertEquals(expected.get(key), actual.get(key));
+        }
+    }
+}
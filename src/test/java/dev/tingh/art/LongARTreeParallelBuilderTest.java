@@ -0,0 +1,133 @@
+package dev.tingh.art;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static dev.tingh.art.ArtTestTrees.assertSameShape;
+import static org.junit.Assert.*;
+
+public class LongARTreeParallelBuilderTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void testParallelLoad() {
+        long[] keys = {779682635, -779682635, 779682134, 100000000779682635L, 779682135, 779748171};
+        String[] values = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            values[i] = String.valueOf(keys[i]);
+        }
+
+        LongARTree<String> tree = LongARTree.parallelLoad(keys, values, pool);
+        assertEquals(keys.length, tree.size());
+        for (long key : keys) {
+            assertEquals(String.valueOf(key), tree.get(key));
+        }
+        assertEquals(-779682635, tree.firstKey());
+        assertEquals(100000000779682635L, tree.lastKey());
+        // The input arrays are left as they were.
+        assertEquals(779682635, keys[0]);
+        assertEquals("779682635", values[0]);
+    }
+
+    @Test
+    public void testParallelLoadEmptyAndSingle() {
+        assertEquals(0, LongARTree.parallelLoad(new long[0], new String[0], pool).size());
+
+        LongARTree<String> single = LongARTree.parallelLoad(new long[] {-1}, new String[] {"value"}, pool);
+        assertEquals(1, single.size());
+        assertEquals("value", single.get(-1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParallelLoadDuplicate() {
+        LongARTree.parallelLoad(new long[] {5, 1 << 20, 5}, new String[] {"a", "b", "c"}, pool);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testParallelLoadNullValue() {
+        LongARTree.parallelLoad(new long[] {5, 1 << 20}, new String[] {"a", null}, pool);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParallelLoadLengthMismatch() {
+        LongARTree.parallelLoad(new long[] {5, 6}, new String[] {"a"}, pool);
+    }
+
+    @Test
+    public void testAgainstBulkLoad() {
+        Random random = new Random(190880900);
+        TreeMap<Long, Long> treeMap = new TreeMap<>();
+        while (treeMap.size() < 200000) {
+            long key;
+            switch (random.nextInt(3)) {
+                case 0:
+                    key = random.nextLong();
+                    break;
+                case 1:
+                    key = random.nextInt(1 << 18) - (1 << 17);
+                    break;
+                default:
+                    key = (long) random.nextInt(1 << 12) << 40 | random.nextInt(1 << 10);
+            }
+            treeMap.put(key, key);
+        }
+        long[] keys = treeMap.keySet().stream().mapToLong(Long::longValue).toArray();
+        Long[] values = treeMap.values().toArray(new Long[0]);
+        LongARTree<Long> expected = LongARTree.bulkLoad(keys, values);
+
+        // Shuffles the keys and values together.
+        for (int i = keys.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long key = keys[i];
+            keys[i] = keys[j];
+            keys[j] = key;
+            Long value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+        LongARTree<Long> tree = LongARTree.parallelLoad(keys, values, pool);
+
+        assertEquals(treeMap.size(), tree.size());
+        assertSameShape(expected.getRoot(), tree.getRoot());
+        for (Map.Entry<Long, Long> entry : treeMap.entrySet()) {
+            assertEquals(entry.getValue(), tree.get(entry.getKey()));
+        }
+        for (int i = 0; i < 10000; i++) {
+            long key = random.nextLong();
+            assertEquals(expected.ceilingKey(key), tree.ceilingKey(key));
+            assertEquals(expected.floorKey(key), tree.floorKey(key));
+        }
+    }
+
+    @Test
+    public void testCommonPool() {
+        long[] keys = new long[50000];
+        Integer[] values = new Integer[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            // Multiplying by an odd constant is a bijection, so the keys are distinct.
+            keys[i] = i * 0x9E3779B97F4A7C15L;
+            values[i] = i;
+        }
+        LongARTree<Integer> tree = LongARTree.parallelLoad(keys, values);
+        assertEquals(keys.length, tree.size());
+        long[] sorted = keys.clone();
+        Arrays.sort(sorted);
+        assertEquals(sorted[0], tree.firstKey());
+        assertEquals(sorted[sorted.length - 1], tree.lastKey());
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(Integer.valueOf(i), tree.get(keys[i]));
+        }
+    }
+}
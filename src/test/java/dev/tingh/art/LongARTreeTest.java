@@ -4,7 +4,9 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Arrays;
+import java.util.Map;
 import java.util.Random;
+import java.util.TreeMap;
 import java.util.stream.IntStream;
 
 import static org.junit.Assert.*;
@@ -154,6 +156,34 @@ public class LongARTreeTest {
         Arrays.stream(keys).forEach(k -> assertEquals(String.valueOf(k), longARTree.get(k)));
     }
 
+    @Test
+    public void testPutBranchingFullRootLeaf() {
+        longARTree.put(key1, "hello");
+        longARTree.put(key2, "this");
+        longARTree.put(key3, "big");
+        longARTree.put(key4, "small");
+        longARTree.put(key9, "world");
+
+        assertEquals("hello", longARTree.get(key1));
+        assertEquals("world", longARTree.get(key9));
+    }
+
+    @Test
+    public void testPutAfterRemovingBranchKey() {
+        long key10 = 779683158;   // [0, 0, 0, 0, 46, 121, 5, 86]
+
+        longARTree.put(key1, "hello");
+        longARTree.put(key6, "today");
+        longARTree.put(key10, "world");
+        assertEquals("today", longARTree.remove(key6));
+        longARTree.put(key6, "again");
+
+        assertEquals("hello", longARTree.get(key1));
+        assertEquals("again", longARTree.get(key6));
+        assertEquals("world", longARTree.get(key10));
+        assertEquals("again", longARTree.remove(key6));
+    }
+
     @Test
     public void testRemove() {
         longARTree.put(key1, "hello");
@@ -415,6 +445,25 @@ public class LongARTreeTest {
         assertNull(longARTree.getCeiling(9223371440841164470L));
     }
 
+    @Test
+    public void testGetCeilingAcrossSign() {
+        longARTree.put(-10, "-10");
+        longARTree.put(1, "1");
+
+        assertEquals("1", longARTree.getCeiling(-5));
+        assertEquals("-10", longARTree.getCeiling(Long.MIN_VALUE));
+        assertNull(longARTree.getCeiling(2));
+    }
+
+    @Test
+    public void testGetCeilingBacktracksSeveralLevels() {
+        longARTree.put(key1, "hello");
+        longARTree.put(key6, "today");
+        longARTree.put(key9, "world");
+
+        assertEquals("world", longARTree.getCeiling(key7));
+    }
+
     @Test
     public void testGetFloorMatch() {
         longARTree.put(key1, "hello");
@@ -454,6 +503,58 @@ public class LongARTreeTest {
         assertNull(longARTree.getFloor(key4));
     }
 
+    @Test
+    public void testNavigateKeys() {
+        longARTree.put(key1, "hello");
+        longARTree.put(key6, "hello");
+        longARTree.put(key9, "hello");
+        longARTree.put(-key6, "hello");
+
+        assertEquals(-key6, longARTree.firstKey());
+        assertEquals(key9, longARTree.lastKey());
+        assertEquals(key6, longARTree.ceilingKey(key2));
+        assertEquals(key6, longARTree.ceilingKey(key6));
+        assertEquals(key1, longARTree.floorKey(key2));
+        assertEquals(key9, longARTree.higherKey(key6));
+        assertEquals(-key6, longARTree.lowerKey(key1));
+        assertEquals(ILongARTree.NO_KEY, longARTree.higherKey(key9));
+        assertEquals(ILongARTree.NO_KEY, longARTree.lowerKey(-key6));
+        assertEquals(ILongARTree.NO_KEY, longARTree.higherKey(Long.MAX_VALUE));
+        assertEquals(ILongARTree.NO_KEY, longARTree.lowerKey(Long.MIN_VALUE));
+    }
+
+    @Test
+    public void testNavigateKeysEmpty() {
+        assertEquals(ILongARTree.NO_KEY, longARTree.firstKey());
+        assertEquals(ILongARTree.NO_KEY, longARTree.lastKey());
+        assertEquals(ILongARTree.NO_KEY, longARTree.ceilingKey(key1));
+        assertFalse(longARTree.firstEntry(new LongARTreeEntry<>()));
+    }
+
+    @Test
+    public void testNavigateEntries() {
+        longARTree.put(key1, "value1");
+        longARTree.put(key7, "value7");
+        longARTree.put(Long.MIN_VALUE, "min");
+
+        LongARTreeEntry<String> entry = new LongARTreeEntry<>();
+        assertTrue(longARTree.firstEntry(entry));
+        assertEquals(Long.MIN_VALUE, entry.getKey());
+        assertEquals("min", entry.getValue());
+
+        assertTrue(longARTree.higherEntry(key1, entry));
+        assertEquals(key7, entry.getKey());
+        assertEquals("value7", entry.getValue());
+
+        assertTrue(longARTree.floorEntry(key7 - 1, entry));
+        assertEquals(key1, entry.getKey());
+
+        assertFalse(longARTree.lowerEntry(Long.MIN_VALUE, entry));
+        assertEquals(key1, entry.getKey());
+        assertTrue(longARTree.lastEntry(entry));
+        assertEquals(key7, entry.getKey());
+    }
+
     @Test
     public void testGetFloorEmpty() {
         assertNull(longARTree.getFloor(key1));
@@ -465,7 +566,7 @@ public class LongARTreeTest {
         longARTree.put(-18589142457476044L, "-18589142457476044");
         longARTree.put(-836236567651234L, "-836236567651234");
 
-        assertNull(longARTree.getFloor(3146067877913151381L));
+        assertEquals("-836236567651234", longARTree.getFloor(3146067877913151381L));
     }
 
     @Test
@@ -494,4 +595,333 @@ public class LongARTreeTest {
 
         assertNull(longARTree.getFloor(-9223371440841164470L));
     }
+
+    @Test
+    public void testGetFloorAcrossSign() {
+        longARTree.put(-10, "-10");
+        longARTree.put(1, "1");
+
+        assertEquals("-10", longARTree.getFloor(0));
+        assertEquals("1", longARTree.getFloor(Long.MAX_VALUE));
+        assertNull(longARTree.getFloor(-11));
+    }
+
+    @Test
+    public void testGetFloorBacktracksSeveralLevels() {
+        longARTree.put(key1, "hello");
+        longARTree.put(key7, "today");
+        longARTree.put(-1L, "world");
+
+        assertEquals("world", longARTree.getFloor(779681797L));   // [0, 0, 0, 0, 46, 121, 0, 5]
+    }
+
+    @Test
+    public void testGetAll() {
+        for (long key : new long[] {key1, key2, key6, key7, key9, -key6}) {
+            longARTree.put(key, String.valueOf(key));
+        }
+
+        long[] keys = {key9, key2, -key6, key3, key2, key7, -key9, key1};
+        String[] out = new String[keys.length];
+        longARTree.getAll(keys, out);
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(longARTree.get(keys[i]), out[i]);
+        }
+        assertNull(out[3]);
+        assertEquals(String.valueOf(key2), out[4]);
+
+        long[] sorted = keys.clone();
+        Arrays.sort(sorted);
+        longARTree.getAll(sorted, out);
+        for (int i = 0; i < sorted.length; i++) {
+            assertEquals(longARTree.get(sorted[i]), out[i]);
+        }
+    }
+
+    @Test
+    public void testGetAllEmpty() {
+        String[] out = {"stale", "stale"};
+        longARTree.getAll(new long[] {key1, key2}, out);
+        assertArrayEquals(new String[2], out);
+        longARTree.getAll(new long[0], new String[0]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetAllShortOutput() {
+        longARTree.getAll(new long[] {key1, key2}, new String[1]);
+    }
+
+    @Test
+    public void testGetAllMany() {
+        LongARTree<Long> tree = new LongARTree<>();
+        long[] keys = new long[20000];
+        for (int i = 0; i < keys.length; i++) {
+            long key = random.nextBoolean() ? random.nextLong() : random.nextInt(1 << 16) - (1 << 15);
+            keys[i] = key;
+            if (random.nextBoolean()) {
+                tree.put(key, key);
+            }
+        }
+        Long[] out = new Long[keys.length];
+        tree.getAll(keys, out);
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(tree.get(keys[i]), out[i]);
+        }
+    }
+
+    @Test
+    public void testPutAll() {
+        longARTree.put(key1, "value1");
+        longARTree.put(key7, "value7");
+
+        long[] keys = {-key6, key1, key2, key3, key6, key9};
+        String[] values = {"-value6", "new1", "value2", "value3", "value6", "value9"};
+        assertEquals(5, longARTree.putAll(keys, values));
+        assertEquals(7, longARTree.size());
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(values[i], longARTree.get(keys[i]));
+        }
+        assertEquals("value7", longARTree.get(key7));
+        assertEquals(-key6, longARTree.firstKey());
+        assertEquals(key9, longARTree.lastKey());
+        assertEquals(key7, longARTree.higherKey(key6));
+    }
+
+    @Test
+    public void testPutAllGrowsOnce() {
+        longARTree.put(0, "0");
+        longARTree.put(1, "1");
+        long[] keys = new long[100];
+        String[] values = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i * 2;
+            values[i] = String.valueOf(keys[i]);
+        }
+        assertEquals(99, longARTree.putAll(keys, values));
+        assertEquals(ArtNodeType.ArtNode256, longARTree.getRoot().getNodeType());
+        assertEquals("1", longARTree.get(1));
+        assertEquals("198", longARTree.get(198));
+    }
+
+    @Test
+    public void testPutAllInvalidLeavesTree() {
+        longARTree.put(key1, "value1");
+        try {
+            longARTree.putAll(new long[] {key2, key6, key3}, new String[] {"a", "b", "c"});
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            longARTree.putAll(new long[] {key2, key6}, new String[] {"a", null});
+            fail();
+        } catch (NullPointerException e) {
+            // expected
+        }
+        assertEquals(1, longARTree.size());
+        assertNull(longARTree.get(key2));
+    }
+
+    @Test
+    public void testPutAllMany() {
+        LongARTree<Long> tree = new LongARTree<>();
+        TreeMap<Long, Long> treeMap = new TreeMap<>();
+        for (int batch = 0; batch < 40; batch++) {
+            TreeMap<Long, Long> keys = new TreeMap<>();
+            int size = random.nextInt(2000);
+            for (int i = 0; i < size; i++) {
+                long key;
+                switch (random.nextInt(3)) {
+                    case 0:
+                        key = random.nextLong();
+                        break;
+                    case 1:
+                        key = random.nextInt(1 << 14) - (1 << 13);
+                        break;
+                    default:
+                        key = (long) random.nextInt(64) << 32 | random.nextInt(1 << 10);
+                }
+                keys.put(key, (long) batch);
+            }
+            int added = 0;
+            for (Long key : keys.keySet()) {
+                if (!treeMap.containsKey(key)) {
+                    added++;
+                }
+            }
+            treeMap.putAll(keys);
+            long[] sortedKeys = keys.keySet().stream().mapToLong(Long::longValue).toArray();
+            assertEquals(added, tree.putAll(sortedKeys, keys.values().toArray(new Long[0])));
+            assertEquals(treeMap.size(), tree.size());
+
+            // Removes a few so later batches merge into shrunk and compressed nodes.
+            for (int i = 0; i < 100 && !treeMap.isEmpty(); i++) {
+                Long key = treeMap.ceilingKey(random.nextLong());
+                if (key == null) {
+                    key = treeMap.firstKey();
+                }
+                assertEquals(treeMap.remove(key), tree.remove(key));
+            }
+        }
+
+        LongARTreeCursor<Long> cursor = tree.cursor();
+        boolean positioned = cursor.first();
+        for (Map.Entry<Long, Long> entry : treeMap.entrySet()) {
+            assertTrue(positioned);
+            assertEquals((long) entry.getKey(), cursor.key());
+            assertEquals(entry.getValue(), cursor.value());
+            positioned = cursor.next();
+        }
+        assertFalse(positioned);
+    }
+
+    @Test
+    public void testGetAllInterleaved() {
+        LongARTree<Long> tree = new LongARTree<>();
+        long[] keys = new long[5000];
+        for (int i = 0; i < keys.length; i++) {
+            long key = random.nextBoolean() ? random.nextLong() : random.nextInt(1 << 16) - (1 << 15);
+            keys[i] = key;
+            if (random.nextBoolean()) {
+                tree.put(key, key);
+            }
+        }
+        for (int groupSize : new int[] {1, 3, 16, 10000}) {
+            Long[] out = new Long[keys.length];
+            tree.getAllInterleaved(keys, out, groupSize);
+            for (int i = 0; i < keys.length; i++) {
+                assertEquals(tree.get(keys[i]), out[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testGetAllInterleavedSmallTrees() {
+        String[] out = {"stale", "stale"};
+        longARTree.getAllInterleaved(new long[] {key1, key2}, out);
+        assertArrayEquals(new String[2], out);
+
+        longARTree.put(key1, "value1");
+        longARTree.getAllInterleaved(new long[] {key1, key2}, out);
+        assertArrayEquals(new String[] {"value1", null}, out);
+    }
+
+    @Test
+    public void testLeafRecordExpandsAndCollapses() {
+        longARTree.put(key1, "value1");
+        assertEquals(ArtNodeType.ArtNode1, longARTree.getRoot().getNodeType());
+
+        longARTree.put(key6, "value6");
+        IArtNode<String> leafNode = (IArtNode<String>) longARTree.getRoot().get(key1);
+        assertEquals(ArtNodeType.ArtNode1, leafNode.getNodeType());
+
+        // A second key under the same leaf prefix expands the record into a leaf node.
+        longARTree.put(key2, "value2");
+        leafNode = (IArtNode<String>) longARTree.getRoot().get(key1);
+        assertEquals(ArtNodeType.ArtNode4, leafNode.getNodeType());
+        assertEquals("value1", longARTree.get(key1));
+        assertEquals("value2", longARTree.get(key2));
+        assertEquals(key2, longARTree.higherKey(key1));
+
+        // Left with one key, it collapses back into a record.
+        assertEquals("value1", longARTree.remove(key1));
+        leafNode = (IArtNode<String>) longARTree.getRoot().get(key2);
+        assertEquals(ArtNodeType.ArtNode1, leafNode.getNodeType());
+        assertNull(longARTree.get(key1));
+        assertEquals("value2", longARTree.get(key2));
+        assertEquals(2, longARTree.size());
+    }
+
+    @Test
+    public void testDenseRangeBecomesDenseLeafAndBack() {
+        LongARTree<Long> tree = new LongARTree<>();
+        long base = 0x7700_0000L;
+        tree.put(base - 1, -1L);
+        for (long i = 0; i < 61439; i++) {
+            tree.put(base + i, i);
+        }
+        assertEquals(1, tree.getParent(base, 1).getDepth());
+
+        // The key bringing the 16 bit range to 15/16 full turns its nodes into a dense leaf.
+        tree.put(base + 61439, 61439L);
+        IArtNode<Long> leaf = tree.getParent(base, 0);
+        assertEquals(ArtNodeType.ArtDenseLeaf16, leaf.getNodeType());
+        // The depth 1 level is gone, the dense leaf hangs off the depth 3 node above.
+        assertEquals(3, tree.getParent(base, 1).getDepth());
+        assertEquals(61441, tree.size());
+        assertEquals(Long.valueOf(1234), tree.get(base + 1234));
+        assertNull(tree.get(base + 61440));
+        assertEquals(Long.valueOf(-1), tree.get(base - 1));
+
+        assertEquals(base - 1, tree.firstKey());
+        assertEquals(base + 61439, tree.lastKey());
+        assertEquals(base, tree.higherKey(base - 1));
+        assertEquals(base - 1, tree.lowerKey(base));
+        assertEquals(base + 61439, tree.floorKey(base + 0xFFFF));
+        assertEquals(ILongARTree.NO_KEY, tree.ceilingKey(base + 61440));
+
+        LongARTreeCursor<Long> cursor = tree.cursor();
+        assertTrue(cursor.seek(base + 61438));
+        assertTrue(cursor.next());
+        assertEquals(base + 61439, cursor.key());
+        assertFalse(cursor.next());
+        assertTrue(cursor.seekFloor(base));
+        assertTrue(cursor.prev());
+        assertEquals(base - 1, cursor.key());
+
+        // Keys outside the range branch above the dense leaf.
+        tree.put(base + 0x1_0000, 0L);
+        assertEquals(Long.valueOf(0), tree.get(base + 0x1_0000));
+        assertEquals(Long.valueOf(5), tree.get(base + 5));
+
+        // Below half full it turns back into nodes.
+        for (long i = 0; i < 28672; i++) {
+            assertEquals(Long.valueOf(i), tree.remove(base + i));
+        }
+        assertEquals(ArtNodeType.ArtDenseLeaf16, tree.getParent(base + 28672, 0).getNodeType());
+        tree.remove(base + 28672);
+        assertEquals(1, tree.getParent(base + 28673, 1).getDepth());
+        assertNotEquals(ArtNodeType.ArtDenseLeaf16, tree.getParent(base + 28673, 0).getNodeType());
+        assertEquals(Long.valueOf(40000), tree.get(base + 40000));
+        assertEquals(base + 28673, tree.higherKey(base - 1));
+        assertEquals(32769, tree.size());
+    }
+
+    @Test
+    public void testDenseRangesAgainstTreeMap() {
+        LongARTree<Long> tree = new LongARTree<>();
+        TreeMap<Long, Long> expected = new TreeMap<>();
+        // Keys filling and emptying two adjacent 16 bit ranges either side of zero, with sparse keys around them.
+        for (int round = 0; round < 4; round++) {
+            boolean filling = round % 2 == 0;
+            for (int i = 0; i < 600000; i++) {
+                long key = random.nextInt(50) == 0 ? random.nextLong() : random.nextInt(1 << 17) - (1 << 16);
+                if (random.nextInt(50) < (filling ? 1 : 45)) {
+                    assertEquals(expected.remove(key), tree.remove(key));
+                } else {
+                    assertEquals(expected.put(key, (long) i), tree.put(key, (long) i));
+                }
+            }
+            assertEquals(expected.size(), tree.size());
+            assertEquals(filling, tree.getParent(-1, 0).getNodeType() == ArtNodeType.ArtDenseLeaf16);
+            assertEquals(filling, tree.getParent(0, 0).getNodeType() == ArtNodeType.ArtDenseLeaf16);
+            for (int i = 0; i < 20000; i++) {
+                long key = random.nextInt(1 << 18) - (1 << 17);
+                Long ceiling = expected.ceilingKey(key);
+                Long floor = expected.floorKey(key);
+                assertEquals(expected.get(key), tree.get(key));
+                assertEquals(ceiling != null ? ceiling : ILongARTree.NO_KEY, tree.ceilingKey(key));
+                assertEquals(floor != null ? floor : ILongARTree.NO_KEY, tree.floorKey(key));
+            }
+            LongARTreeCursor<Long> cursor = tree.cursor();
+            boolean positioned = cursor.first();
+            for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+                assertTrue(positioned);
+                assertEquals((long) entry.getKey(), cursor.key());
+                assertEquals(entry.getValue(), cursor.value());
+                positioned = cursor.next();
+            }
+            assertFalse(positioned);
+        }
+    }
 }
@@ -0,0 +1,59 @@
+package dev.tingh.art;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+public class LongIntARTreeTest {
+
+    private static final long key1 = 779682134;            // [0, 0, 0, 0, 46, 121, 1, 86]
+    private static final long key9 = 100000000779682635L;  // [1, 99, 69, 120, 140, 3, 3, 75]
+
+    private LongIntARTree longIntARTree;
+
+    @Before
+    public void setup() {
+        longIntARTree = new LongIntARTree();
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        assertEquals(LongIntARTree.DEFAULT_NO_VALUE, longIntARTree.put(key1, 1));
+        longIntARTree.put(key9, 9);
+
+        assertEquals(1, longIntARTree.put(key1, 10));
+        assertEquals(10, longIntARTree.get(key1));
+        assertEquals(9, longIntARTree.get(key9));
+        assertEquals(key9, longIntARTree.ceilingKey(key1 + 1));
+        assertEquals(9, longIntARTree.getCeiling(key1 + 1));
+
+        assertEquals(10, longIntARTree.remove(key1));
+        assertEquals(LongIntARTree.DEFAULT_NO_VALUE, longIntARTree.get(key1));
+        assertEquals(1, longIntARTree.size());
+    }
+
+    @Test
+    public void testAgainstTreeMap() {
+        Random random = new Random(190880900);
+        TreeMap<Long, Integer> treeMap = new TreeMap<>();
+        for (int i = 0; i < 100000; i++) {
+            long key = random.nextInt(1 << 14) - (1 << 13);
+            if (random.nextInt(3) == 0) {
+                Integer expected = treeMap.remove(key);
+                assertEquals(expected != null ? expected : LongIntARTree.DEFAULT_NO_VALUE, longIntARTree.remove(key));
+            } else {
+                Integer expected = treeMap.put(key, i);
+                assertEquals(expected != null ? expected : LongIntARTree.DEFAULT_NO_VALUE, longIntARTree.put(key, i));
+            }
+        }
+        assertEquals(treeMap.size(), longIntARTree.size());
+        for (Map.Entry<Long, Integer> entry : treeMap.entrySet()) {
+            assertEquals((int) entry.getValue(), longIntARTree.get(entry.getKey()));
+        }
+    }
+}
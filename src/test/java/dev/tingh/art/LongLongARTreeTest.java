@@ -0,0 +1,147 @@
+package dev.tingh.art;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+public class LongLongARTreeTest {
+
+    private static final long key1 = 779682134;            // [0, 0, 0, 0, 46, 121, 1, 86]
+    private static final long key2 = 779682135;            // [0, 0, 0, 0, 46, 121, 1, 87]
+    private static final long key6 = 779682635;            // [0, 0, 0, 0, 46, 121, 3, 75]
+    private static final long key7 = 779748171;            // [0, 0, 0, 0, 46, 122, 3, 75]
+    private static final long key9 = 100000000779682635L;  // [1, 99, 69, 120, 140, 3, 3, 75]
+
+    private LongLongARTree longLongARTree;
+
+    @Before
+    public void setup() {
+        longLongARTree = new LongLongARTree();
+    }
+
+    @Test
+    public void testPutGet() {
+        assertEquals(LongLongARTree.DEFAULT_NO_VALUE, longLongARTree.put(key1, 1));
+        longLongARTree.put(key2, 2);
+        longLongARTree.put(key6, 6);
+        longLongARTree.put(key7, 7);
+        longLongARTree.put(key9, 9);
+
+        assertEquals(1, longLongARTree.get(key1));
+        assertEquals(2, longLongARTree.get(key2));
+        assertEquals(6, longLongARTree.get(key6));
+        assertEquals(7, longLongARTree.get(key7));
+        assertEquals(9, longLongARTree.get(key9));
+        assertEquals(5, longLongARTree.size());
+        assertEquals(LongLongARTree.DEFAULT_NO_VALUE, longLongARTree.get(key1 - 1));
+        assertFalse(longLongARTree.contains(key1 - 1));
+    }
+
+    @Test
+    public void testPutReplace() {
+        longLongARTree.put(key1, 1);
+
+        assertEquals(1, longLongARTree.put(key1, 10));
+        assertEquals(10, longLongARTree.get(key1));
+        assertEquals(1, longLongARTree.size());
+    }
+
+    @Test
+    public void testNoValue() {
+        LongLongARTree tree = new LongLongARTree(-1);
+        assertEquals(-1, tree.getNoValue());
+        assertEquals(-1, tree.get(key1));
+        assertEquals(-1, tree.remove(key1));
+
+        tree.put(key1, -1);
+        assertEquals(-1, tree.get(key1));
+        assertTrue(tree.contains(key1));
+    }
+
+    @Test
+    public void testRemove() {
+        longLongARTree.put(key1, 1);
+        longLongARTree.put(key7, 7);
+        longLongARTree.put(key9, 9);
+
+        assertEquals(7, longLongARTree.remove(key7));
+        assertEquals(LongLongARTree.DEFAULT_NO_VALUE, longLongARTree.remove(key7));
+        assertEquals(1, longLongARTree.get(key1));
+        assertEquals(9, longLongARTree.get(key9));
+
+        assertEquals(1, longLongARTree.remove(key1));
+        assertEquals(9, longLongARTree.remove(key9));
+        assertEquals(0, longLongARTree.size());
+        assertEquals(LongLongARTree.NO_KEY, longLongARTree.firstKey());
+    }
+
+    @Test
+    public void testFullLeafNode() {
+        for (int i = 0; i < 256; i++) {
+            longLongARTree.put(key1 & ~255L | i, i);
+        }
+        for (int i = 0; i < 256; i++) {
+            assertEquals(i, longLongARTree.get(key1 & ~255L | i));
+        }
+        for (int i = 0; i < 256; i += 2) {
+            assertEquals(i, longLongARTree.remove(key1 & ~255L | i));
+        }
+        for (int i = 1; i < 256; i += 2) {
+            assertEquals(i, longLongARTree.get(key1 & ~255L | i));
+        }
+        assertEquals(128, longLongARTree.size());
+    }
+
+    @Test
+    public void testNavigate() {
+        longLongARTree.put(key1, 1);
+        longLongARTree.put(key6, 6);
+        longLongARTree.put(key9, 9);
+        longLongARTree.put(-key6, -6);
+
+        assertEquals(-key6, longLongARTree.firstKey());
+        assertEquals(key9, longLongARTree.lastKey());
+        assertEquals(key6, longLongARTree.ceilingKey(key2));
+        assertEquals(key1, longLongARTree.floorKey(key2));
+        assertEquals(key9, longLongARTree.higherKey(key6));
+        assertEquals(-key6, longLongARTree.lowerKey(key1));
+        assertEquals(6, longLongARTree.getCeiling(key2));
+        assertEquals(1, longLongARTree.getFloor(key2));
+        assertEquals(LongLongARTree.DEFAULT_NO_VALUE, longLongARTree.getCeiling(key9 + 1));
+        assertEquals(LongLongARTree.NO_KEY, longLongARTree.lowerKey(-key6));
+    }
+
+    @Test
+    public void testAgainstTreeMap() {
+        Random random = new Random(190880900);
+        TreeMap<Long, Long> treeMap = new TreeMap<>();
+        for (int i = 0; i < 200000; i++) {
+            // Mostly dense keys, so the leaf nodes pass through every size, with some spread over the whole range.
+            long key = random.nextInt(8) == 0 ? random.nextLong() : random.nextInt(1 << 16) - (1 << 15);
+            if (random.nextInt(3) == 0) {
+                Long expected = treeMap.remove(key);
+                assertEquals(expected != null ? expected : LongLongARTree.DEFAULT_NO_VALUE, longLongARTree.remove(key));
+            } else {
+                Long expected = treeMap.put(key, (long) i);
+                assertEquals(expected != null ? expected : LongLongARTree.DEFAULT_NO_VALUE, longLongARTree.put(key, i));
+            }
+        }
+        assertEquals(treeMap.size(), longLongARTree.size());
+
+        for (Map.Entry<Long, Long> entry : treeMap.entrySet()) {
+            assertEquals((long) entry.getValue(), longLongARTree.get(entry.getKey()));
+        }
+        for (int i = 0; i < 20000; i++) {
+            long key = random.nextInt(4) == 0 ? random.nextLong() : random.nextInt(1 << 17) - (1 << 16);
+            Long ceiling = treeMap.ceilingKey(key);
+            Long floor = treeMap.floorKey(key);
+            assertEquals(ceiling != null ? ceiling : LongLongARTree.NO_KEY, longLongARTree.ceilingKey(key));
+            assertEquals(floor != null ? floor : LongLongARTree.NO_KEY, longLongARTree.floorKey(key));
+        }
+    }
+}
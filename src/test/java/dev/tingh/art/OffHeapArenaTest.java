@@ -0,0 +1,98 @@
+package dev.tingh.art;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class OffHeapArenaTest {
+
+    private static final int CHUNK_SIZE = 1024;
+
+    private OffHeapArena arena;
+
+    @Before
+    public void setup() {
+        arena = new OffHeapArena(CHUNK_SIZE, 16, 400);
+    }
+
+    @After
+    public void tearDown() {
+        arena.close();
+    }
+
+    @Test
+    public void testAllocate() {
+        long first = arena.allocate(0);
+        long second = arena.allocate(0);
+
+        assertEquals(OffHeapArena.HEADER_SIZE, first);
+        assertEquals(first + 16, second);
+        assertEquals(0, arena.getLong(first));
+
+        arena.putLong(first, 42);
+        arena.putLong(second, 43);
+        assertEquals(42, arena.getLong(first));
+        assertEquals(43, arena.getLong(second));
+    }
+
+    @Test
+    public void testRecordsDoNotSpanChunks() {
+        long first = arena.allocate(1);
+        long second = arena.allocate(1);
+        long third = arena.allocate(1);
+
+        assertEquals(OffHeapArena.HEADER_SIZE, first);
+        assertEquals(first + 400, second);
+        // The rest of the first chunk is too small, so the third record starts the second chunk.
+        assertEquals(CHUNK_SIZE, third);
+        assertEquals(2 * CHUNK_SIZE, arena.getCapacity());
+
+        arena.putLong(third + 392, -1);
+        assertEquals(-1, arena.getLong(third + 392));
+    }
+
+    @Test
+    public void testFreeListReuse() {
+        long first = arena.allocate(0);
+        long second = arena.allocate(0);
+        arena.putLong(first + 8, 42);
+
+        arena.free(first, 0);
+        arena.free(second, 0);
+        long used = arena.getUsed();
+
+        assertEquals(second, arena.allocate(0));
+        assertEquals(first, arena.allocate(0));
+        assertEquals(0, arena.getLong(first + 8));
+        assertEquals(used, arena.getUsed());
+        assertEquals(first + 32, arena.allocate(0));
+    }
+
+    @Test
+    public void testSizeClassesHaveSeparateFreeLists() {
+        long small = arena.allocate(0);
+        arena.free(small, 0);
+
+        assertNotEquals(small, arena.allocate(1));
+        assertEquals(small, arena.allocate(0));
+    }
+
+    @Test
+    public void testCopyOverlapping() {
+        long address = arena.allocate(1);
+        for (int i = 0; i < 8; i++) {
+            arena.putByte(address + i, (byte) i);
+        }
+        arena.copy(address, address + 1, 7);
+
+        assertEquals(0, arena.getByte(address + 1));
+        assertEquals(6, arena.getByte(address + 7));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testChunkSizeNotPowerOfTwo() {
+        new OffHeapArena(1000, 16);
+    }
+}
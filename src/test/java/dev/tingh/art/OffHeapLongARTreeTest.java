@@ -0,0 +1,281 @@
+package dev.tingh.art;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class OffHeapLongARTreeTest {
+
+    private static final long NO_VALUE = OffHeapLongARTree.DEFAULT_NO_VALUE;
+
+    private static final long key1 = 779682134;            // [0, 0, 0, 0, 46, 121, 1, 86]
+    private static final long key2 = 779682135;            // [0, 0, 0, 0, 46, 121, 1, 87]
+    private static final long key6 = 779682635;            // [0, 0, 0, 0, 46, 121, 3, 75]
+    private static final long key7 = 779748171;            // [0, 0, 0, 0, 46, 122, 3, 75]
+    private static final long key9 = 100000000779682635L;  // [1, 99, 69, 120, 140, 3, 3, 75]
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private OffHeapLongARTree offHeapLongARTree;
+
+    @Before
+    public void setup() {
+        offHeapLongARTree = new OffHeapLongARTree(1 << 16, NO_VALUE);
+    }
+
+    @After
+    public void tearDown() {
+        offHeapLongARTree.close();
+    }
+
+    @Test
+    public void testPutGet() {
+        assertEquals(NO_VALUE, offHeapLongARTree.put(key1, 1));
+        offHeapLongARTree.put(key2, 2);
+        offHeapLongARTree.put(key6, 6);
+        offHeapLongARTree.put(key7, 7);
+        offHeapLongARTree.put(key9, 9);
+        offHeapLongARTree.put(-key9, -9);
+
+        assertEquals(1, offHeapLongARTree.get(key1));
+        assertEquals(2, offHeapLongARTree.get(key2));
+        assertEquals(6, offHeapLongARTree.get(key6));
+        assertEquals(7, offHeapLongARTree.get(key7));
+        assertEquals(9, offHeapLongARTree.get(key9));
+        assertEquals(-9, offHeapLongARTree.get(-key9));
+        assertEquals(NO_VALUE, offHeapLongARTree.get(key1 - 1));
+        assertEquals(NO_VALUE, offHeapLongARTree.get(key9 + 256));
+        assertTrue(offHeapLongARTree.contains(key7));
+        assertFalse(offHeapLongARTree.contains(key7 + 1));
+        assertEquals(6, offHeapLongARTree.size());
+    }
+
+    @Test
+    public void testPutReplace() {
+        offHeapLongARTree.put(key1, 1);
+
+        assertEquals(1, offHeapLongARTree.put(key1, 10));
+        assertEquals(10, offHeapLongARTree.get(key1));
+        assertEquals(1, offHeapLongARTree.size());
+    }
+
+    @Test
+    public void testGrowAndShrink() {
+        // Fills a leaf node and an inner node to Node256, then removes back down through every node type.
+        for (int i = 0; i < 256; i++) {
+            offHeapLongARTree.put(key1 & ~255L | i, i);
+            offHeapLongARTree.put(key1 & ~0xFF00L | (long) i << 8, i);
+        }
+        for (int i = 0; i < 256; i++) {
+            assertEquals(i, offHeapLongARTree.get(key1 & ~255L | i));
+        }
+        for (int i = 255; i > 0; i--) {
+            assertEquals(i, offHeapLongARTree.remove(key1 & ~255L | i));
+            assertEquals(0, offHeapLongARTree.get(key1 & ~255L));
+        }
+        for (int i = 255; i >= 0; i--) {
+            offHeapLongARTree.remove(key1 & ~0xFF00L | (long) i << 8);
+        }
+        assertEquals(1, offHeapLongARTree.size());
+        assertEquals(0, offHeapLongARTree.remove(key1 & ~255L));
+        assertEquals(0, offHeapLongARTree.size());
+        assertEquals(NO_VALUE, offHeapLongARTree.get(key1 & ~255L));
+    }
+
+    @Test
+    public void testRemoveReusesNodes() {
+        for (int i = 0; i < 10000; i++) {
+            offHeapLongARTree.put(i * 7919L, i);
+        }
+        long used = offHeapLongARTree.getOffHeapUsed();
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i, offHeapLongARTree.remove(i * 7919L));
+        }
+        assertEquals(0, offHeapLongARTree.size());
+
+        for (int i = 0; i < 10000; i++) {
+            offHeapLongARTree.put(i * 7919L, i);
+        }
+        assertEquals(used, offHeapLongARTree.getOffHeapUsed());
+    }
+
+    @Test
+    public void testAgainstTreeMap() {
+        Random random = new Random(190880900);
+        TreeMap<Long, Long> treeMap = new TreeMap<>();
+        for (int i = 0; i < 200000; i++) {
+            long key = random.nextInt(8) == 0 ? random.nextLong() : random.nextInt(1 << 16) - (1 << 15);
+            if (random.nextInt(3) == 0) {
+                Long expected = treeMap.remove(key);
+                assertEquals(expected != null ? expected : NO_VALUE, offHeapLongARTree.remove(key));
+            } else {
+                Long expected = treeMap.put(key, (long) i);
+                assertEquals(expected != null ? expected : NO_VALUE, offHeapLongARTree.put(key, i));
+            }
+        }
+        assertEquals(treeMap.size(), offHeapLongARTree.size());
+        for (Map.Entry<Long, Long> entry : treeMap.entrySet()) {
+            assertEquals((long) entry.getValue(), offHeapLongARTree.get(entry.getKey()));
+        }
+        for (int i = 0; i < 20000; i++) {
+            long key = random.nextInt(4) == 0 ? random.nextLong() : random.nextInt(1 << 17) - (1 << 16);
+            assertEquals(treeMap.containsKey(key), offHeapLongARTree.contains(key));
+            assertCeilingFloor(treeMap, offHeapLongARTree, key);
+        }
+    }
+
+    private static void assertCeilingFloor(TreeMap<Long, Long> treeMap, OffHeapLongARTree tree, long key) {
+        Map.Entry<Long, Long> ceiling = treeMap.ceilingEntry(key);
+        Map.Entry<Long, Long> floor = treeMap.floorEntry(key);
+        assertEquals(ceiling != null ? ceiling.getKey() : ILongARTree.NO_KEY, tree.ceilingKey(key));
+        assertEquals(ceiling != null ? ceiling.getValue() : NO_VALUE, tree.getCeiling(key));
+        assertEquals(floor != null ? floor.getKey() : ILongARTree.NO_KEY, tree.floorKey(key));
+        assertEquals(floor != null ? floor.getValue() : NO_VALUE, tree.getFloor(key));
+    }
+
+    @Test
+    public void testCeilingFloor() {
+        offHeapLongARTree.put(key1, 1);
+        offHeapLongARTree.put(key6, 6);
+        offHeapLongARTree.put(key9, 9);
+        offHeapLongARTree.put(-key6, -6);
+
+        assertEquals(6, offHeapLongARTree.getCeiling(key2));
+        assertEquals(1, offHeapLongARTree.getFloor(key2));
+        assertEquals(1, offHeapLongARTree.getCeiling(-1));
+        assertEquals(-6, offHeapLongARTree.getFloor(-1));
+        assertEquals(NO_VALUE, offHeapLongARTree.getCeiling(key9 + 1));
+        assertEquals(NO_VALUE, offHeapLongARTree.getFloor(-key6 - 1));
+        assertEquals(key9, offHeapLongARTree.ceilingKey(key7));
+    }
+
+    @Test
+    public void testSaveAndOpen() throws IOException {
+        Random random = new Random(190880900);
+        TreeMap<Long, Long> treeMap = new TreeMap<>();
+        for (int i = 0; i < 50000; i++) {
+            long key = random.nextInt(2) == 0 ? random.nextLong() : random.nextInt(1 << 20);
+            treeMap.put(key, (long) i);
+            offHeapLongARTree.put(key, i);
+        }
+        // Leaves nodes on the free lists, which the opened tree must reuse.
+        for (int i = 0; i < 1000; i++) {
+            Long key = treeMap.pollFirstEntry().getKey();
+            offHeapLongARTree.remove(key);
+        }
+
+        Path path = folder.newFile().toPath();
+        offHeapLongARTree.save(path);
+
+        try (OffHeapLongARTree opened = OffHeapLongARTree.open(path)) {
+            assertEquals(treeMap.size(), opened.size());
+            assertEquals(NO_VALUE, opened.getNoValue());
+            for (Map.Entry<Long, Long> entry : treeMap.entrySet()) {
+                assertEquals((long) entry.getValue(), opened.get(entry.getKey()));
+            }
+            for (int i = 0; i < 10000; i++) {
+                assertCeilingFloor(treeMap, opened, random.nextLong());
+            }
+
+            // Changes to the opened tree stay in memory, the file is unchanged.
+            for (int i = 0; i < 1000; i++) {
+                opened.remove(treeMap.firstKey() + i);
+                opened.put(-1 - i, i);
+            }
+            assertEquals(999, opened.get(-1000));
+        }
+
+        try (OffHeapLongARTree reopened = OffHeapLongARTree.open(path)) {
+            assertEquals(treeMap.size(), reopened.size());
+            assertEquals(treeMap.containsKey(-1000L), reopened.contains(-1000));
+            assertEquals((long) treeMap.firstEntry().getValue(), reopened.get(treeMap.firstKey()));
+        }
+    }
+
+    @Test
+    public void testSaveOpenedTreeToItsOwnFile() throws IOException {
+        Random random = new Random(190880900);
+        TreeMap<Long, Long> treeMap = new TreeMap<>();
+        for (int i = 0; i < 200000; i++) {
+            long key = random.nextLong();
+            treeMap.put(key, (long) i);
+            offHeapLongARTree.put(key, i);
+        }
+        Path path = folder.newFile().toPath();
+        offHeapLongARTree.save(path);
+
+        // The opened tree reads its nodes from its mapping of the file it replaces.
+        try (OffHeapLongARTree opened = OffHeapLongARTree.open(path)) {
+            opened.put(key1, -1);
+            treeMap.put(key1, -1L);
+            opened.save(path);
+            assertEquals(treeMap.size(), opened.size());
+            assertEquals(-1, opened.get(key1));
+        }
+
+        try (OffHeapLongARTree reopened = OffHeapLongARTree.open(path)) {
+            assertEquals(treeMap.size(), reopened.size());
+            for (Map.Entry<Long, Long> entry : treeMap.entrySet()) {
+                assertEquals((long) entry.getValue(), reopened.get(entry.getKey()));
+            }
+        }
+        try (Stream<Path> files = Files.list(path.getParent())) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void testSaveAndOpenEmpty() throws IOException {
+        Path path = folder.newFile().toPath();
+        offHeapLongARTree.save(path);
+
+        try (OffHeapLongARTree opened = OffHeapLongARTree.open(path)) {
+            assertEquals(0, opened.size());
+            assertEquals(NO_VALUE, opened.get(key1));
+            opened.put(key1, 1);
+            assertEquals(1, opened.get(key1));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testOpenNotATreeFile() throws IOException {
+        Path path = folder.newFile().toPath();
+        Files.write(path, new byte[256]);
+        OffHeapLongARTree.open(path);
+    }
+
+    @Test
+    public void testOpenInvalidChunkSize() throws IOException {
+        Path path = folder.newFile().toPath();
+        offHeapLongARTree.put(key1, 1);
+        offHeapLongARTree.save(path);
+        byte[] bytes = Files.readAllBytes(path);
+
+        // The chunk size is the int at offset 12 of the header, in native byte order.
+        for (int chunkSize : new int[] {0, -(1 << 16), 3 << 16, 64, 1024}) {
+            ByteBuffer.wrap(bytes).order(ByteOrder.nativeOrder()).putInt(12, chunkSize);
+            Files.write(path, bytes);
+            try {
+                OffHeapLongARTree.open(path).close();
+                fail("Opened with chunkSize=" + chunkSize);
+            } catch (IOException e) {
+                assertTrue(e.getMessage(), e.getMessage().startsWith("Not a tree file"));
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package dev.tingh.art;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static dev.tingh.art.ArtTestTrees.assertSameShape;
+import static org.junit.Assert.*;
+
+public class PersistentLongARTreeTest {
+
+    private static final long key1 = 779682134;            // [0, 0, 0, 0, 46, 121, 1, 86]
+    private static final long key2 = 779682135;            // [0, 0, 0, 0, 46, 121, 1, 87]
+    private static final long key7 = 779748171;            // [0, 0, 0, 0, 46, 122, 3, 75]
+    private static final long key9 = 100000000779682635L;  // [1, 99, 69, 120, 140, 3, 3, 75]
+
+    @Test
+    public void testPutGetRemove() {
+        PersistentLongARTree<String> empty = PersistentLongARTree.empty();
+        PersistentLongARTree<String> tree = empty.put(key1, "value1").put(key2, "value2").put(key7, "value7")
+                .put(key9, "value9").put(-key9, "-value9");
+
+        assertEquals(5, tree.size());
+        assertEquals("value1", tree.get(key1));
+        assertEquals("-value9", tree.get(-key9));
+        assertNull(tree.get(key2 + 1));
+        assertTrue(tree.contains(key7));
+        assertEquals(-key9, tree.firstKey());
+        assertEquals(key9, tree.lastKey());
+        assertEquals(key7, tree.ceilingKey(key2 + 1));
+        assertEquals("value2", tree.getFloor(key7 - 1));
+
+        PersistentLongARTree<String> removed = tree.remove(key2).remove(key9);
+        assertEquals(3, removed.size());
+        assertNull(removed.get(key2));
+        assertEquals(key7, removed.lastKey());
+
+        assertTrue(empty.isEmpty());
+        assertNull(empty.get(key1));
+        assertEquals(5, tree.size());
+        assertEquals("value2", tree.get(key2));
+    }
+
+    @Test
+    public void testUnchangedVersions() {
+        PersistentLongARTree<String> tree = PersistentLongARTree.<String>empty().put(key1, "value1");
+        assertSame(tree, tree.put(key1, tree.get(key1)));
+        assertSame(tree, tree.remove(key2));
+        assertSame(tree, tree.remove(key9));
+        assertNotSame(tree, tree.put(key1, "new1"));
+        assertTrue(tree.remove(key1).isEmpty());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testPutNullValue() {
+        PersistentLongARTree.empty().put(key1, null);
+    }
+
+    @Test
+    public void testSharesUnchangedNodes() {
+        PersistentLongARTree<Long> tree = PersistentLongARTree.empty();
+        for (long key = 0; key < 1000; key++) {
+            tree = tree.put(key << 16, key);
+        }
+        PersistentLongARTree<Long> next = tree.put(5L << 16 | 1, 5L);
+
+        // Only the path to the new key is copied, the sibling subtrees are the same nodes.
+        IArtNode<Long> root = tree.getRoot();
+        IArtNode<Long> nextRoot = next.getRoot();
+        assertNotSame(root, nextRoot);
+        int changedIndex = ArtNodes.nodeIndex(root, 5L << 16);
+        for (int index = 0; index < 256; index++) {
+            if (index != changedIndex) {
+                assertSame(root.getChild(index), nextRoot.getChild(index));
+            }
+        }
+    }
+
+    @Test
+    public void testSnapshotsAgainstTreeMap() {
+        Random random = new Random(190880900);
+        PersistentLongARTree<Long> tree = PersistentLongARTree.empty();
+        LongARTree<Long> mutable = new LongARTree<>();
+        TreeMap<Long, Long> treeMap = new TreeMap<>();
+
+        List<PersistentLongARTree<Long>> snapshots = new ArrayList<>();
+        List<TreeMap<Long, Long>> expectedSnapshots = new ArrayList<>();
+        for (int i = 0; i < 50000; i++) {
+            long key;
+            switch (random.nextInt(3)) {
+                case 0:
+                    key = random.nextInt(1 << 12) * 0x9E3779B97F4A7C15L;
+                    break;
+                case 1:
+                    key = random.nextInt(1 << 12) - (1 << 11);
+                    break;
+                default:
+                    key = (long) random.nextInt(16) << 40 | random.nextInt(1 << 10);
+            }
+            if (random.nextInt(3) == 0) {
+                tree = tree.remove(key);
+                treeMap.remove(key);
+                mutable.remove(key);
+            } else {
+                tree = tree.put(key, (long) i);
+                treeMap.put(key, (long) i);
+                mutable.put(key, (long) i);
+            }
+            if (i % 5000 == 0) {
+                snapshots.add(tree);
+                expectedSnapshots.add(new TreeMap<>(treeMap));
+            }
+        }
+        snapshots.add(tree);
+        expectedSnapshots.add(treeMap);
+
+        // The path copies grow, shrink and compress nodes as the mutable tree does.
+        assertSameShape(mutable.getRoot(), tree.getRoot());
+        for (int i = 0; i < snapshots.size(); i++) {
+            assertContents(expectedSnapshots.get(i), snapshots.get(i));
+        }
+
+        for (Long key : new ArrayList<>(treeMap.keySet())) {
+            tree = tree.remove(key);
+        }
+        assertTrue(tree.isEmpty());
+        assertNull(tree.getRoot());
+        assertContents(expectedSnapshots.get(snapshots.size() - 1), snapshots.get(snapshots.size() - 1));
+    }
+
+    private static void assertContents(TreeMap<Long, Long> expected, PersistentLongARTree<Long> tree) {
+        assertEquals(expected.size(), tree.size());
+        LongARTreeCursor<Long> cursor = tree.cursor();
+        boolean positioned = cursor.first();
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            assertTrue(positioned);
+            assertEquals((long) entry.getKey(), cursor.key());
+            assertEquals(entry.getValue(), cursor.value());
+            assertEquals(entry.getValue(), tree.get(entry.getKey()));
+            positioned = cursor.next();
+        }
+        assertFalse(positioned);
+    }
+}
@@ -0,0 +1,240 @@
+package dev.tingh.art;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static dev.tingh.art.ILongARTree.NO_KEY;
+import static org.junit.Assert.*;
+
+public class StripedLongARTreeTest {
+
+    private static final int THREADS = 4;
+
+    @Test
+    public void testStripes() {
+        StripedLongARTree<String> tree = new StripedLongARTree<>(4);
+        assertEquals(16, tree.getStripeCount());
+        assertEquals(0, tree.stripe(Long.MIN_VALUE));
+        assertEquals(7, tree.stripe(-1));
+        assertEquals(8, tree.stripe(0));
+        assertEquals(15, tree.stripe(Long.MAX_VALUE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManyStripeBits() {
+        new StripedLongARTree<>(17);
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        StripedLongARTree<String> tree = new StripedLongARTree<>();
+        assertNull(tree.put(1, "1"));
+        assertNull(tree.put(-1, "-1"));
+        assertNull(tree.put(Long.MAX_VALUE, "max"));
+        assertEquals("1", tree.put(1, "one"));
+
+        assertEquals(3, tree.size());
+        assertEquals("one", tree.get(1));
+        assertEquals("-1", tree.get(-1));
+        assertTrue(tree.contains(Long.MAX_VALUE));
+        assertFalse(tree.contains(2));
+
+        assertEquals("-1", tree.remove(-1));
+        assertNull(tree.remove(-1));
+        assertEquals(2, tree.size());
+
+        tree.clear();
+        assertEquals(0, tree.size());
+        assertNull(tree.get(1));
+    }
+
+    @Test
+    public void testNavigationAcrossStripes() {
+        // Keys in stripes 1 and 14 only, everything between is empty.
+        StripedLongARTree<String> tree = new StripedLongARTree<>(4);
+        long low = 0x9000000000000005L;
+        long high = 0x6000000000000005L;
+        tree.put(low, "low");
+        tree.put(high, "high");
+
+        assertEquals(low, tree.firstKey());
+        assertEquals(high, tree.lastKey());
+        assertEquals(high, tree.ceilingKey(low + 1));
+        assertEquals(high, tree.higherKey(low));
+        assertEquals(low, tree.floorKey(high - 1));
+        assertEquals(low, tree.lowerKey(high));
+        assertEquals("high", tree.getCeiling(0));
+        assertEquals("low", tree.getFloor(0));
+        assertNull(tree.getCeiling(high + 1));
+        assertNull(tree.getFloor(low - 1));
+        assertEquals(NO_KEY, tree.higherKey(high));
+
+        LongARTreeEntry<String> entry = new LongARTreeEntry<>();
+        assertTrue(tree.ceilingEntry(-1, entry));
+        assertEquals(high, entry.getKey());
+        assertEquals("high", entry.getValue());
+        assertTrue(tree.lowerEntry(high, entry));
+        assertEquals(low, entry.getKey());
+        assertFalse(tree.lowerEntry(low, entry));
+        assertEquals(low, entry.getKey());
+    }
+
+    @Test
+    public void testMinValueKey() {
+        StripedLongARTree<String> tree = new StripedLongARTree<>(2);
+        tree.put(Long.MIN_VALUE, "min");
+        tree.put(0, "zero");
+
+        assertEquals(Long.MIN_VALUE, tree.firstKey());
+        assertEquals(0, tree.ceilingKey(Long.MIN_VALUE + 1));
+        assertEquals(Long.MIN_VALUE, tree.floorKey(-1));
+        assertEquals("min", tree.getFloor(-1));
+        LongARTreeEntry<String> entry = new LongARTreeEntry<>();
+        assertTrue(tree.firstEntry(entry));
+        assertEquals("min", entry.getValue());
+    }
+
+    @Test
+    public void testAgainstTreeMap() {
+        Random random = new Random(190880900);
+        StripedLongARTree<Long> tree = new StripedLongARTree<>(3);
+        TreeMap<Long, Long> treeMap = new TreeMap<>();
+        for (int i = 0; i < 20000; i++) {
+            long key = randomKey(random);
+            if (random.nextInt(4) == 0) {
+                assertEquals(treeMap.remove(key), tree.remove(key));
+            } else {
+                assertEquals(treeMap.put(key, (long) i), tree.put(key, (long) i));
+            }
+        }
+        assertEquals(treeMap.size(), tree.size());
+
+        LongARTreeEntry<Long> entry = new LongARTreeEntry<>();
+        for (int i = 0; i < 20000; i++) {
+            long key = randomKey(random);
+            assertEquals(treeMap.get(key), tree.get(key));
+            assertEquals(treeMap.ceilingKey(key), key(tree.ceilingKey(key), treeMap.ceilingKey(key)));
+            assertEquals(treeMap.floorKey(key), key(tree.floorKey(key), treeMap.floorKey(key)));
+            assertEquals(treeMap.higherKey(key), key(tree.higherKey(key), treeMap.higherKey(key)));
+            assertEquals(treeMap.lowerKey(key), key(tree.lowerKey(key), treeMap.lowerKey(key)));
+            assertEquals(value(treeMap.ceilingEntry(key)), tree.getCeiling(key));
+            assertEquals(value(treeMap.floorEntry(key)), tree.getFloor(key));
+
+            Map.Entry<Long, Long> expected = treeMap.floorEntry(key);
+            assertEquals(expected != null, tree.floorEntry(key, entry));
+            if (expected != null) {
+                assertEquals((long) expected.getKey(), entry.getKey());
+                assertEquals(expected.getValue(), entry.getValue());
+            }
+        }
+    }
+
+    @Test
+    public void testForEach() {
+        Random random = new Random(20201102);
+        StripedLongARTree<Long> tree = new StripedLongARTree<>(4);
+        TreeMap<Long, Long> treeMap = new TreeMap<>();
+        for (int i = 0; i < 5000; i++) {
+            long key = randomKey(random);
+            tree.put(key, key);
+            treeMap.put(key, key);
+        }
+
+        for (int i = 0; i < 200; i++) {
+            long from = randomKey(random);
+            long to = randomKey(random);
+            List<Long> scanned = new ArrayList<>();
+            int count = tree.forEach(from, to, (key, value) -> {
+                assertEquals((long) value, key);
+                scanned.add(key);
+            });
+            List<Long> expected = from < to ? new ArrayList<>(treeMap.subMap(from, to).keySet()) : List.of();
+            assertEquals(expected, scanned);
+            assertEquals(expected.size(), count);
+        }
+
+        List<Long> all = new ArrayList<>();
+        tree.forEach(Long.MIN_VALUE, Long.MAX_VALUE, (key, value) -> all.add(key));
+        assertEquals(new ArrayList<>(treeMap.headMap(Long.MAX_VALUE).keySet()), all);
+    }
+
+    @Test
+    public void testConcurrentWritersAndReaders() throws Exception {
+        StripedLongARTree<Long> tree = new StripedLongARTree<>(2);
+        // Even keys are always present, odd keys are added and removed by the writer.
+        int keys = 20000;
+        for (int i = 0; i < keys; i += 2) {
+            tree.put(spread(i), (long) i);
+        }
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            futures.add(executor.submit(() -> {
+                for (int round = 0; round < 20; round++) {
+                    for (int i = 1; i < keys; i += 2) {
+                        tree.put(spread(i), (long) i);
+                    }
+                    for (int i = 1; i < keys; i += 2) {
+                        tree.remove(spread(i));
+                    }
+                }
+                writing.set(false);
+                return null;
+            }));
+            for (int thread = 1; thread < THREADS; thread++) {
+                Random random = new Random(thread);
+                futures.add(executor.submit(() -> {
+                    while (writing.get()) {
+                        int i = random.nextInt(keys / 2) * 2;
+                        assertEquals(Long.valueOf(i), tree.get(spread(i)));
+                        // The next present key above an even key is either the odd key between or the next even key.
+                        long higher = tree.higherKey(spread(i));
+                        assertTrue(higher == spread(i + 1) || higher == spread(i + 2) || i + 2 >= keys);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(keys / 2, tree.size());
+    }
+
+    // Ascending in i, spread over all the stripes.
+    private static long spread(int i) {
+        return Long.MIN_VALUE + i * 0x000346B16C789A63L;
+    }
+
+    private static long randomKey(Random random) {
+        switch (random.nextInt(3)) {
+            case 0:
+                return random.nextLong();
+            case 1:
+                return random.nextInt(1 << 16) - (1 << 15);
+            default:
+                return (long) random.nextInt(16) << 60 | random.nextInt(1 << 10);
+        }
+    }
+
+    private static Long key(long key, Long expected) {
+        return key == NO_KEY && (expected == null || expected != NO_KEY) ? null : Long.valueOf(key);
+    }
+
+    private static Long value(Map.Entry<Long, Long> entry) {
+        return entry != null ? entry.getValue() : null;
+    }
+}
@@ -0,0 +1,88 @@
+package dev.tingh.art;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SwarTest {
+
+    private final Random random = new Random(190880900);
+
+    @Test
+    public void testLessThan() {
+        for (int i = 0; i < 100000; i++) {
+            long x = randomLanes();
+            long y = randomLanes();
+            long expected = 0;
+            for (int lane = 0; lane < 8; lane++) {
+                if (Swar.lane(x, lane) < Swar.lane(y, lane)) {
+                    expected |= 0x80L << 8 * lane;
+                }
+            }
+            assertEquals(expected, Swar.lessThan(x, y));
+        }
+    }
+
+    @Test
+    public void testFindAndRank() {
+        for (int i = 0; i < 100000; i++) {
+            int count = random.nextInt(9);
+            // Distinct ascending bytes in the lowest count lanes, garbage above them.
+            int[] bytes = random.ints(0, 256).distinct().limit(count).sorted().toArray();
+            long keys = count < 8 ? random.nextLong() << 8 * count : 0;
+            for (int lane = 0; lane < count; lane++) {
+                keys |= (long) bytes[lane] << 8 * lane;
+            }
+
+            int b = random.nextInt(256);
+            int expectedLane = -1;
+            int expectedRank = 0;
+            for (int lane = 0; lane < count; lane++) {
+                if (bytes[lane] == b) {
+                    expectedLane = lane;
+                }
+                if (bytes[lane] < b) {
+                    expectedRank++;
+                }
+            }
+            assertEquals(expectedLane, Swar.find(keys, count, b));
+            assertEquals(expectedRank, Swar.rank(keys, count, b));
+        }
+    }
+
+    @Test
+    public void testInsertAndRemove() {
+        long keys = 0x0807060504030201L;
+        assertEquals(0x07060504030201FFL, Swar.insert(keys, 0, 0xFF));
+        assertEquals(0x070605FF04030201L, Swar.insert(keys, 4, 0xFF));
+        assertEquals(0xFF07060504030201L, Swar.insert(keys, 7, 0xFF));
+
+        assertEquals(0x0008070605040302L, Swar.remove(keys, 0));
+        assertEquals(0x0008070604030201L, Swar.remove(keys, 4));
+        assertEquals(0x0007060504030201L, Swar.remove(keys, 7));
+        for (int lane = 0; lane < 8; lane++) {
+            assertEquals(keys & -1L >>> 8, Swar.remove(Swar.insert(keys, lane, 0xAB), lane));
+        }
+    }
+
+    @Test
+    public void testZeroLanes() {
+        assertEquals(0, Swar.zeroLanes(0x0101010101010101L));
+        // Only the lowest flag is exact, the borrow from the zero lane flags the 0x01 lanes above it.
+        assertEquals(23, Long.numberOfTrailingZeros(Swar.zeroLanes(0x0101010101000101L)));
+        assertEquals(0x80L << 16, Swar.zeroLanes(0x0202020202000202L));
+        assertEquals(Swar.HIGH_BITS, Swar.zeroLanes(0));
+    }
+
+    // Lanes weighted to the edge values, where borrows go wrong.
+    private long randomLanes() {
+        long lanes = 0;
+        for (int lane = 0; lane < 8; lane++) {
+            int[] edges = {0, 1, 127, 128, 129, 255, random.nextInt(256)};
+            lanes |= (long) edges[random.nextInt(edges.length)] << 8 * lane;
+        }
+        return lanes;
+    }
+}